@@ -0,0 +1,113 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/** The environment and invocation context the handler benchmarks run the handlers in. */
+public final class BenchmarkLambda {
+
+  private static final int REMAINING_TIME_MILLIS = 60_000;
+  private static final int MEMORY_LIMIT_MB = 1024;
+
+  private BenchmarkLambda() {}
+
+  public static Environment environment(Map<String, String> overrides) {
+    var variables =
+        new HashMap<>(
+            Map.of(
+                EnvironmentKeys.API_DOMAIN, "api.example.org",
+                EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH, "verified-funding",
+                EnvironmentKeys.CRISTIN_BASE_PATH, "cristin",
+                EnvironmentKeys.CRISTIN_FUNDING_SOURCES_PATH, "funding-sources",
+                EnvironmentKeys.ALLOWED_ORIGIN, "*"));
+    variables.putAll(overrides);
+    return new Environment() {
+      @Override
+      public Optional<String> readEnvOpt(String name) {
+        return Optional.ofNullable(variables.get(name));
+      }
+
+      @Override
+      public String readEnv(String name) {
+        return readEnvOpt(name).orElseThrow(() -> new IllegalStateException("Missing " + name));
+      }
+    };
+  }
+
+  public static Context context() {
+    return new Context() {
+      @Override
+      public String getAwsRequestId() {
+        return "benchmark";
+      }
+
+      @Override
+      public String getLogGroupName() {
+        return "benchmark";
+      }
+
+      @Override
+      public String getLogStreamName() {
+        return "benchmark";
+      }
+
+      @Override
+      public String getFunctionName() {
+        return "benchmark";
+      }
+
+      @Override
+      public String getFunctionVersion() {
+        return "$LATEST";
+      }
+
+      @Override
+      public String getInvokedFunctionArn() {
+        return "arn:aws:lambda:eu-west-1:000000000000:function:benchmark";
+      }
+
+      @Override
+      public CognitoIdentity getIdentity() {
+        return null;
+      }
+
+      @Override
+      public ClientContext getClientContext() {
+        return null;
+      }
+
+      @Override
+      public int getRemainingTimeInMillis() {
+        return REMAINING_TIME_MILLIS;
+      }
+
+      @Override
+      public int getMemoryLimitInMB() {
+        return MEMORY_LIMIT_MB;
+      }
+
+      @Override
+      public LambdaLogger getLogger() {
+        return new LambdaLogger() {
+          @Override
+          public void log(String message) {
+            // benchmarks do not log
+          }
+
+          @Override
+          public void log(byte[] message) {
+            log(new String(message, StandardCharsets.UTF_8));
+          }
+        };
+      }
+    };
+  }
+}
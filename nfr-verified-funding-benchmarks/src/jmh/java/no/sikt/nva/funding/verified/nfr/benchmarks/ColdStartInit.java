@@ -0,0 +1,58 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.startup.SnapStartPriming;
+
+/**
+ * Measures, in a fresh JVM, how long the first request's parse, map and serialize path takes with
+ * and without the SnapStart priming having run first. Run once per mode, since class loading and
+ * Jackson introspection only happen once per JVM: pass {@code primed} or {@code unprimed}.
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public final class ColdStartInit {
+
+  private static final int HITS = 10;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final String PRIMED = "primed";
+
+  private ColdStartInit() {}
+
+  public static void main(String[] args) throws IOException {
+    var primed = args.length > 0 && PRIMED.equals(args[0]);
+    var responseBody = SearchResponses.searchResponse(HITS);
+
+    var primingStarted = System.nanoTime();
+    if (primed) {
+      SnapStartPriming.prime();
+    }
+    var primingNanos = System.nanoTime() - primingStarted;
+
+    var requestStarted = System.nanoTime();
+    var body = firstRequest(responseBody);
+    var requestNanos = System.nanoTime() - requestStarted;
+
+    System.out.printf(
+        Locale.ROOT,
+        "%-8s priming before checkpoint %8.1f ms, first request %8.1f ms (%d bytes)%n",
+        primed ? PRIMED : "unprimed",
+        primingNanos / NANOS_PER_MILLI,
+        requestNanos / NANOS_PER_MILLI,
+        body.length());
+  }
+
+  private static String firstRequest(byte[] responseBody) throws IOException {
+    var searchResult = NfrFundingSearchResultReader.read(new ByteArrayInputStream(responseBody));
+    var mapper = new FundingMapper("api.example.org", "funding", "cristin", "sources");
+    var hits = mapper.mapAll(searchResult.getHits());
+    var baseUri = mapper.getSearchId();
+    return dtoObjectMapper.writeValueAsString(
+        new PagedSearchResult<>(baseUri, baseUri, 0, HITS, searchResult.getTotalHits(), hits));
+  }
+}
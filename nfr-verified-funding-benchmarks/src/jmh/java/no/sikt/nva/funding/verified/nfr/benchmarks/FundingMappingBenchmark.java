@@ -0,0 +1,95 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static nva.commons.core.paths.UriWrapper.HTTPS;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import nva.commons.core.paths.UriWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares mapping a page of hits with the shared {@link FundingMapper} against the per-hit {@code
+ * NfrFunding.asFunding} it replaced, which built both URIs through {@link UriWrapper} and the
+ * labels in a {@link ConcurrentHashMap} for every hit. Run with the gc profiler to compare the
+ * bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FundingMappingBenchmark {
+
+  private static final String API_DOMAIN = "api.test.nva.aws.unit.no";
+  private static final String BASE_PATH = "verified-funding";
+  private static final String CRISTIN_BASE_PATH = "cristin";
+  private static final String CRISTIN_FUNDING_SOURCES_PATH = "funding-sources";
+  private static final String TITLE = "title";
+
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private List<NfrFunding> hits;
+  private FundingMapper mapper;
+
+  @Setup
+  public void setup() throws IOException {
+    hits =
+        NfrFundingSearchResultReader.read(
+                new ByteArrayInputStream(SearchResponses.searchResponse(pageSize)))
+            .getHits();
+    mapper =
+        new FundingMapper(API_DOMAIN, BASE_PATH, CRISTIN_BASE_PATH, CRISTIN_FUNDING_SOURCES_PATH);
+  }
+
+  @Benchmark
+  public List<Funding> asFunding() {
+    var fundings = new ArrayList<Funding>(hits.size());
+    for (var hit : hits) {
+      fundings.add(asFunding(hit));
+    }
+    return fundings;
+  }
+
+  @Benchmark
+  public List<Funding> fundingMapper() {
+    return mapper.mapAll(hits);
+  }
+
+  private static Funding asFunding(NfrFunding funding) {
+    var identifier = Integer.toString(funding.getProjectId());
+    var id = new UriWrapper(HTTPS, API_DOMAIN).addChild(BASE_PATH, "nfr", identifier).getUri();
+    var labels = new ConcurrentHashMap<String, String>();
+    if (funding.getEnglishMetadata().containsKey(TITLE)) {
+      labels.put(Funding.LANGUAGE_EN, funding.getEnglishMetadata().get(TITLE));
+    }
+    if (funding.getNorwegianMetadata().containsKey(TITLE)) {
+      labels.put(Funding.LANGUAGE_NB, funding.getNorwegianMetadata().get(TITLE));
+    }
+    var source =
+        new UriWrapper(HTTPS, API_DOMAIN)
+            .addChild(CRISTIN_BASE_PATH, CRISTIN_FUNDING_SOURCES_PATH, "NFR")
+            .getUri();
+    return new Funding(
+        source,
+        id,
+        Integer.toString(funding.getProjectId()),
+        labels,
+        funding.getLeadName(),
+        funding.getActiveFrom(),
+        funding.getActiveTo());
+  }
+}
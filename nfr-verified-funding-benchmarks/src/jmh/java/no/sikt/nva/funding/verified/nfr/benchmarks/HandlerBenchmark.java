@@ -0,0 +1,100 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.handlers.BenchmarkHandlers;
+import no.sikt.nva.funding.verified.nfr.handlers.FetchNfrFundingByIdentifierHandler;
+import no.sikt.nva.funding.verified.nfr.handlers.QueryNfrFundingsHandler;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runs whole API Gateway requests through both handlers, from reading the event to writing the
+ * response, against an in-memory ProjectBank. The identifier cache holds a single entry and the
+ * requested identifiers rotate through the catalog, so every lookup maps a freshly fetched funding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HandlerBenchmark {
+
+  private static final int CATALOG_SIZE = 1000;
+
+  @Param({"10", "100"})
+  public int pageSize;
+
+  private FetchNfrFundingByIdentifierHandler fetchHandler;
+  private QueryNfrFundingsHandler queryHandler;
+  private Context context;
+  private byte[][] fetchRequests;
+  private byte[] queryRequest;
+  private int nextFetch;
+  private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+  @Setup
+  public void setup() throws IOException {
+    var catalog =
+        NfrFundingSearchResultReader.read(
+                new ByteArrayInputStream(SearchResponses.searchResponse(CATALOG_SIZE)))
+            .getHits();
+    var apiClient = new InMemoryNfrApiClient(catalog);
+    var environment =
+        BenchmarkLambda.environment(Map.of(EnvironmentKeys.IDENTIFIER_CACHE_MAX_ENTRIES, "1"));
+    fetchHandler = new FetchNfrFundingByIdentifierHandler(environment, apiClient);
+    queryHandler =
+        BenchmarkHandlers.queryHandler(environment, apiClient, Metrics.toStandardOutput());
+    context = BenchmarkLambda.context();
+    fetchRequests = fetchRequests(catalog);
+    queryRequest =
+        request(
+            Map.of(
+                "queryStringParameters",
+                Map.of("term", "climate", "offset", "0", "size", Integer.toString(pageSize))));
+  }
+
+  @Benchmark
+  public byte[] fetchByIdentifier() throws IOException {
+    var request = fetchRequests[nextFetch];
+    nextFetch = (nextFetch + 1) % fetchRequests.length;
+    response.reset();
+    fetchHandler.handleRequest(new ByteArrayInputStream(request), response, context);
+    return response.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] queryByTerm() throws IOException {
+    response.reset();
+    queryHandler.handleRequest(new ByteArrayInputStream(queryRequest), response, context);
+    return response.toByteArray();
+  }
+
+  private static byte[][] fetchRequests(List<NfrFunding> catalog) throws IOException {
+    var requests = new byte[catalog.size()][];
+    for (int index = 0; index < requests.length; index++) {
+      var identifier = Integer.toString(catalog.get(index).getProjectId());
+      requests[index] = request(Map.of("pathParameters", Map.of("identifier", identifier)));
+    }
+    return requests;
+  }
+
+  private static byte[] request(Map<String, Object> parameters) throws IOException {
+    return dtoObjectMapper.writeValueAsBytes(parameters);
+  }
+}
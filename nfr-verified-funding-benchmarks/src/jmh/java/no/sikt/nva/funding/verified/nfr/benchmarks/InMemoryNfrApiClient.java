@@ -0,0 +1,96 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import no.sikt.nva.funding.verified.nfr.client.MaybeStale;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.ResponseReader;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+
+/**
+ * Stands in for ProjectBank without any network: a project id query answers with that project, and
+ * any other query with a page of the whole catalog. Queries with a reader of their own read the
+ * page as ProjectBank would have sent it, serialized once per page.
+ */
+public class InMemoryNfrApiClient implements NfrFundingSource {
+
+  private final List<NfrFunding> catalog;
+  private final Map<String, NfrFunding> byProjectId;
+  private final Map<List<Integer>, byte[]> responses = new ConcurrentHashMap<>();
+  private final Metrics metrics = new Metrics();
+
+  public InMemoryNfrApiClient(List<NfrFunding> catalog) {
+    this.catalog = catalog;
+    this.byProjectId = new HashMap<>();
+    for (var funding : catalog) {
+      byProjectId.put(Integer.toString(funding.getProjectId()), funding);
+    }
+  }
+
+  @Override
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public NfrFundingSearchResult query(String query, int offset, int size) {
+    return query(query, offset, size, NfrApiClient.DEFAULT_REQUEST_TIMEOUT);
+  }
+
+  @Override
+  public NfrFundingSearchResult query(String query, int offset, int size, Duration timeout) {
+    var project = byProjectId.get(query);
+    if (project != null) {
+      return new NfrFundingSearchResult(1, 0, size, List.of(project));
+    }
+    var from = Math.min(offset, catalog.size());
+    var to = Math.min(offset + size, catalog.size());
+    return new NfrFundingSearchResult(catalog.size(), offset, size, catalog.subList(from, to));
+  }
+
+  @Override
+  public MaybeStale<NfrFundingSearchResult> queryAllowingStale(
+      String query, int offset, int size, Duration timeout) {
+    return MaybeStale.fresh(query(query, offset, size, timeout));
+  }
+
+  @Override
+  public CompletableFuture<NfrFundingSearchResult> queryAsync(
+      String query, int offset, int size, Duration timeout) {
+    return CompletableFuture.completedFuture(query(query, offset, size, timeout));
+  }
+
+  @Override
+  public <T> T query(
+      String query, int offset, int size, Duration timeout, ResponseReader<T> reader) {
+    var response =
+        responses.computeIfAbsent(
+            List.of(offset, size), page -> serialize(query(query, offset, size, timeout)));
+    try {
+      return reader.read(new ByteArrayInputStream(response));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] serialize(NfrFundingSearchResult searchResult) {
+    try {
+      return dtoObjectMapper.writeValueAsBytes(searchResult);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import java.util.Random;
+
+/**
+ * A log-normal response time distribution given by its median and 99th percentile, the long tail
+ * that the latency of a remote API usually has. A distribution whose percentiles are equal is a
+ * fixed delay.
+ */
+public record LatencyDistribution(double medianMillis, double p99Millis) {
+
+  private static final double Z_99 = 2.326_348;
+
+  public LatencyDistribution {
+    if (medianMillis < 0 || p99Millis < medianMillis) {
+      throw new IllegalArgumentException(
+          "Expected 0 <= median <= p99, got " + medianMillis + " and " + p99Millis);
+    }
+  }
+
+  public long sampleMillis(Random random) {
+    var sigma = medianMillis == 0 ? 0 : Math.log(p99Millis / medianMillis) / Z_99;
+    return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+  }
+}
@@ -0,0 +1,279 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.CachingNfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.CircuitBreaker;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.RequestHedging;
+import no.sikt.nva.funding.verified.nfr.client.RetryPolicy;
+import no.sikt.nva.funding.verified.nfr.client.SharedHttpClient;
+import no.sikt.nva.funding.verified.nfr.handlers.BenchmarkHandlers;
+import no.sikt.nva.funding.verified.nfr.handlers.FetchNfrFundingByIdentifierHandler;
+import no.sikt.nva.funding.verified.nfr.handlers.NfrFundingLookup;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import nva.commons.core.Environment;
+
+/**
+ * Drives both handlers at a target rate of requests against a {@link ProjectBankStandIn}, and
+ * prints the throughput, the p50, p95 and p99 latency of each handler and how many calls reached
+ * the stand-in. Requests are sent on a fixed schedule whether or not earlier ones have been
+ * answered, and their latency is counted from when they were due, so that a slow upstream shows as
+ * queueing instead of as a lower request rate.
+ *
+ * <p>Each worker thread plays a warm Lambda container with handlers, caches and circuit breaker of
+ * its own; the containers share one HttpClient. Lookups draw identifiers skewed towards the start
+ * of the catalog, so that some identifiers are hot as in production, and term queries draw a word
+ * of the stand-in's vocabulary and one of the first two pages.
+ *
+ * <p>Arguments are {@code name=value} pairs. Lower case names configure the run, see {@link
+ * Options}; upper case names are environment variables of the handlers, for example {@code
+ * RETRY_MAX_ATTEMPTS=1} or {@code PAGE_CACHE_MAX_ENTRIES=0}.
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.CouplingBetweenObjects"})
+public final class LoadTest {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final int PAGE_SIZE = 10;
+  private static final int IDENTIFIER_SKEW = 3;
+  private static final int ERROR_STATUS = 500;
+  private static final String FETCH = "fetch by identifier";
+  private static final String QUERY = "query by term";
+
+  private final Options options;
+  private final Environment environment;
+  private final ProjectBankStandIn standIn;
+  private final HttpClient httpClient;
+  private final ThreadLocal<Container> containers;
+  private final Map<String, Queue<Outcome>> outcomes =
+      Map.of(FETCH, new ConcurrentLinkedQueue<>(), QUERY, new ConcurrentLinkedQueue<>());
+
+  private LoadTest(Options options, Environment environment, ProjectBankStandIn standIn) {
+    this.options = options;
+    this.environment = environment;
+    this.standIn = standIn;
+    this.httpClient =
+        SharedHttpClient.create(environment, SharedHttpClient.newExecutor(environment));
+    this.containers = ThreadLocal.withInitial(this::newContainer);
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var options = new Options(args);
+    var environment = BenchmarkLambda.environment(options.environment);
+    try (var standIn =
+        ProjectBankStandIn.start(
+            options.catalogSize,
+            new LatencyDistribution(options.latencyMedianMillis, options.latencyP99Millis),
+            options.errorRate)) {
+      var loadTest = new LoadTest(options, environment, standIn);
+      var elapsedNanos = loadTest.run();
+      loadTest.report(elapsedNanos);
+    }
+  }
+
+  private long run() throws InterruptedException {
+    var workers = Executors.newFixedThreadPool(options.containers);
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    var started = System.nanoTime();
+    scheduler.scheduleAtFixedRate(
+        () -> submitNext(workers), 0, NANOS_PER_SECOND / options.rps, TimeUnit.NANOSECONDS);
+    TimeUnit.SECONDS.sleep(options.seconds);
+    scheduler.shutdownNow();
+    drain(workers);
+    return System.nanoTime() - started;
+  }
+
+  private void submitNext(ExecutorService workers) {
+    var due = System.nanoTime();
+    var random = ThreadLocalRandom.current();
+    if (random.nextDouble() < options.fetchShare) {
+      var index = (int) (options.catalogSize * Math.pow(random.nextDouble(), IDENTIFIER_SKEW));
+      var identifier = Integer.toString(ProjectBankStandIn.FIRST_PROJECT_ID + index);
+      var request = request(Map.of("pathParameters", Map.of("identifier", identifier)));
+      workers.execute(() -> answer(FETCH, due, request, containers.get().fetchHandler()));
+    } else {
+      var vocabulary = ProjectBankStandIn.VOCABULARY;
+      var term = vocabulary.get(random.nextInt(vocabulary.size()));
+      var offset = Integer.toString(random.nextInt(2) * PAGE_SIZE);
+      var parameters = Map.of("term", term, "offset", offset, "size", Integer.toString(PAGE_SIZE));
+      var request = request(Map.of("queryStringParameters", parameters));
+      workers.execute(() -> answer(QUERY, due, request, containers.get().queryHandler()));
+    }
+  }
+
+  private void answer(String endpoint, long due, byte[] request, Handler handler) {
+    var response = new ByteArrayOutputStream();
+    int status;
+    try {
+      handler.handleRequest(new ByteArrayInputStream(request), response, BenchmarkLambda.context());
+      status = dtoObjectMapper.readTree(response.toByteArray()).path("statusCode").asInt();
+    } catch (IOException | RuntimeException e) {
+      status = ERROR_STATUS;
+    }
+    outcomes.get(endpoint).add(new Outcome(System.nanoTime() - due, status));
+  }
+
+  private static void drain(ExecutorService workers) throws InterruptedException {
+    workers.shutdown();
+    if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+      workers.shutdownNow();
+    }
+  }
+
+  private Container newContainer() {
+    var apiClient =
+        new NfrApiClient(
+            () -> httpClient,
+            standIn.baseUri(),
+            RequestHedging.fromEnvironment(environment),
+            CircuitBreaker.fromEnvironment(environment),
+            RetryPolicy.fromEnvironment(environment));
+    var lookup =
+        new NfrFundingLookup(apiClient, NfrFundingLookup.newIdentifierCache(environment));
+    var fetchHandler = new FetchNfrFundingByIdentifierHandler(environment, lookup, new Metrics());
+    var queryHandler =
+        BenchmarkHandlers.queryHandler(
+            environment,
+            CachingNfrApiClient.fromEnvironment(environment, apiClient),
+            new Metrics());
+    return new Container(fetchHandler::handleRequest, queryHandler::handleRequest);
+  }
+
+  private void report(long elapsedNanos) {
+    var seconds = elapsedNanos / (double) NANOS_PER_SECOND;
+    var requests = 0;
+    System.out.printf(
+        Locale.ROOT,
+        "%d containers, %d requests/s for %d s against a catalog of %d projects%n",
+        options.containers,
+        options.rps,
+        options.seconds,
+        standIn.catalogSize());
+    for (var endpoint : List.of(FETCH, QUERY)) {
+      var endpointOutcomes = List.copyOf(outcomes.get(endpoint));
+      requests += endpointOutcomes.size();
+      reportEndpoint(endpoint, endpointOutcomes, seconds);
+    }
+    System.out.printf(
+        Locale.ROOT,
+        "upstream: %d calls, %d failed, %.2f calls per request%n",
+        standIn.calls(),
+        standIn.failedCalls(),
+        requests == 0 ? 0.0 : standIn.calls() / (double) requests);
+  }
+
+  private static void reportEndpoint(String endpoint, List<Outcome> outcomes, double seconds) {
+    var latencies = outcomes.stream().mapToLong(Outcome::nanos).sorted().toArray();
+    var statuses = new TreeMap<Integer, Integer>();
+    for (var outcome : outcomes) {
+      statuses.merge(outcome.status(), 1, Integer::sum);
+    }
+    System.out.printf(
+        Locale.ROOT,
+        "%-20s %7.1f req/s  p50 %8.1f ms  p95 %8.1f ms  p99 %8.1f ms  statuses %s%n",
+        endpoint,
+        outcomes.size() / seconds,
+        percentileMillis(latencies, 0.50),
+        percentileMillis(latencies, 0.95),
+        percentileMillis(latencies, 0.99),
+        statuses);
+  }
+
+  private static double percentileMillis(long[] sortedNanos, double percentile) {
+    if (sortedNanos.length == 0) {
+      return 0.0;
+    }
+    var index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+    return sortedNanos[Math.max(index, 0)] / NANOS_PER_MILLI;
+  }
+
+  private static byte[] request(Map<String, Object> parameters) {
+    try {
+      return dtoObjectMapper.writeValueAsBytes(parameters);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Handler {
+    void handleRequest(ByteArrayInputStream input, ByteArrayOutputStream output, Context context)
+        throws IOException;
+  }
+
+  private record Container(Handler fetchHandler, Handler queryHandler) {}
+
+  private record Outcome(long nanos, int status) {}
+
+  /** The run as configured by the lower case arguments, with their defaults. */
+  private static final class Options {
+
+    private final Map<String, String> environment = new HashMap<>();
+    private final int rps;
+    private final int seconds;
+    private final int containers;
+    private final int catalogSize;
+    private final double latencyMedianMillis;
+    private final double latencyP99Millis;
+    private final double errorRate;
+    private final double fetchShare;
+
+    private Options(String... args) {
+      var run = new HashMap<String, String>();
+      for (var arg : args) {
+        var separator = arg.indexOf('=');
+        if (separator <= 0) {
+          throw new IllegalArgumentException("Expected name=value, got " + arg);
+        }
+        var name = arg.substring(0, separator);
+        var value = arg.substring(separator + 1);
+        if (name.equals(name.toUpperCase(Locale.ROOT))) {
+          environment.put(name, value);
+        } else {
+          run.put(name, value);
+        }
+      }
+      rps = Integer.parseInt(run.getOrDefault("rps", "50"));
+      seconds = Integer.parseInt(run.getOrDefault("seconds", "30"));
+      containers = Integer.parseInt(run.getOrDefault("containers", "8"));
+      catalogSize = Integer.parseInt(run.getOrDefault("catalogSize", "5000"));
+      latencyMedianMillis = Double.parseDouble(run.getOrDefault("latencyMedianMillis", "80"));
+      latencyP99Millis = Double.parseDouble(run.getOrDefault("latencyP99Millis", "800"));
+      errorRate = Double.parseDouble(run.getOrDefault("errorRate", "0.02"));
+      fetchShare = Double.parseDouble(run.getOrDefault("fetchShare", "0.5"));
+      var unknown = new HashMap<>(run);
+      Arrays.asList(
+              "rps",
+              "seconds",
+              "containers",
+              "catalogSize",
+              "latencyMedianMillis",
+              "latencyP99Millis",
+              "errorRate",
+              "fetchShare")
+          .forEach(unknown::remove);
+      if (!unknown.isEmpty()) {
+        throw new IllegalArgumentException("Unknown options " + unknown.keySet());
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.ProjectIdIndex;
+
+/**
+ * Measures the heap retained by the project id lookup structure of a loaded snapshot, comparing a
+ * HashMap from boxed project ids to fundings with the ProjectIdIndex into the array of fundings
+ * that the snapshot uses. The fundings themselves are shared and not counted.
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.DoNotCallGarbageCollectionExplicitly"})
+public final class LookupIndexFootprint {
+
+  private static final int CATALOG_SIZE = 50_000;
+  private static final int FIRST_PROJECT_ID = 300_000;
+  private static final int GC_ROUNDS = 3;
+
+  private LookupIndexFootprint() {}
+
+  public static void main(String[] args) {
+    var fundings = fundings();
+    report("HashMap<Integer, NfrFunding>", measureHashMap(fundings));
+    report("ProjectIdIndex + NfrFunding[]", measureProjectIdIndex(fundings));
+  }
+
+  private static long measureHashMap(NfrFunding... fundings) {
+    var baseline = usedHeapAfterGc();
+    var byProjectId = new HashMap<Integer, NfrFunding>();
+    for (var funding : fundings) {
+      byProjectId.put(funding.getProjectId(), funding);
+    }
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, byProjectId.size());
+  }
+
+  private static long measureProjectIdIndex(NfrFunding... fundings) {
+    var baseline = usedHeapAfterGc();
+    var records = new NfrFunding[fundings.length];
+    var index = new ProjectIdIndex(fundings.length);
+    for (int offset = 0; offset < fundings.length; offset++) {
+      records[offset] = fundings[offset];
+      index.put(fundings[offset].getProjectId(), offset);
+    }
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, index.size() + records.length - CATALOG_SIZE);
+  }
+
+  private static long keepAlive(long retained, int size) {
+    return size == CATALOG_SIZE ? retained : -1;
+  }
+
+  private static NfrFunding[] fundings() {
+    var fundings = new NfrFunding[CATALOG_SIZE];
+    for (int index = 0; index < CATALOG_SIZE; index++) {
+      fundings[index] =
+          new NfrFunding(
+              FIRST_PROJECT_ID + index * 7,
+              Instant.EPOCH,
+              Instant.EPOCH,
+              "Lead Name",
+              Map.of("title", "Title"),
+              Map.of("title", "Tittel"));
+    }
+    return fundings;
+  }
+
+  private static long usedHeapAfterGc() {
+    var runtime = Runtime.getRuntime();
+    for (int round = 0; round < GC_ROUNDS; round++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static void report(String structure, long retainedBytes) {
+    System.out.printf(
+        Locale.ROOT,
+        "%-32s %,12d bytes for %d project ids (%,d bytes per project id)%n",
+        structure,
+        retainedBytes,
+        CATALOG_SIZE,
+        retainedBytes / CATALOG_SIZE);
+  }
+}
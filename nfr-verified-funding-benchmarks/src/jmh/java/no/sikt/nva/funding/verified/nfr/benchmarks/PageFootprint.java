@@ -0,0 +1,84 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import no.sikt.nva.funding.verified.nfr.client.FundingPageTranscoder;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+
+/**
+ * Measures the heap that is live once a page of hits is ready to be serialized, which is the peak
+ * of a term query before the response is written. The mapped path holds the ProjectBank hits and
+ * the fundings mapped from them, the transcoded path only the JSON of each funding. Both paths are
+ * run once before they are measured, so that class loading is not counted.
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.DoNotCallGarbageCollectionExplicitly"})
+public final class PageFootprint {
+
+  private static final int HITS = 5000;
+  private static final int GC_ROUNDS = 3;
+  private static final URI CONTEXT =
+      URI.create("https://bibsysdev.github.io/src/funding-context.json");
+  private static final FundingMapper MAPPER =
+      new FundingMapper(
+          "api.test.nva.aws.unit.no", "verified-funding", "cristin", "funding-sources");
+
+  private PageFootprint() {}
+
+  public static void main(String[] args) throws IOException {
+    var responseBody = SearchResponses.searchResponse(HITS);
+    measureMapped(responseBody);
+    measureTranscoded(responseBody);
+    report("parsed hits + mapped fundings", measureMapped(responseBody));
+    report("transcoded funding JSON", measureTranscoded(responseBody));
+  }
+
+  private static long measureMapped(byte[] responseBody) throws IOException {
+    var baseline = usedHeapAfterGc();
+    var searchResult = NfrFundingSearchResultReader.read(new ByteArrayInputStream(responseBody));
+    var page =
+        new PagedSearchResult<>(
+            CONTEXT,
+            MAPPER.getSearchId(),
+            0,
+            HITS,
+            searchResult.getTotalHits(),
+            MAPPER.mapAll(searchResult.getHits()));
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, page, searchResult.getHits().size());
+  }
+
+  private static long measureTranscoded(byte[] responseBody) throws IOException {
+    var baseline = usedHeapAfterGc();
+    var page =
+        new FundingPageTranscoder(CONTEXT, MAPPER)
+            .transcode(new ByteArrayInputStream(responseBody), 0, HITS);
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, page, HITS);
+  }
+
+  private static long keepAlive(long retained, PagedSearchResult<?> page, int hits) {
+    return page.getHits().size() == hits ? retained : -1;
+  }
+
+  private static long usedHeapAfterGc() {
+    var runtime = Runtime.getRuntime();
+    for (int round = 0; round < GC_ROUNDS; round++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static void report(String path, long retainedBytes) {
+    System.out.printf(
+        Locale.ROOT,
+        "%-32s %,12d bytes live before serializing %d hits (%,d bytes per hit)%n",
+        path,
+        retainedBytes,
+        HITS,
+        retainedBytes / HITS);
+  }
+}
@@ -0,0 +1,69 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.FundingPageTranscoder;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Turns a ProjectBank search response into the response body of a term query, either by reading the
+ * whole page, mapping every hit and serializing the mapped page, or with the {@link
+ * FundingPageTranscoder}. Run with the gc profiler to compare the bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageTranscodingBenchmark {
+
+  private static final URI CONTEXT =
+      URI.create("https://bibsysdev.github.io/src/funding-context.json");
+
+  @Param({"100", "1000"})
+  public int pageSize;
+
+  private byte[] searchResponse;
+  private FundingMapper mapper;
+  private FundingPageTranscoder transcoder;
+
+  @Setup
+  public void setup() {
+    searchResponse = SearchResponses.searchResponse(pageSize);
+    mapper =
+        new FundingMapper(
+            "api.test.nva.aws.unit.no", "verified-funding", "cristin", "funding-sources");
+    transcoder = new FundingPageTranscoder(CONTEXT, mapper);
+  }
+
+  @Benchmark
+  public String mapped() throws IOException {
+    var searchResult = NfrFundingSearchResultReader.read(new ByteArrayInputStream(searchResponse));
+    return dtoObjectMapper.writeValueAsString(
+        new PagedSearchResult<>(
+            CONTEXT,
+            mapper.getSearchId(),
+            0,
+            pageSize,
+            searchResult.getTotalHits(),
+            mapper.mapAll(searchResult.getHits())));
+  }
+
+  @Benchmark
+  public String transcoded() throws IOException {
+    return dtoObjectMapper.writeValueAsString(
+        transcoder.transcode(new ByteArrayInputStream(searchResponse), 0, pageSize));
+  }
+}
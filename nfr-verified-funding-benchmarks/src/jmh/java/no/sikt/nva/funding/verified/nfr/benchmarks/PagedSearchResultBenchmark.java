@@ -0,0 +1,68 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures building a page of search results, which calculates its own, next and previous links.
+ * The first page has no previous link, a middle page has both and the last page has no next link.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PagedSearchResultBenchmark {
+
+  private static final URI CONTEXT =
+      URI.create("https://bibsysdev.github.io/src/funding-context.json");
+  private static final int PAGES = 10;
+
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private URI searchId;
+  private List<Funding> hits;
+  private int totalSize;
+
+  @Setup
+  public void setup() throws IOException {
+    var searchResult =
+        NfrFundingSearchResultReader.read(
+            new ByteArrayInputStream(SearchResponses.searchResponse(pageSize)));
+    var mapper = new FundingMapper("api.example.org", "verified-funding", "cristin", "sources");
+    searchId = mapper.getSearchId();
+    hits = mapper.mapAll(searchResult.getHits());
+    totalSize = pageSize * PAGES;
+  }
+
+  @Benchmark
+  public PagedSearchResult<Funding> firstPage() {
+    return new PagedSearchResult<>(CONTEXT, searchId, 0, pageSize, totalSize, hits);
+  }
+
+  @Benchmark
+  public PagedSearchResult<Funding> middlePage() {
+    return new PagedSearchResult<>(
+        CONTEXT, searchId, pageSize * PAGES / 2, pageSize, totalSize, hits);
+  }
+
+  @Benchmark
+  public PagedSearchResult<Funding> lastPage() {
+    return new PagedSearchResult<>(
+        CONTEXT, searchId, totalSize - pageSize, pageSize, totalSize, hits);
+  }
+}
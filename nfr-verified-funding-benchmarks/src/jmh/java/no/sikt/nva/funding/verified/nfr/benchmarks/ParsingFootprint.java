@@ -0,0 +1,67 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+
+/**
+ * Measures the heap that is live at the moment a response has been parsed, which is the peak of a
+ * request's parsing phase. The buffered path still holds the response body as a String next to the
+ * parsed object graph, the streaming path only holds the graph.
+ */
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.DoNotCallGarbageCollectionExplicitly"})
+public final class ParsingFootprint {
+
+  private static final int HITS = 5000;
+  private static final int GC_ROUNDS = 3;
+
+  private ParsingFootprint() {}
+
+  public static void main(String[] args) throws IOException {
+    var responseBody = SearchResponses.searchResponse(HITS);
+    report("buffered String + data binding", measureBuffered(responseBody));
+    report("streaming reader", measureStreaming(responseBody));
+  }
+
+  private static long measureBuffered(byte[] responseBody) throws IOException {
+    var baseline = usedHeapAfterGc();
+    var body = new String(responseBody, StandardCharsets.UTF_8);
+    var result = dtoObjectMapper.readValue(body, NfrFundingSearchResult.class);
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, result, body);
+  }
+
+  private static long measureStreaming(byte[] responseBody) throws IOException {
+    var baseline = usedHeapAfterGc();
+    var result = NfrFundingSearchResultReader.read(new ByteArrayInputStream(responseBody));
+    var retained = usedHeapAfterGc() - baseline;
+    return keepAlive(retained, result, "");
+  }
+
+  private static long keepAlive(long retained, NfrFundingSearchResult result, String body) {
+    return result.getHits().size() == HITS || body.isEmpty() ? retained : -1;
+  }
+
+  private static long usedHeapAfterGc() {
+    var runtime = Runtime.getRuntime();
+    for (int round = 0; round < GC_ROUNDS; round++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static void report(String path, long retainedBytes) {
+    System.out.printf(
+        Locale.ROOT,
+        "%-32s %,12d bytes live after parsing %d hits (%,d bytes per hit)%n",
+        path,
+        retainedBytes,
+        HITS,
+        retainedBytes / HITS);
+  }
+}
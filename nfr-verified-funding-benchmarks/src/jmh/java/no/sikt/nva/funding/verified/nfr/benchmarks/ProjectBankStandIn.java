@@ -0,0 +1,204 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP server answering ProjectBank's {@code /search} endpoint from a generated catalog.
+ * Every response is delayed by a sample of the latency distribution, and a share of the calls fail
+ * with 503 Service Unavailable after that delay. It counts the calls it answers.
+ *
+ * <p>The titles of the catalog are made of words from {@link #VOCABULARY}, so a query for one of
+ * them matches a share of the catalog, while a query for a project id matches that project only.
+ */
+public final class ProjectBankStandIn implements AutoCloseable {
+
+  public static final int FIRST_PROJECT_ID = 100_000;
+  public static final List<String> VOCABULARY =
+      List.of(
+          "climate", "ocean", "energy", "health", "arctic", "salmon", "hydrogen", "forest",
+          "digital", "welfare", "education", "migration", "battery", "wind", "soil", "vaccine",
+          "language", "democracy", "robotics", "aquaculture");
+  private static final int WORDS_PER_TITLE = 3;
+  private static final int SERVICE_UNAVAILABLE = 503;
+  private static final int OK = 200;
+  private static final int BACKLOG = 1024;
+  private static final long SEED = 42;
+
+  private final List<Map<String, Object>> catalog;
+  private final Map<String, List<Map<String, Object>>> hitsByWord;
+  private final LatencyDistribution latency;
+  private final double errorRate;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong failedCalls = new AtomicLong();
+
+  private ProjectBankStandIn(int catalogSize, LatencyDistribution latency, double errorRate)
+      throws IOException {
+    this.catalog = generateCatalog(catalogSize);
+    this.hitsByWord = indexByWord(catalog);
+    this.latency = latency;
+    this.errorRate = errorRate;
+    this.executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              var thread = new Thread(runnable, "projectbank-stand-in");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.server =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BACKLOG);
+    server.createContext("/search", this::search);
+    server.setExecutor(executor);
+  }
+
+  /** Starts a stand-in on a free local port with a catalog of {@code catalogSize} projects. */
+  public static ProjectBankStandIn start(
+      int catalogSize, LatencyDistribution latency, double errorRate) throws IOException {
+    var standIn = new ProjectBankStandIn(catalogSize, latency, errorRate);
+    standIn.server.start();
+    return standIn;
+  }
+
+  public URI baseUri() {
+    var address = server.getAddress();
+    return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+  }
+
+  public int catalogSize() {
+    return catalog.size();
+  }
+
+  public long calls() {
+    return calls.get();
+  }
+
+  public long failedCalls() {
+    return failedCalls.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void search(HttpExchange exchange) throws IOException {
+    calls.incrementAndGet();
+    var random = ThreadLocalRandom.current();
+    try {
+      Thread.sleep(latency.sampleMillis(random));
+      if (random.nextDouble() < errorRate) {
+        failedCalls.incrementAndGet();
+        exchange.sendResponseHeaders(SERVICE_UNAVAILABLE, -1);
+      } else {
+        var body = page(parameters(exchange.getRequestURI()));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(OK, body.length);
+        exchange.getResponseBody().write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private byte[] page(Map<String, String> parameters) {
+    var matches = matches(parameters.getOrDefault("query", ""));
+    var from = Math.min(Integer.parseInt(parameters.getOrDefault("from", "0")), matches.size());
+    var size = Integer.parseInt(parameters.getOrDefault("size", "10"));
+    return SearchResponses.searchResponse(
+        matches.size(), from, matches.subList(from, Math.min(from + size, matches.size())));
+  }
+
+  private List<Map<String, Object>> matches(String query) {
+    var terms = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    if (!terms[0].isEmpty() && terms[0].chars().allMatch(Character::isDigit)) {
+      var index = Integer.parseInt(terms[0]) - FIRST_PROJECT_ID;
+      return index >= 0 && index < catalog.size() ? List.of(catalog.get(index)) : List.of();
+    }
+    var matches = new ArrayList<Map<String, Object>>();
+    for (var hit : hitsByWord.getOrDefault(terms[0], List.of())) {
+      if (titleContainsAll(hit, terms)) {
+        matches.add(hit);
+      }
+    }
+    return matches;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean titleContainsAll(Map<String, Object> hit, String... terms) {
+    var title = (String) ((Map<String, Object>) hit.get("english")).get("title");
+    for (var term : terms) {
+      if (!title.contains(term)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Map<String, String> parameters(URI uri) {
+    var parameters = new HashMap<String, String>();
+    var query = uri.getRawQuery();
+    if (query != null) {
+      for (var parameter : query.split("&")) {
+        var separator = parameter.indexOf('=');
+        if (separator > 0) {
+          parameters.put(
+              URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+              URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return parameters;
+  }
+
+  private static List<Map<String, Object>> generateCatalog(int catalogSize) {
+    var random = new Random(SEED);
+    var catalog = new ArrayList<Map<String, Object>>(catalogSize);
+    for (int index = 0; index < catalogSize; index++) {
+      var words = new ArrayList<String>(WORDS_PER_TITLE);
+      for (int word = 0; word < WORDS_PER_TITLE; word++) {
+        words.add(VOCABULARY.get(random.nextInt(VOCABULARY.size())));
+      }
+      var title = String.join(" ", words);
+      catalog.add(
+          SearchResponses.hit(
+              random, FIRST_PROJECT_ID + index, "Project on " + title, "Prosjekt om " + title));
+    }
+    return catalog;
+  }
+
+  private static Map<String, List<Map<String, Object>>> indexByWord(
+      List<Map<String, Object>> catalog) {
+    var hitsByWord = new HashMap<String, List<Map<String, Object>>>();
+    for (var word : VOCABULARY) {
+      var hits = new ArrayList<Map<String, Object>>();
+      for (var hit : catalog) {
+        if (titleContainsAll(hit, word)) {
+          hits.add(hit);
+        }
+      }
+      hitsByWord.put(word, hits);
+    }
+    return hitsByWord;
+  }
+}
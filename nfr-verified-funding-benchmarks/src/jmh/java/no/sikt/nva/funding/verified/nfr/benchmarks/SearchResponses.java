@@ -0,0 +1,74 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Generates ProjectBank search responses shaped like the ones the live API returns. */
+public final class SearchResponses {
+
+  private static final Instant EPOCH = Instant.parse("2015-01-01T00:00:00Z");
+  private static final String SUMMARY =
+      "The project investigates how climate adaptation measures in Norwegian municipalities "
+          + "affect biodiversity, water management and public health over the coming decades. ";
+  private static final long SEED = 42;
+
+  private SearchResponses() {}
+
+  public static byte[] searchResponse(int numberOfHits) {
+    var random = new Random(SEED);
+    var hits = new ArrayList<Map<String, Object>>(numberOfHits);
+    for (int index = 0; index < numberOfHits; index++) {
+      hits.add(hit(random, index));
+    }
+    return searchResponse(numberOfHits * 10, 0, hits);
+  }
+
+  /** A response with the page of {@code hits} starting at {@code from} among {@code totalHits}. */
+  public static byte[] searchResponse(int totalHits, int from, List<Map<String, Object>> hits) {
+    var response = new LinkedHashMap<String, Object>();
+    response.put("totalHits", totalHits);
+    response.put("from", from);
+    response.put("size", hits.size());
+    response.put("hits", hits);
+    try {
+      return dtoObjectMapper.writeValueAsBytes(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Map<String, Object> hit(Random random, int index) {
+    return hit(random, 100_000 + index, "Project title " + index, "Prosjekttittel " + index);
+  }
+
+  /** A hit with the given id and titles, whose dates and lead name are drawn from {@code random}. */
+  public static Map<String, Object> hit(
+      Random random, int projectId, String englishTitle, String norwegianTitle) {
+    var activeFrom = EPOCH.plus(random.nextInt(3000), ChronoUnit.DAYS);
+    var hit = new LinkedHashMap<String, Object>();
+    hit.put("projectId", projectId);
+    hit.put("activeFrom", activeFrom.toString());
+    hit.put("activeTo", activeFrom.plus(1 + random.nextInt(2000), ChronoUnit.DAYS).toString());
+    hit.put("leadName", "Lead Name " + random.nextInt(5000));
+    hit.put("english", metadata(englishTitle, "en"));
+    hit.put("norwegian", metadata(norwegianTitle, "nb"));
+    return hit;
+  }
+
+  private static Map<String, Object> metadata(String title, String language) {
+    var metadata = new LinkedHashMap<String, Object>();
+    metadata.put("title", title);
+    metadata.put("summary", SUMMARY.repeat(4));
+    metadata.put("keywords", String.join(",", "climate", "biodiversity", "municipality", language));
+    metadata.put("popularScienceSummary", SUMMARY.repeat(2));
+    return metadata;
+  }
+}
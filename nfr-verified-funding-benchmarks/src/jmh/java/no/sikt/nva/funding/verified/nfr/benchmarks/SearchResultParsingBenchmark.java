@@ -0,0 +1,49 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares reading the whole ProjectBank response into a String before data binding with the
+ * streaming reader used by NfrApiClient. Run with the gc profiler to see bytes allocated per hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SearchResultParsingBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int hits;
+
+  private byte[] responseBody;
+
+  @Setup
+  public void setup() {
+    responseBody = SearchResponses.searchResponse(hits);
+  }
+
+  @Benchmark
+  public NfrFundingSearchResult bufferedStringAndDataBinding() throws IOException {
+    var body = new String(responseBody, StandardCharsets.UTF_8);
+    return dtoObjectMapper.readValue(body, NfrFundingSearchResult.class);
+  }
+
+  @Benchmark
+  public NfrFundingSearchResult streamingReader() throws IOException {
+    return NfrFundingSearchResultReader.read(new ByteArrayInputStream(responseBody));
+  }
+}
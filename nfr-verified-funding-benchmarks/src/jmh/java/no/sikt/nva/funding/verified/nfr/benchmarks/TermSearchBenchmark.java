@@ -0,0 +1,112 @@
+package no.sikt.nva.funding.verified.nfr.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures term searches against the in-memory index over catalogs of realistic size, from a common
+ * single term to a selective multi-term query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TermSearchBenchmark {
+
+  private static final String[] ENGLISH_WORDS = {
+    "climate",
+    "ocean",
+    "health",
+    "energy",
+    "arctic",
+    "education",
+    "digital",
+    "biodiversity",
+    "welfare",
+    "innovation",
+    "aquaculture",
+    "security",
+    "migration",
+    "materials",
+    "transport"
+  };
+  private static final String[] NORWEGIAN_WORDS = {
+    "klima",
+    "hav",
+    "helse",
+    "energi",
+    "arktis",
+    "utdanning",
+    "digital",
+    "naturmangfold",
+    "velferd",
+    "innovasjon",
+    "havbruk",
+    "sikkerhet",
+    "migrasjon",
+    "materialer",
+    "transport"
+  };
+  private static final String[] SURNAMES = {
+    "Hansen", "Johansen", "Olsen", "Larsen", "Andersen", "Pedersen", "Nilsen", "Kristiansen"
+  };
+  private static final int WORDS_PER_TITLE = 4;
+  private static final long SEED = 42;
+
+  @Param({"10000", "50000"})
+  public int catalogSize;
+
+  private NfrFundingIndex index;
+
+  @Setup
+  public void setup() {
+    var random = new Random(SEED);
+    var fundings = new ArrayList<NfrFunding>(catalogSize);
+    for (int projectId = 1; projectId <= catalogSize; projectId++) {
+      fundings.add(
+          new NfrFunding(
+              projectId,
+              Instant.parse("2020-01-01T00:00:00Z"),
+              Instant.parse("2024-01-01T00:00:00Z"),
+              "Kari " + SURNAMES[random.nextInt(SURNAMES.length)],
+              Map.of("title", title(random, ENGLISH_WORDS)),
+              Map.of("title", title(random, NORWEGIAN_WORDS))));
+    }
+    index = NfrFundingIndex.build(fundings);
+  }
+
+  private static String title(Random random, String... words) {
+    var title = new StringBuilder();
+    for (int word = 0; word < WORDS_PER_TITLE; word++) {
+      title.append(words[random.nextInt(words.length)]).append(' ');
+    }
+    return title.toString();
+  }
+
+  @Benchmark
+  public NfrFundingIndex.Result commonTerm() {
+    return index.search("climate", 0, 10);
+  }
+
+  @Benchmark
+  public NfrFundingIndex.Result twoTerms() {
+    return index.search("Arctic ocean", 0, 10);
+  }
+
+  @Benchmark
+  public NfrFundingIndex.Result selectiveQueryDeepPage() {
+    return index.search("havbruk helse Olsen", 50, 10);
+  }
+}
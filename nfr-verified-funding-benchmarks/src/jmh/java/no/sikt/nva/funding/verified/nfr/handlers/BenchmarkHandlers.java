@@ -0,0 +1,29 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
+import nva.commons.core.Environment;
+
+/**
+ * Builds the handlers the benchmarks run through the constructors that take every collaborator,
+ * which only this package can call.
+ */
+public final class BenchmarkHandlers {
+
+  private BenchmarkHandlers() {}
+
+  /** A query handler without snapshot indexes, answering every query from {@code apiClient}. */
+  public static QueryNfrFundingsHandler queryHandler(
+      Environment environment, NfrFundingSource apiClient, Metrics metrics) {
+    return new QueryNfrFundingsHandler(
+        environment,
+        apiClient,
+        NfrFundingIndex::empty,
+        LeadNameIndex::empty,
+        metrics,
+        Tracer.fromEnvironment(environment));
+  }
+}
@@ -9,6 +9,37 @@ public final class EnvironmentKeys {
   public static final String CUSTOM_DOMAIN_NAME_PATH = "CUSTOM_DOMAIN_NAME_PATH";
   public static final String CRISTIN_BASE_PATH = "CRISTIN_BASE_PATH";
   public static final String CRISTIN_FUNDING_SOURCES_PATH = "CRISTIN_FUNDING_SOURCES_PATH";
+  public static final String IDENTIFIER_CACHE_MAX_ENTRIES = "IDENTIFIER_CACHE_MAX_ENTRIES";
+  public static final String IDENTIFIER_CACHE_TTL_SECONDS = "IDENTIFIER_CACHE_TTL_SECONDS";
+  public static final String IDENTIFIER_CACHE_STALE_SECONDS = "IDENTIFIER_CACHE_STALE_SECONDS";
+  public static final String PAGE_CACHE_MAX_ENTRIES = "PAGE_CACHE_MAX_ENTRIES";
+  public static final String PAGE_CACHE_MAX_BYTES = "PAGE_CACHE_MAX_BYTES";
+  public static final String PAGE_CACHE_TTL_SECONDS = "PAGE_CACHE_TTL_SECONDS";
+  public static final String BATCH_LOOKUP_CONCURRENCY = "BATCH_LOOKUP_CONCURRENCY";
+  public static final String LEAD_NAME_SEARCH_TIMEOUT_MILLIS = "LEAD_NAME_SEARCH_TIMEOUT_MILLIS";
+  public static final String SNAPSHOT_BUCKET = "SNAPSHOT_BUCKET";
+  public static final String SNAPSHOT_DIRECTORY = "SNAPSHOT_DIRECTORY";
+  public static final String HARVEST_QUERY = "HARVEST_QUERY";
+  public static final String HARVEST_PAGE_SIZE = "HARVEST_PAGE_SIZE";
+  public static final String HARVEST_CONCURRENCY = "HARVEST_CONCURRENCY";
+  public static final String HARVEST_PAGE_TIMEOUT_SECONDS = "HARVEST_PAGE_TIMEOUT_SECONDS";
+  public static final String HTTP_CONNECT_TIMEOUT_MILLIS = "HTTP_CONNECT_TIMEOUT_MILLIS";
+  public static final String HTTP_REQUEST_TIMEOUT_MILLIS = "HTTP_REQUEST_TIMEOUT_MILLIS";
+  public static final String HTTP_CLIENT_THREADS = "HTTP_CLIENT_THREADS";
+  public static final String HEDGE_PERCENTILE = "HEDGE_PERCENTILE";
+  public static final String HEDGE_MAX_PERCENT = "HEDGE_MAX_PERCENT";
+  public static final String CIRCUIT_BREAKER_FAILURE_RATE_PERCENT =
+      "CIRCUIT_BREAKER_FAILURE_RATE_PERCENT";
+  public static final String CIRCUIT_BREAKER_SLOW_CALL_MILLIS = "CIRCUIT_BREAKER_SLOW_CALL_MILLIS";
+  public static final String CIRCUIT_BREAKER_WINDOW_SIZE = "CIRCUIT_BREAKER_WINDOW_SIZE";
+  public static final String CIRCUIT_BREAKER_MINIMUM_CALLS = "CIRCUIT_BREAKER_MINIMUM_CALLS";
+  public static final String CIRCUIT_BREAKER_OPEN_SECONDS = "CIRCUIT_BREAKER_OPEN_SECONDS";
+  public static final String RETRY_MAX_ATTEMPTS = "RETRY_MAX_ATTEMPTS";
+  public static final String RETRY_BASE_DELAY_MILLIS = "RETRY_BASE_DELAY_MILLIS";
+  public static final String RETRY_MAX_DELAY_MILLIS = "RETRY_MAX_DELAY_MILLIS";
+  public static final String TRACES_EXPORTER = "OTEL_TRACES_EXPORTER";
+  public static final String TRANSCODED_PAGE_MIN_SIZE = "TRANSCODED_PAGE_MIN_SIZE";
+  public static final String CACHE_MAX_AGE_SECONDS = "CACHE_MAX_AGE_SECONDS";
 
   private EnvironmentKeys() {
     // no-op
@@ -0,0 +1,278 @@
+package no.sikt.nva.funding.verified.nfr.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size bounded, least-recently-used cache where entries expire after a time to live. The cache is
+ * bounded by number of entries and optionally by the total estimated weight of its values. Expired
+ * entries that are still within the stale-while-revalidate window are returned as they are while a
+ * fresh value is loaded in the background.
+ */
+public class ExpiringLruCache<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExpiringLruCache.class);
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int MIN_ENTRIES = 1;
+
+  private final Map<K, CacheEntry<V>> entries;
+  private final Set<K> refreshesInProgress = ConcurrentHashMap.newKeySet();
+  private final int maxEntries;
+  private final long maxWeight;
+  private final Weigher<V> weigher;
+  private final Duration timeToLive;
+  private final Duration staleWhileRevalidate;
+  private final Clock clock;
+  private final Executor refreshExecutor;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong staleHitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private long totalWeight;
+
+  public ExpiringLruCache(
+      int maxEntries,
+      Duration timeToLive,
+      Duration staleWhileRevalidate,
+      Clock clock,
+      Executor refreshExecutor) {
+    this(
+        maxEntries,
+        Long.MAX_VALUE,
+        value -> 1L,
+        timeToLive,
+        staleWhileRevalidate,
+        clock,
+        refreshExecutor);
+  }
+
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public ExpiringLruCache(
+      int maxEntries,
+      long maxWeight,
+      Weigher<V> weigher,
+      Duration timeToLive,
+      Duration staleWhileRevalidate,
+      Clock clock,
+      Executor refreshExecutor) {
+    if (maxEntries < MIN_ENTRIES) {
+      throw new IllegalArgumentException("Cache must allow at least one entry");
+    }
+    this.maxEntries = maxEntries;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.timeToLive = timeToLive;
+    this.staleWhileRevalidate = staleWhileRevalidate;
+    this.clock = clock;
+    this.refreshExecutor = refreshExecutor;
+    this.entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public <E extends Exception> V get(K key, Loader<K, V, E> loader) throws E {
+    var now = clock.instant();
+    var entry = lookup(key);
+    if (entry.isPresent() && entry.get().isFresh(now, timeToLive)) {
+      hitCount.incrementAndGet();
+      return entry.get().value();
+    }
+    if (entry.isPresent() && entry.get().isFresh(now, timeToLive.plus(staleWhileRevalidate))) {
+      staleHitCount.incrementAndGet();
+      refreshInBackground(key, loader);
+      return entry.get().value();
+    }
+    missCount.incrementAndGet();
+    var value = loader.load(key);
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * Non-blocking counterpart of {@link #get}. A fresh or stale value completes the returned future
+   * at once, and a stale one is refreshed by {@code loader} in the background. On a miss the future
+   * is the one of {@code loader}, whose value is cached when it succeeds.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public CompletableFuture<V> getAsync(K key, Function<K, CompletableFuture<V>> loader) {
+    var now = clock.instant();
+    var entry = lookup(key);
+    if (entry.isPresent() && entry.get().isFresh(now, timeToLive)) {
+      hitCount.incrementAndGet();
+      return CompletableFuture.completedFuture(entry.get().value());
+    }
+    if (entry.isPresent() && entry.get().isFresh(now, timeToLive.plus(staleWhileRevalidate))) {
+      staleHitCount.incrementAndGet();
+      refreshInBackground(key, loader);
+      return CompletableFuture.completedFuture(entry.get().value());
+    }
+    missCount.incrementAndGet();
+    return loader
+        .apply(key)
+        .thenApply(
+            value -> {
+              put(key, value);
+              return value;
+            });
+  }
+
+  public Optional<V> getIfFresh(K key) {
+    var now = clock.instant();
+    var entry = lookup(key).filter(candidate -> candidate.isFresh(now, timeToLive));
+    if (entry.isPresent()) {
+      hitCount.incrementAndGet();
+    } else {
+      missCount.incrementAndGet();
+    }
+    return entry.map(CacheEntry::value);
+  }
+
+  /** Returns the cached value however long ago it expired, as long as it has not been evicted. */
+  public Optional<V> getLastKnown(K key) {
+    return lookup(key).map(CacheEntry::value);
+  }
+
+  public void put(K key, V value) {
+    var entry = new CacheEntry<>(value, clock.instant(), weigher.weigh(value));
+    synchronized (entries) {
+      var replaced = entries.put(key, entry);
+      totalWeight += entry.weight() - (replaced == null ? 0 : replaced.weight());
+      evictLeastRecentlyUsed();
+    }
+  }
+
+  public void invalidate(K key) {
+    synchronized (entries) {
+      var removed = entries.remove(key);
+      if (removed != null) {
+        totalWeight -= removed.weight();
+      }
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long weight() {
+    synchronized (entries) {
+      return totalWeight;
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getStaleHitCount() {
+    return staleHitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /** Registers the hits, stale hits and misses of this cache, named after {@code prefix}. */
+  public void registerMetrics(Metrics metrics, String prefix) {
+    metrics.registerCounter(prefix + MetricNames.CACHE_HITS, this::getHitCount);
+    metrics.registerCounter(prefix + MetricNames.CACHE_STALE_HITS, this::getStaleHitCount);
+    metrics.registerCounter(prefix + MetricNames.CACHE_MISSES, this::getMissCount);
+  }
+
+  private Optional<CacheEntry<V>> lookup(K key) {
+    synchronized (entries) {
+      return Optional.ofNullable(entries.get(key));
+    }
+  }
+
+  private void evictLeastRecentlyUsed() {
+    var iterator = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || totalWeight > maxWeight) && iterator.hasNext()) {
+      totalWeight -= iterator.next().getValue().weight();
+      iterator.remove();
+      evictionCount.incrementAndGet();
+    }
+  }
+
+  private <E extends Exception> void refreshInBackground(K key, Loader<K, V, E> loader) {
+    if (refreshesInProgress.add(key)) {
+      refreshExecutor.execute(() -> refresh(key, loader));
+    }
+  }
+
+  private void refreshInBackground(K key, Function<K, CompletableFuture<V>> loader) {
+    if (refreshesInProgress.add(key)) {
+      refresh(key, loader)
+          .whenComplete(
+              (value, failure) -> {
+                if (failure == null) {
+                  put(key, value);
+                } else {
+                  LOGGER.warn("Failed to refresh cache entry {}, keeping stale value", key, failure);
+                }
+                refreshesInProgress.remove(key);
+              });
+    }
+  }
+
+  /**
+   * Starts loading a fresh value, turning a loader that throws instead of returning a future into a
+   * failed refresh, so that the key is not left marked as being refreshed.
+   */
+  @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.OnlyOneReturn"})
+  private CompletableFuture<V> refresh(K key, Function<K, CompletableFuture<V>> loader) {
+    try {
+      return loader.apply(key);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private <E extends Exception> void refresh(K key, Loader<K, V, E> loader) {
+    try {
+      put(key, loader.load(key));
+    } catch (Exception e) {
+      LOGGER.warn("Failed to refresh cache entry {}, keeping stale value", key, e);
+    } finally {
+      refreshesInProgress.remove(key);
+    }
+  }
+
+  @FunctionalInterface
+  public interface Loader<K, V, E extends Exception> {
+    V load(K key) throws E;
+  }
+
+  @FunctionalInterface
+  public interface Weigher<V> {
+    long weigh(V value);
+  }
+
+  private record CacheEntry<V>(V value, Instant loadedAt, long weight) {
+
+    private boolean isFresh(Instant now, Duration maxAge) {
+      return now.isBefore(loadedAt.plus(maxAge));
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+
+/**
+ * Decorates an {@link NfrFundingSource} with a cache of search result pages keyed by the canonical
+ * form of the request, so that paging back and forth does not cost upstream calls.
+ */
+public class CachingNfrApiClient implements NfrFundingSource {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final String SPACE = " ";
+  private static final String DEFAULT_MAX_ENTRIES = "1000";
+  private static final String DEFAULT_MAX_BYTES = Long.toString(32L * 1024 * 1024);
+  private static final String DEFAULT_TTL_SECONDS = "300";
+  private static final long OBJECT_OVERHEAD_BYTES = 16;
+  private static final long REFERENCE_BYTES = 8;
+  private static final long FUNDING_FIXED_BYTES = 160;
+
+  private final NfrFundingSource delegate;
+  private final ExpiringLruCache<PageKey, NfrFundingSearchResult> pageCache;
+
+  public CachingNfrApiClient(
+      NfrFundingSource delegate, ExpiringLruCache<PageKey, NfrFundingSearchResult> pageCache) {
+    this.delegate = delegate;
+    this.pageCache = pageCache;
+    pageCache.registerMetrics(delegate.getMetrics(), MetricNames.PAGE_CACHE_PREFIX);
+  }
+
+  public static CachingNfrApiClient fromEnvironment(
+      Environment environment, NfrFundingSource delegate) {
+    return new CachingNfrApiClient(
+        delegate, newPageCache(environment, CachingNfrApiClient::estimateSizeInBytes));
+  }
+
+  /**
+   * A cache of pages bounded and expired as configured by the {@code PAGE_CACHE_*} variables of
+   * {@code environment}, where {@code weigher} estimates the size of a page in bytes.
+   */
+  public static <V> ExpiringLruCache<PageKey, V> newPageCache(
+      Environment environment, ExpiringLruCache.Weigher<V> weigher) {
+    var maxEntries =
+        environment.readEnvOpt(EnvironmentKeys.PAGE_CACHE_MAX_ENTRIES).orElse(DEFAULT_MAX_ENTRIES);
+    var maxBytes =
+        environment.readEnvOpt(EnvironmentKeys.PAGE_CACHE_MAX_BYTES).orElse(DEFAULT_MAX_BYTES);
+    var timeToLive =
+        environment.readEnvOpt(EnvironmentKeys.PAGE_CACHE_TTL_SECONDS).orElse(DEFAULT_TTL_SECONDS);
+    return new ExpiringLruCache<>(
+        Integer.parseInt(maxEntries),
+        Long.parseLong(maxBytes),
+        weigher,
+        Duration.ofSeconds(Long.parseLong(timeToLive)),
+        Duration.ZERO,
+        Clock.systemUTC(),
+        ForkJoinPool.commonPool());
+  }
+
+  /** The metrics of the decorated source, which the page cache adds its own to. */
+  @Override
+  public Metrics getMetrics() {
+    return delegate.getMetrics();
+  }
+
+  @Override
+  public NfrFundingSearchResult query(String query, int offset, int size)
+      throws BadGatewayException {
+    var key = PageKey.canonical(query, offset, size);
+    return pageCache.get(key, this::queryDelegate);
+  }
+
+  @Override
+  public NfrFundingSearchResult query(String query, int offset, int size, Duration timeout)
+      throws BadGatewayException {
+    var key = PageKey.canonical(query, offset, size);
+    return pageCache.get(
+        key,
+        cacheKey -> delegate.query(cacheKey.query(), cacheKey.offset(), cacheKey.size(), timeout));
+  }
+
+  /** Falls back to the cached page however old it is while the circuit breaker is open. */
+  @Override
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public MaybeStale<NfrFundingSearchResult> queryAllowingStale(
+      String query, int offset, int size, Duration timeout) throws BadGatewayException {
+    try {
+      return MaybeStale.fresh(query(query, offset, size, timeout));
+    } catch (CircuitOpenException e) {
+      return pageCache
+          .getLastKnown(PageKey.canonical(query, offset, size))
+          .map(MaybeStale::stale)
+          .orElseThrow(() -> e);
+    }
+  }
+
+  /**
+   * Pages read by a reader of their own are not cached, since the cache holds search results.
+   * {@link CachingPageTranscoder} caches transcoded pages.
+   */
+  @Override
+  public <T> T query(String query, int offset, int size, Duration timeout, ResponseReader<T> reader)
+      throws BadGatewayException {
+    return delegate.query(query, offset, size, timeout, reader);
+  }
+
+  @Override
+  public CompletableFuture<NfrFundingSearchResult> queryAsync(
+      String query, int offset, int size, Duration timeout) {
+    var key = PageKey.canonical(query, offset, size);
+    return pageCache
+        .getIfFresh(key)
+        .map(CompletableFuture::completedFuture)
+        .orElseGet(() -> queryDelegateAsync(key, timeout));
+  }
+
+  public static long estimateSizeInBytes(NfrFundingSearchResult searchResult) {
+    var size = OBJECT_OVERHEAD_BYTES;
+    for (var hit : searchResult.getHits()) {
+      size += REFERENCE_BYTES + estimateSizeInBytes(hit);
+    }
+    return size;
+  }
+
+  private static long estimateSizeInBytes(NfrFunding funding) {
+    var size = FUNDING_FIXED_BYTES + estimateSizeInBytes(funding.getLeadName());
+    for (var value : funding.getEnglishMetadata().values()) {
+      size += estimateSizeInBytes(value);
+    }
+    for (var value : funding.getNorwegianMetadata().values()) {
+      size += estimateSizeInBytes(value);
+    }
+    return size;
+  }
+
+  private static long estimateSizeInBytes(String value) {
+    return value == null ? 0 : OBJECT_OVERHEAD_BYTES * 2 + value.length();
+  }
+
+  private NfrFundingSearchResult queryDelegate(PageKey key) throws BadGatewayException {
+    return delegate.query(key.query(), key.offset(), key.size());
+  }
+
+  private CompletableFuture<NfrFundingSearchResult> queryDelegateAsync(
+      PageKey key, Duration timeout) {
+    var result = delegate.queryAsync(key.query(), key.offset(), key.size(), timeout);
+    result.thenAccept(searchResult -> pageCache.put(key, searchResult));
+    return result;
+  }
+
+  public record PageKey(String query, int offset, int size) {
+
+    public static PageKey canonical(String query, int offset, int size) {
+      return new PageKey(WHITESPACE.matcher(query.strip()).replaceAll(SPACE), offset, size);
+    }
+  }
+}
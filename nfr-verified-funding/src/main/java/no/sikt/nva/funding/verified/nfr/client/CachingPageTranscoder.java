@@ -0,0 +1,83 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Duration;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.CachingNfrApiClient.PageKey;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.RawJson;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+
+/**
+ * Answers ProjectBank queries with pages transcoded by a {@link FundingPageTranscoder}, from a
+ * cache of transcoded pages keyed, bounded and expired like the page cache of {@link
+ * CachingNfrApiClient}.
+ */
+public class CachingPageTranscoder {
+
+  private static final long OBJECT_OVERHEAD_BYTES = 16;
+  private static final long REFERENCE_BYTES = 8;
+
+  private final NfrFundingSource apiClient;
+  private final FundingPageTranscoder pageTranscoder;
+  private final ExpiringLruCache<PageKey, PagedSearchResult<RawJson>> pageCache;
+  private final Metrics metrics = new Metrics();
+
+  public CachingPageTranscoder(
+      NfrFundingSource apiClient,
+      FundingPageTranscoder pageTranscoder,
+      ExpiringLruCache<PageKey, PagedSearchResult<RawJson>> pageCache) {
+    this.apiClient = apiClient;
+    this.pageTranscoder = pageTranscoder;
+    this.pageCache = pageCache;
+    pageCache.registerMetrics(metrics, MetricNames.TRANSCODED_PAGE_CACHE_PREFIX);
+  }
+
+  public static CachingPageTranscoder fromEnvironment(
+      Environment environment, NfrFundingSource apiClient, FundingPageTranscoder pageTranscoder) {
+    return new CachingPageTranscoder(
+        apiClient,
+        pageTranscoder,
+        CachingNfrApiClient.newPageCache(environment, CachingPageTranscoder::estimateSizeInBytes));
+  }
+
+  /** The metrics of the cache of transcoded pages. */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Answers from the cache when it holds a fresh page, and transcodes the ProjectBank response
+   * otherwise. Serves the last known page, marked as stale, while the circuit breaker is open.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public MaybeStale<PagedSearchResult<RawJson>> queryAllowingStale(
+      String query, int offset, int size, Duration timeout) throws BadGatewayException {
+    var key = PageKey.canonical(query, offset, size);
+    try {
+      return MaybeStale.fresh(pageCache.get(key, cacheKey -> transcode(cacheKey, timeout)));
+    } catch (CircuitOpenException e) {
+      return pageCache.getLastKnown(key).map(MaybeStale::stale).orElseThrow(() -> e);
+    }
+  }
+
+  public static long estimateSizeInBytes(PagedSearchResult<RawJson> page) {
+    var size = OBJECT_OVERHEAD_BYTES;
+    for (var hit : page.getHits()) {
+      size += REFERENCE_BYTES + OBJECT_OVERHEAD_BYTES * 3 + hit.toString().length();
+    }
+    return size;
+  }
+
+  private PagedSearchResult<RawJson> transcode(PageKey key, Duration timeout)
+      throws BadGatewayException {
+    return apiClient.query(
+        key.query(),
+        key.offset(),
+        key.size(),
+        timeout,
+        body -> pageTranscoder.transcode(body, key.offset(), key.size()));
+  }
+}
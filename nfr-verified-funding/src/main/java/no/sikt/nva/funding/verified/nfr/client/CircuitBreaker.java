@@ -0,0 +1,205 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/**
+ * Stops calling ProjectBank while it is failing. The circuit opens when the share of failed or slow
+ * calls among the most recent calls reaches a threshold, and calls are then rejected with a {@link
+ * CircuitOpenException} without being sent. After the open duration the circuit is half open and
+ * lets one trial call through at a time; it closes again after a few successful trials and opens
+ * again on the first failed or slow one. Cancelled calls count neither way.
+ */
+public class CircuitBreaker {
+
+  public static final int TRIAL_CALLS = 3;
+  private static final String DEFAULT_FAILURE_RATE_PERCENT = "50";
+  private static final String DEFAULT_SLOW_CALL_MILLIS = "5000";
+  private static final String DEFAULT_WINDOW_SIZE = "20";
+  private static final String DEFAULT_MINIMUM_CALLS = "10";
+  private static final String DEFAULT_OPEN_SECONDS = "30";
+  private static final int PERCENT = 100;
+
+  private final int failureRatePercent;
+  private final Duration slowCallThreshold;
+  private final int minimumCalls;
+  private final Duration openDuration;
+  private final Clock clock;
+  private final boolean[] unhealthyCalls;
+  private final LongAdder rejectedCalls = new LongAdder();
+  private final LongAdder openings = new LongAdder();
+  private long recordedCalls;
+  private int unhealthyInWindow;
+  private State current = State.CLOSED;
+  private Instant openedAt = Instant.MIN;
+  private boolean trialInFlight;
+  private int successfulTrials;
+
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public CircuitBreaker(
+      int failureRatePercent,
+      Duration slowCallThreshold,
+      int windowSize,
+      int minimumCalls,
+      Duration openDuration,
+      Clock clock) {
+    if (minimumCalls < 1 || minimumCalls > windowSize) {
+      throw new IllegalArgumentException("Minimum calls must be between 1 and the window size");
+    }
+    this.failureRatePercent = failureRatePercent;
+    this.slowCallThreshold = slowCallThreshold;
+    this.minimumCalls = minimumCalls;
+    this.openDuration = openDuration;
+    this.clock = clock;
+    this.unhealthyCalls = new boolean[windowSize];
+  }
+
+  /** A circuit that never opens. */
+  public static CircuitBreaker alwaysClosed() {
+    return new CircuitBreaker(
+        PERCENT + 1, Duration.ofMillis(Long.MAX_VALUE), 1, 1, Duration.ZERO, Clock.systemUTC());
+  }
+
+  public static CircuitBreaker fromEnvironment(Environment environment) {
+    return new CircuitBreaker(
+        readInt(
+            environment,
+            EnvironmentKeys.CIRCUIT_BREAKER_FAILURE_RATE_PERCENT,
+            DEFAULT_FAILURE_RATE_PERCENT),
+        Duration.ofMillis(
+            readInt(
+                environment,
+                EnvironmentKeys.CIRCUIT_BREAKER_SLOW_CALL_MILLIS,
+                DEFAULT_SLOW_CALL_MILLIS)),
+        readInt(environment, EnvironmentKeys.CIRCUIT_BREAKER_WINDOW_SIZE, DEFAULT_WINDOW_SIZE),
+        readInt(environment, EnvironmentKeys.CIRCUIT_BREAKER_MINIMUM_CALLS, DEFAULT_MINIMUM_CALLS),
+        Duration.ofSeconds(
+            readInt(
+                environment, EnvironmentKeys.CIRCUIT_BREAKER_OPEN_SECONDS, DEFAULT_OPEN_SECONDS)),
+        Clock.systemUTC());
+  }
+
+  @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.OnlyOneReturn"})
+  public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    var permission = acquirePermission();
+    if (permission == Permission.REJECTED) {
+      rejectedCalls.increment();
+      return CompletableFuture.failedFuture(new CircuitOpenException(retryAt()));
+    }
+    var started = System.nanoTime();
+    try {
+      var attempt = call.get();
+      attempt.whenComplete(
+          (value, failure) ->
+              onCompletion(permission, failure, Duration.ofNanos(System.nanoTime() - started)));
+      return attempt;
+    } catch (RuntimeException e) {
+      onCompletion(permission, e, Duration.ZERO);
+      throw e;
+    }
+  }
+
+  public synchronized State state() {
+    return current;
+  }
+
+  public Counts counts() {
+    return new Counts(openings.sum(), rejectedCalls.sum());
+  }
+
+  private synchronized Permission acquirePermission() {
+    if (current == State.OPEN && !clock.instant().isBefore(retryAt())) {
+      current = State.HALF_OPEN;
+      successfulTrials = 0;
+    }
+    var permission =
+        switch (current) {
+          case CLOSED -> Permission.CALL;
+          case HALF_OPEN -> trialInFlight ? Permission.REJECTED : Permission.TRIAL;
+          case OPEN -> Permission.REJECTED;
+        };
+    trialInFlight |= permission == Permission.TRIAL;
+    return permission;
+  }
+
+  private synchronized Instant retryAt() {
+    return openedAt.plus(openDuration);
+  }
+
+  private synchronized void onCompletion(
+      Permission permission, Throwable failure, Duration latency) {
+    var cancelled = failure instanceof CancellationException;
+    var unhealthy = failure != null || latency.compareTo(slowCallThreshold) >= 0;
+    if (permission == Permission.TRIAL) {
+      trialInFlight = false;
+      if (!cancelled && current == State.HALF_OPEN) {
+        completeTrial(unhealthy);
+      }
+    } else if (!cancelled && current == State.CLOSED) {
+      record(unhealthy);
+    }
+  }
+
+  private void completeTrial(boolean unhealthy) {
+    if (unhealthy) {
+      open();
+    } else {
+      successfulTrials++;
+      if (successfulTrials >= TRIAL_CALLS) {
+        close();
+      }
+    }
+  }
+
+  private void record(boolean unhealthy) {
+    var slot = (int) (recordedCalls % unhealthyCalls.length);
+    if (recordedCalls >= unhealthyCalls.length && unhealthyCalls[slot]) {
+      unhealthyInWindow--;
+    }
+    unhealthyCalls[slot] = unhealthy;
+    unhealthyInWindow += unhealthy ? 1 : 0;
+    recordedCalls++;
+    var calls = Math.min(recordedCalls, unhealthyCalls.length);
+    if (calls >= minimumCalls && unhealthyInWindow * PERCENT >= failureRatePercent * calls) {
+      open();
+    }
+  }
+
+  private void open() {
+    current = State.OPEN;
+    openedAt = clock.instant();
+    openings.increment();
+  }
+
+  private void close() {
+    current = State.CLOSED;
+    recordedCalls = 0;
+    unhealthyInWindow = 0;
+  }
+
+  private static int readInt(Environment environment, String name, String defaultValue) {
+    return Integer.parseInt(environment.readEnvOpt(name).orElse(defaultValue));
+  }
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private enum Permission {
+    CALL,
+    TRIAL,
+    REJECTED
+  }
+
+  /** Number of times the circuit opened and of calls rejected while it was open. */
+  public record Counts(long openings, long rejectedCalls) {}
+}
@@ -0,0 +1,12 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Instant;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+
+/** Thrown instead of calling ProjectBank while the {@link CircuitBreaker} is open. */
+public class CircuitOpenException extends BadGatewayException {
+
+  public CircuitOpenException(Instant retryAt) {
+    super("NFR rest api is failing, not calling it again before " + retryAt);
+  }
+}
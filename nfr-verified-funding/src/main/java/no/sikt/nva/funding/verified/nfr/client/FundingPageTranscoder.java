@@ -0,0 +1,97 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.RawJson;
+import no.unit.nva.commons.json.JsonUtils;
+
+/**
+ * Turns a ProjectBank search response into the page of fundings returned by the handlers while the
+ * response is being read. Every hit is mapped and written as JSON as soon as it has been parsed, so
+ * only one ProjectBank hit and one mapped funding are held at a time instead of both object graphs
+ * of the whole page.
+ *
+ * <p>The hits are written by a generator of the object mapper the page will be serialized with,
+ * positioned inside the hits of a page, so that the serialized page is the same JSON, indentation
+ * included, as a serialized page of the mapped fundings.
+ */
+public class FundingPageTranscoder {
+
+  private static final String HITS_FIELD = "hits";
+  private static final String OBJECT_START = "{";
+  private static final int MAX_PRESIZED_HITS = 1000;
+
+  private final URI context;
+  private final FundingMapper fundingMapper;
+  private final ObjectMapper objectMapper;
+
+  public FundingPageTranscoder(URI context, FundingMapper fundingMapper) {
+    this(context, fundingMapper, JsonUtils.dtoObjectMapper);
+  }
+
+  public FundingPageTranscoder(
+      URI context, FundingMapper fundingMapper, ObjectMapper objectMapper) {
+    this.context = context;
+    this.fundingMapper = fundingMapper;
+    this.objectMapper = objectMapper;
+  }
+
+  public PagedSearchResult<RawJson> transcode(InputStream body, int offset, int size)
+      throws IOException {
+    var hits = new ArrayList<RawJson>(Math.min(size, MAX_PRESIZED_HITS));
+    var buffer = new StringWriter();
+    try (var generator = objectMapper.writer().createGenerator(buffer)) {
+      var totals =
+          NfrFundingSearchResultReader.forEachHit(
+              body, new HitWriter(generator, buffer, hits)::write);
+      return new PagedSearchResult<>(
+          context, fundingMapper.getSearchId(), offset, size, totals.getTotalHits(), hits);
+    }
+  }
+
+  /** Writes the hits of one response, each to its own {@link RawJson}. */
+  private final class HitWriter {
+
+    private final JsonGenerator generator;
+    private final StringWriter buffer;
+    private final List<RawJson> hits;
+    private final SerializerProvider serializers;
+    private final JsonSerializer<Object> fundingSerializer;
+
+    @SuppressWarnings("PMD.LawOfDemeter")
+    private HitWriter(JsonGenerator generator, StringWriter buffer, List<RawJson> hits)
+        throws IOException {
+      this.generator = generator;
+      this.buffer = buffer;
+      this.hits = hits;
+      this.serializers = objectMapper.getSerializerProviderInstance();
+      this.fundingSerializer = serializers.findTypedValueSerializer(Funding.class, true, null);
+      generator.writeStartObject();
+      generator.writeFieldName(HITS_FIELD);
+      generator.writeStartArray();
+      generator.flush();
+      buffer.getBuffer().setLength(0);
+    }
+
+    /** Drops the separator the generator wrote before the funding, which the page writes itself. */
+    private void write(NfrFunding hit) throws IOException {
+      fundingSerializer.serialize(fundingMapper.map(hit), generator, serializers);
+      generator.flush();
+      var written = buffer.getBuffer();
+      hits.add(new RawJson(written.substring(written.indexOf(OBJECT_START))));
+      written.setLength(0);
+    }
+  }
+}
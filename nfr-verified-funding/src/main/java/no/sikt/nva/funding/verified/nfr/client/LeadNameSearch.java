@@ -0,0 +1,136 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+
+/**
+ * Pages through ProjectBank search results for a name and keeps the fundings where the lead name is
+ * an exact match once both are normalized by {@link LeadNameIndex#normalize}. Offset and size
+ * refer to the exact matches, not to the upstream hits, and upstream pages are prefetched a few at
+ * a time until enough matches are found, the upstream results run out or the deadline passes.
+ *
+ * <p>Every page is requested with what is left until the deadline as its timeout. A page that times
+ * out, whether the HTTP request or the wait for it ran out first, ends the search with the matches
+ * found so far.
+ */
+public class LeadNameSearch {
+
+  public static final int MINIMUM_UPSTREAM_PAGE_SIZE = 10;
+  private static final int PREFETCHED_PAGES = 3;
+  private static final String DEADLINE_PASSED = "Timed out before any response from NFR rest api!";
+
+  private final NfrFundingSource apiClient;
+  private final Clock clock;
+
+  public LeadNameSearch(NfrFundingSource apiClient, Clock clock) {
+    this.apiClient = apiClient;
+    this.clock = clock;
+  }
+
+  public Result search(String name, int offset, int size, Duration timeout)
+      throws BadGatewayException {
+    var deadline = clock.instant().plus(timeout);
+    var pageSize = Math.max(size, MINIMUM_UPSTREAM_PAGE_SIZE);
+    var wantedMatches = (long) offset + size + 1;
+
+    var firstPage =
+        await(fetchPage(name, 0, pageSize, deadline))
+            .orElseThrow(() -> new BadGatewayException(DEADLINE_PASSED));
+    var upstreamPages = pageCount(firstPage.getTotalHits(), pageSize);
+
+    var matches = new ArrayList<NfrFunding>();
+    var prefetched = new ArrayDeque<CompletableFuture<NfrFundingSearchResult>>();
+    var nextPage = 1;
+    var page = Optional.of(firstPage);
+    while (page.isPresent()) {
+      collectMatches(name, page.get(), matches);
+      var needsMoreMatches = matches.size() < wantedMatches && !page.get().getHits().isEmpty();
+      while (needsMoreMatches && prefetched.size() < PREFETCHED_PAGES && nextPage < upstreamPages) {
+        prefetched.add(fetchPage(name, nextPage * pageSize, pageSize, deadline));
+        nextPage++;
+      }
+      page =
+          needsMoreMatches && !prefetched.isEmpty() ? await(prefetched.poll()) : Optional.empty();
+    }
+    prefetched.forEach(pending -> pending.cancel(true));
+
+    var from = Math.min(offset, matches.size());
+    var to = (int) Math.min((long) offset + size, matches.size());
+    var hits = matches.subList(from, to);
+    return new Result(List.copyOf(hits), matches.size());
+  }
+
+  private CompletableFuture<NfrFundingSearchResult> fetchPage(
+      String name, int from, int pageSize, Instant deadline) {
+    var remaining = Duration.between(clock.instant(), deadline);
+    return remaining.isNegative() || remaining.isZero()
+        ? CompletableFuture.failedFuture(new TimeoutException())
+        : apiClient.queryAsync(name, from, pageSize, remaining);
+  }
+
+  private static void collectMatches(
+      String name, NfrFundingSearchResult page, List<NfrFunding> matches) {
+    var wantedName = LeadNameIndex.normalize(name);
+    page.getHits().stream()
+        .filter(funding -> LeadNameIndex.normalize(funding.getLeadName()).equals(wantedName))
+        .forEach(matches::add);
+  }
+
+  private static int pageCount(int totalHits, int pageSize) {
+    return (totalHits + pageSize - 1) / pageSize;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static Optional<NfrFundingSearchResult> await(
+      CompletableFuture<NfrFundingSearchResult> page) throws BadGatewayException {
+    try {
+      return Optional.of(page.get());
+    } catch (ExecutionException e) {
+      if (isTimeout(e.getCause())) {
+        return Optional.empty();
+      }
+      throw unwrap(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching by lead name", e);
+    }
+  }
+
+  /** The client reports a timed out HTTP request as a BadGatewayException caused by it. */
+  private static boolean isTimeout(Throwable failure) {
+    return failure instanceof TimeoutException
+        || failure instanceof BadGatewayException
+            && failure.getCause() instanceof HttpTimeoutException;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static BadGatewayException unwrap(ExecutionException e) {
+    if (e.getCause() instanceof BadGatewayException badGatewayException) {
+      return badGatewayException;
+    }
+    if (e.getCause() instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    throw new IllegalStateException(e.getCause());
+  }
+
+  /**
+   * One page of exact matches. When the upstream results were not scanned to the end, {@code
+   * totalSize} counts the matches seen so far, which is always more than the end of the returned
+   * page when further matches were found.
+   */
+  public record Result(List<NfrFunding> hits, int totalSize) {}
+}
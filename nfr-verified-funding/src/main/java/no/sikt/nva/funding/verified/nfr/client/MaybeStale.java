@@ -0,0 +1,16 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+/**
+ * A value together with whether it is the last known good value, served because ProjectBank could
+ * not be asked for a current one.
+ */
+public record MaybeStale<T>(T value, boolean stale) {
+
+  public static <T> MaybeStale<T> fresh(T value) {
+    return new MaybeStale<>(value, false);
+  }
+
+  public static <T> MaybeStale<T> stale(T value) {
+    return new MaybeStale<>(value, true);
+  }
+}
@@ -1,15 +1,29 @@
 package no.sikt.nva.funding.verified.nfr.client;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.RetryPolicy.Outcome;
 import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
-import no.unit.nva.commons.json.JsonUtils;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanKind;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
 import nva.commons.apigateway.exceptions.BadGatewayException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
@@ -17,57 +31,388 @@ import nva.commons.core.paths.UriWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class NfrApiClient {
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class NfrApiClient implements NfrFundingSource {
 
+  public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
   private static final Logger LOGGER = LoggerFactory.getLogger(NfrApiClient.class);
 
-  private final HttpClient httpClient;
+  private final Supplier<HttpClient> httpClient;
   private final URI baseUri;
+  private final RequestHedging hedging;
+  private final CircuitBreaker circuitBreaker;
+  private final RetryPolicy retryPolicy;
+  private final Metrics metrics;
+  private final SingleFlight<URI, NfrFundingSearchResult> inFlightQueries = new SingleFlight<>();
 
   @JacocoGenerated
   public static NfrApiClient defaultClient() {
-    var baseUri = URI.create(new Environment().readEnv(EnvironmentKeys.NFR_API_BASE_URI));
-    return new NfrApiClient(HttpClient.newBuilder().build(), baseUri);
+    var environment = new Environment();
+    var baseUri = URI.create(environment.readEnv(EnvironmentKeys.NFR_API_BASE_URI));
+    SharedHttpClient.warmUp(baseUri);
+    return new NfrApiClient(
+        SharedHttpClient::get,
+        baseUri,
+        RequestHedging.fromEnvironment(environment),
+        CircuitBreaker.fromEnvironment(environment),
+        RetryPolicy.fromEnvironment(environment));
   }
 
   public NfrApiClient(HttpClient httpClient, URI baseUri) {
+    this(() -> httpClient, baseUri);
+  }
+
+  /** Looks up the HttpClient on every request, so that it can be replaced after a restore. */
+  public NfrApiClient(Supplier<HttpClient> httpClient, URI baseUri) {
+    this(
+        httpClient,
+        baseUri,
+        RequestHedging.disabled(),
+        CircuitBreaker.alwaysClosed(),
+        RetryPolicy.noRetries());
+  }
+
+  /**
+   * Each call is retried by {@code retryPolicy}, every attempt goes through {@code circuitBreaker}
+   * and is hedged by {@code hedging}.
+   */
+  public NfrApiClient(
+      Supplier<HttpClient> httpClient,
+      URI baseUri,
+      RequestHedging hedging,
+      CircuitBreaker circuitBreaker,
+      RetryPolicy retryPolicy) {
+    this(httpClient, baseUri, hedging, circuitBreaker, retryPolicy, new Metrics());
+    registerCounters(metrics, hedging, circuitBreaker, retryPolicy);
+  }
+
+  private NfrApiClient(
+      Supplier<HttpClient> httpClient,
+      URI baseUri,
+      RequestHedging hedging,
+      CircuitBreaker circuitBreaker,
+      RetryPolicy retryPolicy,
+      Metrics metrics) {
     this.httpClient = httpClient;
     this.baseUri = baseUri;
+    this.hedging = hedging;
+    this.circuitBreaker = circuitBreaker;
+    this.retryPolicy = retryPolicy;
+    this.metrics = metrics;
+  }
+
+  /**
+   * The latency and status codes of the ProjectBank calls made by this client, and what its
+   * hedging, circuit breaker and retries counted. Sources that decorate this one share them.
+   */
+  @Override
+  public Metrics getMetrics() {
+    return metrics;
   }
 
+  @Override
   public NfrFundingSearchResult query(String query, int offset, int size)
       throws BadGatewayException {
-    URI requestUri =
-        UriWrapper.fromUri(baseUri)
-            .addChild("search")
-            .addQueryParameter("query", query)
-            .addQueryParameter("from", Integer.toString(offset))
-            .addQueryParameter("size", Integer.toString(size))
-            .getUri();
-    HttpRequest request = HttpRequest.newBuilder().GET().uri(requestUri).build();
+    return query(query, offset, size, DEFAULT_REQUEST_TIMEOUT);
+  }
 
-    try {
-      HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+  @Override
+  public NfrFundingSearchResult query(String query, int offset, int size, Duration timeout)
+      throws BadGatewayException {
+    var requestUri = createSearchUri(query, offset, size);
+    return Span.current()
+        .inChild(
+            SpanNames.UPSTREAM_QUERY,
+            () ->
+                await(
+                    inFlightQueries.execute(
+                        requestUri,
+                        () ->
+                            new Exchange<>(
+                                    requestUri,
+                                    NfrFundingSearchResultReader::read,
+                                    querySpan(offset, size))
+                                .run(timeout, isBlocking()))));
+  }
 
-      if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-        return JsonUtils.dtoObjectMapper.readValue(response.body(), NfrFundingSearchResult.class);
-      }
+  /**
+   * Same as {@link #query(String, int, int, Duration)}, but the response body is read by {@code
+   * reader} instead of into a {@link NfrFundingSearchResult}. Such queries are not collapsed with
+   * identical queries in flight, since each reader makes its own result.
+   */
+  @Override
+  public <T> T query(String query, int offset, int size, Duration timeout, ResponseReader<T> reader)
+      throws BadGatewayException {
+    return Span.current()
+        .inChild(
+            SpanNames.UPSTREAM_QUERY,
+            () ->
+                await(
+                    new Exchange<>(
+                            createSearchUri(query, offset, size), reader, querySpan(offset, size))
+                        .run(timeout, isBlocking())));
+  }
 
-      throw new BadGatewayException(
-          String.format("Unexpected response: %d - %s", response.statusCode(), response.body()));
-    } catch (IOException | InterruptedException e) {
+  /** Answers fresh pages only, since the client keeps no earlier answers to fall back to. */
+  @Override
+  public MaybeStale<NfrFundingSearchResult> queryAllowingStale(
+      String query, int offset, int size, Duration timeout) throws BadGatewayException {
+    return MaybeStale.fresh(query(query, offset, size, timeout));
+  }
+
+  /**
+   * Non-blocking counterpart of {@link #query(String, int, int)}. Upstream failures complete the
+   * future with a {@link BadGatewayException}, and a call that has not completed within {@code
+   * timeout} completes with a {@link java.util.concurrent.TimeoutException}. Cancelling the
+   * returned future aborts the upstream request unless other callers are waiting for it.
+   */
+  @Override
+  public CompletableFuture<NfrFundingSearchResult> queryAsync(
+      String query, int offset, int size, Duration timeout) {
+    var requestUri = createSearchUri(query, offset, size);
+    var span =
+        Span.current()
+            .startChild(SpanNames.UPSTREAM_QUERY, SpanKind.INTERNAL)
+            .setAttribute(SpanNames.QUERY_OFFSET, offset)
+            .setAttribute(SpanNames.QUERY_SIZE, size);
+    var result =
+        inFlightQueries
+            .execute(
+                requestUri,
+                () ->
+                    new Exchange<>(requestUri, NfrFundingSearchResultReader::read, span)
+                        .run(timeout, false))
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    return endWhenDone(span, result);
+  }
+
+  private URI createSearchUri(String query, int offset, int size) {
+    return UriWrapper.fromUri(baseUri)
+        .addChild("search")
+        .addQueryParameter("query", query)
+        .addQueryParameter("from", Integer.toString(offset))
+        .addQueryParameter("size", Integer.toString(size))
+        .getUri();
+  }
+
+  /** The current span, which is the span of a query while it is sent, with its paging. */
+  private static Span querySpan(int offset, int size) {
+    return Span.current()
+        .setAttribute(SpanNames.QUERY_OFFSET, offset)
+        .setAttribute(SpanNames.QUERY_SIZE, size);
+  }
+
+  /**
+   * Ends {@code span} when {@code result} completes, as failed unless it succeeded or was
+   * cancelled.
+   */
+  private static <T> CompletableFuture<T> endWhenDone(Span span, CompletableFuture<T> result) {
+    result.whenComplete(
+        (value, failure) -> {
+          if (failure != null && !result.isCancelled()) {
+            span.recordException(
+                failure instanceof CompletionException ? failure.getCause() : failure);
+          }
+          span.end();
+        });
+    return result;
+  }
+
+  private static void registerCounters(
+      Metrics metrics,
+      RequestHedging hedging,
+      CircuitBreaker circuitBreaker,
+      RetryPolicy retryPolicy) {
+    metrics.registerCounter(MetricNames.HEDGES_SENT, () -> hedging.counts().hedgesSent());
+    metrics.registerCounter(MetricNames.HEDGES_WON, () -> hedging.counts().hedgesWon());
+    metrics.registerCounter(
+        MetricNames.HEDGES_OVER_BUDGET, () -> hedging.counts().hedgesOverBudget());
+    metrics.registerCounter(
+        MetricNames.CIRCUIT_BREAKER_OPENINGS, () -> circuitBreaker.counts().openings());
+    metrics.registerCounter(
+        MetricNames.CIRCUIT_BREAKER_REJECTIONS, () -> circuitBreaker.counts().rejectedCalls());
+    metrics.registerCounter(MetricNames.UPSTREAM_ATTEMPTS, retryPolicy::getAttemptCount);
+    metrics.registerCounter(MetricNames.RETRIES, () -> retryPolicy.getCount(Outcome.RETRIED));
+    metrics.registerCounter(
+        MetricNames.RETRIES_EXHAUSTED, () -> retryPolicy.getCount(Outcome.ATTEMPTS_EXHAUSTED));
+    metrics.registerCounter(
+        MetricNames.RETRY_DEADLINES_REACHED, () -> retryPolicy.getCount(Outcome.DEADLINE_REACHED));
+  }
+
+  private boolean isBlocking() {
+    return !hedging.isEnabled() && !retryPolicy.allowsRetries();
+  }
+
+  private <T> T await(CompletableFuture<T> result) throws BadGatewayException {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
       throw logAndCreateCustomException(e);
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static BadGatewayException unwrap(ExecutionException e) {
+    if (e.getCause() instanceof BadGatewayException badGatewayException) {
+      return badGatewayException;
     }
+    if (e.getCause() instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    throw new IllegalStateException(e.getCause());
   }
 
   @JacocoGenerated
-  private BadGatewayException logAndCreateCustomException(Exception e) {
+  private BadGatewayException logAndCreateCustomException(Throwable e) {
     var message = "Failed to communicate with NFR rest api!";
     LOGGER.error(message, e);
 
     if (e instanceof InterruptedException) {
       Thread.currentThread().interrupt();
     }
-    return new BadGatewayException(message);
+    var exception = new BadGatewayException(message);
+    exception.initCause(e);
+    return exception;
+  }
+
+  /** A query of ProjectBank whose successful response is read by {@code reader}. */
+  private final class Exchange<T> {
+
+    private final URI requestUri;
+    private final ResponseReader<T> reader;
+    private final Span span;
+
+    /** Every attempt of the exchange is traced in its own span within {@code span}. */
+    private Exchange(URI requestUri, ResponseReader<T> reader, Span span) {
+      this.requestUri = requestUri;
+      this.reader = reader;
+      this.span = span;
+    }
+
+    private Span startAttempt() {
+      return span.startChild(SpanNames.UPSTREAM_REQUEST, SpanKind.CLIENT)
+          .setAttribute(SpanNames.SERVER_ADDRESS, requestUri.getHost())
+          .setAttribute(SpanNames.URL_PATH, requestUri.getPath());
+    }
+
+    /**
+     * A request that carries the trace context of {@code attempt} to ProjectBank, whose method is
+     * recorded on {@code attempt}.
+     */
+    private HttpRequest newRequest(Duration timeout, Span attempt) {
+      var request = HttpRequest.newBuilder().GET().uri(requestUri).timeout(timeout);
+      attempt
+          .traceparent()
+          .ifPresent(traceparent -> request.header(Tracer.TRACEPARENT_HEADER, traceparent));
+      var built = request.build();
+      attempt.setAttribute(SpanNames.REQUEST_METHOD, built.method());
+      return built;
+    }
+
+    /**
+     * Sends the request on the calling thread when {@code blocking}, which is only done when the
+     * call is neither hedged nor retried, and asynchronously otherwise.
+     */
+    private CompletableFuture<T> run(Duration timeout, boolean blocking) {
+      return retryPolicy.execute(
+          timeout,
+          attemptTimeout ->
+              circuitBreaker.execute(
+                  () ->
+                      blocking
+                          ? send(attemptTimeout)
+                          : hedging.execute(() -> sendAsync(attemptTimeout))));
+    }
+
+    private CompletableFuture<T> send(Duration timeout) {
+      var attempt = startAttempt();
+      return endWhenDone(attempt, send(newRequest(timeout, attempt), attempt));
+    }
+
+    @SuppressWarnings("PMD.OnlyOneReturn")
+    private CompletableFuture<T> send(HttpRequest request, Span attempt) {
+      var started = System.nanoTime();
+
+      try {
+        var response = httpClient.get().send(request, BodyHandlers.ofInputStream());
+        return CompletableFuture.completedFuture(
+            read(response.statusCode(), response.body(), started, attempt));
+      } catch (BadGatewayException e) {
+        return CompletableFuture.failedFuture(e);
+      } catch (IOException | InterruptedException e) {
+        metrics.count(MetricNames.UPSTREAM_ERRORS);
+        return CompletableFuture.failedFuture(logAndCreateCustomException(e));
+      }
+    }
+
+    private CompletableFuture<T> sendAsync(Duration timeout) {
+      var attempt = startAttempt();
+      return endWhenDone(attempt, sendAsync(newRequest(timeout, attempt), attempt));
+    }
+
+    /**
+     * Sends the request asynchronously. The client collects the body without blocking any thread,
+     * and it is parsed on {@link SharedHttpClient#responseReaders()} once it has arrived, so that
+     * parsing does not hold up the HttpClient's executor while it delivers other responses.
+     */
+    private CompletableFuture<T> sendAsync(HttpRequest request, Span attempt) {
+      var started = System.nanoTime();
+      var exchange = httpClient.get().sendAsync(request, BodyHandlers.ofByteArray());
+      var result = new CompletableFuture<T>();
+      exchange.whenCompleteAsync(
+          (response, failure) -> {
+            if (failure == null) {
+              var body = new ByteArrayInputStream(response.body());
+              completeAsync(result, response.statusCode(), body, started, attempt);
+            } else if (!result.isCancelled()) {
+              metrics.count(MetricNames.UPSTREAM_ERRORS);
+              var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+              result.completeExceptionally(logAndCreateCustomException(cause));
+            }
+          },
+          SharedHttpClient.responseReaders());
+      result.whenComplete(
+          (value, failure) -> {
+            if (result.isCancelled()) {
+              exchange.cancel(true);
+            }
+          });
+      return result;
+    }
+
+    private void completeAsync(
+        CompletableFuture<T> result, int statusCode, InputStream body, long started, Span attempt) {
+      try {
+        result.complete(read(statusCode, body, started, attempt));
+      } catch (BadGatewayException e) {
+        result.completeExceptionally(e);
+      } catch (IOException e) {
+        result.completeExceptionally(logAndCreateCustomException(e));
+      }
+    }
+
+    /** Reads the response, and records the latency of the call once it has been read. */
+    private T read(int statusCode, InputStream responseBody, long started, Span attempt)
+        throws BadGatewayException, IOException {
+      metrics.count(MetricNames.UPSTREAM_STATUS_PREFIX + statusCode);
+      attempt.setAttribute(SpanNames.RESPONSE_STATUS_CODE, statusCode);
+      try (var body = responseBody) {
+        if (statusCode == HttpURLConnection.HTTP_OK) {
+          return attempt.inChild(SpanNames.PARSE, () -> reader.read(body));
+        }
+
+        var exception =
+            new BadGatewayException(
+                String.format(
+                    "Unexpected response: %d - %s",
+                    statusCode, new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        exception.initCause(new UnexpectedResponseException(statusCode));
+        throw exception;
+      } finally {
+        metrics.recordDuration(MetricNames.UPSTREAM_LATENCY, System.nanoTime() - started);
+      }
+    }
   }
 }
@@ -0,0 +1,137 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.unit.nva.commons.json.JsonUtils;
+
+/**
+ * Reads ProjectBank search responses token by token straight from the response stream. Only the
+ * fields used by the integration are materialized; everything else, including all metadata entries
+ * except the title, is skipped without being buffered.
+ */
+public final class NfrFundingSearchResultReader {
+
+  private static final String TOTAL_HITS_FIELD = "totalHits";
+  private static final String FROM_FIELD = "from";
+  private static final String SIZE_FIELD = "size";
+  private static final String HITS_FIELD = "hits";
+  private static final String PROJECT_ID_FIELD = "projectId";
+  private static final String ACTIVE_FROM_FIELD = "activeFrom";
+  private static final String ACTIVE_TO_FIELD = "activeTo";
+  private static final String LEAD_NAME_FIELD = "leadName";
+  private static final String ENGLISH_FIELD = "english";
+  private static final String NORWEGIAN_FIELD = "norwegian";
+  private static final String TITLE_METADATA_KEY = "title";
+
+  private NfrFundingSearchResultReader() {}
+
+  public static NfrFundingSearchResult read(InputStream inputStream) throws IOException {
+    var hits = new ArrayList<NfrFunding>();
+    var totals = forEachHit(inputStream, hits::add);
+    return new NfrFundingSearchResult(
+        totals.getTotalHits(), totals.getFrom(), totals.getSize(), hits);
+  }
+
+  /**
+   * Reads a search response and hands every hit to {@code consumer} as soon as it has been read, so
+   * that no more than one hit is held at a time. The returned result has the totals of the response
+   * and no hits.
+   */
+  public static NfrFundingSearchResult forEachHit(InputStream inputStream, HitConsumer consumer)
+      throws IOException {
+    try (var parser = JsonUtils.dtoObjectMapper.createParser(inputStream)) {
+      parser.nextToken();
+      expect(parser, JsonToken.START_OBJECT);
+      var totalHits = 0;
+      var from = 0;
+      var size = 0;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var fieldName = parser.currentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case TOTAL_HITS_FIELD -> totalHits = parser.getValueAsInt();
+          case FROM_FIELD -> from = parser.getValueAsInt();
+          case SIZE_FIELD -> size = parser.getValueAsInt();
+          case HITS_FIELD -> readHits(parser, consumer);
+          default -> parser.skipChildren();
+        }
+      }
+      return new NfrFundingSearchResult(totalHits, from, size, Collections.emptyList());
+    }
+  }
+
+  private static void readHits(JsonParser parser, HitConsumer consumer) throws IOException {
+    if (parser.currentToken() == JsonToken.START_ARRAY) {
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        consumer.accept(readFunding(parser));
+      }
+    }
+  }
+
+  private static NfrFunding readFunding(JsonParser parser) throws IOException {
+    var projectId = 0;
+    Instant activeFrom = null;
+    Instant activeTo = null;
+    String leadName = null;
+    Map<String, String> english = Collections.emptyMap();
+    Map<String, String> norwegian = Collections.emptyMap();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var fieldName = parser.currentName();
+      parser.nextToken();
+      switch (fieldName) {
+        case PROJECT_ID_FIELD -> projectId = parser.getValueAsInt();
+        case ACTIVE_FROM_FIELD -> activeFrom = readInstant(parser);
+        case ACTIVE_TO_FIELD -> activeTo = readInstant(parser);
+        case LEAD_NAME_FIELD -> leadName = parser.getValueAsString();
+        case ENGLISH_FIELD -> english = readTitleOnly(parser);
+        case NORWEGIAN_FIELD -> norwegian = readTitleOnly(parser);
+        default -> parser.skipChildren();
+      }
+    }
+    return new NfrFunding(projectId, activeFrom, activeTo, leadName, english, norwegian);
+  }
+
+  private static Instant readInstant(JsonParser parser) throws IOException {
+    return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.readValueAs(Instant.class);
+  }
+
+  private static Map<String, String> readTitleOnly(JsonParser parser) throws IOException {
+    Map<String, String> metadata = Collections.emptyMap();
+    if (parser.currentToken() == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var key = parser.currentName();
+        parser.nextToken();
+        if (TITLE_METADATA_KEY.equals(key) && parser.currentToken().isScalarValue()) {
+          metadata = Map.of(TITLE_METADATA_KEY, parser.getValueAsString());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return metadata;
+  }
+
+  private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+    if (parser.currentToken() != expected) {
+      throw new JsonParseException(
+          parser,
+          "Expected " + expected + " in NFR search response but got " + parser.currentToken());
+    }
+  }
+
+  /** Receives the hits of a search response one at a time, in the order they are read. */
+  @FunctionalInterface
+  public interface HitConsumer {
+
+    void accept(NfrFunding hit) throws IOException;
+  }
+}
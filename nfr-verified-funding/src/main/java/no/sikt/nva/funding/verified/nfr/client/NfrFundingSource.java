@@ -0,0 +1,45 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+
+/**
+ * Answers ProjectBank search queries. {@link NfrApiClient} calls ProjectBank, and {@link
+ * CachingNfrApiClient} answers from its page cache before asking the source it decorates.
+ */
+public interface NfrFundingSource {
+
+  /** The metrics of the ProjectBank calls made to answer queries. */
+  Metrics getMetrics();
+
+  NfrFundingSearchResult query(String query, int offset, int size) throws BadGatewayException;
+
+  /** Fails with a {@link BadGatewayException} when ProjectBank has not answered within timeout. */
+  NfrFundingSearchResult query(String query, int offset, int size, Duration timeout)
+      throws BadGatewayException;
+
+  /**
+   * Same as {@link #query(String, int, int, Duration)}, but the response body is read by {@code
+   * reader} instead of into a {@link NfrFundingSearchResult}.
+   */
+  <T> T query(String query, int offset, int size, Duration timeout, ResponseReader<T> reader)
+      throws BadGatewayException;
+
+  /**
+   * Same as {@link #query(String, int, int, Duration)}, but sources that keep earlier answers serve
+   * the last known good page, marked as stale, while the circuit breaker is open.
+   */
+  MaybeStale<NfrFundingSearchResult> queryAllowingStale(
+      String query, int offset, int size, Duration timeout) throws BadGatewayException;
+
+  /**
+   * Non-blocking counterpart of {@link #query(String, int, int, Duration)}. Upstream failures
+   * complete the future with a {@link BadGatewayException}, and a call that has not completed
+   * within {@code timeout} completes with a {@link java.util.concurrent.TimeoutException}.
+   */
+  CompletableFuture<NfrFundingSearchResult> queryAsync(
+      String query, int offset, int size, Duration timeout);
+}
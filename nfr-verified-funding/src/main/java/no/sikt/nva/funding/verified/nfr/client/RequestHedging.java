@@ -0,0 +1,210 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/**
+ * Sends a second, identical request when the first has not answered within a percentile of the
+ * recently observed latency, and completes with whichever answers first. A failed attempt only
+ * fails the call once no other attempt is outstanding, and the attempts still running when the call
+ * completes are cancelled.
+ *
+ * <p>Hedges are paid for from a budget that grows by {@code maxHedgePercent} of a hedge for every
+ * request, so that no more than that share of the requests are sent twice even when ProjectBank
+ * slows down as a whole.
+ */
+public class RequestHedging {
+
+  public static final int WINDOW_SIZE = 128;
+  public static final int MINIMUM_SAMPLES = 20;
+  private static final double PERCENT = 100;
+  private static final double MAXIMUM_BUDGET = 10;
+  private static final String DEFAULT_MAX_HEDGE_PERCENT = "5";
+  private static final RequestHedging NO_HEDGING = new RequestHedging(PERCENT, 0);
+
+  private final double percentile;
+  private final double budgetPerRequest;
+  private final Function<Duration, Executor> delayedExecutor;
+  private final long[] latencies = new long[WINDOW_SIZE];
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder hedgesSent = new LongAdder();
+  private final LongAdder hedgesWon = new LongAdder();
+  private final LongAdder hedgesOverBudget = new LongAdder();
+  private int recorded;
+  private double budget;
+
+  public RequestHedging(double percentile, double maxHedgePercent) {
+    this(
+        percentile,
+        maxHedgePercent,
+        delay -> CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS));
+  }
+
+  public RequestHedging(
+      double percentile, double maxHedgePercent, Function<Duration, Executor> delayedExecutor) {
+    if (percentile <= 0 || percentile > PERCENT) {
+      throw new IllegalArgumentException("Percentile must be above 0 and at most 100");
+    }
+    this.percentile = percentile;
+    this.budgetPerRequest = maxHedgePercent / PERCENT;
+    this.delayedExecutor = delayedExecutor;
+  }
+
+  public static RequestHedging disabled() {
+    return NO_HEDGING;
+  }
+
+  /** Hedging is enabled by setting HEDGE_PERCENTILE, and HEDGE_MAX_PERCENT caps the hedge rate. */
+  public static RequestHedging fromEnvironment(Environment environment) {
+    var maxHedgePercent =
+        environment.readEnvOpt(EnvironmentKeys.HEDGE_MAX_PERCENT).orElse(DEFAULT_MAX_HEDGE_PERCENT);
+    return environment
+        .readEnvOpt(EnvironmentKeys.HEDGE_PERCENTILE)
+        .map(Double::parseDouble)
+        .map(percentile -> new RequestHedging(percentile, Double.parseDouble(maxHedgePercent)))
+        .orElse(NO_HEDGING);
+  }
+
+  public boolean isEnabled() {
+    return budgetPerRequest > 0;
+  }
+
+  public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    return isEnabled() ? hedge(call) : call.get();
+  }
+
+  /** The delay after which a request is hedged, empty while too few latencies are known. */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public synchronized Optional<Duration> hedgeDelay() {
+    var samples = Math.min(recorded, WINDOW_SIZE);
+    if (samples < MINIMUM_SAMPLES) {
+      return Optional.empty();
+    }
+    var sorted = Arrays.copyOf(latencies, samples);
+    Arrays.sort(sorted);
+    var rank = (int) Math.ceil(percentile / PERCENT * samples) - 1;
+    return Optional.of(Duration.ofNanos(sorted[rank]));
+  }
+
+  public Counts counts() {
+    return new Counts(requests.sum(), hedgesSent.sum(), hedgesWon.sum(), hedgesOverBudget.sum());
+  }
+
+  /** Adds a latency to the window. Attempts sent by {@link #execute} record theirs themselves. */
+  public synchronized void recordLatency(long nanos) {
+    latencies[recorded % WINDOW_SIZE] = nanos;
+    recorded = recorded == Integer.MAX_VALUE ? WINDOW_SIZE : recorded + 1;
+  }
+
+  private <T> CompletableFuture<T> hedge(Supplier<CompletableFuture<T>> call) {
+    requests.increment();
+    depositBudget();
+    var hedgeDelay = hedgeDelay();
+    var hedged = new HedgedCall<T>();
+    hedged.start(timed(call), false);
+    hedgeDelay.ifPresent(
+        delay -> delayedExecutor.apply(delay).execute(() -> sendHedge(hedged, call)));
+    return hedged.result;
+  }
+
+  private synchronized void depositBudget() {
+    budget = Math.min(MAXIMUM_BUDGET, budget + budgetPerRequest);
+  }
+
+  private synchronized boolean tryPayForHedge() {
+    var affordable = budget >= 1;
+    if (affordable) {
+      budget -= 1;
+    }
+    return affordable;
+  }
+
+  private <T> void sendHedge(HedgedCall<T> hedged, Supplier<CompletableFuture<T>> call) {
+    if (!hedged.isDone()) {
+      if (tryPayForHedge()) {
+        hedgesSent.increment();
+        hedged.start(timed(call), true);
+      } else {
+        hedgesOverBudget.increment();
+      }
+    }
+  }
+
+  private <T> CompletableFuture<T> timed(Supplier<CompletableFuture<T>> call) {
+    var started = System.nanoTime();
+    var attempt = call.get();
+    attempt.thenRun(() -> recordLatency(System.nanoTime() - started));
+    return attempt;
+  }
+
+  /**
+   * Number of requests, of hedges sent, of hedges that answered before the original request and of
+   * hedges that were due but not sent because the budget was spent.
+   */
+  public record Counts(long requests, long hedgesSent, long hedgesWon, long hedgesOverBudget) {}
+
+  private final class HedgedCall<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> attempts = new ArrayList<>();
+    private boolean answered;
+    private int outstanding;
+
+    private HedgedCall() {
+      result.whenComplete((value, failure) -> cancelAttempts());
+    }
+
+    private boolean isDone() {
+      return result.isDone();
+    }
+
+    private void start(CompletableFuture<T> attempt, boolean isHedge) {
+      synchronized (this) {
+        attempts.add(attempt);
+        outstanding++;
+      }
+      attempt.whenComplete((value, failure) -> complete(value, failure, isHedge));
+      if (result.isDone()) {
+        attempt.cancel(true);
+      }
+    }
+
+    private void complete(T value, Throwable failure, boolean isHedge) {
+      boolean first;
+      boolean last;
+      synchronized (this) {
+        outstanding--;
+        first = failure == null && !answered;
+        answered |= first;
+        last = outstanding == 0;
+      }
+      if (first && isHedge) {
+        hedgesWon.increment();
+      }
+      if (failure == null) {
+        result.complete(value);
+      } else if (last) {
+        result.completeExceptionally(failure);
+      }
+    }
+
+    private void cancelAttempts() {
+      List<CompletableFuture<T>> started;
+      synchronized (this) {
+        started = List.copyOf(attempts);
+      }
+      started.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Reads the body of a successful ProjectBank search response into the result of a query. */
+@FunctionalInterface
+public interface ResponseReader<T> {
+
+  T read(InputStream body) throws IOException;
+}
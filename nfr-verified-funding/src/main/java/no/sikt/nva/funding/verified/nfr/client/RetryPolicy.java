@@ -0,0 +1,257 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retries ProjectBank calls that failed for a reason that is likely to pass: a 429 or 5xx response,
+ * or a connection that could not be opened or was lost. Responses that cannot be parsed, request
+ * timeouts and calls rejected by the circuit breaker are not retried.
+ *
+ * <p>Retries wait a decorrelated jittered backoff, a random delay between the base delay and three
+ * times the previous delay, capped at the maximum delay. All attempts share the time budget of the
+ * call, each attempt gets what is left of it as its timeout, and no retry is made unless at least
+ * {@link #MINIMUM_ATTEMPT_TIME} would be left for it after the backoff.
+ */
+public class RetryPolicy {
+
+  public static final Duration MINIMUM_ATTEMPT_TIME = Duration.ofMillis(250);
+  private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicy.class);
+  private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(429, 500, 502, 503, 504);
+  private static final String DEFAULT_MAX_ATTEMPTS = "3";
+  private static final String DEFAULT_BASE_DELAY_MILLIS = "50";
+  private static final String DEFAULT_MAX_DELAY_MILLIS = "1000";
+  private static final int FIRST_ATTEMPT = 1;
+  private static final int BACKOFF_GROWTH = 3;
+  private static final long MINIMUM_TIMEOUT_NANOS = Duration.ofMillis(1).toNanos();
+  // unlike a ThreadLocalRandom captured in a SnapStart snapshot, SecureRandom does not give every
+  // container restored from the snapshot the same backoffs, which would retry them in lockstep
+  private static final SecureRandom JITTER = new SecureRandom();
+  private static final RetryPolicy NO_RETRIES = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+  private final int maxAttempts;
+  private final Duration baseDelay;
+  private final Duration maxDelay;
+  private final DoubleSupplier random;
+  private final Function<Duration, Executor> delayedExecutor;
+  private final LongAdder attempts = new LongAdder();
+  private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+  public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+    this(
+        maxAttempts,
+        baseDelay,
+        maxDelay,
+        JITTER::nextDouble,
+        delay -> CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS));
+  }
+
+  public RetryPolicy(
+      int maxAttempts,
+      Duration baseDelay,
+      Duration maxDelay,
+      DoubleSupplier random,
+      Function<Duration, Executor> delayedExecutor) {
+    if (maxAttempts < FIRST_ATTEMPT) {
+      throw new IllegalArgumentException("At least one attempt must be allowed");
+    }
+    this.maxAttempts = maxAttempts;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    this.random = random;
+    this.delayedExecutor = delayedExecutor;
+    for (var outcome : Outcome.values()) {
+      outcomes.put(outcome, new LongAdder());
+    }
+  }
+
+  public static RetryPolicy noRetries() {
+    return NO_RETRIES;
+  }
+
+  public static RetryPolicy fromEnvironment(Environment environment) {
+    var maxAttempts =
+        environment.readEnvOpt(EnvironmentKeys.RETRY_MAX_ATTEMPTS).orElse(DEFAULT_MAX_ATTEMPTS);
+    var baseDelay =
+        environment
+            .readEnvOpt(EnvironmentKeys.RETRY_BASE_DELAY_MILLIS)
+            .orElse(DEFAULT_BASE_DELAY_MILLIS);
+    var maxDelay =
+        environment
+            .readEnvOpt(EnvironmentKeys.RETRY_MAX_DELAY_MILLIS)
+            .orElse(DEFAULT_MAX_DELAY_MILLIS);
+    return new RetryPolicy(
+        Integer.parseInt(maxAttempts),
+        Duration.ofMillis(Long.parseLong(baseDelay)),
+        Duration.ofMillis(Long.parseLong(maxDelay)));
+  }
+
+  /**
+   * Calls {@code attempt} with the time left of {@code budget} until it succeeds, fails for a
+   * reason that is not retryable, runs out of attempts or would run past the budget. Cancelling the
+   * returned future cancels the running attempt and any further retries.
+   */
+  public <T> CompletableFuture<T> execute(
+      Duration budget, Function<Duration, CompletableFuture<T>> attempt) {
+    return allowsRetries() ? retry(budget, attempt) : attempt.apply(budget);
+  }
+
+  public boolean allowsRetries() {
+    return maxAttempts > FIRST_ATTEMPT;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public static boolean isRetryable(Throwable failure) {
+    if (failure instanceof CircuitOpenException) {
+      return false;
+    }
+    var cause = failure.getCause();
+    if (cause instanceof UnexpectedResponseException unexpectedResponse) {
+      return RETRYABLE_STATUS_CODES.contains(unexpectedResponse.getUpstreamStatusCode());
+    }
+    return cause instanceof HttpConnectTimeoutException
+        || cause instanceof IOException
+            && !(cause instanceof HttpTimeoutException)
+            && !(cause instanceof JsonProcessingException);
+  }
+
+  public long getAttemptCount() {
+    return attempts.sum();
+  }
+
+  public long getCount(Outcome outcome) {
+    return outcomes.get(outcome).sum();
+  }
+
+  private <T> CompletableFuture<T> retry(
+      Duration budget, Function<Duration, CompletableFuture<T>> attempt) {
+    var call = new RetriedCall<>(System.nanoTime() + budget.toNanos(), attempt);
+    call.run(FIRST_ATTEMPT, baseDelay);
+    return call.result;
+  }
+
+  private Duration nextDelay(Duration previousDelay) {
+    var lowest = baseDelay.toNanos();
+    var highest = Math.max(lowest, previousDelay.toNanos() * BACKOFF_GROWTH);
+    var jittered = lowest + (long) (random.getAsDouble() * (highest - lowest));
+    return Duration.ofNanos(Math.min(maxDelay.toNanos(), jittered));
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause()
+        : failure;
+  }
+
+  /** How a call ended, or {@code RETRIED} for every retry that was made. */
+  public enum Outcome {
+    SUCCEEDED,
+    SUCCEEDED_AFTER_RETRY,
+    RETRIED,
+    NOT_RETRYABLE,
+    ATTEMPTS_EXHAUSTED,
+    DEADLINE_REACHED
+  }
+
+  private final class RetriedCall<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final long deadlineNanos;
+    private final Function<Duration, CompletableFuture<T>> attempt;
+    private volatile CompletableFuture<T> current;
+
+    private RetriedCall(long deadlineNanos, Function<Duration, CompletableFuture<T>> attempt) {
+      this.deadlineNanos = deadlineNanos;
+      this.attempt = attempt;
+      result.whenComplete((value, failure) -> cancelCurrentAttempt());
+    }
+
+    private void run(int attemptNumber, Duration previousDelay) {
+      if (result.isDone()) {
+        return;
+      }
+      attempts.increment();
+      var running = attempt.apply(remaining());
+      current = running;
+      running.whenComplete(
+          (value, failure) -> {
+            if (failure == null) {
+              succeed(attemptNumber, value);
+            } else {
+              retryOrFail(attemptNumber, previousDelay, unwrap(failure));
+            }
+          });
+    }
+
+    private void succeed(int attemptNumber, T value) {
+      finish(attemptNumber == FIRST_ATTEMPT ? Outcome.SUCCEEDED : Outcome.SUCCEEDED_AFTER_RETRY);
+      result.complete(value);
+    }
+
+    private void retryOrFail(int attemptNumber, Duration previousDelay, Throwable failure) {
+      var delay = nextDelay(previousDelay);
+      var outcome = outcome(attemptNumber, delay, failure);
+      if (outcome == Outcome.RETRIED) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("Retrying NFR rest api call in {} ms after: {}", delay.toMillis(), failure);
+        }
+        outcomes.get(Outcome.RETRIED).increment();
+        delayedExecutor.apply(delay).execute(() -> run(attemptNumber + 1, delay));
+      } else {
+        finish(outcome);
+        result.completeExceptionally(failure);
+      }
+    }
+
+    private Outcome outcome(int attemptNumber, Duration delay, Throwable failure) {
+      Outcome outcome;
+      if (isRetryable(failure)) {
+        if (attemptNumber >= maxAttempts) {
+          outcome = Outcome.ATTEMPTS_EXHAUSTED;
+        } else if (remaining().minus(delay).compareTo(MINIMUM_ATTEMPT_TIME) < 0) {
+          outcome = Outcome.DEADLINE_REACHED;
+        } else {
+          outcome = Outcome.RETRIED;
+        }
+      } else {
+        outcome = Outcome.NOT_RETRYABLE;
+      }
+      return outcome;
+    }
+
+    private void finish(Outcome outcome) {
+      if (!result.isDone()) {
+        outcomes.get(outcome).increment();
+      }
+    }
+
+    private void cancelCurrentAttempt() {
+      var running = current;
+      if (running != null) {
+        running.cancel(true);
+      }
+    }
+
+    private Duration remaining() {
+      return Duration.ofNanos(Math.max(MINIMUM_TIMEOUT_NANOS, deadlineNanos - System.nanoTime()));
+    }
+  }
+}
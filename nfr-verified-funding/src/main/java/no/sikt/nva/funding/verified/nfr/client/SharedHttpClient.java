@@ -0,0 +1,131 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The HttpClient shared by the ProjectBank clients of a Lambda container. It prefers HTTP/2, has a
+ * connect timeout and keeps connections alive between invocations. It can be replaced with a fresh
+ * instance when the container is restored from a snapshot, so that no connection or selector state
+ * from before the checkpoint is reused.
+ *
+ * <p>The client runs its own callbacks, including the HTTP/2 frame processing that feeds response
+ * bodies, on its executor. Asynchronous calls collect their bodies without blocking and parse them
+ * on the separate {@link #responseReaders()} pool, so nothing holds up that executor.
+ */
+public final class SharedHttpClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedHttpClient.class);
+  private static final String DEFAULT_CONNECT_TIMEOUT_MILLIS = "2000";
+  private static final String DEFAULT_THREADS = "4";
+  private static final Set<URI> WARMED_UP_ORIGINS = ConcurrentHashMap.newKeySet();
+  private static final ExecutorService EXECUTOR = newExecutor(new Environment());
+  private static final ExecutorService RESPONSE_READERS =
+      newFixedPool(threads(new Environment()), "nfr-response-reader");
+
+  private static volatile HttpClient current = create(new Environment(), EXECUTOR);
+
+  private SharedHttpClient() {}
+
+  public static HttpClient get() {
+    return current;
+  }
+
+  /**
+   * Replaces the shared client, closes the one it replaces and opens connections to the origins
+   * that were warmed up. The replaced client is shut down without waiting for its exchanges, whose
+   * connections did not survive the snapshot.
+   */
+  public static void reconnect() {
+    var replaced = current;
+    current = create(new Environment(), EXECUTOR);
+    replaced.shutdownNow();
+    WARMED_UP_ORIGINS.forEach(SharedHttpClient::connect);
+  }
+
+  /**
+   * Resolves the host and completes the TLS handshake with the origin of {@code uri} during
+   * initialization, leaving a kept-alive connection in the pool for the first request. Failures are
+   * logged and otherwise ignored, the first request then connects as usual.
+   */
+  public static void warmUp(URI uri) {
+    var origin = uri.resolve("/");
+    if (WARMED_UP_ORIGINS.add(origin)) {
+      connect(origin);
+    }
+  }
+
+  public static HttpClient create(Environment environment, ExecutorService executor) {
+    var connectTimeout =
+        environment
+            .readEnvOpt(EnvironmentKeys.HTTP_CONNECT_TIMEOUT_MILLIS)
+            .orElse(DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    return HttpClient.newBuilder()
+        .version(Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(Long.parseLong(connectTimeout)))
+        .followRedirects(Redirect.NEVER)
+        .executor(executor)
+        .build();
+  }
+
+  /**
+   * The executor of a client, with {@code HTTP_CLIENT_THREADS} threads. Nothing run on it blocks,
+   * so callbacks queued while they are all busy wait only for others to finish.
+   */
+  public static ExecutorService newExecutor(Environment environment) {
+    return newFixedPool(threads(environment), "nfr-http-client");
+  }
+
+  /**
+   * The pool response bodies are parsed on, off the client's executor, with as many threads as the
+   * executor. Bodies are handed to it once they have been received in full.
+   */
+  public static Executor responseReaders() {
+    return RESPONSE_READERS;
+  }
+
+  private static int threads(Environment environment) {
+    return Integer.parseInt(
+        environment.readEnvOpt(EnvironmentKeys.HTTP_CLIENT_THREADS).orElse(DEFAULT_THREADS));
+  }
+
+  private static ExecutorService newFixedPool(int threads, String name) {
+    return Executors.newFixedThreadPool(
+        threads,
+        runnable -> {
+          var thread = new Thread(runnable, name);
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static void connect(URI origin) {
+    var request =
+        HttpRequest.newBuilder(origin)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .timeout(current.connectTimeout().orElseThrow().multipliedBy(2))
+            .build();
+    try {
+      current.send(request, BodyHandlers.discarding());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      LOGGER.warn("Could not warm up connection to {}", origin, e);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one call. Callers arriving while a call for
+ * their key is in flight receive the outcome of that call instead of starting a new one. Each
+ * caller gets its own future; the shared call is cancelled once every caller has given up on it,
+ * and callers arriving after that start a new call instead of joining the cancelled one.
+ */
+public class SingleFlight<K, V> {
+
+  private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+    var joined = Optional.<CompletableFuture<V>>empty();
+    while (joined.isEmpty()) {
+      var flight = new Flight<V>();
+      var existing = inFlight.putIfAbsent(key, flight);
+      if (existing == null) {
+        return lead(key, flight, call);
+      }
+      joined = existing.join();
+      if (joined.isEmpty()) {
+        inFlight.remove(key, existing);
+      }
+    }
+    return joined.get();
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private CompletableFuture<V> lead(K key, Flight<V> flight, Supplier<CompletableFuture<V>> call) {
+    var caller = flight.follow();
+    try {
+      flight.start(call.get(), () -> inFlight.remove(key, flight));
+    } catch (RuntimeException e) {
+      inFlight.remove(key, flight);
+      flight.complete(null, e);
+    }
+    return caller;
+  }
+
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static final class Flight<V> {
+
+    private final CompletableFuture<V> promise = new CompletableFuture<>();
+    // Starts at one, counting the caller that created the flight.
+    private final AtomicInteger waiters = new AtomicInteger(1);
+    private volatile CompletableFuture<V> call;
+
+    /**
+     * Adds a waiter, unless every earlier waiter has given up and the call is being cancelled. A
+     * flight never gains waiters again once their count has dropped to zero.
+     */
+    @SuppressWarnings("PMD.OnlyOneReturn")
+    private Optional<CompletableFuture<V>> join() {
+      int current;
+      do {
+        current = waiters.get();
+        if (current == 0) {
+          return Optional.empty();
+        }
+      } while (!waiters.compareAndSet(current, current + 1));
+      return Optional.of(follow());
+    }
+
+    private CompletableFuture<V> follow() {
+      var caller = promise.copy();
+      caller.whenComplete((value, failure) -> abandonIfUnfinished());
+      return caller;
+    }
+
+    private void start(CompletableFuture<V> call, Runnable onCompletion) {
+      this.call = call;
+      call.whenComplete(
+          (value, failure) -> {
+            onCompletion.run();
+            complete(value, failure);
+          });
+      if (waiters.get() == 0) {
+        call.cancel(true);
+      }
+    }
+
+    private void complete(V value, Throwable failure) {
+      if (failure == null) {
+        promise.complete(value);
+      } else {
+        promise.completeExceptionally(failure);
+      }
+    }
+
+    private void abandonIfUnfinished() {
+      if (!promise.isDone() && waiters.decrementAndGet() == 0 && call != null) {
+        call.cancel(true);
+      }
+    }
+  }
+}
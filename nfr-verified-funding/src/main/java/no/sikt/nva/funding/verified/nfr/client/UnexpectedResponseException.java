@@ -0,0 +1,20 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+/**
+ * Cause of the {@link nva.commons.apigateway.exceptions.BadGatewayException} thrown when
+ * ProjectBank answers with another status code than 200 OK, telling which status it was.
+ */
+public class UnexpectedResponseException extends Exception {
+
+  private static final long serialVersionUID = 1L;
+  private final int upstreamStatusCode;
+
+  public UnexpectedResponseException(int upstreamStatusCode) {
+    super("ProjectBank answered with status " + upstreamStatusCode);
+    this.upstreamStatusCode = upstreamStatusCode;
+  }
+
+  public int getUpstreamStatusCode() {
+    return upstreamStatusCode;
+  }
+}
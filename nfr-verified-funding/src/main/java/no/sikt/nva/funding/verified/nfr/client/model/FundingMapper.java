@@ -0,0 +1,128 @@
+package no.sikt.nva.funding.verified.nfr.client.model;
+
+import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_EN;
+import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_NB;
+import static nva.commons.core.paths.UriWrapper.HTTPS;
+
+import java.net.URI;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import nva.commons.core.Environment;
+import nva.commons.core.paths.UriWrapper;
+
+/**
+ * Maps ProjectBank fundings to the {@link Funding} returned by the handlers. The {@code source} URI
+ * and the prefix of the {@code id} are the same for every funding and are built once when the
+ * mapper is created, so mapping a funding only creates its own id, identifier and labels.
+ */
+public final class FundingMapper {
+
+  private static final String TITLE_METADATA_KEY = "title";
+  private static final String NFR_SOURCE = "NFR";
+  private static final String NFR_PATH = "nfr";
+  private static final String PATH_SEPARATOR = "/";
+
+  private final URI source;
+  private final URI searchId;
+  private final String idPrefix;
+
+  @SuppressWarnings("PMD.LawOfDemeter")
+  public FundingMapper(
+      String apiDomain, String basePath, String cristinBasePath, String cristinFundingSourcesPath) {
+    this.source =
+        new UriWrapper(HTTPS, apiDomain)
+            .addChild(cristinBasePath, cristinFundingSourcesPath, NFR_SOURCE)
+            .getUri();
+    this.searchId = new UriWrapper(HTTPS, apiDomain).addChild(basePath, NFR_PATH).getUri();
+    this.idPrefix = searchId + PATH_SEPARATOR;
+  }
+
+  public static FundingMapper fromEnvironment(Environment environment) {
+    return new FundingMapper(
+        environment.readEnv(EnvironmentKeys.API_DOMAIN),
+        environment.readEnv(EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH),
+        environment.readEnv(EnvironmentKeys.CRISTIN_BASE_PATH),
+        environment.readEnv(EnvironmentKeys.CRISTIN_FUNDING_SOURCES_PATH));
+  }
+
+  public URI getSource() {
+    return source;
+  }
+
+  /** The id of the NFR funding collection, which search results are pages of. */
+  public URI getSearchId() {
+    return searchId;
+  }
+
+  public Funding map(NfrFunding funding) {
+    var identifier = Integer.toString(funding.getProjectId());
+    return new Funding(
+        source,
+        URI.create(idPrefix + identifier),
+        identifier,
+        labels(funding),
+        funding.getLeadName(),
+        funding.getActiveFrom(),
+        funding.getActiveTo());
+  }
+
+  public List<Funding> mapAll(List<NfrFunding> fundings) {
+    var mapped = new ArrayList<Funding>(fundings.size());
+    for (var funding : fundings) {
+      mapped.add(map(funding));
+    }
+    return mapped;
+  }
+
+  private static Map<String, String> labels(NfrFunding funding) {
+    var english = funding.getEnglishMetadata().get(TITLE_METADATA_KEY);
+    var norwegian = funding.getNorwegianMetadata().get(TITLE_METADATA_KEY);
+    Map<String, String> labels;
+    if (english == null) {
+      labels = norwegian == null ? Map.of() : Map.of(LANGUAGE_NB, norwegian);
+    } else {
+      labels = norwegian == null ? Map.of(LANGUAGE_EN, english) : new Labels(english, norwegian);
+    }
+    return labels;
+  }
+
+  /**
+   * Immutable labels in both languages, listed norwegian before english like the {@code
+   * ConcurrentHashMap} the labels used to be kept in, so responses keep their bytes and entity
+   * tags.
+   */
+  private static final class Labels extends AbstractMap<String, String> {
+
+    private final String english;
+    private final String norwegian;
+
+    private Labels(String english, String norwegian) {
+      super();
+      this.english = english;
+      this.norwegian = norwegian;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return List.of(Map.entry(LANGUAGE_NB, norwegian), Map.entry(LANGUAGE_EN, english))
+              .iterator();
+        }
+
+        @Override
+        public int size() {
+          return 2;
+        }
+      };
+    }
+  }
+}
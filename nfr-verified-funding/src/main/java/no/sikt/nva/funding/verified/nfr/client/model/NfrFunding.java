@@ -1,23 +1,16 @@
 package no.sikt.nva.funding.verified.nfr.client.model;
 
-import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_EN;
-import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_NB;
-import static nva.commons.core.paths.UriWrapper.HTTPS;
-
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.ContentHash;
 import nva.commons.core.JacocoGenerated;
-import nva.commons.core.paths.UriWrapper;
 
 public final class NfrFunding {
 
   private static final String TITLE_METADATA_KEY = "title";
-  private static final String NFR_SOURCE = "NFR";
 
   @JsonProperty("projectId")
   private final int projectId;
@@ -37,6 +30,8 @@ public final class NfrFunding {
   @JsonProperty("norwegian")
   private final Map<String, String> norwegianMetadata;
 
+  private String hash;
+
   @JsonCreator
   public NfrFunding(
       @JsonProperty("projectId") int projectId,
@@ -77,33 +72,25 @@ public final class NfrFunding {
     return norwegianMetadata;
   }
 
-  public Funding asFunding(
-      final String apiDomain,
-      final String basePath,
-      final String cristinBasePath,
-      final String cristinFundingSourcesPath) {
-    var identifier = Integer.toString(projectId);
-    var id = new UriWrapper(HTTPS, apiDomain).addChild(basePath, "nfr", identifier).getUri();
-    var labels = new ConcurrentHashMap<String, String>();
-    if (englishMetadata.containsKey(TITLE_METADATA_KEY)) {
-      labels.put(LANGUAGE_EN, englishMetadata.get(TITLE_METADATA_KEY));
-    }
-    if (norwegianMetadata.containsKey(TITLE_METADATA_KEY)) {
-      labels.put(LANGUAGE_NB, norwegianMetadata.get(TITLE_METADATA_KEY));
+  /**
+   * A hash of everything the funding is mapped from. It is computed on first use and kept with the
+   * funding, so fundings held by the caches and the catalog snapshot are only hashed once.
+   */
+  public String contentHash() {
+    var contentHash = hash;
+    if (contentHash == null) {
+      contentHash =
+          ContentHash.create()
+              .add(projectId)
+              .add(activeFrom)
+              .add(activeTo)
+              .add(leadName)
+              .add(englishMetadata.get(TITLE_METADATA_KEY))
+              .add(norwegianMetadata.get(TITLE_METADATA_KEY))
+              .value();
+      hash = contentHash;
     }
-    var source =
-        new UriWrapper(HTTPS, apiDomain)
-            .addChild(cristinBasePath, cristinFundingSourcesPath, NFR_SOURCE)
-            .getUri();
-
-    return new Funding(
-        source,
-        id,
-        Integer.toString(projectId),
-        labels,
-        getLeadName(),
-        getActiveFrom(),
-        getActiveTo());
+    return contentHash;
   }
 
   @JacocoGenerated
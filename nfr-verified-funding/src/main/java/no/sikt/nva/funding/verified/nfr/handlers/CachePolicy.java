@@ -0,0 +1,59 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import java.time.Duration;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/**
+ * How long browsers and shared caches may reuse an answer of one endpoint, given as {@code
+ * Cache-Control} together with the {@code ETag} the answer is revalidated with. The max-age is read
+ * from {@code CACHE_MAX_AGE_SECONDS}, which template.yaml sets to the TTL of the endpoint's API
+ * Gateway stage cache.
+ *
+ * <p>Stale answers, and endpoints with a max-age of zero, are sent with {@code no-cache}: they may
+ * be stored, but must be revalidated on every use, which their entity tag makes cheap.
+ */
+public final class CachePolicy {
+
+  public static final String CACHE_CONTROL_HEADER = "Cache-Control";
+  public static final String VARY_HEADER = "Vary";
+  public static final String NO_CACHE = "no-cache";
+  private static final String PUBLIC_MAX_AGE = "public, max-age=";
+  private static final String VARY = "Accept";
+
+  private final String cacheControl;
+
+  public CachePolicy(Duration maxAge) {
+    this.cacheControl = maxAge.isZero() ? NO_CACHE : PUBLIC_MAX_AGE + maxAge.toSeconds();
+  }
+
+  public static CachePolicy fromEnvironment(Environment environment, Duration defaultMaxAge) {
+    return new CachePolicy(
+        environment
+            .readEnvOpt(EnvironmentKeys.CACHE_MAX_AGE_SECONDS)
+            .map(seconds -> Duration.ofSeconds(Long.parseLong(seconds)))
+            .orElse(defaultMaxAge));
+  }
+
+  /** The response headers for an answer tagged {@code entityTag}, and whether it is stale. */
+  public Map<String, String> headers(String entityTag, boolean stale) {
+    return stale
+        ? Map.of(
+            EntityTag.ETAG_HEADER,
+            entityTag,
+            CACHE_CONTROL_HEADER,
+            NO_CACHE,
+            VARY_HEADER,
+            VARY,
+            StaleResponse.WARNING_HEADER,
+            StaleResponse.RESPONSE_IS_STALE)
+        : Map.of(
+            EntityTag.ETAG_HEADER,
+            entityTag,
+            CACHE_CONTROL_HEADER,
+            cacheControl,
+            VARY_HEADER,
+            VARY);
+  }
+}
@@ -0,0 +1,169 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanKind;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.core.Environment;
+
+/**
+ * Base of the handlers answering GET requests for fundings that browsers and the stage cache may
+ * reuse. Each request is traced in a span of its own and the metrics of the invocation are written
+ * once it has been answered. An answer is sent with its cache headers, or as a bodyless 304 when
+ * the request's {@code If-None-Match} already holds its entity tag.
+ *
+ * <p>ApiGatewayHandler would write the {@code null} output of a 304 as the body {@code "null"},
+ * which a 304 must not have. The response ApiGatewayHandler writes for it is therefore discarded,
+ * and the handler writes the 304 itself, with the cache headers the answer would have been sent
+ * with.
+ */
+public abstract class CacheableFundingHandler<O> extends ApiGatewayHandler<Void, O> {
+
+  public static final URI CONTEXT_URI =
+      URI.create("https://bibsysdev.github.io/src/funding-context.json");
+  private static final String STATUS_CODE_FIELD = "statusCode";
+  private static final String HEADERS_FIELD = "headers";
+  private static final String BODY_FIELD = "body";
+  private static final String EMPTY_BODY = "";
+
+  protected final transient Metrics metrics;
+  protected final transient Tracer tracer;
+  private final transient CachePolicy cachePolicy;
+  private transient Map<String, String> notModifiedHeaders;
+
+  protected CacheableFundingHandler(
+      Environment environment, Metrics metrics, Tracer tracer, Duration defaultCacheMaxAge) {
+    super(Void.class, environment);
+    this.metrics = metrics;
+    this.tracer = tracer;
+    this.cachePolicy = CachePolicy.fromEnvironment(environment, defaultCacheMaxAge);
+  }
+
+  /** Starts the span of the request, which the phases of answering it are traced within. */
+  @Override
+  protected void validateRequest(Void unused, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    tracer
+        .startRequestSpan(getClass().getSimpleName(), requestInfo.getHeaders())
+        .setAttribute(SpanNames.INVOCATION_ID, context.getAwsRequestId());
+  }
+
+  /** Ends the spans and writes the metrics of the invocation once it has been answered. */
+  @Override
+  public void handleRequest(InputStream input, OutputStream output, Context context)
+      throws IOException {
+    notModifiedHeaders = null;
+    try (var response = new ResponseStream(output)) {
+      super.handleRequest(input, response, context);
+    } finally {
+      tracer.endRequest();
+      metrics.flush(getClass().getSimpleName());
+    }
+  }
+
+  /** Same as {@link #respond(RequestInfo, String, boolean, Supplier)} for an answer. */
+  protected O respond(RequestInfo requestInfo, Answer<O> answer) {
+    return respond(requestInfo, answer.entityTag(), answer.stale(), answer::output);
+  }
+
+  /**
+   * Adds the cache headers of an answer tagged {@code entityTag}, sent in the representation the
+   * request accepts, and returns the output of the request: {@code output} when it is to be sent,
+   * or {@code null} for a 304, in which case {@code output} is never called.
+   */
+  @SuppressWarnings("PMD.CloseResource")
+  protected O respond(
+      RequestInfo requestInfo, String entityTag, boolean stale, Supplier<O> output) {
+    var headers = cachePolicy.headers(EntityTag.forRepresentation(entityTag, requestInfo), stale);
+    addAdditionalHeaders(() -> headers);
+    O answer = null;
+    if (EntityTag.isMatchedBy(headers.get(EntityTag.ETAG_HEADER), requestInfo)) {
+      notModifiedHeaders = headers;
+    } else {
+      answer = output.get();
+      var hits = hitsIn(answer);
+      hits.ifPresent(count -> metrics.recordValue(MetricNames.HITS_PER_PAGE, count));
+      metrics.startTimer(MetricNames.SERIALIZATION_TIME);
+      var serialize = Span.current().startChild(SpanNames.SERIALIZE, SpanKind.INTERNAL);
+      hits.ifPresent(count -> serialize.setAttribute(SpanNames.HITS, count));
+      serialize.makeCurrent();
+    }
+    return answer;
+  }
+
+  /** The number of hits in an output that is a page of them, which are counted when it is sent. */
+  protected OptionalInt hitsIn(O output) {
+    return OptionalInt.empty();
+  }
+
+  private byte[] notModifiedResponse() throws IOException {
+    var response = dtoObjectMapper.createObjectNode();
+    response.put(STATUS_CODE_FIELD, HttpURLConnection.HTTP_NOT_MODIFIED);
+    response.set(HEADERS_FIELD, dtoObjectMapper.valueToTree(notModifiedHeaders));
+    response.put(BODY_FIELD, EMPTY_BODY);
+    return dtoObjectMapper.writeValueAsBytes(response);
+  }
+
+  /**
+   * The output of an answer, which is only built when it is sent, together with its entity tag and
+   * whether it comes from stale data.
+   */
+  protected record Answer<O>(Supplier<O> output, String entityTag, boolean stale) {}
+
+  /**
+   * Passes the response ApiGatewayHandler writes on, unless the request was answered with a 304,
+   * which is only known once its output has been processed and ApiGatewayHandler starts writing.
+   * Such a response is discarded, and replaced with the 304 when the stream is closed.
+   */
+  private final class ResponseStream extends FilterOutputStream {
+
+    private boolean closed;
+
+    private ResponseStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (notModifiedHeaders == null) {
+        out.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (notModifiedHeaders == null) {
+        out.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        if (notModifiedHeaders != null) {
+          out.write(notModifiedResponse());
+        }
+        out.close();
+      }
+    }
+  }
+}
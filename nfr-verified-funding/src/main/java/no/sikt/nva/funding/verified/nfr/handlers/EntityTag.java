@@ -0,0 +1,121 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import java.util.Map;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.model.ContentHash;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.RawJson;
+import nva.commons.apigateway.RequestInfo;
+
+/**
+ * Strong entity tags for funding responses, and matching of them against {@code If-None-Match}.
+ *
+ * <p>A tag is a hash of what the response body is built from rather than of the body itself: the
+ * content hashes the fundings keep, together with everything the mapper and the page add to them.
+ * Answers from the caches and the catalog snapshot are therefore tagged without being serialized
+ * twice. {@link #REPRESENTATION_VERSION} is part of every tag and must be changed whenever the same
+ * data is written differently, so that tags handed out for the old body are no longer matched.
+ *
+ * <p>Responses vary on {@code Accept}, and {@link #forRepresentation} gives each representation of
+ * an answer a tag of its own.
+ */
+public final class EntityTag {
+
+  public static final String ETAG_HEADER = "ETag";
+  public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+  public static final String ACCEPT_HEADER = "Accept";
+  private static final String ANY_MEDIA_TYPE = "*/*";
+  private static final int REPRESENTATION_VERSION = 1;
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+  private static final String QUOTE = "\"";
+  private static final String LIST_SEPARATOR = ",";
+
+  private EntityTag() {}
+
+  public static String forFunding(FundingMapper mapper, NfrFunding funding) {
+    return quoted(representation(mapper).add(funding.contentHash()));
+  }
+
+  /** Tags a page of fundings that are sent as mapped by {@code mapper}. */
+  public static String forPage(PagedSearchResult<NfrFunding> page, FundingMapper mapper) {
+    var hash = pageHeader(representation(mapper), page);
+    for (var hit : page.getHits()) {
+      hash.add(hit.contentHash());
+    }
+    return quoted(hash);
+  }
+
+  /**
+   * Tags a page whose hits were transcoded to JSON by {@code mapper} while the upstream response
+   * was read.
+   */
+  public static String forTranscodedPage(PagedSearchResult<RawJson> page, FundingMapper mapper) {
+    var hash = pageHeader(representation(mapper), page);
+    for (var hit : page.getHits()) {
+      hash.add(hit);
+    }
+    return quoted(hash);
+  }
+
+  /**
+   * Tags the representation of an answer tagged {@code entityTag} that is sent for the media types
+   * the request accepts. A request without {@code Accept} gets the same tag as one accepting any
+   * media type.
+   */
+  public static String forRepresentation(String entityTag, RequestInfo requestInfo) {
+    var accepted = header(requestInfo, ACCEPT_HEADER).map(String::strip).orElse(ANY_MEDIA_TYPE);
+    return quoted(ContentHash.create().add(entityTag).add(accepted));
+  }
+
+  /**
+   * Whether the request's {@code If-None-Match} lists {@code entityTag} or {@code *}. Weak tags in
+   * the list are compared by their value, as the weak comparison a GET is entitled to.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public static boolean isMatchedBy(String entityTag, RequestInfo requestInfo) {
+    var ifNoneMatch = header(requestInfo, IF_NONE_MATCH_HEADER);
+    if (ifNoneMatch.isEmpty()) {
+      return false;
+    }
+    for (var candidate : ifNoneMatch.get().split(LIST_SEPARATOR)) {
+      var tag = candidate.strip();
+      if (tag.startsWith(WEAK_PREFIX)) {
+        tag = tag.substring(WEAK_PREFIX.length());
+      }
+      if (ANY.equals(tag) || entityTag.equals(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static ContentHash representation(FundingMapper mapper) {
+    return ContentHash.create()
+        .add(REPRESENTATION_VERSION)
+        .add(mapper.getSource())
+        .add(mapper.getSearchId());
+  }
+
+  private static ContentHash pageHeader(ContentHash hash, PagedSearchResult<?> page) {
+    return hash.add(page.getContext())
+        .add(page.getId())
+        .add(page.getTotalSize())
+        .add(page.getNextResults())
+        .add(page.getPreviousResults());
+  }
+
+  private static String quoted(ContentHash hash) {
+    return QUOTE + hash.value() + QUOTE;
+  }
+
+  /** Header names are case-insensitive, and API Gateway passes them on as the client sent them. */
+  private static Optional<String> header(RequestInfo requestInfo, String name) {
+    return requestInfo.getHeaders().entrySet().stream()
+        .filter(header -> name.equalsIgnoreCase(header.getKey()))
+        .map(Map.Entry::getValue)
+        .findFirst();
+  }
+}
@@ -1,74 +1,103 @@
 package no.sikt.nva.funding.verified.nfr.handlers;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import java.net.HttpURLConnection;
-import java.util.function.Supplier;
-import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import java.time.Duration;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
 import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
 import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
 import no.sikt.nva.funding.verified.nfr.model.Funding;
-import nva.commons.apigateway.ApiGatewayHandler;
+import no.sikt.nva.funding.verified.nfr.startup.ContainerCatalog;
+import no.sikt.nva.funding.verified.nfr.startup.SnapStartPriming;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
 import nva.commons.apigateway.RequestInfo;
 import nva.commons.apigateway.exceptions.ApiGatewayException;
-import nva.commons.apigateway.exceptions.BadGatewayException;
 import nva.commons.apigateway.exceptions.BadRequestException;
-import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 
-public class FetchNfrFundingByIdentifierHandler extends ApiGatewayHandler<Void, Funding> {
+public class FetchNfrFundingByIdentifierHandler extends CacheableFundingHandler<Funding> {
 
   private static final String IDENTIFIER_PATH_PARAM_NAME = "identifier";
-  private static final int OFFSET_AT_BEGINNING = 0;
-  private static final int QUERY_SIZE_FOR_PROJECT_ID_SEARCH = 10;
+  private static final Duration DEFAULT_CACHE_MAX_AGE = Duration.ofHours(1);
 
-  private final transient NfrApiClient apiClient;
+  private static final ExpiringLruCache<Integer, NfrFunding> CONTAINER_IDENTIFIER_CACHE =
+      NfrFundingLookup.newIdentifierCache(new Environment());
+
+  private final transient NfrFundingLookup fundingLookup;
+  private final transient Duration requestTimeout;
+  private final transient FundingMapper fundingMapper;
 
   @JacocoGenerated
   public FetchNfrFundingByIdentifierHandler() {
-    this(new Environment(), NfrApiClient.defaultClient());
+    this(
+        new Environment(),
+        new NfrFundingLookup(
+            NfrApiClient.defaultClient(), CONTAINER_IDENTIFIER_CACHE, ContainerCatalog::snapshot));
+    SnapStartPriming.register();
   }
 
-  public FetchNfrFundingByIdentifierHandler(Environment environment, NfrApiClient apiClient) {
-    super(Void.class, environment);
-    this.apiClient = apiClient;
+  public FetchNfrFundingByIdentifierHandler(Environment environment, NfrFundingSource apiClient) {
+    this(environment, apiClient, NfrFundingLookup.newIdentifierCache(environment));
   }
 
-  @Override
-  protected void validateRequest(Void unused, RequestInfo requestInfo, Context context)
-      throws ApiGatewayException {
-    // Do nothing
+  public FetchNfrFundingByIdentifierHandler(
+      Environment environment,
+      NfrFundingSource apiClient,
+      ExpiringLruCache<Integer, NfrFunding> identifierCache) {
+    this(environment, new NfrFundingLookup(apiClient, identifierCache));
   }
 
-  @Override
-  protected Funding processInput(Void input, RequestInfo requestInfo, Context context)
-      throws ApiGatewayException {
-
-    var identifier = verifyIdentifier(requestInfo.getPathParameter(IDENTIFIER_PATH_PARAM_NAME));
-    var funding = fetchByIdentifier(identifier);
-    var apiDomain = environment.readEnv(EnvironmentKeys.API_DOMAIN);
-    var basePath = environment.readEnv(EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH);
-    var cristinBasePath = environment.readEnv(EnvironmentKeys.CRISTIN_BASE_PATH);
-    var cristinFundingSourcesPath =
-        environment.readEnv(EnvironmentKeys.CRISTIN_FUNDING_SOURCES_PATH);
-    return funding.asFunding(apiDomain, basePath, cristinBasePath, cristinFundingSourcesPath);
+  public FetchNfrFundingByIdentifierHandler(
+      Environment environment, NfrFundingLookup fundingLookup) {
+    this(environment, fundingLookup, Metrics.toStandardOutput());
   }
 
-  private NfrFunding fetchByIdentifier(int projectId)
-      throws BadGatewayException, NotFoundException {
-    var searchResult =
-        apiClient.query(
-            Integer.toString(projectId), OFFSET_AT_BEGINNING, QUERY_SIZE_FOR_PROJECT_ID_SEARCH);
+  public FetchNfrFundingByIdentifierHandler(
+      Environment environment, NfrFundingLookup fundingLookup, Metrics metrics) {
+    this(environment, fundingLookup, metrics, Tracer.fromEnvironment(environment));
+  }
 
-    return searchResult.getHits().stream()
-        .filter(funding -> funding.getProjectId() == projectId)
-        .findFirst()
-        .orElseThrow(fundingNotFound(projectId));
+  public FetchNfrFundingByIdentifierHandler(
+      Environment environment, NfrFundingLookup fundingLookup, Metrics metrics, Tracer tracer) {
+    super(environment, metrics, tracer, DEFAULT_CACHE_MAX_AGE);
+    this.fundingLookup = fundingLookup;
+    metrics.include(fundingLookup.getMetrics());
+    this.requestTimeout = UpstreamDeadline.requestTimeout(environment);
+    this.fundingMapper = FundingMapper.fromEnvironment(environment);
   }
 
-  private Supplier<NotFoundException> fundingNotFound(int identifier) {
-    return () ->
-        new NotFoundException("Funding with identifier " + identifier + " not " + "found!");
+  @Override
+  @SuppressWarnings("PMD.CloseResource")
+  protected Funding processInput(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+
+    var request = Span.current();
+    var identifier =
+        request.inChild(
+            SpanNames.VALIDATE,
+            () -> verifyIdentifier(requestInfo.getPathParameter(IDENTIFIER_PATH_PARAM_NAME)));
+    var funding =
+        request.inChild(
+            SpanNames.LOOKUP,
+            () ->
+                fundingLookup.fetchAllowingStale(
+                    identifier, UpstreamDeadline.within(context, requestTimeout)));
+    return respond(
+        requestInfo,
+        EntityTag.forFunding(fundingMapper, funding.value()),
+        funding.stale(),
+        () ->
+            request.inChild(
+                SpanNames.MAP,
+                () ->
+                    metrics.time(
+                        MetricNames.MAPPING_TIME, () -> fundingMapper.map(funding.value()))));
   }
 
   private int verifyIdentifier(String identifier) throws BadRequestException {
@@ -78,9 +107,4 @@ public class FetchNfrFundingByIdentifierHandler extends ApiGatewayHandler<Void,
       throw new BadRequestException("'identifier' path parameter must be an integer", e);
     }
   }
-
-  @Override
-  protected Integer getSuccessStatusCode(Void input, Funding output) {
-    return HttpURLConnection.HTTP_OK;
-  }
 }
@@ -0,0 +1,302 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.MaybeStale;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.model.FundingBatchResult;
+import no.sikt.nva.funding.verified.nfr.startup.ContainerCatalog;
+import no.sikt.nva.funding.verified.nfr.startup.SnapStartPriming;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.apigateway.exceptions.NotFoundException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+import nva.commons.core.paths.UriWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves up to {@link #MAX_IDENTIFIERS} identifiers in one request. Each identifier is looked up
+ * on its own, so that an identifier ProjectBank fails for is listed as failed while the others are
+ * still answered. The request fails with 502 only when every lookup failed.
+ */
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class FetchNfrFundingsByIdentifiersHandler
+    extends ApiGatewayHandler<Void, FundingBatchResult> {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(FetchNfrFundingsByIdentifiersHandler.class);
+  public static final String IDENTIFIER_QUERY_PARAM = "identifier";
+  public static final int MAX_IDENTIFIERS = 50;
+  private static final String IDENTIFIER_SEPARATOR = ",";
+  private static final String DEFAULT_LOOKUP_CONCURRENCY = "8";
+  private static final String ILLEGAL_IDENTIFIERS =
+      "'identifier' query parameter must be a comma separated list of 1 to "
+          + MAX_IDENTIFIERS
+          + " integers";
+  private static final String LOOKUP_TIMED_OUT = "NFR rest api did not answer in time";
+
+  private static final ExpiringLruCache<Integer, NfrFunding> CONTAINER_IDENTIFIER_CACHE =
+      NfrFundingLookup.newIdentifierCache(new Environment());
+
+  private final transient NfrFundingLookup fundingLookup;
+  private final transient int lookupConcurrency;
+  private final transient Duration requestTimeout;
+  private final transient FundingMapper fundingMapper;
+  private final transient Metrics metrics;
+
+  @JacocoGenerated
+  public FetchNfrFundingsByIdentifiersHandler() {
+    this(
+        new Environment(),
+        new NfrFundingLookup(
+            NfrApiClient.defaultClient(), CONTAINER_IDENTIFIER_CACHE, ContainerCatalog::snapshot));
+    SnapStartPriming.register();
+  }
+
+  public FetchNfrFundingsByIdentifiersHandler(Environment environment, NfrFundingSource apiClient) {
+    this(environment, apiClient, NfrFundingLookup.newIdentifierCache(environment));
+  }
+
+  public FetchNfrFundingsByIdentifiersHandler(
+      Environment environment,
+      NfrFundingSource apiClient,
+      ExpiringLruCache<Integer, NfrFunding> identifierCache) {
+    this(environment, new NfrFundingLookup(apiClient, identifierCache));
+  }
+
+  public FetchNfrFundingsByIdentifiersHandler(
+      Environment environment, NfrFundingLookup fundingLookup) {
+    this(environment, fundingLookup, lookupConcurrency(environment), Metrics.toStandardOutput());
+  }
+
+  /**
+   * At most {@code lookupConcurrency} identifiers of a request are looked up against ProjectBank at
+   * the same time, independent of how many identifiers the request contains.
+   */
+  public FetchNfrFundingsByIdentifiersHandler(
+      Environment environment,
+      NfrFundingLookup fundingLookup,
+      int lookupConcurrency,
+      Metrics metrics) {
+    super(Void.class, environment);
+    this.fundingLookup = fundingLookup;
+    this.metrics = metrics;
+    metrics.include(fundingLookup.getMetrics());
+    this.lookupConcurrency = lookupConcurrency;
+    this.requestTimeout = UpstreamDeadline.requestTimeout(environment);
+    this.fundingMapper = FundingMapper.fromEnvironment(environment);
+  }
+
+  public static int lookupConcurrency(Environment environment) {
+    return Integer.parseInt(
+        environment
+            .readEnvOpt(EnvironmentKeys.BATCH_LOOKUP_CONCURRENCY)
+            .orElse(DEFAULT_LOOKUP_CONCURRENCY));
+  }
+
+  /** Writes the metrics of the invocation once it has been answered. */
+  @Override
+  public void handleRequest(InputStream input, OutputStream output, Context context)
+      throws IOException {
+    try {
+      super.handleRequest(input, output, context);
+    } finally {
+      metrics.flush(getClass().getSimpleName());
+    }
+  }
+
+  @Override
+  protected void validateRequest(Void unused, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    // Do nothing
+  }
+
+  @Override
+  protected FundingBatchResult processInput(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+
+    var identifiers = validateAndGetIdentifiers(requestInfo);
+
+    // lookups may wait for an earlier one to end, so they share one deadline rather than one
+    // timeout each
+    var deadline = Instant.now().plus(UpstreamDeadline.within(context, requestTimeout));
+    var lookups = new BatchLookup(identifiers, deadline).start();
+    CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).join();
+
+    var found = new ArrayList<NfrFunding>();
+    var notFound = new ArrayList<String>();
+    var failed = new ArrayList<String>();
+    var failures = new ArrayList<Throwable>();
+    var stale = false;
+    for (var lookup : lookups) {
+      var outcome = lookup.join();
+      if (outcome.funding() != null) {
+        found.add(outcome.funding().value());
+        stale |= outcome.funding().stale();
+      } else if (outcome.failure() instanceof NotFoundException) {
+        notFound.add(Integer.toString(outcome.identifier()));
+      } else {
+        LOGGER.warn("Failed to look up funding {}", outcome.identifier(), outcome.failure());
+        failed.add(Integer.toString(outcome.identifier()));
+        failures.add(outcome.failure());
+      }
+    }
+    if (failed.size() == identifiers.size()) {
+      throw asApiGatewayException(failures.get(0));
+    }
+    if (stale) {
+      addAdditionalHeaders(
+          () -> Map.of(StaleResponse.WARNING_HEADER, StaleResponse.RESPONSE_IS_STALE));
+    }
+
+    var id =
+        UriWrapper.fromUri(fundingMapper.getSearchId())
+            .addChild("batch")
+            .addQueryParameter(IDENTIFIER_QUERY_PARAM, joinIdentifiers(identifiers))
+            .getUri();
+    var hits = metrics.time(MetricNames.MAPPING_TIME, () -> fundingMapper.mapAll(found));
+    metrics.recordValue(MetricNames.HITS_PER_PAGE, hits.size());
+    metrics.startTimer(MetricNames.SERIALIZATION_TIME);
+    return new FundingBatchResult(
+        CacheableFundingHandler.CONTEXT_URI, id, identifiers.size(), hits, notFound, failed);
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static ApiGatewayException asApiGatewayException(Throwable failure) {
+    if (failure instanceof ApiGatewayException apiGatewayException) {
+      return apiGatewayException;
+    }
+    if (failure instanceof TimeoutException) {
+      var exception = new BadGatewayException(LOOKUP_TIMED_OUT);
+      exception.initCause(failure);
+      return exception;
+    }
+    if (failure instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    throw new IllegalStateException(failure);
+  }
+
+  private static List<Integer> validateAndGetIdentifiers(RequestInfo requestInfo)
+      throws BadRequestException {
+    var rawIdentifiers =
+        requestInfo
+            .getQueryParameterOpt(IDENTIFIER_QUERY_PARAM)
+            .orElseThrow(() -> new BadRequestException(ILLEGAL_IDENTIFIERS));
+
+    var identifiers = new LinkedHashSet<Integer>();
+    for (var rawIdentifier : rawIdentifiers.split(IDENTIFIER_SEPARATOR)) {
+      var trimmed = rawIdentifier.strip();
+      if (!trimmed.isEmpty()) {
+        identifiers.add(parseIdentifier(trimmed));
+      }
+    }
+
+    if (identifiers.isEmpty() || identifiers.size() > MAX_IDENTIFIERS) {
+      throw new BadRequestException(ILLEGAL_IDENTIFIERS);
+    }
+    return List.copyOf(identifiers);
+  }
+
+  private static int parseIdentifier(String identifier) throws BadRequestException {
+    try {
+      return Integer.parseInt(identifier);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException(ILLEGAL_IDENTIFIERS, e);
+    }
+  }
+
+  private static String joinIdentifiers(List<Integer> identifiers) {
+    return identifiers.stream()
+        .map(String::valueOf)
+        .collect(Collectors.joining(IDENTIFIER_SEPARATOR));
+  }
+
+  @Override
+  protected Integer getSuccessStatusCode(Void input, FundingBatchResult output) {
+    return HttpURLConnection.HTTP_OK;
+  }
+
+  private record Outcome(int identifier, MaybeStale<NfrFunding> funding, Throwable failure) {}
+
+  /**
+   * Starts the lookups of a request's identifiers, at most {@link #lookupConcurrency} at a time,
+   * starting the next one whenever one ends. No thread waits for ProjectBank while they run.
+   */
+  private final class BatchLookup {
+
+    private final List<Integer> identifiers;
+    private final Instant deadline;
+    private final List<CompletableFuture<Outcome>> outcomes;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private BatchLookup(List<Integer> identifiers, Instant deadline) {
+      this.identifiers = identifiers;
+      this.deadline = deadline;
+      this.outcomes = identifiers.stream().map(unused -> new CompletableFuture<Outcome>()).toList();
+    }
+
+    private List<CompletableFuture<Outcome>> start() {
+      for (int started = 0; started < Math.min(lookupConcurrency, identifiers.size()); started++) {
+        lookUpNext();
+      }
+      return outcomes;
+    }
+
+    private void lookUpNext() {
+      var index = next.getAndIncrement();
+      if (index < identifiers.size()) {
+        var identifier = identifiers.get(index);
+        lookUp(identifier)
+            .whenComplete(
+                (outcome, unused) -> {
+                  outcomes.get(index).complete(outcome);
+                  lookUpNext();
+                });
+      }
+    }
+
+    @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.OnlyOneReturn"})
+    private CompletableFuture<Outcome> lookUp(int identifier) {
+      try {
+        return fundingLookup
+            .fetchAllowingStaleAsync(identifier, UpstreamDeadline.until(deadline))
+            .handle(
+                (funding, failure) ->
+                    new Outcome(identifier, funding, failure == null ? null : unwrap(failure)));
+      } catch (RuntimeException e) {
+        return CompletableFuture.completedFuture(new Outcome(identifier, null, e));
+      }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+      return failure instanceof CompletionException ? failure.getCause() : failure;
+    }
+  }
+}
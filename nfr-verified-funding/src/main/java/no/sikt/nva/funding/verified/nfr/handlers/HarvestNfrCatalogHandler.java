@@ -0,0 +1,52 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogHarvester;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogHarvester.HarvestSettings;
+import no.sikt.nva.funding.verified.nfr.snapshot.SnapshotStorage;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+
+/** Scheduled function that harvests the ProjectBank catalog into a new snapshot version. */
+public class HarvestNfrCatalogHandler implements RequestHandler<Map<String, Object>, String> {
+
+  private final NfrCatalogHarvester harvester;
+
+  @JacocoGenerated
+  public HarvestNfrCatalogHandler() {
+    this(new Environment(), NfrApiClient.defaultClient());
+  }
+
+  public HarvestNfrCatalogHandler(Environment environment, NfrFundingSource apiClient) {
+    this(
+        new NfrCatalogHarvester(
+            apiClient,
+            SnapshotStorage.fromEnvironment(environment)
+                .orElseThrow(() -> new IllegalStateException("No snapshot storage configured")),
+            Clock.systemUTC(),
+            HarvestSettings.fromEnvironment(environment)));
+  }
+
+  public HarvestNfrCatalogHandler(NfrCatalogHarvester harvester) {
+    this.harvester = harvester;
+  }
+
+  @Override
+  public String handleRequest(Map<String, Object> input, Context context) {
+    try {
+      return harvester.harvest().version();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (BadGatewayException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.CircuitOpenException;
+import no.sikt.nva.funding.verified.nfr.client.MaybeStale;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.NotFoundException;
+import nva.commons.core.Environment;
+
+/** Resolves a single NFR project identifier to its funding. */
+public class NfrFundingLookup {
+
+  private static final int OFFSET_AT_BEGINNING = 0;
+  private static final int QUERY_SIZE_FOR_PROJECT_ID_SEARCH = 10;
+  private static final String DEFAULT_CACHE_MAX_ENTRIES = "5000";
+  private static final String DEFAULT_CACHE_TTL_SECONDS = "900";
+  private static final String DEFAULT_CACHE_STALE_SECONDS = "3600";
+
+  private final NfrFundingSource apiClient;
+  private final ExpiringLruCache<Integer, NfrFunding> identifierCache;
+  private final Supplier<NfrCatalogSnapshot> snapshot;
+  private final Metrics metrics = new Metrics();
+
+  public NfrFundingLookup(
+      NfrFundingSource apiClient, ExpiringLruCache<Integer, NfrFunding> identifierCache) {
+    this(apiClient, identifierCache, NfrCatalogSnapshot.empty());
+  }
+
+  public NfrFundingLookup(
+      NfrFundingSource apiClient,
+      ExpiringLruCache<Integer, NfrFunding> identifierCache,
+      NfrCatalogSnapshot snapshot) {
+    this(apiClient, identifierCache, () -> snapshot);
+  }
+
+  public NfrFundingLookup(
+      NfrFundingSource apiClient,
+      ExpiringLruCache<Integer, NfrFunding> identifierCache,
+      Supplier<NfrCatalogSnapshot> snapshot) {
+    this.apiClient = apiClient;
+    this.identifierCache = identifierCache;
+    this.snapshot = snapshot;
+    identifierCache.registerMetrics(metrics, MetricNames.IDENTIFIER_CACHE_PREFIX);
+    metrics.include(apiClient.getMetrics());
+  }
+
+  public static ExpiringLruCache<Integer, NfrFunding> newIdentifierCache(Environment environment) {
+    var maxEntries =
+        environment
+            .readEnvOpt(EnvironmentKeys.IDENTIFIER_CACHE_MAX_ENTRIES)
+            .orElse(DEFAULT_CACHE_MAX_ENTRIES);
+    var timeToLive =
+        environment
+            .readEnvOpt(EnvironmentKeys.IDENTIFIER_CACHE_TTL_SECONDS)
+            .orElse(DEFAULT_CACHE_TTL_SECONDS);
+    var staleWhileRevalidate =
+        environment
+            .readEnvOpt(EnvironmentKeys.IDENTIFIER_CACHE_STALE_SECONDS)
+            .orElse(DEFAULT_CACHE_STALE_SECONDS);
+    return new ExpiringLruCache<>(
+        Integer.parseInt(maxEntries),
+        Duration.ofSeconds(Long.parseLong(timeToLive)),
+        Duration.ofSeconds(Long.parseLong(staleWhileRevalidate)),
+        Clock.systemUTC(),
+        ForkJoinPool.commonPool());
+  }
+
+  /** The metrics of the identifier cache and of the ProjectBank calls made by the lookup. */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Answers from the harvested snapshot when it has the project, and from ProjectBank otherwise, so
+   * projects created after the last harvest are still found.
+   */
+  public NfrFunding fetch(int projectId, Duration timeout) throws ApiGatewayException {
+    var fromSnapshot = snapshot.get().findByProjectId(projectId);
+    return fromSnapshot.isPresent()
+        ? fromSnapshot.get()
+        : identifierCache.get(projectId, identifier -> fetchByIdentifier(identifier, timeout));
+  }
+
+  /**
+   * Same as {@link #fetch(int, Duration)}, but serves the last known funding, marked as stale, when
+   * ProjectBank is not called because its circuit breaker is open.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public MaybeStale<NfrFunding> fetchAllowingStale(int projectId, Duration timeout)
+      throws ApiGatewayException {
+    try {
+      return MaybeStale.fresh(fetch(projectId, timeout));
+    } catch (CircuitOpenException e) {
+      return identifierCache.getLastKnown(projectId).map(MaybeStale::stale).orElseThrow(() -> e);
+    }
+  }
+
+  /**
+   * Non-blocking counterpart of {@link #fetchAllowingStale}, which waits for ProjectBank without
+   * holding a thread. The future fails with a {@link NotFoundException} when ProjectBank does not
+   * have the project, and as {@link NfrFundingSource#queryAsync} does when ProjectBank fails.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public CompletableFuture<MaybeStale<NfrFunding>> fetchAllowingStaleAsync(
+      int projectId, Duration timeout) {
+    var fromSnapshot = snapshot.get().findByProjectId(projectId);
+    if (fromSnapshot.isPresent()) {
+      return CompletableFuture.completedFuture(MaybeStale.fresh(fromSnapshot.get()));
+    }
+    return identifierCache
+        .getAsync(projectId, identifier -> fetchByIdentifierAsync(identifier, timeout))
+        .thenApply(MaybeStale::fresh)
+        .exceptionallyCompose(failure -> lastKnownIfCircuitOpen(projectId, failure));
+  }
+
+  private CompletableFuture<MaybeStale<NfrFunding>> lastKnownIfCircuitOpen(
+      int projectId, Throwable failure) {
+    var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+    var lastKnown =
+        cause instanceof CircuitOpenException
+            ? identifierCache.getLastKnown(projectId)
+            : Optional.<NfrFunding>empty();
+    return lastKnown
+        .map(MaybeStale::stale)
+        .map(CompletableFuture::completedFuture)
+        .orElseGet(() -> CompletableFuture.failedFuture(cause));
+  }
+
+  private NfrFunding fetchByIdentifier(int projectId, Duration timeout)
+      throws BadGatewayException, NotFoundException {
+    var searchResult =
+        apiClient.query(
+            Integer.toString(projectId),
+            OFFSET_AT_BEGINNING,
+            QUERY_SIZE_FOR_PROJECT_ID_SEARCH,
+            timeout);
+
+    return findProject(searchResult, projectId).orElseThrow(fundingNotFound(projectId));
+  }
+
+  private CompletableFuture<NfrFunding> fetchByIdentifierAsync(int projectId, Duration timeout) {
+    return apiClient
+        .queryAsync(
+            Integer.toString(projectId),
+            OFFSET_AT_BEGINNING,
+            QUERY_SIZE_FOR_PROJECT_ID_SEARCH,
+            timeout)
+        .thenApply(
+            searchResult ->
+                findProject(searchResult, projectId)
+                    .orElseThrow(() -> new CompletionException(fundingNotFound(projectId).get())));
+  }
+
+  private static Optional<NfrFunding> findProject(
+      NfrFundingSearchResult searchResult, int projectId) {
+    return searchResult.getHits().stream()
+        .filter(funding -> funding.getProjectId() == projectId)
+        .findFirst();
+  }
+
+  private Supplier<NotFoundException> fundingNotFound(int identifier) {
+    return () ->
+        new NotFoundException("Funding with identifier " + identifier + " not " + "found!");
+  }
+}
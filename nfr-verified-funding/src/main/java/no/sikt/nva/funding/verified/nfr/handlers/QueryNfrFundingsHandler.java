@@ -1,30 +1,41 @@
 package no.sikt.nva.funding.verified.nfr.handlers;
 
 import static nva.commons.core.attempt.Try.attempt;
-import static nva.commons.core.paths.UriWrapper.HTTPS;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
 import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.CachingNfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.CachingPageTranscoder;
+import no.sikt.nva.funding.verified.nfr.client.FundingPageTranscoder;
+import no.sikt.nva.funding.verified.nfr.client.LeadNameSearch;
 import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
-import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
 import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
-import nva.commons.apigateway.ApiGatewayHandler;
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import no.sikt.nva.funding.verified.nfr.startup.ContainerCatalog;
+import no.sikt.nva.funding.verified.nfr.startup.SnapStartPriming;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
 import nva.commons.apigateway.RequestInfo;
 import nva.commons.apigateway.exceptions.ApiGatewayException;
 import nva.commons.apigateway.exceptions.BadGatewayException;
 import nva.commons.apigateway.exceptions.BadRequestException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
-import nva.commons.core.paths.UriWrapper;
 
-public class QueryNfrFundingsHandler extends ApiGatewayHandler<Void, PagedSearchResult<Funding>> {
+public class QueryNfrFundingsHandler extends CacheableFundingHandler<PagedSearchResult<?>> {
 
-  private static final URI CONTEXT_URI =
-      URI.create("https://bibsysdev.github.io/src/funding-context.json");
   private static final String ILLEGAL_OFFSET = "Offset must be a zero or positive integer!";
   private static final String ILLEGAL_SIZE = "Size must be a positive integer!";
   public static final String NAME_QUERY_PARAM = "name";
@@ -34,57 +45,112 @@ public class QueryNfrFundingsHandler extends ApiGatewayHandler<Void, PagedSearch
   public static final String DEFAULT_OFFSET = "0";
   public static final String DEFAULT_SIZE = "10";
   public static final int MINIMUM_SIZE = 1;
-  private final transient NfrApiClient apiClient;
+  private static final String DEFAULT_LEAD_NAME_SEARCH_TIMEOUT_MILLIS = "10000";
+  private static final String DEFAULT_TRANSCODED_PAGE_MIN_SIZE = "100";
+  private static final Duration DEFAULT_CACHE_MAX_AGE = Duration.ofMinutes(1);
+  private final transient NfrFundingSource apiClient;
+  private final transient Supplier<NfrFundingIndex> termIndex;
+  private final transient Supplier<LeadNameIndex> leadNameIndex;
+  private final transient LeadNameSearch leadNameSearch;
+  private final transient Duration leadNameSearchTimeout;
+  private final transient Duration requestTimeout;
+  private final transient FundingMapper fundingMapper;
+  private final transient CachingPageTranscoder pageTranscoder;
+  private final transient int transcodedPageMinSize;
 
   @JacocoGenerated
   public QueryNfrFundingsHandler() {
-    this(new Environment(), NfrApiClient.defaultClient());
+    this(
+        new Environment(),
+        CachingNfrApiClient.fromEnvironment(new Environment(), NfrApiClient.defaultClient()),
+        ContainerCatalog::termIndex,
+        ContainerCatalog::leadNameIndex,
+        Metrics.toStandardOutput(),
+        Tracer.fromEnvironment(new Environment()));
+    SnapStartPriming.register();
   }
 
-  public QueryNfrFundingsHandler(Environment environment, NfrApiClient apiClient) {
-    super(Void.class, environment);
+  /**
+   * Term queries are answered from the index supplied by {@code termIndex} when it holds a
+   * harvested snapshot, and from ProjectBank when it is empty. ProjectBank pages of at least {@code
+   * TRANSCODED_PAGE_MIN_SIZE} hits are transcoded while the response is read, and kept in a cache
+   * of transcoded pages instead of the page cache of {@code apiClient}. Name queries are answered
+   * from the index supplied by {@code leadNameIndex} when it holds a harvested snapshot, and by
+   * paging through ProjectBank results for the name when it is empty.
+   */
+  QueryNfrFundingsHandler(
+      Environment environment,
+      NfrFundingSource apiClient,
+      Supplier<NfrFundingIndex> termIndex,
+      Supplier<LeadNameIndex> leadNameIndex,
+      Metrics metrics,
+      Tracer tracer) {
+    super(environment, metrics, tracer, DEFAULT_CACHE_MAX_AGE);
     this.apiClient = apiClient;
+    metrics.include(apiClient.getMetrics());
+    this.termIndex = termIndex;
+    this.leadNameIndex = leadNameIndex;
+    this.leadNameSearch = new LeadNameSearch(apiClient, Clock.systemUTC());
+    this.leadNameSearchTimeout =
+        Duration.ofMillis(
+            Long.parseLong(
+                environment
+                    .readEnvOpt(EnvironmentKeys.LEAD_NAME_SEARCH_TIMEOUT_MILLIS)
+                    .orElse(DEFAULT_LEAD_NAME_SEARCH_TIMEOUT_MILLIS)));
+    this.requestTimeout = UpstreamDeadline.requestTimeout(environment);
+    this.fundingMapper = FundingMapper.fromEnvironment(environment);
+    this.pageTranscoder =
+        CachingPageTranscoder.fromEnvironment(
+            environment, apiClient, new FundingPageTranscoder(CONTEXT_URI, fundingMapper));
+    metrics.include(pageTranscoder.getMetrics());
+    this.transcodedPageMinSize =
+        Integer.parseInt(
+            environment
+                .readEnvOpt(EnvironmentKeys.TRANSCODED_PAGE_MIN_SIZE)
+                .orElse(DEFAULT_TRANSCODED_PAGE_MIN_SIZE));
   }
 
+  /**
+   * Answers with the page, or with a bodyless 304 when the request's {@code If-None-Match} already
+   * holds the page's entity tag.
+   */
   @Override
-  protected void validateRequest(Void unused, RequestInfo requestInfo, Context context)
+  @SuppressWarnings("PMD.CloseResource")
+  protected PagedSearchResult<?> processInput(Void input, RequestInfo requestInfo, Context context)
       throws ApiGatewayException {
-    // Do nothing
+
+    var request = Span.current();
+    var query = request.inChild(SpanNames.VALIDATE, () -> validateQuery(requestInfo));
+    var answer =
+        request.inChild(
+            SpanNames.SEARCH,
+            () ->
+                query.name() == null
+                    ? queryByTerm(
+                        query.term(),
+                        query.offset(),
+                        query.size(),
+                        UpstreamDeadline.within(context, requestTimeout))
+                    : queryByLeadName(
+                        query.name(),
+                        query.offset(),
+                        query.size(),
+                        UpstreamDeadline.within(context, leadNameSearchTimeout)));
+    return respond(requestInfo, answer);
   }
 
   @Override
-  protected PagedSearchResult<Funding> processInput(
-      Void input, RequestInfo requestInfo, Context context) throws ApiGatewayException {
+  protected OptionalInt hitsIn(PagedSearchResult<?> page) {
+    return OptionalInt.of(page.getHits().size());
+  }
 
+  private Query validateQuery(RequestInfo requestInfo) throws BadRequestException {
     var offset = validateAndGetOffsetFromRequest(requestInfo);
     var size = validateAndGetSizeFromRequest(requestInfo);
-
-    var nameOpt = requestInfo.getQueryParameterOpt(NAME_QUERY_PARAM);
-
-    var apiDomain = environment.readEnv(EnvironmentKeys.API_DOMAIN);
-    var basePath = environment.readEnv(EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH);
-    var cristinBasePath = environment.readEnv(EnvironmentKeys.CRISTIN_BASE_PATH);
-    var cristinFundingSourcesPath =
-        environment.readEnv(EnvironmentKeys.CRISTIN_FUNDING_SOURCES_PATH);
-
-    PagedSearchResult<Funding> searchResult;
-    if (nameOpt.isPresent()) {
-      searchResult =
-          queryByLeadName(
-              nameOpt.get(),
-              offset,
-              size,
-              apiDomain,
-              basePath,
-              cristinBasePath,
-              cristinFundingSourcesPath);
-    } else {
-      var term = requestInfo.getQueryParameter(TERM_QUERY_PARAM);
-      searchResult =
-          queryByTerm(
-              term, offset, size, apiDomain, basePath, cristinBasePath, cristinFundingSourcesPath);
-    }
-    return searchResult;
+    var name = requestInfo.getQueryParameterOpt(NAME_QUERY_PARAM);
+    return name.isPresent()
+        ? new Query(null, name.get(), offset, size)
+        : new Query(requestInfo.getQueryParameter(TERM_QUERY_PARAM), null, offset, size);
   }
 
   private int validateAndGetOffsetFromRequest(RequestInfo requestInfo) throws BadRequestException {
@@ -116,63 +182,61 @@ public class QueryNfrFundingsHandler extends ApiGatewayHandler<Void, PagedSearch
     return size;
   }
 
-  private PagedSearchResult<Funding> queryByLeadName(
-      String name,
-      int offset,
-      int size,
-      String apiDomain,
-      String basePath,
-      String cristinBasePath,
-      String cristinFundingSourcesPath)
-      throws BadGatewayException {
-
-    var searchResult = apiClient.query(name, offset, size);
-
-    var hits =
-        searchResult.getHits().stream()
-            .filter(
-                funding ->
-                    funding
-                        .getLeadName()
-                        .toLowerCase(Locale.ROOT)
-                        .equals(name.toLowerCase(Locale.ROOT)))
-            .map(
-                funding ->
-                    funding.asFunding(
-                        apiDomain, basePath, cristinBasePath, cristinFundingSourcesPath))
-            .collect(Collectors.toList());
-
-    var baseUri = new UriWrapper(HTTPS, apiDomain).addChild(basePath, "nfr").getUri();
-    return new PagedSearchResult<>(CONTEXT_URI, baseUri, offset, size, hits.size(), hits);
+  private Answer<PagedSearchResult<?>> queryByLeadName(
+      String name, int offset, int size, Duration timeout) throws BadGatewayException {
+
+    var index = leadNameIndex.get();
+    Answer<PagedSearchResult<?>> answer;
+    if (index.isEmpty()) {
+      var searchResult = leadNameSearch.search(name, offset, size, timeout);
+      answer = page(offset, size, searchResult.totalSize(), searchResult.hits(), false);
+    } else {
+      var hits = index.search(name, offset, size);
+      answer = page(offset, size, hits.totalSize(), hits.hits(), false);
+    }
+    return answer;
+  }
+
+  private Answer<PagedSearchResult<?>> queryByTerm(
+      String term, int offset, int size, Duration timeout) throws BadGatewayException {
+
+    var index = termIndex.get();
+    var fromUpstream = index.isEmpty() || !NfrFundingIndex.hasSearchableTerms(term);
+    Answer<PagedSearchResult<?>> answer;
+    if (fromUpstream && size >= transcodedPageMinSize) {
+      var searchResult = pageTranscoder.queryAllowingStale(term, offset, size, timeout);
+      var transcoded = searchResult.value();
+      var entityTag = EntityTag.forTranscodedPage(transcoded, fundingMapper);
+      answer = new Answer<>(() -> transcoded, entityTag, searchResult.stale());
+    } else if (fromUpstream) {
+      var searchResult = apiClient.queryAllowingStale(term, offset, size, timeout);
+      var hits = searchResult.value();
+      answer = page(offset, size, hits.getTotalHits(), hits.getHits(), searchResult.stale());
+    } else {
+      var hits = index.search(term, offset, size);
+      answer = page(offset, size, hits.totalSize(), hits.hits(), false);
+    }
+    return answer;
   }
 
-  private PagedSearchResult<Funding> queryByTerm(
-      String term,
-      int offset,
-      int size,
-      String apiDomain,
-      String basePath,
-      String cristinBasePath,
-      String cristinFundingSourcesPath)
-      throws BadGatewayException {
-
-    var searchResult = apiClient.query(term, offset, size);
-
-    var hits =
-        searchResult.getHits().stream()
-            .map(
-                funding ->
-                    funding.asFunding(
-                        apiDomain, basePath, cristinBasePath, cristinFundingSourcesPath))
-            .collect(Collectors.toList());
-
-    var baseUri = new UriWrapper(HTTPS, apiDomain).addChild(basePath, "nfr").getUri();
-    return new PagedSearchResult<>(
-        CONTEXT_URI, baseUri, offset, size, searchResult.getTotalHits(), hits);
+  private Answer<PagedSearchResult<?>> page(
+      int offset, int size, int totalSize, List<NfrFunding> hits, boolean stale) {
+    var page =
+        new PagedSearchResult<>(
+            CONTEXT_URI, fundingMapper.getSearchId(), offset, size, totalSize, hits);
+    return new Answer<>(() -> mapped(page), EntityTag.forPage(page, fundingMapper), stale);
   }
 
-  @Override
-  protected Integer getSuccessStatusCode(Void input, PagedSearchResult<Funding> output) {
-    return HttpURLConnection.HTTP_OK;
+  private PagedSearchResult<?> mapped(PagedSearchResult<NfrFunding> page) {
+    return page.withHits(
+        Span.current()
+            .inChild(
+                SpanNames.MAP,
+                () ->
+                    metrics.time(
+                        MetricNames.MAPPING_TIME, () -> fundingMapper.mapAll(page.getHits()))));
   }
+
+  /** The validated query parameters, holding either a term or a lead name. */
+  private record Query(String term, String name, int offset, int size) {}
 }
@@ -0,0 +1,10 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+/** Response headers marking an answer built from the last known good data instead of live data. */
+public final class StaleResponse {
+
+  public static final String WARNING_HEADER = "Warning";
+  public static final String RESPONSE_IS_STALE = "110 - \"Response is Stale\"";
+
+  private StaleResponse() {}
+}
@@ -0,0 +1,181 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static nva.commons.core.attempt.Try.attempt;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+import no.sikt.nva.funding.verified.nfr.client.CachingNfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingPrefixIndex;
+import no.sikt.nva.funding.verified.nfr.startup.ContainerCatalog;
+import no.sikt.nva.funding.verified.nfr.startup.SnapStartPriming;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+import nva.commons.core.paths.UriWrapper;
+
+/**
+ * Suggests fundings while a query is being typed in a funding picker. A suggestion page has the
+ * same form as a page of {@code /nfr?term=} results, so that a picker can show both alike.
+ */
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class SuggestNfrFundingsHandler extends CacheableFundingHandler<PagedSearchResult<?>> {
+
+  public static final String PREFIX_QUERY_PARAM = "prefix";
+  public static final String SIZE_QUERY_PARAM = "size";
+  public static final String OFFSET_QUERY_PARAM = "offset";
+  public static final String DEFAULT_OFFSET = "0";
+  public static final String DEFAULT_SIZE = "10";
+  public static final int MAXIMUM_SIZE = 50;
+  private static final String SUGGEST_PATH = "suggest";
+  private static final String ILLEGAL_PREFIX = "'prefix' query parameter must not be blank!";
+  private static final String ILLEGAL_OFFSET = "Offset must be a zero or positive integer!";
+  private static final String ILLEGAL_SIZE =
+      "Size must be a positive integer of at most " + MAXIMUM_SIZE + "!";
+  private static final Duration DEFAULT_CACHE_MAX_AGE = Duration.ofMinutes(1);
+
+  private final transient NfrFundingSource apiClient;
+  private final transient Supplier<NfrFundingPrefixIndex> prefixIndex;
+  private final transient Duration requestTimeout;
+  private final transient FundingMapper fundingMapper;
+
+  @JacocoGenerated
+  public SuggestNfrFundingsHandler() {
+    this(
+        new Environment(),
+        CachingNfrApiClient.fromEnvironment(new Environment(), NfrApiClient.defaultClient()),
+        ContainerCatalog::prefixIndex,
+        Metrics.toStandardOutput(),
+        Tracer.fromEnvironment(new Environment()));
+    SnapStartPriming.register();
+  }
+
+  /**
+   * Suggestions come from the index supplied by {@code prefixIndex} when it holds a harvested
+   * snapshot. Until the first snapshot has been harvested, the query is sent to ProjectBank as a
+   * term search, whose pages are cached by {@code apiClient}.
+   */
+  SuggestNfrFundingsHandler(
+      Environment environment,
+      NfrFundingSource apiClient,
+      Supplier<NfrFundingPrefixIndex> prefixIndex,
+      Metrics metrics,
+      Tracer tracer) {
+    super(environment, metrics, tracer, DEFAULT_CACHE_MAX_AGE);
+    this.apiClient = apiClient;
+    this.prefixIndex = prefixIndex;
+    metrics.include(apiClient.getMetrics());
+    this.requestTimeout = UpstreamDeadline.requestTimeout(environment);
+    this.fundingMapper = FundingMapper.fromEnvironment(environment);
+  }
+
+  /**
+   * Answers with the suggestions, or with a bodyless 304 when the request's {@code If-None-Match}
+   * already holds the page's entity tag.
+   */
+  @Override
+  protected PagedSearchResult<?> processInput(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+
+    var request = Span.current();
+    var query = request.inChild(SpanNames.VALIDATE, () -> validateQuery(requestInfo));
+    var answer =
+        request.inChild(
+            SpanNames.SEARCH,
+            () -> suggest(query, UpstreamDeadline.within(context, requestTimeout)));
+    return respond(requestInfo, answer);
+  }
+
+  @Override
+  protected OptionalInt hitsIn(PagedSearchResult<?> page) {
+    return OptionalInt.of(page.getHits().size());
+  }
+
+  private Answer<PagedSearchResult<?>> suggest(Query query, Duration timeout)
+      throws BadGatewayException {
+    var index = prefixIndex.get();
+    Answer<PagedSearchResult<?>> answer;
+    if (index.isEmpty()) {
+      var searchResult =
+          apiClient.queryAllowingStale(query.prefix(), query.offset(), query.size(), timeout);
+      var hits = searchResult.value();
+      answer = page(query, hits.getTotalHits(), hits.getHits(), searchResult.stale());
+    } else {
+      var hits = index.suggest(query.prefix(), query.offset(), query.size());
+      answer = page(query, hits.totalSize(), hits.hits(), false);
+    }
+    return answer;
+  }
+
+  private Answer<PagedSearchResult<?>> page(
+      Query query, int totalSize, List<NfrFunding> hits, boolean stale) {
+    var baseUri =
+        UriWrapper.fromUri(fundingMapper.getSearchId())
+            .addChild(SUGGEST_PATH)
+            .addQueryParameter(PREFIX_QUERY_PARAM, query.prefix())
+            .getUri();
+    var page =
+        new PagedSearchResult<>(
+            CONTEXT_URI, baseUri, query.offset(), query.size(), totalSize, hits);
+    return new Answer<>(() -> mapped(page), EntityTag.forPage(page, fundingMapper), stale);
+  }
+
+  private PagedSearchResult<?> mapped(PagedSearchResult<NfrFunding> page) {
+    return page.withHits(
+        Span.current()
+            .inChild(
+                SpanNames.MAP,
+                () ->
+                    metrics.time(
+                        MetricNames.MAPPING_TIME, () -> fundingMapper.mapAll(page.getHits()))));
+  }
+
+  private static Query validateQuery(RequestInfo requestInfo) throws BadRequestException {
+    var prefix =
+        requestInfo
+            .getQueryParameterOpt(PREFIX_QUERY_PARAM)
+            .filter(value -> !value.isBlank())
+            .orElseThrow(() -> new BadRequestException(ILLEGAL_PREFIX));
+    var offset =
+        parseInRange(
+            requestInfo.getQueryParameterOpt(OFFSET_QUERY_PARAM).orElse(DEFAULT_OFFSET),
+            0,
+            Integer.MAX_VALUE,
+            ILLEGAL_OFFSET);
+    var size =
+        parseInRange(
+            requestInfo.getQueryParameterOpt(SIZE_QUERY_PARAM).orElse(DEFAULT_SIZE),
+            1,
+            MAXIMUM_SIZE,
+            ILLEGAL_SIZE);
+    return new Query(prefix, offset, size);
+  }
+
+  private static int parseInRange(String value, int minimum, int maximum, String message)
+      throws BadRequestException {
+    var parsed =
+        attempt(() -> Integer.parseInt(value))
+            .orElseThrow(failure -> new BadRequestException(message));
+    if (parsed < minimum || parsed > maximum) {
+      throw new BadRequestException(message);
+    }
+    return parsed;
+  }
+
+  private record Query(String prefix, int offset, int size) {}
+}
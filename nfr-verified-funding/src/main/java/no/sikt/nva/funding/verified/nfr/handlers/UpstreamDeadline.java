@@ -0,0 +1,50 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.time.Duration;
+import java.time.Instant;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/** Time budgets for the ProjectBank calls made while handling one Lambda invocation. */
+public final class UpstreamDeadline {
+
+  /** Time kept back to build and return the response after the last upstream call. */
+  public static final Duration RESPONSE_RESERVE = Duration.ofMillis(500);
+
+  private static final Duration SHORTEST_TIMEOUT = Duration.ofMillis(1);
+  private static final String DEFAULT_REQUEST_TIMEOUT_MILLIS = "10000";
+
+  private UpstreamDeadline() {}
+
+  public static Duration requestTimeout(Environment environment) {
+    return Duration.ofMillis(
+        Long.parseLong(
+            environment
+                .readEnvOpt(EnvironmentKeys.HTTP_REQUEST_TIMEOUT_MILLIS)
+                .orElse(DEFAULT_REQUEST_TIMEOUT_MILLIS)));
+  }
+
+  /**
+   * Shortens {@code budget} so that the invocation still has {@link #RESPONSE_RESERVE} left when it
+   * runs out. A context that reports no remaining time, as local and test contexts do, leaves the
+   * budget as it is.
+   */
+  public static Duration within(Context context, Duration budget) {
+    var remaining = Duration.ofMillis(context.getRemainingTimeInMillis());
+    var available = remaining.minus(RESPONSE_RESERVE);
+    var isUnknown = remaining.isZero() || remaining.isNegative();
+    return isUnknown || available.compareTo(budget) >= 0
+        ? budget
+        : max(available, SHORTEST_TIMEOUT);
+  }
+
+  /** The time left until {@code deadline}, but never less than a millisecond. */
+  public static Duration until(Instant deadline) {
+    return max(Duration.between(Instant.now(), deadline), SHORTEST_TIMEOUT);
+  }
+
+  private static Duration max(Duration first, Duration second) {
+    return first.compareTo(second) >= 0 ? first : second;
+  }
+}
@@ -0,0 +1,36 @@
+package no.sikt.nva.funding.verified.nfr.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of recorded values in log-linear buckets, the way HdrHistogram keeps them: values below 64
+ * are counted exactly, and larger values in buckets no wider than 1/32 of the values in them. Each
+ * bucket is represented by its midpoint, so a value is reported at most about 1.6% off.
+ */
+final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  private final Map<Long, Long> counts = new TreeMap<>();
+
+  public void record(long value) {
+    counts.merge(bucketOf(Math.max(0, value)), 1L, Long::sum);
+  }
+
+  public void addAll(Histogram other) {
+    other.counts.forEach((bucket, count) -> counts.merge(bucket, count, Long::sum));
+  }
+
+  /** The count of values in each bucket, in order of the buckets. */
+  public Map<Long, Long> bucketCounts() {
+    return counts;
+  }
+
+  public static long bucketOf(long value) {
+    var significantBits = Long.SIZE - Long.numberOfLeadingZeros(value);
+    var shift = Math.max(0, significantBits - SUB_BUCKET_BITS - 1);
+    var lowest = value >>> shift << shift;
+    return lowest + (1L << shift >>> 1);
+  }
+}
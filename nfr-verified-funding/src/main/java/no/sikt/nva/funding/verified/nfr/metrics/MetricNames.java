@@ -0,0 +1,30 @@
+package no.sikt.nva.funding.verified.nfr.metrics;
+
+/** Names of the metrics written by the handlers. */
+public final class MetricNames {
+  public static final String UPSTREAM_LATENCY = "UpstreamLatency";
+  public static final String UPSTREAM_STATUS_PREFIX = "UpstreamStatus";
+  public static final String UPSTREAM_ERRORS = "UpstreamErrors";
+  public static final String HITS_PER_PAGE = "HitsPerPage";
+  public static final String MAPPING_TIME = "MappingTime";
+  public static final String SERIALIZATION_TIME = "SerializationTime";
+  public static final String HEDGES_SENT = "HedgesSent";
+  public static final String HEDGES_WON = "HedgesWon";
+  public static final String HEDGES_OVER_BUDGET = "HedgesOverBudget";
+  public static final String CIRCUIT_BREAKER_OPENINGS = "CircuitBreakerOpenings";
+  public static final String CIRCUIT_BREAKER_REJECTIONS = "CircuitBreakerRejections";
+  public static final String UPSTREAM_ATTEMPTS = "UpstreamAttempts";
+  public static final String RETRIES = "Retries";
+  public static final String RETRIES_EXHAUSTED = "RetriesExhausted";
+  public static final String RETRY_DEADLINES_REACHED = "RetryDeadlinesReached";
+  public static final String IDENTIFIER_CACHE_PREFIX = "IdentifierCache";
+  public static final String PAGE_CACHE_PREFIX = "PageCache";
+  public static final String TRANSCODED_PAGE_CACHE_PREFIX = "TranscodedPageCache";
+  public static final String CACHE_HITS = "Hits";
+  public static final String CACHE_STALE_HITS = "StaleHits";
+  public static final String CACHE_MISSES = "Misses";
+
+  private MetricNames() {
+    // no-op
+  }
+}
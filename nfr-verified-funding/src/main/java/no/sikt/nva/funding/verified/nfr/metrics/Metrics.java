@@ -0,0 +1,289 @@
+package no.sikt.nva.funding.verified.nfr.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of the invocations of one handler, written to the log by {@link #flush} as one line in
+ * CloudWatch embedded metric format (EMF), from which CloudWatch extracts the metrics without any
+ * call to its API.
+ *
+ * <p>Counts and distributions are recorded while an invocation is handled. Components that already
+ * count their events, such as the caches and the hedging, circuit breaker and retries of
+ * ProjectBank calls, are registered with {@link #registerCounter}, and what they counted since the
+ * previous flush is written. Components shared by handlers record into instances of their own,
+ * which are {@link #include included} by the instance that flushes them.
+ *
+ * <p>Lambda runs one invocation of a container at a time, so the line flushed at the end of an
+ * invocation holds the metrics of that invocation. Work it left running, such as a hedge that lost,
+ * is written with the next invocation.
+ */
+public class Metrics {
+
+  public static final String NAMESPACE = "NVA/VerifiedFundingSources";
+  public static final String HANDLER_DIMENSION = "Handler";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final long NANOS_PER_MICRO = 1000;
+
+  private final Consumer<String> sink;
+  private final Clock clock;
+  private final List<Metrics> included = new CopyOnWriteArrayList<>();
+  private final Map<String, Counter> counters = new TreeMap<>();
+  private final Map<String, Long> runningTimers = new TreeMap<>();
+  private Recorded recorded = new Recorded();
+
+  /** Metrics that are not written themselves, but included in those of a handler. */
+  public Metrics() {
+    this(line -> {}, Clock.systemUTC());
+  }
+
+  public Metrics(Consumer<String> sink, Clock clock) {
+    this.sink = sink;
+    this.clock = clock;
+  }
+
+  /**
+   * Metrics written to standard output, which Lambda sends to CloudWatch Logs line by line. They
+   * are not written through the logger, whose layout would make the lines unreadable as EMF.
+   */
+  @SuppressWarnings("PMD.SystemPrintln")
+  public static Metrics toStandardOutput() {
+    return new Metrics(System.out::println, Clock.systemUTC());
+  }
+
+  public void count(String name) {
+    count(name, 1);
+  }
+
+  public synchronized void count(String name, long amount) {
+    recorded.count(name, amount);
+  }
+
+  public void recordDuration(String name, long nanos) {
+    record(name, Unit.MILLISECONDS, nanos / NANOS_PER_MICRO);
+  }
+
+  public void recordValue(String name, long value) {
+    record(name, Unit.COUNT, value);
+  }
+
+  /** Runs {@code work} and records how long it took as {@code name}. */
+  public <T> T time(String name, Supplier<T> work) {
+    var started = System.nanoTime();
+    try {
+      return work.get();
+    } finally {
+      recordDuration(name, System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Starts timing {@code name}, which is recorded when it is flushed. It times work that ends
+   * outside of the handler's code, like serializing the response.
+   */
+  public synchronized void startTimer(String name) {
+    runningTimers.put(name, System.nanoTime());
+  }
+
+  /** Writes how much {@code cumulativeCount} has grown since the previous flush as {@code name}. */
+  public synchronized void registerCounter(String name, LongSupplier cumulativeCount) {
+    counters.put(name, new Counter(cumulativeCount));
+  }
+
+  /** Moves what {@code metrics} recorded into what this instance writes on every flush. */
+  public void include(Metrics metrics) {
+    included.add(metrics);
+  }
+
+  /** Writes one EMF line with what was recorded since the previous flush, unless it is nothing. */
+  public void flush(String handlerName) {
+    var flushed = drain();
+    if (!flushed.isEmpty()) {
+      sink.accept(line(handlerName, flushed));
+    }
+  }
+
+  private synchronized void record(String name, Unit unit, long value) {
+    recorded.record(name, unit, value);
+  }
+
+  private synchronized Recorded drain() {
+    var stopped = System.nanoTime();
+    runningTimers.forEach((name, started) -> recordDuration(name, stopped - started));
+    runningTimers.clear();
+    counters.forEach(
+        (name, counter) -> {
+          var increase = counter.takeIncrease();
+          if (increase > 0) {
+            count(name, increase);
+          }
+        });
+    var drained = recorded;
+    recorded = new Recorded();
+    for (var metrics : included) {
+      drained.addAll(metrics.drain());
+    }
+    return drained;
+  }
+
+  private String line(String handlerName, Recorded flushed) {
+    var line = new StringWriter();
+    try (var json = JSON_FACTORY.createGenerator(line)) {
+      json.writeStartObject();
+      json.writeObjectFieldStart("_aws");
+      json.writeNumberField("Timestamp", clock.millis());
+      json.writeArrayFieldStart("CloudWatchMetrics");
+      json.writeStartObject();
+      json.writeStringField("Namespace", NAMESPACE);
+      json.writeArrayFieldStart("Dimensions");
+      json.writeStartArray();
+      json.writeString(HANDLER_DIMENSION);
+      json.writeEndArray();
+      json.writeEndArray();
+      json.writeArrayFieldStart("Metrics");
+      flushed.writeDefinitions(json);
+      json.writeEndArray();
+      json.writeEndObject();
+      json.writeEndArray();
+      json.writeEndObject();
+      json.writeStringField(HANDLER_DIMENSION, handlerName);
+      flushed.writeValues(json);
+      json.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return line.toString();
+  }
+
+  private static void writeDefinition(JsonGenerator json, String name, Unit unit)
+      throws IOException {
+    json.writeStartObject();
+    json.writeStringField("Name", name);
+    json.writeStringField("Unit", unit.cloudWatchName);
+    json.writeEndObject();
+  }
+
+  private enum Unit {
+    COUNT("Count", 1.0),
+    MILLISECONDS("Milliseconds", 1000.0);
+
+    private final String cloudWatchName;
+    private final double recordedPerUnit;
+
+    Unit(String cloudWatchName, double recordedPerUnit) {
+      this.cloudWatchName = cloudWatchName;
+      this.recordedPerUnit = recordedPerUnit;
+    }
+  }
+
+  /** Values of one metric, written as the values of the histogram's buckets and their counts. */
+  private static final class Distribution {
+
+    private final Unit unit;
+    private final Histogram histogram = new Histogram();
+
+    private Distribution(Unit unit) {
+      this.unit = unit;
+    }
+
+    private void record(long value) {
+      histogram.record(value);
+    }
+
+    private Distribution addAll(Distribution other) {
+      histogram.addAll(other.histogram);
+      return this;
+    }
+
+    private void writeDefinition(JsonGenerator json, String name) throws IOException {
+      Metrics.writeDefinition(json, name, unit);
+    }
+
+    private void writeValues(JsonGenerator json, String name) throws IOException {
+      var counts = histogram.bucketCounts();
+      json.writeObjectFieldStart(name);
+      json.writeArrayFieldStart("Values");
+      for (var bucket : counts.keySet()) {
+        json.writeNumber(bucket / unit.recordedPerUnit);
+      }
+      json.writeEndArray();
+      json.writeArrayFieldStart("Counts");
+      for (var count : counts.values()) {
+        json.writeNumber(count);
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+  }
+
+  private static final class Recorded {
+
+    private final Map<String, Long> counts = new TreeMap<>();
+    private final Map<String, Distribution> distributions = new TreeMap<>();
+
+    private void count(String name, long amount) {
+      counts.merge(name, amount, Long::sum);
+    }
+
+    private void record(String name, Unit unit, long value) {
+      distributions.computeIfAbsent(name, key -> new Distribution(unit)).record(value);
+    }
+
+    private boolean isEmpty() {
+      return counts.isEmpty() && distributions.isEmpty();
+    }
+
+    private void addAll(Recorded other) {
+      other.counts.forEach(this::count);
+      other.distributions.forEach(
+          (name, distribution) -> distributions.merge(name, distribution, Distribution::addAll));
+    }
+
+    private void writeDefinitions(JsonGenerator json) throws IOException {
+      for (var name : counts.keySet()) {
+        writeDefinition(json, name, Unit.COUNT);
+      }
+      for (var distribution : distributions.entrySet()) {
+        distribution.getValue().writeDefinition(json, distribution.getKey());
+      }
+    }
+
+    private void writeValues(JsonGenerator json) throws IOException {
+      for (var count : counts.entrySet()) {
+        json.writeNumberField(count.getKey(), count.getValue());
+      }
+      for (var distribution : distributions.entrySet()) {
+        distribution.getValue().writeValues(json, distribution.getKey());
+      }
+    }
+  }
+
+  private static final class Counter {
+
+    private final LongSupplier cumulativeCount;
+    private long reported;
+
+    private Counter(LongSupplier cumulativeCount) {
+      this.cumulativeCount = cumulativeCount;
+      this.reported = cumulativeCount.getAsLong();
+    }
+
+    private long takeIncrease() {
+      var current = cumulativeCount.getAsLong();
+      var increase = current - reported;
+      reported = current;
+      return increase;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package no.sikt.nva.funding.verified.nfr.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Hashes a sequence of values with SHA-256. Every value is written with its length, and a missing
+ * value differently from an empty one, so that different sequences do not hash alike by being
+ * concatenated alike. The hash is the first 128 bits of the digest, base64url encoded.
+ *
+ * <p>Every hash is built by its own instance, so the digest it holds is never shared.
+ */
+@SuppressWarnings("PMD.AvoidMessageDigestField")
+public final class ContentHash {
+
+  private static final String ALGORITHM = "SHA-256";
+  private static final int HASH_BYTES = 16;
+  private static final int MISSING = -1;
+
+  private final MessageDigest digest;
+
+  private ContentHash(MessageDigest digest) {
+    this.digest = digest;
+  }
+
+  public static ContentHash create() {
+    try {
+      return new ContentHash(MessageDigest.getInstance(ALGORITHM));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Every Java platform supports " + ALGORITHM, e);
+    }
+  }
+
+  public ContentHash add(int value) {
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+    return this;
+  }
+
+  /** Adds the string form of {@code value}, or a marker that no value is there when it is null. */
+  public ContentHash add(Object value) {
+    if (value == null) {
+      add(MISSING);
+    } else {
+      var bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+      add(bytes.length);
+      digest.update(bytes);
+    }
+    return this;
+  }
+
+  public String value() {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(Arrays.copyOf(digest.digest(), HASH_BYTES));
+  }
+}
@@ -0,0 +1,99 @@
+package no.sikt.nva.funding.verified.nfr.model;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.CONTEXT_FIELD_NAME;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.FAILED_FIELD_NAME;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.HITS_FIELD_NAME;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.ID_FIELD_NAME;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.NOT_FOUND_FIELD_NAME;
+import static no.sikt.nva.funding.verified.nfr.model.FundingBatchResult.SIZE_FIELD_NAME;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Result of resolving several identifiers in one request. Fundings that were found are listed in
+ * {@code hits} in the order they were requested, identifiers without a matching funding are listed
+ * in {@code notFound}, and identifiers that could not be looked up because ProjectBank failed are
+ * listed in {@code failed}.
+ */
+@JsonInclude(ALWAYS)
+@JsonPropertyOrder({
+  CONTEXT_FIELD_NAME,
+  ID_FIELD_NAME,
+  SIZE_FIELD_NAME,
+  HITS_FIELD_NAME,
+  NOT_FOUND_FIELD_NAME,
+  FAILED_FIELD_NAME
+})
+public class FundingBatchResult {
+
+  protected static final String CONTEXT_FIELD_NAME = "@context";
+  protected static final String ID_FIELD_NAME = "id";
+  protected static final String SIZE_FIELD_NAME = "size";
+  protected static final String HITS_FIELD_NAME = "hits";
+  protected static final String NOT_FOUND_FIELD_NAME = "notFound";
+  protected static final String FAILED_FIELD_NAME = "failed";
+
+  @JsonProperty(CONTEXT_FIELD_NAME)
+  private final URI context;
+
+  @JsonProperty(ID_FIELD_NAME)
+  private final URI id;
+
+  @JsonProperty(SIZE_FIELD_NAME)
+  private final int size;
+
+  @JsonProperty(HITS_FIELD_NAME)
+  private final List<Funding> hits;
+
+  @JsonProperty(NOT_FOUND_FIELD_NAME)
+  private final List<String> notFound;
+
+  @JsonProperty(FAILED_FIELD_NAME)
+  private final List<String> failed;
+
+  @JsonCreator
+  public FundingBatchResult(
+      @JsonProperty(CONTEXT_FIELD_NAME) URI context,
+      @JsonProperty(ID_FIELD_NAME) URI id,
+      @JsonProperty(SIZE_FIELD_NAME) int size,
+      @JsonProperty(HITS_FIELD_NAME) List<Funding> hits,
+      @JsonProperty(NOT_FOUND_FIELD_NAME) List<String> notFound,
+      @JsonProperty(FAILED_FIELD_NAME) List<String> failed) {
+    this.context = context;
+    this.id = id;
+    this.size = size;
+    this.hits = hits;
+    this.notFound = notFound;
+    this.failed = failed;
+  }
+
+  public URI getContext() {
+    return context;
+  }
+
+  public URI getId() {
+    return id;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public List<Funding> getHits() {
+    return hits;
+  }
+
+  public List<String> getNotFound() {
+    return notFound;
+  }
+
+  public List<String> getFailed() {
+    return failed;
+  }
+}
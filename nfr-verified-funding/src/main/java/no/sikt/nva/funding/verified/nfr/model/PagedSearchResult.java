@@ -113,6 +113,11 @@ public class PagedSearchResult<T> {
     return hits;
   }
 
+  /** The same page holding {@code hits} instead, such as its hits once they have been mapped. */
+  public <R> PagedSearchResult<R> withHits(List<R> hits) {
+    return new PagedSearchResult<>(context, id, totalSize, nextResults, previousResults, hits);
+  }
+
   private static URI calculateNextResults(
       int queryOffset, int querySize, int totalSize, int noHits, URI baseUri) {
     return (queryOffset + noHits) < totalSize
@@ -0,0 +1,38 @@
+package no.sikt.nva.funding.verified.nfr.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+import nva.commons.core.JacocoGenerated;
+
+/** A value that has already been serialized, and is written as it is. */
+public final class RawJson extends JsonSerializable.Base {
+
+  private final String json;
+
+  public RawJson(String json) {
+    super();
+    this.json = json;
+  }
+
+  @Override
+  public void serialize(JsonGenerator generator, SerializerProvider serializers)
+      throws IOException {
+    generator.writeRawValue(json);
+  }
+
+  @JacocoGenerated
+  @Override
+  public void serializeWithType(
+      JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+      throws IOException {
+    serialize(generator, serializers);
+  }
+
+  @Override
+  public String toString() {
+    return json;
+  }
+}
@@ -0,0 +1,80 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits Norwegian and English text into search terms. Terms are folded by {@code LetterFolding},
+ * the same way lead names are, and common Norwegian and English function words as well as single
+ * letters are dropped.
+ */
+public final class FundingTokenizer {
+
+  private static final Set<String> STOP_WORDS =
+      Set.of(
+          "og", "av", "en", "et", "ei", "for", "fra", "med", "om", "pa", "som", "til", "den", "det",
+          "de", "er", "ved", "the", "of", "and", "in", "on", "an", "to", "with", "from", "by", "at",
+          "or", "is", "as");
+  private static final int MINIMUM_LETTER_TERM_LENGTH = 2;
+
+  private FundingTokenizer() {}
+
+  public static List<String> tokenize(String text) {
+    var terms = new ArrayList<String>();
+    var term = new StringBuilder();
+    var folded = LetterFolding.fold(text);
+    for (int index = 0; index < folded.length(); index++) {
+      var character = folded.charAt(index);
+      if (Character.isLetterOrDigit(character)) {
+        term.append(character);
+      } else {
+        addTerm(term, terms);
+      }
+    }
+    addTerm(term, terms);
+    return terms;
+  }
+
+  /**
+   * The term a typeahead query is still being typed in: its trailing run of letters and digits,
+   * folded like a term but kept even when it is a single letter or a stop word. Empty when the text
+   * ends in a separator.
+   */
+  public static String prefix(String text) {
+    return text == null ? "" : LetterFolding.fold(text.substring(prefixStart(text)));
+  }
+
+  /** The text before the term a typeahead query is still being typed in, see {@link #prefix}. */
+  public static String beforePrefix(String text) {
+    return text == null ? "" : text.substring(0, prefixStart(text));
+  }
+
+  private static int prefixStart(String text) {
+    var start = text.length();
+    while (start > 0 && isInTerm(text.charAt(start - 1))) {
+      start--;
+    }
+    return start;
+  }
+
+  /** Accents typed as combining marks belong to the letter before them until they are folded. */
+  private static boolean isInTerm(char character) {
+    return Character.isLetterOrDigit(character)
+        || Character.getType(character) == Character.NON_SPACING_MARK;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static void addTerm(StringBuilder term, List<String> terms) {
+    if (term.isEmpty()) {
+      return;
+    }
+    var candidate = term.toString();
+    term.setLength(0);
+    var isSingleLetter =
+        candidate.length() < MINIMUM_LETTER_TERM_LENGTH && !Character.isDigit(candidate.charAt(0));
+    if (!isSingleLetter && !STOP_WORDS.contains(candidate)) {
+      terms.add(candidate);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+
+/**
+ * Index from normalized lead name to the fundings led by that person, so that a name query is
+ * answered by one exact lookup with an exact total. The fundings of a name are ranked like
+ * suggestions, most recently active first.
+ *
+ * <p>Names are normalized by {@link #normalize}: runs of whitespace do not matter, and letters are
+ * folded by {@code LetterFolding} like the terms of the other indexes.
+ */
+public final class LeadNameIndex {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final String SPACE = " ";
+  private static final LeadNameIndex EMPTY_INDEX = build(List.of());
+
+  private final Map<String, NfrFunding[]> fundingsByName;
+  private final int fundingCount;
+
+  private LeadNameIndex(Map<String, NfrFunding[]> fundingsByName, int fundingCount) {
+    this.fundingsByName = fundingsByName;
+    this.fundingCount = fundingCount;
+  }
+
+  public static LeadNameIndex empty() {
+    return EMPTY_INDEX;
+  }
+
+  public static LeadNameIndex fromSnapshot(NfrCatalogSnapshot snapshot) {
+    return build(snapshot.getFundings());
+  }
+
+  public static LeadNameIndex build(Collection<NfrFunding> fundings) {
+    var builders = new HashMap<String, List<NfrFunding>>();
+    for (var funding : fundings) {
+      var name = normalize(funding.getLeadName());
+      if (!name.isEmpty()) {
+        builders.computeIfAbsent(name, unused -> new ArrayList<>()).add(funding);
+      }
+    }
+    var fundingsByName = new HashMap<String, NfrFunding[]>(builders.size() * 2);
+    builders.forEach(
+        (name, led) -> {
+          var ranked = led.toArray(NfrFunding[]::new);
+          Arrays.sort(ranked, NfrFundingPrefixIndex.MOST_RECENT_FIRST);
+          fundingsByName.put(name, ranked);
+        });
+    return new LeadNameIndex(fundingsByName, fundings.size());
+  }
+
+  /** The form names are compared in. Blank and missing names are normalized to the empty string. */
+  public static String normalize(String name) {
+    var normalized = LetterFolding.fold(name).strip();
+    return WHITESPACE.matcher(normalized).replaceAll(SPACE);
+  }
+
+  public boolean isEmpty() {
+    return fundingCount == 0;
+  }
+
+  public int size() {
+    return fundingCount;
+  }
+
+  public NfrFundingIndex.Result search(String name, int offset, int size) {
+    var led = fundingsByName.getOrDefault(normalize(name), new NfrFunding[0]);
+    var from = Math.min(offset, led.length);
+    var to = (int) Math.min((long) offset + size, led.length);
+    return new NfrFundingIndex.Result(List.of(Arrays.copyOfRange(led, from, to)), led.length);
+  }
+}
@@ -0,0 +1,33 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The one way text is folded before it is indexed or looked up, so that every index matches the
+ * same spellings. Text is lower cased, æ and ä are spelled ae, ø and ö are spelled o, and other
+ * accents, such as the ring of å, are dropped. A query typed on a keyboard without the Norwegian
+ * letters therefore still matches.
+ */
+final class LetterFolding {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+  private LetterFolding() {}
+
+  /** The folded form of {@code text}. Missing text is folded to the empty string. */
+  static String fold(String text) {
+    var folded = text == null ? "" : text.toLowerCase(Locale.ROOT);
+    folded =
+        folded
+            .replace("æ", "ae")
+            .replace("ä", "ae")
+            .replace("ø", "o")
+            .replace("ö", "o")
+            .replace("œ", "oe")
+            .replace("ß", "ss");
+    folded = Normalizer.normalize(folded, Normalizer.Form.NFD);
+    return COMBINING_MARKS.matcher(folded).replaceAll("");
+  }
+}
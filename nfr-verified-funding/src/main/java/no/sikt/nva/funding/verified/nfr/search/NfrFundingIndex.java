@@ -0,0 +1,220 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+
+/**
+ * Inverted index over the titles, lead names and project ids of a set of fundings. A query matches
+ * the fundings that contain all of its terms, ranked by BM25 with ties broken by project id.
+ */
+public final class NfrFundingIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final double NO_MATCH = -1;
+  private static final String TITLE_METADATA_KEY = "title";
+  private static final NfrFundingIndex EMPTY_INDEX = build(List.of());
+
+  private final NfrFunding[] documents;
+  private final int[] documentLengths;
+  private final double averageDocumentLength;
+  private final Map<String, Postings> postingsByTerm;
+
+  private NfrFundingIndex(
+      NfrFunding[] documents, int[] documentLengths, Map<String, Postings> postingsByTerm) {
+    this.documents = documents;
+    this.documentLengths = documentLengths;
+    this.averageDocumentLength = Math.max(1.0, Arrays.stream(documentLengths).average().orElse(0));
+    this.postingsByTerm = postingsByTerm;
+  }
+
+  public static NfrFundingIndex empty() {
+    return EMPTY_INDEX;
+  }
+
+  public static NfrFundingIndex fromSnapshot(NfrCatalogSnapshot snapshot) {
+    return build(snapshot.getFundings());
+  }
+
+  public static NfrFundingIndex build(Collection<NfrFunding> fundings) {
+    var documents =
+        fundings.stream()
+            .sorted(Comparator.comparingInt(NfrFunding::getProjectId))
+            .toArray(NfrFunding[]::new);
+    var documentLengths = new int[documents.length];
+    var builders = new HashMap<String, PostingsBuilder>();
+    for (int document = 0; document < documents.length; document++) {
+      var terms = terms(documents[document]);
+      documentLengths[document] = terms.size();
+      var frequencies = new HashMap<String, Integer>();
+      terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+      for (var entry : frequencies.entrySet()) {
+        builders
+            .computeIfAbsent(entry.getKey(), term -> new PostingsBuilder())
+            .add(document, entry.getValue());
+      }
+    }
+    var postingsByTerm = new HashMap<String, Postings>(builders.size() * 2);
+    builders.forEach((term, builder) -> postingsByTerm.put(term, builder.build()));
+    return new NfrFundingIndex(documents, documentLengths, postingsByTerm);
+  }
+
+  private static List<String> terms(NfrFunding funding) {
+    var terms = FundingTokenizer.tokenize(funding.getEnglishMetadata().get(TITLE_METADATA_KEY));
+    terms.addAll(FundingTokenizer.tokenize(funding.getNorwegianMetadata().get(TITLE_METADATA_KEY)));
+    terms.addAll(FundingTokenizer.tokenize(funding.getLeadName()));
+    terms.add(Integer.toString(funding.getProjectId()));
+    return terms;
+  }
+
+  public boolean isEmpty() {
+    return documents.length == 0;
+  }
+
+  public int size() {
+    return documents.length;
+  }
+
+  /**
+   * Whether {@code query} has a term the index can match on. Stop words and single letters are not
+   * indexed, so a query of only those, such as {@code a}, matches nothing here and has to be sent
+   * to ProjectBank instead.
+   */
+  public static boolean hasSearchableTerms(String query) {
+    return !FundingTokenizer.tokenize(query).isEmpty();
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public Result search(String query, int offset, int size) {
+    var postings = postingsFor(query);
+    if (postings.length == 0) {
+      return new Result(List.of(), 0);
+    }
+    var idf = new double[postings.length];
+    for (int term = 0; term < postings.length; term++) {
+      idf[term] = inverseDocumentFrequency(postings[term].documents().length);
+    }
+
+    var wanted = (int) Math.min((long) offset + size, documents.length);
+    var best = new PriorityQueue<ScoredDocument>(wanted + 1, ScoredDocument.WORST_FIRST);
+    var cursors = new int[postings.length];
+    var matches = 0;
+    var shortest = postings[0];
+    for (int candidate = 0; candidate < shortest.documents().length; candidate++) {
+      var document = shortest.documents()[candidate];
+      var score = scoreRemainingTerms(postings, cursors, idf, document);
+      if (score != NO_MATCH) {
+        matches++;
+        best.add(
+            new ScoredDocument(
+                document, score + score(document, shortest.frequencies()[candidate], idf[0])));
+        if (best.size() > wanted) {
+          best.poll();
+        }
+      }
+    }
+    return new Result(page(best, offset), matches);
+  }
+
+  /**
+   * Sums the scores of the document for all but the first (shortest) posting list, moving the
+   * cursors forward, or returns {@link #NO_MATCH} when one of the terms is missing.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private double scoreRemainingTerms(
+      Postings[] postings, int[] cursors, double[] idf, int document) {
+    var score = 0.0;
+    for (int term = 1; term < postings.length; term++) {
+      var termDocuments = postings[term].documents();
+      var position = advance(termDocuments, cursors[term], document);
+      cursors[term] = position;
+      if (position == termDocuments.length || termDocuments[position] != document) {
+        return NO_MATCH;
+      }
+      score += score(document, postings[term].frequencies()[position], idf[term]);
+    }
+    return score;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private Postings[] postingsFor(String query) {
+    var terms = new LinkedHashSet<>(FundingTokenizer.tokenize(query));
+    var postings = new Postings[terms.size()];
+    var index = 0;
+    for (var term : terms) {
+      var termPostings = postingsByTerm.get(term);
+      if (termPostings == null) {
+        return new Postings[0];
+      }
+      postings[index++] = termPostings;
+    }
+    Arrays.sort(postings, Comparator.comparingInt(termPostings -> termPostings.documents().length));
+    return postings;
+  }
+
+  private static int advance(int[] documents, int from, int target) {
+    var found = Arrays.binarySearch(documents, from, documents.length, target);
+    return found >= 0 ? found : -found - 1;
+  }
+
+  private double inverseDocumentFrequency(int documentFrequency) {
+    return Math.log(1 + (documents.length - documentFrequency + 0.5) / (documentFrequency + 0.5));
+  }
+
+  private double score(int document, int termFrequency, double idf) {
+    var lengthNormalization = 1 - B + B * documentLengths[document] / averageDocumentLength;
+    return idf * termFrequency * (K1 + 1) / (termFrequency + K1 * lengthNormalization);
+  }
+
+  private List<NfrFunding> page(Queue<ScoredDocument> best, int offset) {
+    var ranked = new ScoredDocument[best.size()];
+    for (int position = ranked.length - 1; position >= 0; position--) {
+      ranked[position] = best.poll();
+    }
+    return Arrays.stream(ranked).skip(offset).map(scored -> documents[scored.document()]).toList();
+  }
+
+  /** One page of ranked matches together with the total number of matches. */
+  public record Result(List<NfrFunding> hits, int totalSize) {}
+
+  private record Postings(int[] documents, int[] frequencies) {}
+
+  private record ScoredDocument(int document, double score) {
+
+    private static final Comparator<ScoredDocument> WORST_FIRST =
+        Comparator.comparingDouble(ScoredDocument::score)
+            .thenComparing(Comparator.comparingInt(ScoredDocument::document).reversed());
+  }
+
+  private static final class PostingsBuilder {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] documents = new int[INITIAL_CAPACITY];
+    private int[] frequencies = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private void add(int document, int frequency) {
+      if (size == documents.length) {
+        documents = Arrays.copyOf(documents, size * 2);
+        frequencies = Arrays.copyOf(frequencies, size * 2);
+      }
+      documents[size] = document;
+      frequencies[size] = frequency;
+      size++;
+    }
+
+    private Postings build() {
+      return new Postings(Arrays.copyOf(documents, size), Arrays.copyOf(frequencies, size));
+    }
+  }
+}
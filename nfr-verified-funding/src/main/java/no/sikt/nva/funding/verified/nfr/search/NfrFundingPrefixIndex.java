@@ -0,0 +1,135 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+
+/**
+ * Prefix index over the titles, lead names and project ids of a set of fundings, for suggestions
+ * while a query is being typed. The terms are kept in one sorted array, so that the terms starting
+ * with a prefix are a range found by binary search, and each term has the sorted positions of the
+ * fundings containing it.
+ *
+ * <p>A query matches the fundings that contain each of its complete terms and a term starting with
+ * the one it ends in. Fundings are ranked by when they became active, most recent first, with ties
+ * broken by the higher project id: funding pickers are mostly used to register recent projects.
+ */
+public final class NfrFundingPrefixIndex {
+
+  private static final String TITLE_METADATA_KEY = "title";
+  private static final char LAST_CHARACTER = Character.MAX_VALUE;
+  static final Comparator<NfrFunding> MOST_RECENT_FIRST =
+      Comparator.comparing(
+              NfrFunding::getActiveFrom, Comparator.nullsLast(Comparator.reverseOrder()))
+          .thenComparing(Comparator.comparingInt(NfrFunding::getProjectId).reversed());
+  private static final NfrFundingPrefixIndex EMPTY_INDEX = build(List.of());
+
+  private final NfrFunding[] documents;
+  private final String[] terms;
+  private final int[][] postings;
+
+  private NfrFundingPrefixIndex(NfrFunding[] documents, String[] terms, int[][] postings) {
+    this.documents = documents;
+    this.terms = terms;
+    this.postings = postings;
+  }
+
+  public static NfrFundingPrefixIndex empty() {
+    return EMPTY_INDEX;
+  }
+
+  public static NfrFundingPrefixIndex fromSnapshot(NfrCatalogSnapshot snapshot) {
+    return build(snapshot.getFundings());
+  }
+
+  public static NfrFundingPrefixIndex build(Collection<NfrFunding> fundings) {
+    var documents = fundings.stream().sorted(MOST_RECENT_FIRST).toArray(NfrFunding[]::new);
+    var documentsByTerm = new TreeMap<String, BitSet>();
+    for (int document = 0; document < documents.length; document++) {
+      for (var term : terms(documents[document])) {
+        documentsByTerm.computeIfAbsent(term, unused -> new BitSet()).set(document);
+      }
+    }
+    var terms = new String[documentsByTerm.size()];
+    var postings = new int[documentsByTerm.size()][];
+    var index = 0;
+    for (Map.Entry<String, BitSet> entry : documentsByTerm.entrySet()) {
+      terms[index] = entry.getKey();
+      postings[index] = entry.getValue().stream().toArray();
+      index++;
+    }
+    return new NfrFundingPrefixIndex(documents, terms, postings);
+  }
+
+  private static Collection<String> terms(NfrFunding funding) {
+    var terms =
+        new HashSet<>(
+            FundingTokenizer.tokenize(funding.getEnglishMetadata().get(TITLE_METADATA_KEY)));
+    terms.addAll(FundingTokenizer.tokenize(funding.getNorwegianMetadata().get(TITLE_METADATA_KEY)));
+    terms.addAll(FundingTokenizer.tokenize(funding.getLeadName()));
+    terms.add(Integer.toString(funding.getProjectId()));
+    return terms;
+  }
+
+  public boolean isEmpty() {
+    return documents.length == 0;
+  }
+
+  public int size() {
+    return documents.length;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public NfrFundingIndex.Result suggest(String query, int offset, int size) {
+    var prefix = FundingTokenizer.prefix(query);
+    var completeTerms = FundingTokenizer.tokenize(FundingTokenizer.beforePrefix(query));
+    if (completeTerms.isEmpty() && prefix.isEmpty()) {
+      return new NfrFundingIndex.Result(List.of(), 0);
+    }
+    var matches = new BitSet(documents.length);
+    matches.set(0, documents.length);
+    for (var term : completeTerms) {
+      matches.and(documentsWith(term, term));
+    }
+    if (!prefix.isEmpty()) {
+      matches.and(documentsWith(prefix, prefix + LAST_CHARACTER));
+    }
+    return new NfrFundingIndex.Result(page(matches, offset, size), matches.cardinality());
+  }
+
+  /** The fundings containing a term between {@code from} and {@code to}, both inclusive. */
+  private BitSet documentsWith(String from, String to) {
+    var found = new BitSet(documents.length);
+    for (int term = position(from); term < terms.length && terms[term].compareTo(to) <= 0; term++) {
+      for (var document : postings[term]) {
+        found.set(document);
+      }
+    }
+    return found;
+  }
+
+  private int position(String term) {
+    var found = Arrays.binarySearch(terms, term);
+    return found >= 0 ? found : -found - 1;
+  }
+
+  private List<NfrFunding> page(BitSet matches, int offset, int size) {
+    var document = matches.nextSetBit(0);
+    for (int skipped = 0; skipped < offset && document >= 0; skipped++) {
+      document = matches.nextSetBit(document + 1);
+    }
+    var hits = new NfrFunding[Math.max(0, Math.min(size, matches.cardinality() - offset))];
+    for (int hit = 0; hit < hits.length; hit++) {
+      hits[hit] = documents[document];
+      document = matches.nextSetBit(document + 1);
+    }
+    return List.of(hits);
+  }
+}
@@ -0,0 +1,54 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/** Stores snapshots below a local directory, standing in for object storage. */
+public class FileSystemSnapshotStorage implements SnapshotStorage {
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  private final Path root;
+
+  public FileSystemSnapshotStorage(Path root) {
+    this.root = root;
+  }
+
+  @Override
+  public void write(String key, byte[] content) throws IOException {
+    var target = resolve(key);
+    Files.createDirectories(target.getParent());
+    var temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+    Files.write(temporary, content);
+    Files.move(
+        temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  @Override
+  public Optional<InputStream> read(String key) throws IOException {
+    var source = resolve(key);
+    return Files.exists(source) ? Optional.of(Files.newInputStream(source)) : Optional.empty();
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return Files.exists(resolve(key));
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    Files.deleteIfExists(resolve(key));
+  }
+
+  private Path resolve(String key) {
+    var resolved = root.resolve(key).normalize();
+    if (!resolved.startsWith(root.normalize())) {
+      throw new IllegalArgumentException("Key escapes snapshot directory: " + key);
+    }
+    return resolved;
+  }
+}
@@ -0,0 +1,163 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pages through the whole ProjectBank catalog and stores every page as a part of a new snapshot
+ * version. Progress is kept in storage: a harvest that fails part way is resumed by the next run,
+ * which only fetches the parts that are still missing.
+ */
+public class NfrCatalogHarvester {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NfrCatalogHarvester.class);
+  private static final DateTimeFormatter VERSION_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+  private final NfrFundingSource apiClient;
+  private final SnapshotStorage storage;
+  private final Clock clock;
+  private final HarvestSettings settings;
+
+  public NfrCatalogHarvester(
+      NfrFundingSource apiClient, SnapshotStorage storage, Clock clock, HarvestSettings settings) {
+    this.apiClient = apiClient;
+    this.storage = storage;
+    this.clock = clock;
+    this.settings = settings;
+  }
+
+  public SnapshotManifest harvest() throws IOException, BadGatewayException {
+    var inProgress = storage.read(SnapshotKeys.IN_PROGRESS);
+    var manifest =
+        inProgress.isPresent() ? NfrCatalogSnapshot.readManifest(inProgress.get()) : startHarvest();
+
+    var missingParts = new ArrayList<Integer>();
+    for (int index = 0; index < manifest.partCount(); index++) {
+      if (!storage.exists(SnapshotKeys.part(manifest.version(), index))) {
+        missingParts.add(index);
+      }
+    }
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info(
+          "Harvesting {} of {} parts for snapshot {}",
+          missingParts.size(),
+          manifest.partCount(),
+          manifest.version());
+    }
+
+    harvestParts(manifest, missingParts);
+
+    var manifestJson = dtoObjectMapper.writeValueAsBytes(manifest);
+    storage.write(SnapshotKeys.manifest(manifest.version()), manifestJson);
+    storage.write(SnapshotKeys.LATEST, manifestJson);
+    storage.delete(SnapshotKeys.IN_PROGRESS);
+    return manifest;
+  }
+
+  private SnapshotManifest startHarvest() throws IOException, BadGatewayException {
+    var startedAt = clock.instant();
+    var firstPage = apiClient.query(settings.query(), 0, settings.pageSize());
+    var manifest =
+        new SnapshotManifest(
+            VERSION_FORMAT.format(startedAt),
+            startedAt,
+            settings.pageSize(),
+            firstPage.getTotalHits());
+    storage.write(SnapshotKeys.IN_PROGRESS, dtoObjectMapper.writeValueAsBytes(manifest));
+    storage.write(SnapshotKeys.part(manifest.version(), 0), SnapshotParts.encode(firstPage));
+    return manifest;
+  }
+
+  private void harvestParts(SnapshotManifest manifest, List<Integer> parts)
+      throws IOException, BadGatewayException {
+    var inFlight = new ArrayDeque<PartRequest>();
+    var nextPart = 0;
+    while (nextPart < parts.size() || !inFlight.isEmpty()) {
+      while (inFlight.size() < settings.concurrency() && nextPart < parts.size()) {
+        inFlight.add(requestPart(manifest, parts.get(nextPart)));
+        nextPart++;
+      }
+      var completed = inFlight.poll();
+      try {
+        storage.write(
+            SnapshotKeys.part(manifest.version(), completed.index()),
+            SnapshotParts.encode(await(completed)));
+      } catch (BadGatewayException | IOException e) {
+        inFlight.forEach(pending -> pending.page().cancel(true));
+        throw e;
+      }
+    }
+  }
+
+  private PartRequest requestPart(SnapshotManifest manifest, int index) {
+    var page =
+        apiClient.queryAsync(
+            settings.query(),
+            index * manifest.pageSize(),
+            manifest.pageSize(),
+            settings.pageTimeout());
+    return new PartRequest(index, page);
+  }
+
+  private static NfrFundingSearchResult await(PartRequest request) throws BadGatewayException {
+    try {
+      return request.page().get();
+    } catch (ExecutionException e) {
+      throw unwrap(request.index(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while harvesting", e);
+    }
+  }
+
+  private static BadGatewayException unwrap(int index, ExecutionException e) {
+    return e.getCause() instanceof BadGatewayException badGatewayException
+        ? badGatewayException
+        : new BadGatewayException("Failed to harvest part " + index + ": " + e.getCause());
+  }
+
+  private record PartRequest(int index, CompletableFuture<NfrFundingSearchResult> page) {}
+
+  public record HarvestSettings(String query, int pageSize, int concurrency, Duration pageTimeout) {
+
+    private static final String DEFAULT_QUERY = "*";
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final String DEFAULT_CONCURRENCY = "4";
+    private static final String DEFAULT_PAGE_TIMEOUT_SECONDS = "30";
+
+    public static HarvestSettings fromEnvironment(Environment environment) {
+      var query = environment.readEnvOpt(EnvironmentKeys.HARVEST_QUERY).orElse(DEFAULT_QUERY);
+      var pageSize =
+          environment.readEnvOpt(EnvironmentKeys.HARVEST_PAGE_SIZE).orElse(DEFAULT_PAGE_SIZE);
+      var concurrency =
+          environment.readEnvOpt(EnvironmentKeys.HARVEST_CONCURRENCY).orElse(DEFAULT_CONCURRENCY);
+      var pageTimeout =
+          environment
+              .readEnvOpt(EnvironmentKeys.HARVEST_PAGE_TIMEOUT_SECONDS)
+              .orElse(DEFAULT_PAGE_TIMEOUT_SECONDS);
+      return new HarvestSettings(
+          query,
+          Integer.parseInt(pageSize),
+          Integer.parseInt(concurrency),
+          Duration.ofSeconds(Long.parseLong(pageTimeout)));
+    }
+  }
+}
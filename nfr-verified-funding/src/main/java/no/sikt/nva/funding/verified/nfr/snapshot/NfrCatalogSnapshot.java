@@ -0,0 +1,139 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import nva.commons.core.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** The fundings of the latest harvested catalog snapshot, held in memory. */
+public final class NfrCatalogSnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NfrCatalogSnapshot.class);
+  private static final NfrCatalogSnapshot EMPTY_SNAPSHOT =
+      new NfrCatalogSnapshot("none", new NfrFunding[0], new ProjectIdIndex(0));
+
+  private final String version;
+  private final NfrFunding[] fundings;
+  private final ProjectIdIndex offsetsByProjectId;
+
+  private NfrCatalogSnapshot(
+      String version, NfrFunding[] fundings, ProjectIdIndex offsetsByProjectId) {
+    this.version = version;
+    this.fundings = fundings;
+    this.offsetsByProjectId = offsetsByProjectId;
+  }
+
+  public static NfrCatalogSnapshot empty() {
+    return EMPTY_SNAPSHOT;
+  }
+
+  /**
+   * Loads the latest snapshot from the storage configured in the environment. A missing or
+   * unreadable snapshot is not an error, the handlers then answer from ProjectBank alone.
+   */
+  public static NfrCatalogSnapshot fromEnvironment(Environment environment) {
+    return fromEnvironment(environment, EMPTY_SNAPSHOT);
+  }
+
+  /**
+   * Like {@link #fromEnvironment(Environment)}, but keeps {@code current} when it already is the
+   * latest version or when the latest snapshot cannot be read.
+   */
+  @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.OnlyOneReturn"})
+  public static NfrCatalogSnapshot fromEnvironment(
+      Environment environment, NfrCatalogSnapshot current) {
+    try {
+      var storage = SnapshotStorage.fromEnvironment(environment);
+      return storage.isPresent()
+          ? loadLatest(storage.get(), current).orElse(EMPTY_SNAPSHOT)
+          : EMPTY_SNAPSHOT;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Could not load catalog snapshot, keeping version {}", current.version, e);
+      return current;
+    }
+  }
+
+  public static Optional<NfrCatalogSnapshot> loadLatest(SnapshotStorage storage)
+      throws IOException {
+    return loadLatest(storage, EMPTY_SNAPSHOT);
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  private static Optional<NfrCatalogSnapshot> loadLatest(
+      SnapshotStorage storage, NfrCatalogSnapshot current) throws IOException {
+    var latest = storage.read(SnapshotKeys.LATEST);
+    if (latest.isEmpty()) {
+      return Optional.empty();
+    }
+    var manifest = readManifest(latest.get());
+    return Optional.of(
+        manifest.version().equals(current.version) ? current : load(storage, manifest));
+  }
+
+  public static SnapshotManifest readManifest(InputStream in) throws IOException {
+    try (in) {
+      return dtoObjectMapper.readValue(in, SnapshotManifest.class);
+    }
+  }
+
+  private static NfrCatalogSnapshot load(SnapshotStorage storage, SnapshotManifest manifest)
+      throws IOException {
+    var fundings = new ArrayList<NfrFunding>(manifest.totalHits());
+    var offsetsByProjectId = new ProjectIdIndex(manifest.totalHits());
+    for (int index = 0; index < manifest.partCount(); index++) {
+      var partKey = SnapshotKeys.part(manifest.version(), index);
+      try (var part =
+          storage
+              .read(partKey)
+              .orElseThrow(() -> new IOException("Snapshot part is missing: " + partKey))) {
+        for (var funding : SnapshotParts.decode(part)) {
+          add(funding, fundings, offsetsByProjectId);
+        }
+      }
+    }
+    var snapshot =
+        new NfrCatalogSnapshot(
+            manifest.version(), fundings.toArray(NfrFunding[]::new), offsetsByProjectId);
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Loaded catalog snapshot {} with {} fundings", snapshot.version, snapshot.size());
+    }
+    return snapshot;
+  }
+
+  private static void add(
+      NfrFunding funding, List<NfrFunding> fundings, ProjectIdIndex offsetsByProjectId) {
+    var existing = offsetsByProjectId.get(funding.getProjectId());
+    if (existing == ProjectIdIndex.NOT_FOUND) {
+      offsetsByProjectId.put(funding.getProjectId(), fundings.size());
+      fundings.add(funding);
+    } else {
+      fundings.set(existing, funding);
+    }
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public int size() {
+    return fundings.length;
+  }
+
+  public List<NfrFunding> getFundings() {
+    return Collections.unmodifiableList(Arrays.asList(fundings));
+  }
+
+  public Optional<NfrFunding> findByProjectId(int projectId) {
+    var offset = offsetsByProjectId.get(projectId);
+    return offset == ProjectIdIndex.NOT_FOUND ? Optional.empty() : Optional.of(fundings[offset]);
+  }
+}
@@ -0,0 +1,88 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+/**
+ * Open addressing hash index from project id to the offset of a record in an array, without boxing
+ * keys or allocating an entry per record. Keys and offsets are kept in two parallel int arrays and
+ * collisions are resolved by linear probing.
+ */
+public final class ProjectIdIndex {
+
+  public static final int NOT_FOUND = -1;
+  private static final int MINIMUM_CAPACITY = 8;
+  private static final int MAXIMUM_LOAD_PERCENT = 70;
+  private static final int HASH_MULTIPLIER = 0x9E3779B9;
+  private static final int PERCENT = 100;
+
+  private int[] projectIds;
+  // offset + 1, so that the zero filled array marks every slot as free
+  private int[] offsets;
+  private int entryCount;
+
+  public ProjectIdIndex(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  /** Maps the project id to the offset and returns the offset it replaced, or NOT_FOUND. */
+  public int put(int projectId, int offset) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset must be zero or positive: " + offset);
+    }
+    if ((entryCount + 1) * PERCENT > projectIds.length * MAXIMUM_LOAD_PERCENT) {
+      rehash(projectIds.length * 2);
+    }
+    var slot = slotOf(projectId);
+    var previous = offsets[slot] - 1;
+    if (previous == NOT_FOUND) {
+      entryCount++;
+    }
+    projectIds[slot] = projectId;
+    offsets[slot] = offset + 1;
+    return previous;
+  }
+
+  public int get(int projectId) {
+    return offsets[slotOf(projectId)] - 1;
+  }
+
+  public int size() {
+    return entryCount;
+  }
+
+  /** Number of slots in the backing arrays. */
+  public int capacity() {
+    return projectIds.length;
+  }
+
+  private int slotOf(int projectId) {
+    var mask = projectIds.length - 1;
+    var hash = projectId * HASH_MULTIPLIER;
+    var slot = (hash ^ (hash >>> 16)) & mask;
+    while (offsets[slot] != 0 && projectIds[slot] != projectId) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    var oldProjectIds = projectIds;
+    var oldOffsets = offsets;
+    allocate(capacity);
+    for (int slot = 0; slot < oldProjectIds.length; slot++) {
+      if (oldOffsets[slot] != 0) {
+        var newSlot = slotOf(oldProjectIds[slot]);
+        projectIds[newSlot] = oldProjectIds[slot];
+        offsets[newSlot] = oldOffsets[slot];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    projectIds = new int[capacity];
+    offsets = new int[capacity];
+  }
+
+  private static int capacityFor(int expectedSize) {
+    var minimumSlots = (long) Math.max(expectedSize, 1) * PERCENT / MAXIMUM_LOAD_PERCENT + 1;
+    return Math.max(MINIMUM_CAPACITY, Integer.highestOneBit((int) minimumSlots - 1) << 1);
+  }
+}
@@ -0,0 +1,62 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import java.io.InputStream;
+import java.util.Optional;
+import nva.commons.core.JacocoGenerated;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+public class S3SnapshotStorage implements SnapshotStorage {
+
+  private final S3Client s3Client;
+  private final String bucket;
+
+  public S3SnapshotStorage(S3Client s3Client, String bucket) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+  }
+
+  @JacocoGenerated
+  public static S3SnapshotStorage defaultStorage(String bucket) {
+    return new S3SnapshotStorage(S3Client.create(), bucket);
+  }
+
+  @Override
+  public void write(String key, byte[] content) {
+    var request = PutObjectRequest.builder().bucket(bucket).key(key).build();
+    s3Client.putObject(request, RequestBody.fromBytes(content));
+  }
+
+  @Override
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public Optional<InputStream> read(String key) {
+    var request = GetObjectRequest.builder().bucket(bucket).key(key).build();
+    try {
+      return Optional.of(s3Client.getObject(request));
+    } catch (NoSuchKeyException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public boolean exists(String key) {
+    var request = HeadObjectRequest.builder().bucket(bucket).key(key).build();
+    try {
+      s3Client.headObject(request);
+      return true;
+    } catch (NoSuchKeyException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void delete(String key) {
+    s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+  }
+}
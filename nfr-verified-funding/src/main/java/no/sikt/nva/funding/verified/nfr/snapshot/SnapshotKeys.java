@@ -0,0 +1,22 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import java.util.Locale;
+
+/** Object keys of the snapshot layout shared by the harvester and the readers. */
+public final class SnapshotKeys {
+
+  public static final String LATEST = "snapshots/latest.json";
+  public static final String IN_PROGRESS = "snapshots/in-progress.json";
+  private static final String MANIFEST_KEY_FORMAT = "snapshots/%s/manifest.json";
+  private static final String PART_KEY_FORMAT = "snapshots/%s/part-%05d.json.gz";
+
+  private SnapshotKeys() {}
+
+  public static String manifest(String version) {
+    return String.format(Locale.ROOT, MANIFEST_KEY_FORMAT, version);
+  }
+
+  public static String part(String version, int index) {
+    return String.format(Locale.ROOT, PART_KEY_FORMAT, version, index);
+  }
+}
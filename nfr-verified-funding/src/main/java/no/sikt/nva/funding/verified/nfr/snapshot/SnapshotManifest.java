@@ -0,0 +1,19 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * Describes one harvested snapshot version: every upstream page of {@code pageSize} fundings is
+ * stored as a separate part below the version.
+ */
+public record SnapshotManifest(
+    @JsonProperty("version") String version,
+    @JsonProperty("startedAt") Instant startedAt,
+    @JsonProperty("pageSize") int pageSize,
+    @JsonProperty("totalHits") int totalHits) {
+
+  public int partCount() {
+    return (totalHits + pageSize - 1) / pageSize;
+  }
+}
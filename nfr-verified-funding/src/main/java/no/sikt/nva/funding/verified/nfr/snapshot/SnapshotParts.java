@@ -0,0 +1,75 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+
+/**
+ * Encodes snapshot parts as gzipped documents in the ProjectBank search response format, so that
+ * they are read back with the same streaming reader as live responses.
+ */
+public final class SnapshotParts {
+
+  private static final String TITLE = "title";
+
+  private SnapshotParts() {}
+
+  public static byte[] encode(NfrFundingSearchResult page) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    try (var generator = dtoObjectMapper.createGenerator(new GZIPOutputStream(bytes))) {
+      generator.writeStartObject();
+      generator.writeNumberField("totalHits", page.getTotalHits());
+      generator.writeNumberField("from", page.getFrom());
+      generator.writeNumberField("size", page.getSize());
+      generator.writeArrayFieldStart("hits");
+      for (var funding : page.getHits()) {
+        generator.writeStartObject();
+        generator.writeNumberField("projectId", funding.getProjectId());
+        writeInstant(generator, "activeFrom", funding.getActiveFrom());
+        writeInstant(generator, "activeTo", funding.getActiveTo());
+        generator.writeStringField("leadName", funding.getLeadName());
+        writeTitle(generator, "english", funding.getEnglishMetadata());
+        writeTitle(generator, "norwegian", funding.getNorwegianMetadata());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    return bytes.toByteArray();
+  }
+
+  public static List<NfrFunding> decode(InputStream part) throws IOException {
+    try (var in = new GZIPInputStream(part)) {
+      return NfrFundingSearchResultReader.read(in).getHits();
+    }
+  }
+
+  private static void writeInstant(JsonGenerator generator, String field, Instant value)
+      throws IOException {
+    if (value == null) {
+      generator.writeNullField(field);
+    } else {
+      generator.writeStringField(field, value.toString());
+    }
+  }
+
+  private static void writeTitle(
+      JsonGenerator generator, String field, Map<String, String> metadata) throws IOException {
+    generator.writeObjectFieldStart(field);
+    if (metadata.containsKey(TITLE)) {
+      generator.writeStringField(TITLE, metadata.get(TITLE));
+    }
+    generator.writeEndObject();
+  }
+}
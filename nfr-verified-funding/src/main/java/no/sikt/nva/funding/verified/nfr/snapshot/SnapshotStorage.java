@@ -0,0 +1,35 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/** Key-value object storage holding harvested catalog snapshots. */
+public interface SnapshotStorage {
+
+  /**
+   * Storage configured by the environment. A bucket takes precedence over a local directory, and
+   * neither being set means no snapshot storage is available.
+   */
+  static Optional<SnapshotStorage> fromEnvironment(Environment environment) {
+    return environment
+        .readEnvOpt(EnvironmentKeys.SNAPSHOT_BUCKET)
+        .<SnapshotStorage>map(S3SnapshotStorage::defaultStorage)
+        .or(
+            () ->
+                environment
+                    .readEnvOpt(EnvironmentKeys.SNAPSHOT_DIRECTORY)
+                    .map(directory -> new FileSystemSnapshotStorage(Path.of(directory))));
+  }
+
+  void write(String key, byte[] content) throws IOException;
+
+  Optional<InputStream> read(String key) throws IOException;
+
+  boolean exists(String key) throws IOException;
+
+  void delete(String key) throws IOException;
+}
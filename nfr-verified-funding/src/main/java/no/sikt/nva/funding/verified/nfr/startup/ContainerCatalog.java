@@ -0,0 +1,94 @@
+package no.sikt.nva.funding.verified.nfr.startup;
+
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingPrefixIndex;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import nva.commons.core.Environment;
+
+/**
+ * The catalog snapshot that the handlers of a Lambda container answer from. It is loaded when the
+ * container initializes and checked for a newer version when the container is restored from a
+ * SnapStart snapshot, which may have been taken long before. The term, prefix and lead name indexes
+ * are built on first use.
+ */
+public final class ContainerCatalog {
+
+  private static volatile Loaded loaded =
+      new Loaded(NfrCatalogSnapshot.fromEnvironment(new Environment()));
+
+  private ContainerCatalog() {}
+
+  public static NfrCatalogSnapshot snapshot() {
+    return loaded.snapshot;
+  }
+
+  public static NfrFundingIndex termIndex() {
+    return loaded.termIndex();
+  }
+
+  public static NfrFundingPrefixIndex prefixIndex() {
+    return loaded.prefixIndex();
+  }
+
+  public static LeadNameIndex leadNameIndex() {
+    return loaded.leadNameIndex();
+  }
+
+  /** Switches to the latest snapshot if it is newer, and keeps its indexes built if they were. */
+  public static void refresh(Environment environment) {
+    loaded = loaded.refreshed(environment);
+  }
+
+  private static final class Loaded {
+
+    private final NfrCatalogSnapshot snapshot;
+    private NfrFundingIndex index;
+    private NfrFundingPrefixIndex prefixIndex;
+    private LeadNameIndex leadNameIndex;
+
+    private Loaded(NfrCatalogSnapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    private synchronized NfrFundingIndex termIndex() {
+      if (index == null) {
+        index = NfrFundingIndex.fromSnapshot(snapshot);
+      }
+      return index;
+    }
+
+    private synchronized NfrFundingPrefixIndex prefixIndex() {
+      if (prefixIndex == null) {
+        prefixIndex = NfrFundingPrefixIndex.fromSnapshot(snapshot);
+      }
+      return prefixIndex;
+    }
+
+    private synchronized LeadNameIndex leadNameIndex() {
+      if (leadNameIndex == null) {
+        leadNameIndex = LeadNameIndex.fromSnapshot(snapshot);
+      }
+      return leadNameIndex;
+    }
+
+    @SuppressWarnings("PMD.OnlyOneReturn")
+    private synchronized Loaded refreshed(Environment environment) {
+      var latest = NfrCatalogSnapshot.fromEnvironment(environment, snapshot);
+      if (latest.getVersion().equals(snapshot.getVersion())) {
+        return this;
+      }
+      var refreshed = new Loaded(latest);
+      if (index != null) {
+        refreshed.termIndex();
+      }
+      if (prefixIndex != null) {
+        refreshed.prefixIndex();
+      }
+      if (leadNameIndex != null) {
+        refreshed.leadNameIndex();
+      }
+      return refreshed;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package no.sikt.nva.funding.verified.nfr.startup;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSearchResultReader;
+import no.sikt.nva.funding.verified.nfr.client.SharedHttpClient;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.FundingBatchResult;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingPrefixIndex;
+import nva.commons.core.Environment;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checkpoint and restore hooks for Lambda SnapStart. Before the checkpoint a synthetic ProjectBank
+ * response is parsed, indexed, mapped and serialized, so that the classes and the Jackson
+ * introspection the handlers need are part of the snapshot. After restore the shared HttpClient is
+ * replaced, so that no network state from before the checkpoint is reused, and the container
+ * catalog is brought up to the latest harvested version.
+ */
+public final class SnapStartPriming implements Resource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SnapStartPriming.class);
+  private static final SnapStartPriming HOOKS = new SnapStartPriming();
+  private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+  private static final String PRIMING_DOMAIN = "priming.invalid";
+  private static final String SYNTHETIC_SEARCH_RESPONSE =
+      """
+      {
+        "totalHits": 2,
+        "from": 0,
+        "size": 2,
+        "hits": [
+          {
+            "projectId": 1,
+            "activeFrom": "2020-01-01T00:00:00Z",
+            "activeTo": "2024-12-31T00:00:00Z",
+            "leadName": "Kari Nordmann",
+            "english": {"title": "Priming ocean research", "summary": "Synthetic"},
+            "norwegian": {"title": "Oppvarming av havforskning", "summary": "Syntetisk"}
+          },
+          {
+            "projectId": 2,
+            "activeFrom": "2021-01-01T00:00:00Z",
+            "activeTo": "2025-12-31T00:00:00Z",
+            "leadName": "Ola Nordmann",
+            "english": {"title": "Priming climate research"},
+            "norwegian": {"title": "Oppvarming av klimaforskning"}
+          }
+        ]
+      }
+      """;
+
+  private SnapStartPriming() {}
+
+  /**
+   * Registers the hooks with the global CRaC context. The context only keeps weak references, so
+   * the registered instance is held by this class. Repeated calls register it once.
+   */
+  public static void register() {
+    if (REGISTERED.compareAndSet(false, true)) {
+      Core.getGlobalContext().register(HOOKS);
+    }
+  }
+
+  public static SnapStartPriming instance() {
+    return HOOKS;
+  }
+
+  /** Runs the parse, search, map and serialize path of the handlers on a synthetic payload. */
+  public static String prime() throws IOException {
+    var searchResult =
+        NfrFundingSearchResultReader.read(
+            new ByteArrayInputStream(SYNTHETIC_SEARCH_RESPONSE.getBytes(StandardCharsets.UTF_8)));
+    var matches = NfrFundingIndex.build(searchResult.getHits()).search("ocean", 0, 10);
+    NfrFundingPrefixIndex.build(searchResult.getHits()).suggest("priming oc", 0, 10);
+    LeadNameIndex.build(searchResult.getHits()).search("Kari Nordmann", 0, 10);
+    List<Funding> fundings =
+        new FundingMapper(PRIMING_DOMAIN, "priming", "cristin", "funding")
+            .mapAll(searchResult.getHits());
+    var baseUri = URI.create("https://" + PRIMING_DOMAIN + "/nfr");
+    var page =
+        new PagedSearchResult<>(
+            baseUri, baseUri, 0, fundings.size(), matches.totalSize(), fundings);
+    var batch =
+        new FundingBatchResult(
+            baseUri, baseUri, fundings.size(), fundings, List.of("3"), List.of("4"));
+    var serializedFunding = dtoObjectMapper.writeValueAsString(fundings.get(0));
+    dtoObjectMapper.readValue(serializedFunding, Funding.class);
+    return dtoObjectMapper.writeValueAsString(page) + dtoObjectMapper.writeValueAsString(batch);
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) throws IOException {
+    var started = System.nanoTime();
+    prime();
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Primed handlers in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context) {
+    SharedHttpClient.reconnect();
+    ContainerCatalog.refresh(new Environment());
+  }
+}
@@ -0,0 +1,24 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Keeps the spans it is given, so that tests can look at them. */
+public class InMemorySpanExporter implements SpanExporter {
+
+  private final List<SpanData> finishedSpans = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void export(SpanData span) {
+    finishedSpans.add(span);
+  }
+
+  /** The spans in the order they ended. */
+  public List<SpanData> getFinishedSpans() {
+    return List.copyOf(finishedSpans);
+  }
+
+  public void reset() {
+    finishedSpans.clear();
+  }
+}
@@ -0,0 +1,26 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Logs every span on one line, like the OpenTelemetry logging exporter. */
+public class LoggingSpanExporter implements SpanExporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoggingSpanExporter.class);
+
+  @Override
+  public void export(SpanData span) {
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info(
+          "span={} kind={} traceId={} spanId={} parentSpanId={} durationMicros={} status={} {}",
+          span.name(),
+          span.kind(),
+          span.context().traceId(),
+          span.context().spanId(),
+          span.parentSpanId(),
+          span.duration().toNanos() / 1000,
+          span.status(),
+          span.attributes());
+    }
+  }
+}
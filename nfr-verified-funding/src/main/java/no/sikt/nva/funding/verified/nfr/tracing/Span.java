@@ -0,0 +1,202 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed phase of a request, in the OpenTelemetry span model. A span is handed to the exporter of
+ * its trace when it ends.
+ *
+ * <p>The span that work on a thread belongs to is the thread's {@link #current() current} span.
+ * Spans started with {@link #inChild} are current while their work runs, and {@link #makeCurrent}
+ * makes any other span current until it ends. Work handed to other threads, like asynchronous
+ * ProjectBank calls, takes the span it belongs to along and starts its spans from it.
+ *
+ * <p>When no span is current, {@link #current()} is a span that records nothing and whose children
+ * record nothing either, so code can be traced without knowing whether it is part of a trace.
+ */
+@SuppressWarnings("PMD.ShortClassName")
+public final class Span implements AutoCloseable {
+
+  public static final String EXCEPTION_TYPE = "exception.type";
+  public static final String EXCEPTION_MESSAGE = "exception.message";
+  private static final Span NOT_RECORDING = new Span();
+  private static final ThreadLocal<Span> CURRENT_SPAN =
+      ThreadLocal.withInitial(() -> NOT_RECORDING);
+
+  private final String name;
+  private final SpanKind kind;
+  private final SpanContext context;
+  private final String parentSpanId;
+  private final SpanExporter exporter;
+  private final Clock clock;
+  private final long startEpochNanos;
+  private final long startNanoTime;
+  private final Map<String, Object> attributes = new LinkedHashMap<>();
+  private final boolean recording;
+  private StatusCode status = StatusCode.UNSET;
+  private Span previous;
+  private boolean ended;
+
+  /* default */ Span(
+      String name,
+      SpanKind kind,
+      SpanContext context,
+      String parentSpanId,
+      SpanExporter exporter,
+      Clock clock) {
+    this.name = name;
+    this.kind = kind;
+    this.context = context;
+    this.parentSpanId = parentSpanId;
+    this.exporter = exporter;
+    this.clock = clock;
+    this.startEpochNanos = epochNanos(clock.instant());
+    this.startNanoTime = System.nanoTime();
+    this.recording = true;
+  }
+
+  private Span() {
+    this.name = "";
+    this.kind = SpanKind.INTERNAL;
+    this.context = null;
+    this.parentSpanId = null;
+    this.exporter = SpanExporter.noop();
+    this.clock = Clock.systemUTC();
+    this.startEpochNanos = 0;
+    this.startNanoTime = 0;
+    this.recording = false;
+  }
+
+  /** The span that work on this thread belongs to. */
+  public static Span current() {
+    return CURRENT_SPAN.get();
+  }
+
+  /** Whether this span is part of a trace, rather than standing in for a missing one. */
+  public boolean isRecording() {
+    return recording;
+  }
+
+  /** The header that makes a request to another service part of this span's trace. */
+  public Optional<String> traceparent() {
+    return recording ? Optional.of(context.traceparent()) : Optional.empty();
+  }
+
+  /** Starts a span within this one, which the caller ends. */
+  public Span startChild(String childName, SpanKind childKind) {
+    return recording
+        ? new Span(childName, childKind, context.newChild(), context.spanId(), exporter, clock)
+        : this;
+  }
+
+  /**
+   * Runs {@code work} in a span within this one, current on this thread while it runs. A failure of
+   * the work is recorded in the span before it is thrown on.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public <T, E extends Exception> T inChild(String childName, SpanWork<T, E> work) throws E {
+    try (var child = startChild(childName, SpanKind.INTERNAL).makeCurrent()) {
+      try {
+        return work.run();
+      } catch (Exception e) {
+        child.recordException(e);
+        throw e;
+      }
+    }
+  }
+
+  /** Makes this span the current span of this thread until it ends. */
+  public synchronized Span makeCurrent() {
+    if (recording && !ended) {
+      previous = CURRENT_SPAN.get();
+      CURRENT_SPAN.set(this);
+    }
+    return this;
+  }
+
+  /** Sets an attribute of the span. Attributes without a value are left out. */
+  @SuppressWarnings("PMD.LinguisticNaming")
+  public synchronized Span setAttribute(String key, Object value) {
+    if (recording && !ended && value != null) {
+      attributes.put(key, value);
+    }
+    return this;
+  }
+
+  /** Marks the span as failed by {@code exception}. */
+  public Span recordException(Throwable exception) {
+    synchronized (this) {
+      if (recording && !ended) {
+        status = StatusCode.ERROR;
+      }
+    }
+    return setAttribute(EXCEPTION_TYPE, exception.getClass().getName())
+        .setAttribute(EXCEPTION_MESSAGE, String.valueOf(exception.getMessage()));
+  }
+
+  /**
+   * Ends the span and hands it to the exporter. Only the first call has any effect. When the span
+   * is current on this thread, the span that was current before it becomes current again.
+   */
+  public void end() {
+    var data = finish();
+    if (data != null) {
+      exporter.export(data);
+    }
+  }
+
+  @Override
+  public void close() {
+    end();
+  }
+
+  /**
+   * Ends the current span of this thread and the spans that were current before it, and leaves no
+   * span current.
+   */
+  @SuppressWarnings("PMD.CloseResource")
+  /* default */ static void endCurrentSpans() {
+    for (var span = CURRENT_SPAN.get(); span != null && span.recording; span = span.previous) {
+      span.end();
+    }
+    CURRENT_SPAN.remove();
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private synchronized SpanData finish() {
+    SpanData data = null;
+    if (recording && !ended) {
+      ended = true;
+      if (CURRENT_SPAN.get() == this) {
+        CURRENT_SPAN.set(previous);
+      }
+      data =
+          new SpanData(
+              name,
+              kind,
+              context,
+              parentSpanId,
+              startEpochNanos,
+              startEpochNanos + System.nanoTime() - startNanoTime,
+              Map.copyOf(attributes),
+              status);
+    }
+    return data;
+  }
+
+  private static long epochNanos(Instant instant) {
+    return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+  }
+
+  /** Work run in a span, which may throw {@code E}. */
+  @FunctionalInterface
+  public interface SpanWork<T, E extends Exception> {
+
+    T run() throws E;
+  }
+}
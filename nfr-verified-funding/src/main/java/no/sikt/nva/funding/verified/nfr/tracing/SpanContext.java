@@ -0,0 +1,72 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * The identity of a span within its trace, as carried between services by the W3C Trace Context
+ * {@code traceparent} header: a 32 hex digit trace id, a 16 hex digit span id and whether the trace
+ * is sampled.
+ */
+public record SpanContext(String traceId, String spanId, boolean sampled) {
+
+  private static final Pattern TRACEPARENT =
+      Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+  private static final String INVALID_TRACE_ID = "0".repeat(32);
+  private static final String INVALID_SPAN_ID = "0".repeat(16);
+  private static final String VERSION = "00";
+  private static final String SAMPLED = "01";
+  private static final String NOT_SAMPLED = "00";
+  private static final int SAMPLED_FLAG = 1;
+  private static final int HEX_RADIX = 16;
+  private static final HexFormat HEX = HexFormat.of();
+  // unlike a ThreadLocalRandom captured in a SnapStart snapshot, SecureRandom does not give every
+  // container restored from the snapshot the same sequence of ids
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  /** The context of a new trace, which is sampled. */
+  public static SpanContext newTrace() {
+    return new SpanContext(randomTraceId(), randomSpanId(), true);
+  }
+
+  /**
+   * The context in a {@code traceparent} header, or empty when it is missing, malformed or holds
+   * the all-zero ids that the specification forbids.
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn")
+  public static Optional<SpanContext> fromTraceparent(String traceparent) {
+    if (traceparent == null) {
+      return Optional.empty();
+    }
+    var matcher = TRACEPARENT.matcher(traceparent.trim());
+    if (!matcher.matches()
+        || INVALID_TRACE_ID.equals(matcher.group(1))
+        || INVALID_SPAN_ID.equals(matcher.group(2))) {
+      return Optional.empty();
+    }
+    var flags = Integer.parseInt(matcher.group(3), HEX_RADIX);
+    return Optional.of(
+        new SpanContext(matcher.group(1), matcher.group(2), (flags & SAMPLED_FLAG) != 0));
+  }
+
+  /** The context of a span within the same trace as this one. */
+  public SpanContext newChild() {
+    return new SpanContext(traceId, randomSpanId(), sampled);
+  }
+
+  public String traceparent() {
+    return String.join("-", VERSION, traceId, spanId, sampled ? SAMPLED : NOT_SAMPLED);
+  }
+
+  private static String randomTraceId() {
+    var traceId = HEX.toHexDigits(RANDOM.nextLong()) + HEX.toHexDigits(RANDOM.nextLong());
+    return INVALID_TRACE_ID.equals(traceId) ? randomTraceId() : traceId;
+  }
+
+  private static String randomSpanId() {
+    var spanId = HEX.toHexDigits(RANDOM.nextLong());
+    return INVALID_SPAN_ID.equals(spanId) ? randomSpanId() : spanId;
+  }
+}
@@ -0,0 +1,23 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A span that has ended, as handed to the {@link SpanExporter}. The fields follow the OpenTelemetry
+ * span model, so the spans can be exported to any backend that accepts it.
+ */
+public record SpanData(
+    String name,
+    SpanKind kind,
+    SpanContext context,
+    String parentSpanId,
+    long startEpochNanos,
+    long endEpochNanos,
+    Map<String, Object> attributes,
+    StatusCode status) {
+
+  public Duration duration() {
+    return Duration.ofNanos(endEpochNanos - startEpochNanos);
+  }
+}
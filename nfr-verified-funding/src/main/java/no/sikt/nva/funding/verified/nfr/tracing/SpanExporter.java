@@ -0,0 +1,15 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+/** Receives every span once it has ended. */
+@FunctionalInterface
+public interface SpanExporter {
+
+  void export(SpanData span);
+
+  /** An exporter that drops the spans, for when traces are not collected. */
+  static SpanExporter noop() {
+    return span -> {
+      // dropped
+    };
+  }
+}
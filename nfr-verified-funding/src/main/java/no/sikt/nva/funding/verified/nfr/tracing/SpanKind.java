@@ -0,0 +1,8 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+/** The role of a span in a trace, named as in OpenTelemetry. */
+public enum SpanKind {
+  INTERNAL,
+  SERVER,
+  CLIENT
+}
@@ -0,0 +1,25 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+/** Names of the spans written by the handlers, and of their attributes. */
+public final class SpanNames {
+  public static final String VALIDATE = "validate";
+  public static final String LOOKUP = "lookup";
+  public static final String SEARCH = "search";
+  public static final String MAP = "map";
+  public static final String SERIALIZE = "serialize";
+  public static final String UPSTREAM_QUERY = "NfrApiClient.query";
+  public static final String UPSTREAM_REQUEST = "GET";
+  public static final String PARSE = "parse";
+  public static final String INVOCATION_ID = "faas.invocation_id";
+  public static final String REQUEST_METHOD = "http.request.method";
+  public static final String RESPONSE_STATUS_CODE = "http.response.status_code";
+  public static final String SERVER_ADDRESS = "server.address";
+  public static final String URL_PATH = "url.path";
+  public static final String QUERY_OFFSET = "nfr.query.offset";
+  public static final String QUERY_SIZE = "nfr.query.size";
+  public static final String HITS = "nfr.hits";
+
+  private SpanNames() {
+    // no-op
+  }
+}
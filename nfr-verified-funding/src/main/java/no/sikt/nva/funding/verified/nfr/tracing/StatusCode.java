@@ -0,0 +1,7 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+/** Whether the work of a span failed, named as in OpenTelemetry. */
+public enum StatusCode {
+  UNSET,
+  ERROR
+}
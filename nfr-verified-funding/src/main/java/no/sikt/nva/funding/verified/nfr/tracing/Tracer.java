@@ -0,0 +1,67 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import java.time.Clock;
+import java.util.Locale;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+
+/**
+ * Starts the spans of the requests a handler answers. A request that carries a {@code traceparent}
+ * header continues the caller's trace, and every other request starts a trace of its own. The spans
+ * of a request are handed to the tracer's {@link SpanExporter}.
+ */
+public class Tracer {
+
+  public static final String TRACEPARENT_HEADER = "traceparent";
+  public static final String LOGGING_EXPORTER = "logging";
+  private static final String NO_EXPORTER = "none";
+
+  private final SpanExporter exporter;
+  private final Clock clock;
+
+  public Tracer(SpanExporter exporter, Clock clock) {
+    this.exporter = exporter;
+    this.clock = clock;
+  }
+
+  /**
+   * Exports spans as selected by {@code OTEL_TRACES_EXPORTER}: {@code logging} logs them, and
+   * {@code none}, the default, drops them. Trace context is propagated to ProjectBank either way.
+   */
+  public static Tracer fromEnvironment(Environment environment) {
+    var exporter =
+        environment.readEnvOpt(EnvironmentKeys.TRACES_EXPORTER).orElse(NO_EXPORTER).trim();
+    return new Tracer(
+        LOGGING_EXPORTER.equals(exporter.toLowerCase(Locale.ROOT))
+            ? new LoggingSpanExporter()
+            : SpanExporter.noop(),
+        Clock.systemUTC());
+  }
+
+  /** Starts the span of a request with {@code headers}, current on this thread until it ends. */
+  public Span startRequestSpan(String name, Map<String, String> headers) {
+    var parent = SpanContext.fromTraceparent(traceparent(headers));
+    var context = parent.map(SpanContext::newChild).orElseGet(SpanContext::newTrace);
+    var parentSpanId = parent.map(SpanContext::spanId).orElse(null);
+    return new Span(name, SpanKind.SERVER, context, parentSpanId, exporter, clock).makeCurrent();
+  }
+
+  /**
+   * Ends the spans that are still current on this thread, such as the span of the request and of
+   * serializing its response, once the response has been written.
+   */
+  public void endRequest() {
+    Span.endCurrentSpans();
+  }
+
+  private static String traceparent(Map<String, String> headers) {
+    String traceparent = null;
+    for (var header : headers.entrySet()) {
+      if (TRACEPARENT_HEADER.equalsIgnoreCase(header.getKey())) {
+        traceparent = header.getValue();
+      }
+    }
+    return traceparent;
+  }
+}
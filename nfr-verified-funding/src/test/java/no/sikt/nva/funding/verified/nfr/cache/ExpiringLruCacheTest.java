@@ -0,0 +1,193 @@
+package no.sikt.nva.funding.verified.nfr.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExpiringLruCacheTest {
+
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+  private static final Duration STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+  private static final String FIRST_LOADED_VALUE = "value-1-1";
+  private static final String SECOND_LOADED_VALUE = "value-1-2";
+
+  private MutableClock clock;
+  private List<Runnable> scheduledRefreshes;
+  private AtomicInteger loadCount;
+  private ExpiringLruCache<Integer, String> cache;
+
+  @BeforeEach
+  void setup() {
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    scheduledRefreshes = new ArrayList<>();
+    loadCount = new AtomicInteger();
+    cache =
+        new ExpiringLruCache<>(
+            2, TIME_TO_LIVE, STALE_WHILE_REVALIDATE, clock, scheduledRefreshes::add);
+  }
+
+  @Test
+  void shouldLoadOnMissAndServeFromCacheOnHit() {
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(FIRST_LOADED_VALUE)));
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(FIRST_LOADED_VALUE)));
+
+    assertThat(loadCount.get(), is(equalTo(1)));
+    assertThat(cache.getMissCount(), is(equalTo(1L)));
+    assertThat(cache.getHitCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+    cache.get(1, this::countingLoader);
+    cache.get(2, this::countingLoader);
+    cache.get(1, this::countingLoader);
+    cache.get(3, this::countingLoader);
+
+    assertThat(cache.size(), is(equalTo(2)));
+    assertThat(cache.getEvictionCount(), is(equalTo(1L)));
+
+    cache.get(2, this::countingLoader);
+    assertThat(cache.getMissCount(), is(equalTo(4L)));
+  }
+
+  @Test
+  void shouldServeStaleValueAndRefreshInBackgroundWithinStaleWindow() {
+    cache.get(1, this::countingLoader);
+    clock.advance(TIME_TO_LIVE.plusMinutes(1));
+
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(FIRST_LOADED_VALUE)));
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(FIRST_LOADED_VALUE)));
+    assertThat(cache.getStaleHitCount(), is(equalTo(2L)));
+    assertThat(scheduledRefreshes.size(), is(equalTo(1)));
+
+    scheduledRefreshes.forEach(Runnable::run);
+
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(SECOND_LOADED_VALUE)));
+    assertThat(cache.getHitCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldKeepStaleValueWhenBackgroundRefreshFails() throws IOException {
+    cache.get(1, this::countingLoader);
+    clock.advance(TIME_TO_LIVE.plusMinutes(1));
+
+    cache.get(
+        1,
+        key -> {
+          throw new IOException("upstream down");
+        });
+    scheduledRefreshes.forEach(Runnable::run);
+
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(FIRST_LOADED_VALUE)));
+  }
+
+  @Test
+  void shouldLoadAsynchronouslyOnMissAndServeStaleValueWhileRefreshing() {
+    var pendingLoad = new CompletableFuture<String>();
+
+    var miss = cache.getAsync(1, key -> pendingLoad);
+    assertThat(miss.isDone(), is(false));
+    pendingLoad.complete(FIRST_LOADED_VALUE);
+    assertThat(miss.join(), is(equalTo(FIRST_LOADED_VALUE)));
+
+    clock.advance(TIME_TO_LIVE.plusMinutes(1));
+    var pendingRefresh = new CompletableFuture<String>();
+    var stale = cache.getAsync(1, key -> pendingRefresh);
+    assertThat(stale.join(), is(equalTo(FIRST_LOADED_VALUE)));
+    assertThat(cache.getStaleHitCount(), is(equalTo(1L)));
+
+    pendingRefresh.complete(SECOND_LOADED_VALUE);
+    assertThat(cache.getAsync(1, key -> pendingLoad).join(), is(equalTo(SECOND_LOADED_VALUE)));
+    assertThat(cache.getHitCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldRefreshAgainAfterAsynchronousLoaderThrowsInsteadOfReturningFuture() {
+    cache.getAsync(1, key -> CompletableFuture.completedFuture(FIRST_LOADED_VALUE)).join();
+    clock.advance(TIME_TO_LIVE.plusMinutes(1));
+
+    var stale =
+        cache.getAsync(
+            1,
+            key -> {
+              throw new IllegalStateException("upstream client closed");
+            });
+    assertThat(stale.join(), is(equalTo(FIRST_LOADED_VALUE)));
+
+    cache.getAsync(1, key -> CompletableFuture.completedFuture(SECOND_LOADED_VALUE)).join();
+    assertThat(cache.getIfFresh(1).orElseThrow(), is(equalTo(SECOND_LOADED_VALUE)));
+  }
+
+  @Test
+  void shouldLoadAgainWhenEntryIsOlderThanStaleWindow() {
+    cache.get(1, this::countingLoader);
+    clock.advance(TIME_TO_LIVE.plus(STALE_WHILE_REVALIDATE));
+
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(SECOND_LOADED_VALUE)));
+    assertThat(cache.getMissCount(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldNotCacheFailedLoads() {
+    assertThrows(
+        IOException.class,
+        () ->
+            cache.get(
+                1,
+                key -> {
+                  throw new IOException("upstream down");
+                }));
+
+    assertThat(cache.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldLoadAgainAfterInvalidation() {
+    cache.get(1, this::countingLoader);
+    cache.invalidate(1);
+
+    assertThat(cache.get(1, this::countingLoader), is(equalTo(SECOND_LOADED_VALUE)));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntriesWhenTotalWeightExceedsBound() {
+    var weightBoundCache =
+        new ExpiringLruCache<Integer, String>(
+            10, 10, String::length, TIME_TO_LIVE, Duration.ZERO, clock, Runnable::run);
+
+    weightBoundCache.put(1, "aaaa");
+    weightBoundCache.put(2, "bbbb");
+    weightBoundCache.put(3, "cccc");
+
+    assertThat(weightBoundCache.size(), is(equalTo(2)));
+    assertThat(weightBoundCache.weight(), is(equalTo(8L)));
+
+    weightBoundCache.put(2, "bb");
+    weightBoundCache.invalidate(3);
+    assertThat(weightBoundCache.weight(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldRejectNonPositiveMaxEntries() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new ExpiringLruCache<>(0, TIME_TO_LIVE, STALE_WHILE_REVALIDATE, clock, Runnable::run));
+  }
+
+  private String countingLoader(Integer key) {
+    return "value-" + key + "-" + loadCount.incrementAndGet();
+  }
+}
@@ -0,0 +1,220 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomInstant;
+import static no.unit.nva.testutils.RandomDataGenerator.randomInteger;
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.CachingNfrApiClient.PageKey;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingNfrApiClientTest {
+
+  private static final String QUERY = "climate";
+
+  private NfrFundingSource delegate;
+  private ExpiringLruCache<PageKey, NfrFundingSearchResult> pageCache;
+  private CachingNfrApiClient client;
+
+  @BeforeEach
+  void setup() throws BadGatewayException {
+    delegate = mock(NfrFundingSource.class);
+    when(delegate.getMetrics()).thenReturn(new Metrics());
+    when(delegate.query(anyString(), anyInt(), anyInt()))
+        .thenAnswer(invocation -> randomSearchResult(invocation.getArgument(1)));
+    pageCache =
+        new ExpiringLruCache<>(
+            100,
+            Long.MAX_VALUE,
+            CachingNfrApiClient::estimateSizeInBytes,
+            Duration.ofMinutes(5),
+            Duration.ZERO,
+            Clock.systemUTC(),
+            Runnable::run);
+    client = new CachingNfrApiClient(delegate, pageCache);
+  }
+
+  @Test
+  void shouldServeRepeatedPageFromCache() throws BadGatewayException {
+    var first = client.query(QUERY, 0, 10);
+    var second = client.query(QUERY, 0, 10);
+
+    assertThat(second, is(sameInstance(first)));
+    verify(delegate, times(1)).query(QUERY, 0, 10);
+    assertThat(pageCache.getHitCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldServeRepeatedPageWithRequestTimeoutFromCache() throws BadGatewayException {
+    var timeout = Duration.ofSeconds(1);
+    when(delegate.query(QUERY, 0, 10, timeout)).thenReturn(randomSearchResult(0));
+
+    var first = client.query(QUERY, 0, 10, timeout);
+    var second = client.query(QUERY, 0, 10, timeout);
+
+    assertThat(second, is(sameInstance(first)));
+    verify(delegate, times(1)).query(QUERY, 0, 10, timeout);
+  }
+
+  @Test
+  void shouldServeExpiredPageAsStaleWhileCircuitIsOpen() throws BadGatewayException {
+    var clock = new MutableClock(Instant.now());
+    client =
+        new CachingNfrApiClient(
+            delegate,
+            new ExpiringLruCache<>(
+                100,
+                Long.MAX_VALUE,
+                CachingNfrApiClient::estimateSizeInBytes,
+                Duration.ofMinutes(5),
+                Duration.ZERO,
+                clock,
+                Runnable::run));
+    var timeout = Duration.ofSeconds(1);
+    var lastKnown = randomSearchResult(0);
+    when(delegate.query(QUERY, 0, 10, timeout))
+        .thenReturn(lastKnown)
+        .thenThrow(new CircuitOpenException(clock.instant()));
+
+    var fresh = client.queryAllowingStale(QUERY, 0, 10, timeout);
+    clock.advance(Duration.ofHours(1));
+    var stale = client.queryAllowingStale(QUERY, 0, 10, timeout);
+
+    assertThat(fresh, is(equalTo(MaybeStale.fresh(lastKnown))));
+    assertThat(stale, is(equalTo(MaybeStale.stale(lastKnown))));
+  }
+
+  @Test
+  void shouldFailFastWhileCircuitIsOpenAndPageWasNeverCached() throws BadGatewayException {
+    var timeout = Duration.ofSeconds(1);
+    when(delegate.query(QUERY, 0, 10, timeout)).thenThrow(new CircuitOpenException(Instant.now()));
+
+    assertThrows(
+        CircuitOpenException.class, () -> client.queryAllowingStale(QUERY, 0, 10, timeout));
+  }
+
+  @Test
+  void shouldPassPageReadByOwnReaderToDelegateWithoutCaching() throws BadGatewayException {
+    var timeout = Duration.ofSeconds(1);
+    ResponseReader<String> reader = body -> QUERY;
+    when(delegate.query(QUERY, 0, 10, timeout, reader)).thenReturn(QUERY);
+
+    client.query(QUERY, 0, 10, timeout, reader);
+    client.query(QUERY, 0, 10, timeout, reader);
+
+    verify(delegate, times(2)).query(QUERY, 0, 10, timeout, reader);
+    assertThat(pageCache.getHitCount(), is(equalTo(0L)));
+  }
+
+  @Test
+  void shouldServeRepeatedAsyncPageFromCache() throws Exception {
+    var timeout = Duration.ofSeconds(1);
+    when(delegate.queryAsync(QUERY, 0, 10, timeout))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(randomSearchResult(0)));
+
+    var first = client.queryAsync(QUERY, 0, 10, timeout).get();
+    var second = client.queryAsync(QUERY, 0, 10, timeout).get();
+
+    assertThat(second, is(sameInstance(first)));
+    verify(delegate, times(1)).queryAsync(QUERY, 0, 10, timeout);
+  }
+
+  @Test
+  void shouldCreateCachingClientWithDefaultsWhenEnvironmentIsEmpty() throws BadGatewayException {
+    client = CachingNfrApiClient.fromEnvironment(mock(Environment.class), delegate);
+
+    client.query(QUERY, 0, 10);
+    client.query(QUERY, 0, 10);
+
+    verify(delegate, times(1)).query(QUERY, 0, 10);
+  }
+
+  @Test
+  void shouldShareCacheEntryBetweenRequestsWithSameCanonicalQuery() throws BadGatewayException {
+    var first = client.query("  Ola   Nordmann ", 0, 10);
+    var second = client.query("Ola Nordmann", 0, 10);
+
+    assertThat(second, is(sameInstance(first)));
+    verify(delegate, times(1)).query("Ola Nordmann", 0, 10);
+  }
+
+  @Test
+  void shouldQueryUpstreamForEachDistinctPage() throws BadGatewayException {
+    client.query(QUERY, 0, 10);
+    client.query(QUERY, 10, 10);
+    client.query(QUERY, 0, 10);
+
+    verify(delegate, times(1)).query(QUERY, 0, 10);
+    verify(delegate, times(1)).query(QUERY, 10, 10);
+  }
+
+  @Test
+  void shouldEvictPagesWhenEstimatedBytesExceedBound() throws BadGatewayException {
+    var pageSize = CachingNfrApiClient.estimateSizeInBytes(randomSearchResult(0));
+    var boundedPageCache =
+        new ExpiringLruCache<PageKey, NfrFundingSearchResult>(
+            100,
+            pageSize * 3 / 2,
+            CachingNfrApiClient::estimateSizeInBytes,
+            Duration.ofMinutes(5),
+            Duration.ZERO,
+            Clock.systemUTC(),
+            Runnable::run);
+    client = new CachingNfrApiClient(delegate, boundedPageCache);
+
+    client.query(QUERY, 0, 10);
+    client.query(QUERY, 10, 10);
+    client.query(QUERY, 0, 10);
+
+    verify(delegate, times(2)).query(QUERY, 0, 10);
+    assertThat(boundedPageCache.size(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldEstimateSizeOfSearchResultFromHits() {
+    var empty = new NfrFundingSearchResult(0, 0, 10, List.of());
+    var nonEmpty = randomSearchResult(0);
+
+    assertThat(
+        CachingNfrApiClient.estimateSizeInBytes(nonEmpty),
+        is(greaterThan(CachingNfrApiClient.estimateSizeInBytes(empty))));
+  }
+
+  private static NfrFundingSearchResult randomSearchResult(int offset) {
+    var activeFrom = randomInstant();
+    var funding =
+        new NfrFunding(
+            randomInteger(),
+            activeFrom,
+            randomInstant(activeFrom),
+            randomString(),
+            Map.of("title", randomString()),
+            Map.of("title", randomString()));
+    return new NfrFundingSearchResult(1, offset, 10, List.of(funding));
+  }
+}
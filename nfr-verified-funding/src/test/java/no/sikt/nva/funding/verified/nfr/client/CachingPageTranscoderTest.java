@@ -0,0 +1,136 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.RawJson;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+class CachingPageTranscoderTest {
+
+  private static final String QUERY = "climate";
+  private static final URI CONTEXT = URI.create("https://example.org/context.json");
+  private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+  private final FundingPageTranscoder transcoder =
+      new FundingPageTranscoder(
+          CONTEXT,
+          new FundingMapper("api.localhost", "verified-funding", "cristin", "funding-sources"));
+  private NfrFundingSource delegate;
+  private MutableClock clock;
+  private CachingPageTranscoder client;
+
+  @BeforeEach
+  void setup() {
+    delegate = mock(NfrFundingSource.class);
+    clock = new MutableClock(Instant.now());
+    client =
+        new CachingPageTranscoder(
+            delegate,
+            transcoder,
+            new ExpiringLruCache<>(
+                100,
+                Long.MAX_VALUE,
+                CachingPageTranscoder::estimateSizeInBytes,
+                Duration.ofMinutes(5),
+                Duration.ZERO,
+                clock,
+                Runnable::run));
+  }
+
+  @Test
+  void shouldServeRepeatedTranscodedPageFromCache() throws BadGatewayException {
+    when(queryTranscoding()).thenReturn(transcodedPage());
+
+    var first = client.queryAllowingStale(QUERY, 0, 100, TIMEOUT);
+    var second = client.queryAllowingStale(" climate ", 0, 100, TIMEOUT);
+
+    assertThat(second.value(), is(sameInstance(first.value())));
+    assertThat(second.stale(), is(false));
+    verify(delegate, times(1))
+        .query(anyString(), anyInt(), anyInt(), any(), ArgumentMatchers.<ResponseReader<?>>any());
+  }
+
+  @Test
+  void shouldServeExpiredTranscodedPageAsStaleWhileCircuitIsOpen() throws BadGatewayException {
+    var lastKnown = transcodedPage();
+    when(queryTranscoding())
+        .thenReturn(lastKnown)
+        .thenThrow(new CircuitOpenException(clock.instant()));
+
+    var fresh = client.queryAllowingStale(QUERY, 0, 100, TIMEOUT);
+    clock.advance(Duration.ofHours(1));
+    var stale = client.queryAllowingStale(QUERY, 0, 100, TIMEOUT);
+
+    assertThat(fresh, is(equalTo(MaybeStale.fresh(lastKnown))));
+    assertThat(stale, is(equalTo(MaybeStale.stale(lastKnown))));
+  }
+
+  @Test
+  void shouldFailFastWhileCircuitIsOpenAndPageWasNeverTranscoded() throws BadGatewayException {
+    when(queryTranscoding()).thenThrow(new CircuitOpenException(Instant.now()));
+
+    assertThrows(
+        CircuitOpenException.class, () -> client.queryAllowingStale(QUERY, 0, 100, TIMEOUT));
+  }
+
+  @Test
+  void shouldCreateCachingTranscoderWithDefaultsWhenEnvironmentIsEmpty()
+      throws BadGatewayException {
+    client = CachingPageTranscoder.fromEnvironment(mock(Environment.class), delegate, transcoder);
+    when(queryTranscoding()).thenReturn(transcodedPage());
+
+    client.queryAllowingStale(QUERY, 0, 100, TIMEOUT);
+    client.queryAllowingStale(QUERY, 0, 100, TIMEOUT);
+
+    verify(delegate, times(1))
+        .query(anyString(), anyInt(), anyInt(), any(), ArgumentMatchers.<ResponseReader<?>>any());
+  }
+
+  @Test
+  void shouldEstimateSizeOfTranscodedPageFromHits() {
+    var empty = new PagedSearchResult<RawJson>(CONTEXT, CONTEXT, 0, 100, 0, List.of());
+
+    assertThat(
+        CachingPageTranscoder.estimateSizeInBytes(transcodedPage()),
+        is(greaterThan(CachingPageTranscoder.estimateSizeInBytes(empty))));
+  }
+
+  private PagedSearchResult<RawJson> queryTranscoding() throws BadGatewayException {
+    return delegate.query(eq(QUERY), eq(0), eq(100), eq(TIMEOUT), any());
+  }
+
+  private static PagedSearchResult<RawJson> transcodedPage() {
+    return new PagedSearchResult<>(
+        CONTEXT,
+        CONTEXT,
+        0,
+        100,
+        2,
+        List.of(new RawJson("{\"identifier\":\"1\"}"), new RawJson("{\"identifier\":\"2\"}")));
+  }
+}
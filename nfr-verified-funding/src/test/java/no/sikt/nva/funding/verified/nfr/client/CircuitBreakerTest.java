@@ -0,0 +1,214 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.client.CircuitBreaker.Counts;
+import no.sikt.nva.funding.verified.nfr.client.CircuitBreaker.State;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final int WINDOW_SIZE = 4;
+  private static final int MINIMUM_CALLS = 2;
+  private static final Duration SLOW_CALL = Duration.ofSeconds(5);
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+  private static final String ANSWER = "answer";
+
+  private MutableClock clock;
+  private CircuitBreaker circuitBreaker;
+  private AtomicInteger sentCalls;
+
+  @BeforeEach
+  void setup() {
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    circuitBreaker =
+        new CircuitBreaker(50, SLOW_CALL, WINDOW_SIZE, MINIMUM_CALLS, OPEN_DURATION, clock);
+    sentCalls = new AtomicInteger();
+  }
+
+  @Test
+  void shouldStayClosedWhileFailureRateIsBelowThreshold() throws Exception {
+    succeed();
+    succeed();
+    fail();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+    assertThat(succeed().get(), is(equalTo(ANSWER)));
+  }
+
+  @Test
+  void shouldNotOpenBeforeMinimumNumberOfCalls() {
+    fail();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+  }
+
+  @Test
+  void shouldOpenAndRejectCallsWithoutSendingThemWhenFailureRateReachesThreshold() {
+    succeed();
+    fail();
+
+    var rejected = succeed();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.OPEN)));
+    var failure = assertThrows(ExecutionException.class, rejected::get);
+    assertThat(failure.getCause(), is(instanceOf(CircuitOpenException.class)));
+    assertThat(sentCalls.get(), is(equalTo(2)));
+    assertThat(circuitBreaker.counts(), is(equalTo(new Counts(1, 1))));
+  }
+
+  @Test
+  void shouldOnlyConsiderMostRecentCalls() {
+    for (int call = 0; call < WINDOW_SIZE * 2; call++) {
+      succeed();
+    }
+    fail();
+    fail();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.OPEN)));
+  }
+
+  @Test
+  void shouldCountSlowCallsAsFailures() {
+    circuitBreaker =
+        new CircuitBreaker(50, Duration.ZERO, WINDOW_SIZE, MINIMUM_CALLS, OPEN_DURATION, clock);
+
+    succeed();
+    succeed();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.OPEN)));
+  }
+
+  @Test
+  void shouldIgnoreCancelledCalls() {
+    for (int call = 0; call < WINDOW_SIZE; call++) {
+      circuitBreaker.execute(CompletableFuture<String>::new).cancel(true);
+    }
+    fail();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+  }
+
+  @Test
+  void shouldLetOneTrialCallThroughAtATimeOnceOpenDurationHasPassed() {
+    open();
+    clock.advance(OPEN_DURATION);
+
+    var trial = new CompletableFuture<String>();
+    circuitBreaker.execute(() -> trial);
+    var concurrent = succeed();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.HALF_OPEN)));
+    assertThat(concurrent.isCompletedExceptionally(), is(true));
+  }
+
+  @Test
+  void shouldCloseAfterSuccessfulTrialCalls() {
+    open();
+    clock.advance(OPEN_DURATION);
+
+    for (int trial = 0; trial < CircuitBreaker.TRIAL_CALLS; trial++) {
+      succeed();
+    }
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+  }
+
+  @Test
+  void shouldOpenAgainWhenTrialCallFails() {
+    open();
+    clock.advance(OPEN_DURATION);
+
+    succeed();
+    fail();
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.OPEN)));
+    assertThat(circuitBreaker.counts().openings(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldReleaseTrialWhenTrialCallIsCancelled() {
+    open();
+    clock.advance(OPEN_DURATION);
+
+    circuitBreaker.execute(CompletableFuture<String>::new).cancel(true);
+
+    assertThat(succeed().isCompletedExceptionally(), is(false));
+  }
+
+  @Test
+  void shouldCountCallThatThrowsAsFailure() {
+    succeed();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            circuitBreaker.execute(
+                () -> {
+                  throw new IllegalStateException();
+                }));
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.OPEN)));
+  }
+
+  @Test
+  void shouldNeverOpenWhenAlwaysClosed() {
+    circuitBreaker = CircuitBreaker.alwaysClosed();
+
+    for (int call = 0; call < WINDOW_SIZE; call++) {
+      fail();
+    }
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+  }
+
+  @Test
+  void shouldStartClosedWithDefaultSettings() {
+    circuitBreaker = CircuitBreaker.fromEnvironment(mock(Environment.class));
+
+    assertThat(circuitBreaker.state(), is(equalTo(State.CLOSED)));
+  }
+
+  @Test
+  void shouldRejectMinimumCallsLargerThanWindow() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CircuitBreaker(50, SLOW_CALL, 2, 3, OPEN_DURATION, Clock.systemUTC()));
+  }
+
+  private void open() {
+    fail();
+    fail();
+  }
+
+  private CompletableFuture<String> succeed() {
+    return circuitBreaker.execute(
+        () -> {
+          sentCalls.incrementAndGet();
+          return CompletableFuture.completedFuture(ANSWER);
+        });
+  }
+
+  private void fail() {
+    circuitBreaker.execute(
+        () -> {
+          sentCalls.incrementAndGet();
+          return CompletableFuture.<String>failedFuture(new BadGatewayException(ANSWER));
+        });
+  }
+}
@@ -0,0 +1,87 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import org.junit.jupiter.api.Test;
+
+class FundingPageTranscoderTest {
+
+  private static final URI CONTEXT = URI.create("https://example.org/context.json");
+  private static final String TITLE = "title";
+  private static final List<NfrFunding> HITS =
+      List.of(
+          new NfrFunding(
+              1,
+              Instant.parse("2020-01-01T00:00:00Z"),
+              Instant.parse("2024-01-01T00:00:00Z"),
+              "Kari Nordmann",
+              Map.of(TITLE, "Ocean acidification"),
+              Map.of(TITLE, "Havforsuring")),
+          new NfrFunding(2, null, null, null, Map.of(), Map.of(TITLE, "Marin økologi \"2\"")),
+          new NfrFunding(
+              3, Instant.parse("2021-06-01T00:00:00Z"), null, "Ola", Map.of(), Map.of()));
+
+  private final FundingMapper fundingMapper =
+      new FundingMapper("api.localhost", "verified-funding", "cristin", "funding-sources");
+  private final FundingPageTranscoder transcoder =
+      new FundingPageTranscoder(CONTEXT, fundingMapper);
+
+  @Test
+  void shouldWriteSameJsonAsPageOfMappedFundings() throws IOException {
+    var transcoded = transcoder.transcode(projectBankResponse(25, 10, HITS), 10, HITS.size());
+    var mapped = mappedPage(25, 10, HITS.size());
+
+    assertThat(
+        dtoObjectMapper.writeValueAsString(transcoded),
+        is(equalTo(dtoObjectMapper.writeValueAsString(mapped))));
+  }
+
+  @Test
+  void shouldIndentHitsAsInPageOfMappedFundingsWhenObjectMapperIndents() throws IOException {
+    var indenting = dtoObjectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    var transcoded =
+        new FundingPageTranscoder(CONTEXT, fundingMapper, indenting)
+            .transcode(projectBankResponse(25, 0, HITS), 0, HITS.size());
+
+    assertThat(
+        indenting.writeValueAsString(transcoded),
+        is(equalTo(indenting.writeValueAsString(mappedPage(25, 0, HITS.size())))));
+  }
+
+  @Test
+  void shouldNotLinkNextResultsWhenLastHitsHaveBeenTranscoded() throws IOException {
+    var transcoded = transcoder.transcode(projectBankResponse(23, 20, HITS), 20, 10);
+
+    assertThat(transcoded.getNextResults(), is(nullValue()));
+    assertThat(
+        dtoObjectMapper.writeValueAsString(transcoded),
+        is(equalTo(dtoObjectMapper.writeValueAsString(mappedPage(23, 20, 10)))));
+  }
+
+  private PagedSearchResult<?> mappedPage(int totalHits, int offset, int size) {
+    return new PagedSearchResult<>(
+        CONTEXT, fundingMapper.getSearchId(), offset, size, totalHits, fundingMapper.mapAll(HITS));
+  }
+
+  private static ByteArrayInputStream projectBankResponse(
+      int totalHits, int from, List<NfrFunding> hits) throws IOException {
+    return new ByteArrayInputStream(
+        dtoObjectMapper.writeValueAsBytes(
+            new NfrFundingSearchResult(totalHits, from, hits.size(), hits)));
+  }
+}
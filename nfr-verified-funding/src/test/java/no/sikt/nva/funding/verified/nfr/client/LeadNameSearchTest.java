@@ -0,0 +1,102 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LeadNameSearchTest {
+
+  private static final String LEAD_NAME = "Kari Nordmann";
+  private static final int PAGE_SIZE = LeadNameSearch.MINIMUM_UPSTREAM_PAGE_SIZE;
+  private static final int UPSTREAM_PAGES = 3;
+  private static final int MATCHES_PER_PAGE = 3;
+  private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+  private NfrApiClient apiClient;
+  private LeadNameSearch search;
+
+  @BeforeEach
+  void setup() {
+    apiClient = mock(NfrApiClient.class);
+    // the clock stands still, so only the failures of the pages end the search early
+    search = new LeadNameSearch(apiClient, new MutableClock(Instant.parse("2024-01-01T00:00:00Z")));
+  }
+
+  @Test
+  void shouldReturnMatchesFoundSoFarWhenHttpRequestForLaterPageTimesOut()
+      throws BadGatewayException {
+    var timedOut = new BadGatewayException("Failed to communicate with NFR rest api!");
+    timedOut.initCause(new HttpTimeoutException("request timed out"));
+    laterPagesFailWith(timedOut);
+
+    var result = search.search(LEAD_NAME, 0, PAGE_SIZE, TIMEOUT);
+
+    assertThat(result.totalSize(), is(equalTo(MATCHES_PER_PAGE)));
+    assertThat(result.hits().size(), is(equalTo(MATCHES_PER_PAGE)));
+  }
+
+  @Test
+  void shouldReturnMatchesFoundSoFarWhenWaitForLaterPageTimesOut() throws BadGatewayException {
+    laterPagesFailWith(new TimeoutException());
+
+    var result = search.search(LEAD_NAME, 0, PAGE_SIZE, TIMEOUT);
+
+    assertThat(result.totalSize(), is(equalTo(MATCHES_PER_PAGE)));
+  }
+
+  @Test
+  void shouldFailWhenLaterPageFailsForAnotherReason() {
+    laterPagesFailWith(new BadGatewayException("Unexpected response: 500 - "));
+
+    assertThrows(
+        BadGatewayException.class, () -> search.search(LEAD_NAME, 0, PAGE_SIZE, TIMEOUT));
+  }
+
+  private void laterPagesFailWith(Throwable failure) {
+    when(apiClient.queryAsync(eq(LEAD_NAME), anyInt(), eq(PAGE_SIZE), any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Integer>getArgument(1) == 0
+                    ? CompletableFuture.completedFuture(page(0))
+                    : CompletableFuture.failedFuture(failure));
+  }
+
+  private static NfrFundingSearchResult page(int from) {
+    var hits = new ArrayList<NfrFunding>();
+    for (int hit = 0; hit < PAGE_SIZE; hit++) {
+      var leadName = hit < MATCHES_PER_PAGE ? LEAD_NAME : "Ola Nordmann";
+      hits.add(funding(from + hit + 1, leadName));
+    }
+    return new NfrFundingSearchResult(PAGE_SIZE * UPSTREAM_PAGES, from, PAGE_SIZE, hits);
+  }
+
+  private static NfrFunding funding(int projectId, String leadName) {
+    return new NfrFunding(
+        projectId,
+        Instant.parse("2020-01-01T00:00:00Z"),
+        Instant.parse("2024-01-01T00:00:00Z"),
+        leadName,
+        Map.of("title", "Project " + projectId),
+        Map.of("title", "Prosjekt " + projectId));
+  }
+}
@@ -0,0 +1,371 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import no.sikt.nva.funding.verified.nfr.client.RetryPolicy.Outcome;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.tracing.InMemorySpanExporter;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanData;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanKind;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.StatusCode;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.CloseResource")
+@WireMockTest(httpsEnabled = true)
+class NfrApiClientTest {
+
+  private static final int CONCURRENT_CALLERS = 8;
+  private static final int UPSTREAM_DELAY_MILLIS = 500;
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+  private static final String QUERY = "climate";
+  private static final String HEDGED = "hedged";
+  private static final String RETRIED = "retried";
+  private static final String SEARCH_PATH = "/search";
+  private static final String REQUEST_SPAN = "request";
+
+  private NfrApiClient client;
+
+  @BeforeEach
+  void setup(WireMockRuntimeInfo runtimeInfo) {
+    client =
+        new NfrApiClient(WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()));
+  }
+
+  @Test
+  void shouldCollapseConcurrentIdenticalQueriesIntoOneUpstreamCall() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+
+    var results = queryConcurrently();
+
+    for (var result : results) {
+      assertThat(result.get().getTotalHits(), is(equalTo(0)));
+    }
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
+  @Test
+  void shouldPropagateUpstreamFailureToAllCollapsedCallers() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_UNAVAILABLE, "{}");
+
+    var results = queryConcurrently();
+
+    for (var result : results) {
+      var failure = assertThrows(ExecutionException.class, result::get);
+      assertThat(failure.getCause().getClass(), is(equalTo(BadGatewayException.class)));
+    }
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
+  @Test
+  void shouldReturnSearchResultAsynchronously() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+
+    var result = client.queryAsync(QUERY, 0, 10, TIMEOUT);
+
+    assertThat(result.get().getTotalHits(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldCompleteAsyncQueryWithBadGatewayOnUnexpectedStatusCode() {
+    stubSearch(HttpURLConnection.HTTP_UNAVAILABLE, "{}");
+
+    var result = client.queryAsync(QUERY, 0, 10, TIMEOUT);
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(failure.getCause(), is(instanceOf(BadGatewayException.class)));
+    assertThat(failure.getCause().getMessage(), is(equalTo("Unexpected response: 503 - {}")));
+  }
+
+  @Test
+  void shouldCompleteAsyncQueryWithBadGatewayWhenUnableToConnect(WireMockRuntimeInfo runtimeInfo) {
+    client =
+        new NfrApiClient(
+            WiremockHttpClient.create(),
+            URI.create("https://localhost:" + (runtimeInfo.getHttpsPort() - 1)));
+
+    var result = client.queryAsync(QUERY, 0, 10, TIMEOUT);
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(failure.getCause(), is(instanceOf(BadGatewayException.class)));
+  }
+
+  @Test
+  void shouldReadAsyncResponseOffTheExecutorOfTheHttpClient(WireMockRuntimeInfo runtimeInfo)
+      throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+    var httpClient =
+        HttpClient.newBuilder()
+            .executor(Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "client")))
+            .build();
+    var retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(100));
+    client =
+        new NfrApiClient(
+            () -> httpClient,
+            URI.create(runtimeInfo.getHttpBaseUrl()),
+            RequestHedging.disabled(),
+            CircuitBreaker.alwaysClosed(),
+            retryPolicy);
+
+    var readingThread = client.query(QUERY, 0, 10, TIMEOUT, NfrApiClientTest::currentThreadName);
+
+    assertThat(readingThread, is(equalTo("nfr-response-reader")));
+  }
+
+  @Test
+  void shouldTimeOutAsyncQueryWhenUpstreamIsSlowerThanTimeout() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+
+    var result = client.queryAsync(QUERY, 0, 10, Duration.ofMillis(UPSTREAM_DELAY_MILLIS / 5));
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(
+        failure.getCause(),
+        is(anyOf(instanceOf(TimeoutException.class), instanceOf(BadGatewayException.class))));
+  }
+
+  @Test
+  void shouldFailWithBadGatewayWhenUpstreamIsSlowerThanRequestTimeout() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+
+    assertThrows(
+        BadGatewayException.class,
+        () -> client.query(QUERY, 0, 10, Duration.ofMillis(UPSTREAM_DELAY_MILLIS / 5)));
+  }
+
+  @Test
+  void shouldAnswerFromHedgeWhenFirstRequestIsSlow(WireMockRuntimeInfo runtimeInfo)
+      throws Exception {
+    var slowThenFast = "slow then fast";
+    stubFor(
+        get(urlPathEqualTo(SEARCH_PATH))
+            .inScenario(slowThenFast)
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willSetStateTo(HEDGED)
+            .willReturn(
+                aResponse()
+                    .withFixedDelay(UPSTREAM_DELAY_MILLIS * 4)
+                    .withBody(emptySearchResultJson())));
+    stubFor(
+        get(urlPathEqualTo(SEARCH_PATH))
+            .inScenario(slowThenFast)
+            .whenScenarioStateIs(HEDGED)
+            .willReturn(aResponse().withBody(emptySearchResultJson())));
+    var hedging = new RequestHedging(95, 100);
+    for (int sample = 0; sample < RequestHedging.MINIMUM_SAMPLES; sample++) {
+      hedging.recordLatency(Duration.ofMillis(UPSTREAM_DELAY_MILLIS / 10).toNanos());
+    }
+    var httpClient = WiremockHttpClient.create();
+    client =
+        new NfrApiClient(
+            () -> httpClient,
+            URI.create(runtimeInfo.getHttpsBaseUrl()),
+            hedging,
+            CircuitBreaker.alwaysClosed(),
+            RetryPolicy.noRetries());
+
+    var result = client.query(QUERY, 0, 10, TIMEOUT);
+
+    assertThat(result.getTotalHits(), is(equalTo(0)));
+    assertThat(hedging.counts(), is(equalTo(new RequestHedging.Counts(1, 1, 1, 0))));
+    verify(2, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
+  @Test
+  void shouldRetryTransientUpstreamFailureWithinTimeout(WireMockRuntimeInfo runtimeInfo)
+      throws Exception {
+    var retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(100));
+    client = clientUnavailableOnce(runtimeInfo, retryPolicy);
+
+    var result = client.query(QUERY, 0, 10, TIMEOUT);
+
+    assertThat(result.getTotalHits(), is(equalTo(0)));
+    assertThat(retryPolicy.getCount(Outcome.SUCCEEDED_AFTER_RETRY), is(equalTo(1L)));
+    verify(2, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
+  @Test
+  void shouldRetryTransientUpstreamFailureOfAsynchronousQuery(WireMockRuntimeInfo runtimeInfo)
+      throws Exception {
+    var retryPolicy = new RetryPolicy(3, Duration.ofMillis(10), Duration.ofMillis(100));
+    client = clientUnavailableOnce(runtimeInfo, retryPolicy);
+
+    var result = client.queryAsync(QUERY, 0, 10, TIMEOUT).get();
+
+    assertThat(result.getTotalHits(), is(equalTo(0)));
+    assertThat(retryPolicy.getCount(Outcome.SUCCEEDED_AFTER_RETRY), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldTraceQueryWithinCurrentSpanAndSendTraceContextToProjectBank() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+    var spans = new InMemorySpanExporter();
+    var tracer = new Tracer(spans, Clock.systemUTC());
+    tracer.startRequestSpan(REQUEST_SPAN, Map.of());
+
+    client.query(QUERY, 0, 10);
+    tracer.endRequest();
+
+    var finished = spans.getFinishedSpans();
+    assertThat(
+        names(finished),
+        contains(
+            SpanNames.PARSE, SpanNames.UPSTREAM_REQUEST, SpanNames.UPSTREAM_QUERY, REQUEST_SPAN));
+    var upstreamRequest = finished.get(1);
+    assertThat(upstreamRequest.kind(), is(equalTo(SpanKind.CLIENT)));
+    assertThat(upstreamRequest.parentSpanId(), is(equalTo(finished.get(2).context().spanId())));
+    assertThat(upstreamRequest.attributes().get(SpanNames.REQUEST_METHOD), is(equalTo("GET")));
+    assertThat(
+        upstreamRequest.attributes().get(SpanNames.RESPONSE_STATUS_CODE),
+        is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(finished.get(2).attributes().get(SpanNames.QUERY_SIZE), is(equalTo(10)));
+    verify(
+        getRequestedFor(urlPathEqualTo(SEARCH_PATH))
+            .withHeader(
+                Tracer.TRACEPARENT_HEADER,
+                WireMock.equalTo(upstreamRequest.context().traceparent())));
+  }
+
+  @Test
+  void shouldRecordFailureOfAsyncQueryInItsSpans() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_UNAVAILABLE, "{}");
+    var spans = new InMemorySpanExporter();
+    var tracer = new Tracer(spans, Clock.systemUTC());
+    tracer.startRequestSpan(REQUEST_SPAN, Map.of());
+
+    var result = client.queryAsync(QUERY, 0, 10, TIMEOUT);
+    assertThrows(ExecutionException.class, result::get);
+    tracer.endRequest();
+
+    var query = awaitSpan(spans, SpanNames.UPSTREAM_QUERY);
+    var upstreamRequest = awaitSpan(spans, SpanNames.UPSTREAM_REQUEST);
+    assertThat(query.status(), is(equalTo(StatusCode.ERROR)));
+    assertThat(upstreamRequest.status(), is(equalTo(StatusCode.ERROR)));
+    assertThat(
+        upstreamRequest.attributes().get(Span.EXCEPTION_TYPE),
+        is(equalTo(BadGatewayException.class.getName())));
+  }
+
+  @Test
+  void shouldNotSendTraceContextWhenQueryIsNotPartOfTrace() throws Exception {
+    stubSearch(HttpURLConnection.HTTP_OK, emptySearchResultJson());
+
+    client.query(QUERY, 0, 10);
+
+    verify(getRequestedFor(urlPathEqualTo(SEARCH_PATH)).withoutHeader(Tracer.TRACEPARENT_HEADER));
+  }
+
+  private static SpanData awaitSpan(InMemorySpanExporter spans, String name)
+      throws InterruptedException {
+    for (int attempt = 0; attempt < 100; attempt++) {
+      var span =
+          spans.getFinishedSpans().stream().filter(data -> name.equals(data.name())).findFirst();
+      if (span.isPresent()) {
+        return span.get();
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("No span named " + name);
+  }
+
+  private static List<String> names(List<SpanData> spans) {
+    return spans.stream().map(SpanData::name).toList();
+  }
+
+  private static NfrApiClient clientUnavailableOnce(
+      WireMockRuntimeInfo runtimeInfo, RetryPolicy retryPolicy) throws Exception {
+    var unavailableOnce = "unavailable once";
+    stubFor(
+        get(urlPathEqualTo(SEARCH_PATH))
+            .inScenario(unavailableOnce)
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willSetStateTo(RETRIED)
+            .willReturn(aResponse().withStatus(HttpURLConnection.HTTP_UNAVAILABLE)));
+    stubFor(
+        get(urlPathEqualTo(SEARCH_PATH))
+            .inScenario(unavailableOnce)
+            .whenScenarioStateIs(RETRIED)
+            .willReturn(aResponse().withBody(emptySearchResultJson())));
+    var httpClient = WiremockHttpClient.create();
+    return new NfrApiClient(
+        () -> httpClient,
+        URI.create(runtimeInfo.getHttpsBaseUrl()),
+        RequestHedging.disabled(),
+        CircuitBreaker.alwaysClosed(),
+        retryPolicy);
+  }
+
+  private List<Future<NfrFundingSearchResult>> queryConcurrently() throws InterruptedException {
+    var executor = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+    var start = new CountDownLatch(1);
+    var results = new ArrayList<Future<NfrFundingSearchResult>>();
+    for (int caller = 0; caller < CONCURRENT_CALLERS; caller++) {
+      Callable<NfrFundingSearchResult> call =
+          () -> {
+            start.await();
+            return client.query(QUERY, 0, 10);
+          };
+      results.add(executor.submit(call));
+    }
+    start.countDown();
+    executor.shutdown();
+    return results;
+  }
+
+  private static String currentThreadName(InputStream body) throws IOException {
+    body.readAllBytes();
+    return Thread.currentThread().getName();
+  }
+
+  private static void stubSearch(int status, String body) {
+    stubFor(
+        get(urlPathEqualTo(SEARCH_PATH))
+            .willReturn(
+                aResponse()
+                    .withStatus(status)
+                    .withFixedDelay(UPSTREAM_DELAY_MILLIS)
+                    .withBody(body)));
+  }
+
+  private static String emptySearchResultJson() throws Exception {
+    return dtoObjectMapper.writeValueAsString(new NfrFundingSearchResult(0, 0, 10, List.of()));
+  }
+}
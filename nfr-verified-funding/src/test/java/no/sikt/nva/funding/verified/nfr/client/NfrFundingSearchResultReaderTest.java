@@ -0,0 +1,139 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static no.unit.nva.testutils.RandomDataGenerator.randomInstant;
+import static no.unit.nva.testutils.RandomDataGenerator.randomInteger;
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import org.junit.jupiter.api.Test;
+
+class NfrFundingSearchResultReaderTest {
+
+  private static final String TITLE = "title";
+
+  @Test
+  void shouldReadSameSearchResultAsObjectMapper() throws IOException {
+    var activeFrom = randomInstant();
+    var funding =
+        new NfrFunding(
+            randomInteger(),
+            activeFrom,
+            randomInstant(activeFrom),
+            randomString(),
+            Map.of(TITLE, randomString()),
+            Map.of(TITLE, randomString()));
+    var expected = new NfrFundingSearchResult(11, 10, 1, List.of(funding));
+
+    var actual = read(dtoObjectMapper.writeValueAsString(expected));
+
+    assertThat(actual.getTotalHits(), is(equalTo(11)));
+    assertThat(actual.getFrom(), is(equalTo(10)));
+    assertThat(actual.getSize(), is(equalTo(1)));
+    var hit = actual.getHits().get(0);
+    assertThat(hit.getProjectId(), is(equalTo(funding.getProjectId())));
+    assertThat(hit.getActiveFrom(), is(equalTo(funding.getActiveFrom())));
+    assertThat(hit.getActiveTo(), is(equalTo(funding.getActiveTo())));
+    assertThat(hit.getLeadName(), is(equalTo(funding.getLeadName())));
+    assertThat(hit.getEnglishMetadata(), is(equalTo(funding.getEnglishMetadata())));
+    assertThat(hit.getNorwegianMetadata(), is(equalTo(funding.getNorwegianMetadata())));
+  }
+
+  @Test
+  void shouldSkipUnknownFieldsAndMetadataOtherThanTitle() throws IOException {
+    var json =
+        """
+        {
+          "took": 12,
+          "aggregations": {"program": [{"key": "BIA", "count": 3}]},
+          "totalHits": 1,
+          "hits": [
+            {
+              "projectId": 123,
+              "activeFrom": null,
+              "leadName": "Kari Nordmann",
+              "english": {
+                "summary": "A long summary",
+                "keywords": ["a", "b"],
+                "title": "Climate"
+              },
+              "norwegian": {"title": {"nested": true}, "summary": "Sammendrag"},
+              "partners": [{"name": "Sikt"}]
+            }
+          ],
+          "from": 0,
+          "size": 10
+        }
+        """;
+
+    var actual = read(json);
+
+    assertThat(actual.getTotalHits(), is(equalTo(1)));
+    var hit = actual.getHits().get(0);
+    assertThat(hit.getProjectId(), is(equalTo(123)));
+    assertThat(hit.getActiveFrom(), is(nullValue()));
+    assertThat(hit.getActiveTo(), is(nullValue()));
+    assertThat(hit.getEnglishMetadata(), is(equalTo(Map.of(TITLE, "Climate"))));
+    assertThat(hit.getNorwegianMetadata(), is(anEmptyMap()));
+  }
+
+  @Test
+  void shouldTreatMissingOrNullCollectionsAsEmpty() throws IOException {
+    var json =
+        """
+        {"totalHits": 1, "from": 0, "size": 10,
+         "hits": [{"projectId": 1, "english": null}]}
+        """;
+
+    var actual = read(json);
+
+    assertThat(actual.getHits().get(0).getEnglishMetadata(), is(anEmptyMap()));
+    assertThat(actual.getHits().get(0).getNorwegianMetadata(), is(anEmptyMap()));
+    assertThat(read("{\"hits\": null}").getHits(), is(empty()));
+  }
+
+  @Test
+  void shouldHandEachHitToConsumerAndReturnTotalsWithoutHits() throws IOException {
+    var json =
+        """
+        {"totalHits": 25, "from": 10, "size": 2,
+         "hits": [{"projectId": 1}, {"projectId": 2}]}
+        """;
+    var projectIds = new ArrayList<Integer>();
+
+    var totals =
+        NfrFundingSearchResultReader.forEachHit(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            hit -> projectIds.add(hit.getProjectId()));
+
+    assertThat(projectIds, contains(1, 2));
+    assertThat(totals.getTotalHits(), is(equalTo(25)));
+    assertThat(totals.getFrom(), is(equalTo(10)));
+    assertThat(totals.getHits(), is(empty()));
+  }
+
+  @Test
+  void shouldFailWhenResponseIsNotAJsonObject() {
+    assertThrows(IOException.class, () -> read("[]"));
+  }
+
+  private static NfrFundingSearchResult read(String json) throws IOException {
+    return NfrFundingSearchResultReader.read(
+        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,217 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.RequestHedging.Counts;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestHedgingTest {
+
+  private static final double PERCENTILE = 95;
+  private static final double EVERY_REQUEST = 100;
+  private static final String PRIMARY = "primary";
+  private static final String HEDGE = "hedge";
+
+  private List<Runnable> dueHedges;
+  private List<Duration> hedgeDelays;
+  private List<CompletableFuture<String>> attempts;
+
+  @BeforeEach
+  void setup() {
+    dueHedges = new ArrayList<>();
+    hedgeDelays = new ArrayList<>();
+    attempts = new ArrayList<>();
+  }
+
+  @Test
+  void shouldPassCallsThroughWhenDisabled() {
+    var hedging = RequestHedging.disabled();
+
+    var result = hedging.execute(this::attempt);
+
+    assertThat(hedging.isEnabled(), is(false));
+    assertThat(result, is(attempts.get(0)));
+    assertThat(hedging.counts(), is(equalTo(new Counts(0, 0, 0, 0))));
+  }
+
+  @Test
+  void shouldNotHedgeBeforeEnoughLatenciesAreKnown() {
+    var hedging = hedging(EVERY_REQUEST);
+    recordLatencies(hedging, RequestHedging.MINIMUM_SAMPLES - 1);
+
+    hedging.execute(this::attempt);
+
+    assertThat(hedging.hedgeDelay(), is(equalTo(Optional.empty())));
+    assertThat(dueHedges.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldHedgeAfterConfiguredPercentileOfRecentLatencies() {
+    var hedging = hedging(EVERY_REQUEST);
+    recordLatencies(hedging, 100);
+
+    hedging.execute(this::attempt);
+
+    assertThat(hedgeDelays, is(equalTo(List.of(Duration.ofMillis(95)))));
+  }
+
+  @Test
+  void shouldOnlyConsiderMostRecentLatencies() {
+    var hedging = hedging(EVERY_REQUEST);
+    recordLatencies(hedging, RequestHedging.WINDOW_SIZE);
+    for (int sample = 0; sample < RequestHedging.WINDOW_SIZE; sample++) {
+      hedging.recordLatency(Duration.ofMillis(1).toNanos());
+    }
+
+    assertThat(hedging.hedgeDelay(), is(equalTo(Optional.of(Duration.ofMillis(1)))));
+  }
+
+  @Test
+  void shouldCompleteWithHedgeAndCancelPrimaryWhenHedgeAnswersFirst() throws Exception {
+    var hedging = readyHedging(EVERY_REQUEST);
+
+    var result = hedging.execute(this::attempt);
+    sendDueHedges();
+    attempts.get(1).complete(HEDGE);
+
+    assertThat(result.get(), is(equalTo(HEDGE)));
+    assertThat(attempts.get(0).isCancelled(), is(true));
+    assertThat(hedging.counts(), is(equalTo(new Counts(1, 1, 1, 0))));
+  }
+
+  @Test
+  void shouldCompleteWithPrimaryAndCancelHedgeWhenPrimaryAnswersFirst() throws Exception {
+    var hedging = readyHedging(EVERY_REQUEST);
+
+    var result = hedging.execute(this::attempt);
+    sendDueHedges();
+    attempts.get(0).complete(PRIMARY);
+
+    assertThat(result.get(), is(equalTo(PRIMARY)));
+    assertThat(attempts.get(1).isCancelled(), is(true));
+    assertThat(hedging.counts(), is(equalTo(new Counts(1, 1, 0, 0))));
+  }
+
+  @Test
+  void shouldNotHedgeWhenPrimaryAnsweredBeforeDelay() throws Exception {
+    var hedging = readyHedging(EVERY_REQUEST);
+
+    var result = hedging.execute(this::attempt);
+    attempts.get(0).complete(PRIMARY);
+    sendDueHedges();
+
+    assertThat(result.get(), is(equalTo(PRIMARY)));
+    assertThat(attempts.size(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldWaitForOutstandingAttemptWhenOtherAttemptFails() throws Exception {
+    var hedging = readyHedging(EVERY_REQUEST);
+
+    var result = hedging.execute(this::attempt);
+    sendDueHedges();
+    attempts.get(1).completeExceptionally(new BadGatewayException(HEDGE));
+
+    assertThat(result.isDone(), is(false));
+    attempts.get(0).complete(PRIMARY);
+    assertThat(result.get(), is(equalTo(PRIMARY)));
+  }
+
+  @Test
+  void shouldFailWhenAllAttemptsFail() {
+    var hedging = readyHedging(EVERY_REQUEST);
+
+    var result = hedging.execute(this::attempt);
+    sendDueHedges();
+    attempts.get(0).completeExceptionally(new BadGatewayException(PRIMARY));
+    attempts.get(1).completeExceptionally(new BadGatewayException(HEDGE));
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(failure.getCause().getMessage(), is(equalTo(HEDGE)));
+  }
+
+  @Test
+  void shouldCapHedgesAtConfiguredShareOfRequests() {
+    var hedging = readyHedging(50);
+
+    for (int request = 0; request < 4; request++) {
+      hedging.execute(this::attempt);
+    }
+    sendDueHedges();
+
+    assertThat(hedging.counts(), is(equalTo(new Counts(4, 2, 0, 2))));
+  }
+
+  @Test
+  void shouldBeDisabledWhenPercentileIsNotConfigured() {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.HEDGE_PERCENTILE)).thenReturn(Optional.empty());
+    when(environment.readEnvOpt(EnvironmentKeys.HEDGE_MAX_PERCENT)).thenReturn(Optional.empty());
+
+    assertThat(RequestHedging.fromEnvironment(environment).isEnabled(), is(false));
+  }
+
+  @Test
+  void shouldBeEnabledWhenPercentileIsConfigured() {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.HEDGE_PERCENTILE)).thenReturn(Optional.of("95"));
+    when(environment.readEnvOpt(EnvironmentKeys.HEDGE_MAX_PERCENT)).thenReturn(Optional.empty());
+
+    assertThat(RequestHedging.fromEnvironment(environment).isEnabled(), is(true));
+  }
+
+  @Test
+  void shouldRejectPercentileOutsideRange() {
+    assertThrows(IllegalArgumentException.class, () -> new RequestHedging(0, EVERY_REQUEST));
+    assertThrows(IllegalArgumentException.class, () -> new RequestHedging(101, EVERY_REQUEST));
+  }
+
+  private RequestHedging hedging(double maxHedgePercent) {
+    return new RequestHedging(PERCENTILE, maxHedgePercent, this::delayedExecutor);
+  }
+
+  private RequestHedging readyHedging(double maxHedgePercent) {
+    var hedging = hedging(maxHedgePercent);
+    recordLatencies(hedging, RequestHedging.MINIMUM_SAMPLES);
+    return hedging;
+  }
+
+  private static void recordLatencies(RequestHedging hedging, int count) {
+    for (int millis = 1; millis <= count; millis++) {
+      hedging.recordLatency(Duration.ofMillis(millis).toNanos());
+    }
+  }
+
+  private Executor delayedExecutor(Duration delay) {
+    hedgeDelays.add(delay);
+    return dueHedges::add;
+  }
+
+  private void sendDueHedges() {
+    var due = List.copyOf(dueHedges);
+    dueHedges.clear();
+    due.forEach(Runnable::run);
+  }
+
+  private CompletableFuture<String> attempt() {
+    var attempt = new CompletableFuture<String>();
+    attempts.add(attempt);
+    return attempt;
+  }
+}
@@ -0,0 +1,237 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import no.sikt.nva.funding.verified.nfr.client.RetryPolicy.Outcome;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class RetryPolicyTest {
+
+  private static final Duration BASE_DELAY = Duration.ofMillis(10);
+  private static final Duration MAX_DELAY = Duration.ofMillis(100);
+  private static final Duration BUDGET = Duration.ofSeconds(10);
+  private static final String ANSWER = "answer";
+
+  private List<Duration> backoffs;
+  private List<Duration> attemptTimeouts;
+  private List<CompletableFuture<String>> attempts;
+
+  @BeforeEach
+  void setup() {
+    backoffs = new ArrayList<>();
+    attemptTimeouts = new ArrayList<>();
+    attempts = new ArrayList<>();
+  }
+
+  @Test
+  void shouldNotRetrySuccessfulCall() throws Exception {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result = retryPolicy.execute(BUDGET, this::succeed);
+
+    assertThat(result.get(), is(equalTo(ANSWER)));
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(1L)));
+    assertThat(retryPolicy.getCount(Outcome.SUCCEEDED), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldRetryRetryableFailureUntilCallSucceeds() throws Exception {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result =
+        retryPolicy.execute(
+            BUDGET,
+            timeout -> attempts.isEmpty() ? fail(timeout, unavailable()) : succeed(timeout));
+
+    assertThat(result.get(), is(equalTo(ANSWER)));
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(2L)));
+    assertThat(retryPolicy.getCount(Outcome.RETRIED), is(equalTo(1L)));
+    assertThat(retryPolicy.getCount(Outcome.SUCCEEDED_AFTER_RETRY), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldNotRetryFailureThatIsNotRetryable() {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result =
+        retryPolicy.execute(
+            BUDGET,
+            timeout -> fail(timeout, upstreamFailure(new UnexpectedResponseException(400))));
+
+    assertThrows(ExecutionException.class, result::get);
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(1L)));
+    assertThat(retryPolicy.getCount(Outcome.NOT_RETRYABLE), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldGiveUpWhenAttemptsAreExhausted() {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result = retryPolicy.execute(BUDGET, timeout -> fail(timeout, unavailable()));
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(failure.getCause().getMessage(), is(equalTo(unavailable().getMessage())));
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(3L)));
+    assertThat(retryPolicy.getCount(Outcome.ATTEMPTS_EXHAUSTED), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldNotRetryWhenTooLittleOfBudgetWouldBeLeftForAnotherAttempt() {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result =
+        retryPolicy.execute(
+            RetryPolicy.MINIMUM_ATTEMPT_TIME, timeout -> fail(timeout, unavailable()));
+
+    assertThrows(ExecutionException.class, result::get);
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(1L)));
+    assertThat(retryPolicy.getCount(Outcome.DEADLINE_REACHED), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldGiveEachAttemptWhatIsLeftOfBudgetAsTimeout() {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    retryPolicy.execute(BUDGET, timeout -> fail(timeout, unavailable()));
+
+    assertThat(attemptTimeouts.get(0), is(lessThanOrEqualTo(BUDGET)));
+    assertThat(attemptTimeouts.get(1), is(lessThanOrEqualTo(attemptTimeouts.get(0))));
+    assertThat(attemptTimeouts.get(2), is(lessThanOrEqualTo(attemptTimeouts.get(1))));
+  }
+
+  @Test
+  void shouldGrowBackoffFromPreviousDelayUpToMaximum() {
+    var retryPolicy = retryPolicy(5, 1.0);
+
+    retryPolicy.execute(BUDGET, timeout -> fail(timeout, unavailable()));
+
+    assertThat(
+        backoffs, contains(Duration.ofMillis(30), Duration.ofMillis(90), MAX_DELAY, MAX_DELAY));
+  }
+
+  @Test
+  void shouldWaitAtLeastBaseDelayBetweenAttempts() {
+    var retryPolicy = retryPolicy(3, 0.0);
+
+    retryPolicy.execute(BUDGET, timeout -> fail(timeout, unavailable()));
+
+    assertThat(backoffs, contains(BASE_DELAY, BASE_DELAY));
+  }
+
+  @Test
+  void shouldCancelRunningAttemptAndStopRetryingWhenCancelled() {
+    var retryPolicy = retryPolicy(3, 0.5);
+
+    var result = retryPolicy.execute(BUDGET, this::pending);
+    result.cancel(true);
+
+    assertThat(attempts.get(0).isCancelled(), is(true));
+    assertThat(retryPolicy.getAttemptCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldPassCallThroughWithWholeBudgetWhenRetriesAreNotAllowed() {
+    var retryPolicy = RetryPolicy.noRetries();
+
+    var result = retryPolicy.execute(BUDGET, this::pending);
+
+    assertThat(retryPolicy.allowsRetries(), is(false));
+    assertThat(result, is(attempts.get(0)));
+    assertThat(attemptTimeouts, contains(BUDGET));
+  }
+
+  @Test
+  void shouldAllowRetriesWithDefaultSettings() {
+    assertThat(RetryPolicy.fromEnvironment(mock(Environment.class)).allowsRetries(), is(true));
+  }
+
+  @Test
+  void shouldRequireAtLeastOneAttempt() {
+    assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, BASE_DELAY, MAX_DELAY));
+  }
+
+  @ParameterizedTest
+  @MethodSource("failures")
+  void shouldClassifyFailures(Throwable failure, boolean retryable) {
+    assertThat(RetryPolicy.isRetryable(failure), is(equalTo(retryable)));
+  }
+
+  private static Stream<Arguments> failures() {
+    return Stream.of(
+        Arguments.of(upstreamFailure(new UnexpectedResponseException(503)), true),
+        Arguments.of(upstreamFailure(new UnexpectedResponseException(429)), true),
+        Arguments.of(upstreamFailure(new UnexpectedResponseException(404)), false),
+        Arguments.of(new CircuitOpenException(Instant.now()), false),
+        Arguments.of(upstreamFailure(new ConnectException()), true),
+        Arguments.of(upstreamFailure(new IOException("Connection reset")), true),
+        Arguments.of(upstreamFailure(new HttpConnectTimeoutException("connect")), true),
+        Arguments.of(upstreamFailure(new HttpTimeoutException("request")), false),
+        Arguments.of(upstreamFailure(new JsonParseException(null, "malformed")), false),
+        Arguments.of(new BadGatewayException("unknown"), false));
+  }
+
+  private static BadGatewayException upstreamFailure(Exception cause) {
+    var failure = new BadGatewayException(cause.getMessage());
+    failure.initCause(cause);
+    return failure;
+  }
+
+  private static BadGatewayException unavailable() {
+    return upstreamFailure(new UnexpectedResponseException(503));
+  }
+
+  private RetryPolicy retryPolicy(int maxAttempts, double random) {
+    return new RetryPolicy(maxAttempts, BASE_DELAY, MAX_DELAY, () -> random, this::backoff);
+  }
+
+  private Executor backoff(Duration delay) {
+    backoffs.add(delay);
+    return Runnable::run;
+  }
+
+  private CompletableFuture<String> succeed(Duration timeout) {
+    attemptTimeouts.add(timeout);
+    var attempt = CompletableFuture.completedFuture(ANSWER);
+    attempts.add(attempt);
+    return attempt;
+  }
+
+  private CompletableFuture<String> fail(Duration timeout, Exception failure) {
+    attemptTimeouts.add(timeout);
+    var attempt = CompletableFuture.<String>failedFuture(failure);
+    attempts.add(attempt);
+    return attempt;
+  }
+
+  private CompletableFuture<String> pending(Duration timeout) {
+    attemptTimeouts.add(timeout);
+    var attempt = new CompletableFuture<String>();
+    attempts.add(attempt);
+    return attempt;
+  }
+}
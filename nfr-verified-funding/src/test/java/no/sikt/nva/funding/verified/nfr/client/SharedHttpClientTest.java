@@ -0,0 +1,76 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.headRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+@WireMockTest
+class SharedHttpClientTest {
+
+  @BeforeAll
+  static void disableHostnameVerificationBeforeHttpClientInternalsAreLoaded() {
+    // the JDK reads the hostname verification flag the Wiremock client sets only once
+    WiremockHttpClient.create();
+  }
+
+  @Test
+  void shouldPreferHttp2AndUseConfiguredConnectTimeout() {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.HTTP_CONNECT_TIMEOUT_MILLIS))
+        .thenReturn(Optional.of("750"));
+    when(environment.readEnvOpt(EnvironmentKeys.HTTP_CLIENT_THREADS)).thenReturn(Optional.of("2"));
+
+    var client = SharedHttpClient.create(environment, SharedHttpClient.newExecutor(environment));
+
+    assertThat(client.version(), is(equalTo(Version.HTTP_2)));
+    assertThat(client.connectTimeout(), is(equalTo(Optional.of(Duration.ofMillis(750)))));
+    assertThat(client.executor().isPresent(), is(true));
+  }
+
+  @Test
+  void shouldOpenConnectionToOriginOnWarmUpAndAgainAfterReconnect(WireMockRuntimeInfo runtimeInfo)
+      throws InterruptedException {
+    stubFor(head(urlEqualTo("/")).willReturn(aResponse().withStatus(404)));
+    var baseUri = URI.create(runtimeInfo.getHttpBaseUrl() + "/api/search");
+
+    SharedHttpClient.warmUp(baseUri);
+    SharedHttpClient.warmUp(baseUri);
+    verify(1, headRequestedFor(urlEqualTo("/")));
+
+    var beforeReconnect = SharedHttpClient.get();
+    SharedHttpClient.reconnect();
+
+    assertThat(SharedHttpClient.get(), is(not(sameInstance(beforeReconnect))));
+    assertThat(beforeReconnect.awaitTermination(Duration.ofSeconds(5)), is(true));
+    verify(2, headRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void shouldIgnoreFailingWarmUp() {
+    SharedHttpClient.warmUp(URI.create("http://localhost:1/unreachable"));
+
+    assertThat(SharedHttpClient.get().version(), is(equalTo(Version.HTTP_2)));
+  }
+}
@@ -0,0 +1,135 @@
+package no.sikt.nva.funding.verified.nfr.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static final String KEY = "key";
+  private static final String VALUE = "value";
+
+  private SingleFlight<String, String> singleFlight;
+  private AtomicInteger calls;
+
+  @BeforeEach
+  void setup() {
+    singleFlight = new SingleFlight<>();
+    calls = new AtomicInteger();
+  }
+
+  @Test
+  void shouldShareOutcomeOfInFlightCallWithConcurrentCallers()
+      throws ExecutionException, InterruptedException {
+    var upstream = new CompletableFuture<String>();
+
+    var first = singleFlight.execute(KEY, () -> countedCall(upstream));
+    var second = singleFlight.execute(KEY, () -> countedCall(new CompletableFuture<>()));
+
+    assertThat(singleFlight.inFlightCount(), is(equalTo(1)));
+    upstream.complete(VALUE);
+
+    assertThat(first.get(), is(equalTo(VALUE)));
+    assertThat(second.get(), is(equalTo(VALUE)));
+    assertThat(calls.get(), is(equalTo(1)));
+    assertThat(singleFlight.inFlightCount(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldStartNewCallOnceThePreviousHasCompleted() throws Exception {
+    singleFlight.execute(KEY, () -> countedCall(CompletableFuture.completedFuture("a"))).get();
+    var second =
+        singleFlight.execute(KEY, () -> countedCall(CompletableFuture.completedFuture("b")));
+
+    assertThat(second.get(), is(equalTo("b")));
+    assertThat(calls.get(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldPropagateFailureToAllCallersAndForgetTheCall() {
+    var upstream = new CompletableFuture<String>();
+    var first = singleFlight.execute(KEY, () -> countedCall(upstream));
+    var second = singleFlight.execute(KEY, () -> countedCall(upstream));
+
+    upstream.completeExceptionally(new IllegalStateException("boom"));
+
+    var firstFailure = assertThrows(ExecutionException.class, first::get);
+    var secondFailure = assertThrows(ExecutionException.class, second::get);
+    assertThat(firstFailure.getCause(), is(instanceOf(IllegalStateException.class)));
+    assertThat(secondFailure.getCause(), is(instanceOf(IllegalStateException.class)));
+    assertThat(singleFlight.inFlightCount(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldFailCallWhenStartingItThrows() {
+    var result =
+        singleFlight.execute(
+            KEY,
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+
+    var failure = assertThrows(ExecutionException.class, result::get);
+    assertThat(failure.getCause(), is(instanceOf(IllegalStateException.class)));
+    assertThat(singleFlight.inFlightCount(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldNotCancelSharedCallWhenOneCallerCancels()
+      throws ExecutionException, InterruptedException {
+    var upstream = new CompletableFuture<String>();
+    var first = singleFlight.execute(KEY, () -> countedCall(upstream));
+    var second = singleFlight.execute(KEY, () -> countedCall(upstream));
+
+    first.cancel(true);
+    upstream.complete(VALUE);
+
+    assertThat(second.get(), is(equalTo(VALUE)));
+  }
+
+  @Test
+  void shouldCancelSharedCallWhenAllCallersCancel() {
+    var upstream = new CompletableFuture<String>();
+    var first = singleFlight.execute(KEY, () -> countedCall(upstream));
+    var second = singleFlight.execute(KEY, () -> countedCall(upstream));
+
+    first.cancel(true);
+    second.cancel(true);
+
+    assertThat(upstream.isCancelled(), is(true));
+    assertThat(singleFlight.inFlightCount(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldStartNewCallInsteadOfJoiningOneThatIsBeingCancelled() {
+    var upstream =
+        new CompletableFuture<String>() {
+          @Override
+          public boolean cancel(boolean mayInterruptIfRunning) {
+            // Like an HTTP exchange that completes some time after being cancelled.
+            return false;
+          }
+        };
+    var first = singleFlight.execute(KEY, () -> countedCall(upstream));
+    first.cancel(true);
+
+    var second =
+        singleFlight.execute(KEY, () -> countedCall(CompletableFuture.completedFuture(VALUE)));
+
+    assertThat(second.getNow(null), is(equalTo(VALUE)));
+    assertThat(calls.get(), is(equalTo(2)));
+  }
+
+  private CompletableFuture<String> countedCall(CompletableFuture<String> result) {
+    calls.incrementAndGet();
+    return result;
+  }
+}
@@ -0,0 +1,108 @@
+package no.sikt.nva.funding.verified.nfr.client.model;
+
+import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_EN;
+import static no.sikt.nva.funding.verified.nfr.model.Funding.LANGUAGE_NB;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.Test;
+
+class FundingMapperTest {
+
+  private static final String TITLE = "title";
+  private static final String ENGLISH_TITLE = "Ocean acidification";
+  private static final String NORWEGIAN_TITLE = "Havforsuring";
+  private static final Instant ACTIVE_FROM = Instant.parse("2020-01-01T00:00:00Z");
+  private static final Instant ACTIVE_TO = Instant.parse("2024-01-01T00:00:00Z");
+
+  private final FundingMapper mapper =
+      new FundingMapper("api.localhost", "verified-funding", "cristin", "funding-sources");
+
+  @Test
+  void shouldMapFundingWithIdUnderSearchIdAndSharedSource() {
+    var funding = mapper.map(funding(123, Map.of(TITLE, ENGLISH_TITLE), Map.of()));
+
+    assertThat(
+        funding.getId(), is(equalTo(URI.create("https://api.localhost/verified-funding/nfr/123"))));
+    assertThat(
+        funding.getSource(),
+        is(equalTo(URI.create("https://api.localhost/cristin/funding-sources/NFR"))));
+    assertThat(funding.getIdentifier(), is(equalTo("123")));
+    assertThat(funding.getLead(), is(equalTo("Kari Nordmann")));
+    assertThat(funding.getActiveFrom(), is(equalTo(ACTIVE_FROM)));
+    assertThat(funding.getActiveTo(), is(equalTo(ACTIVE_TO)));
+    assertThat(
+        mapper.getSearchId(),
+        is(equalTo(URI.create("https://api.localhost/verified-funding/nfr"))));
+  }
+
+  @Test
+  void shouldLabelFundingWithTitleInEachLanguageItHasOne() {
+    var english = mapper.map(funding(1, Map.of(TITLE, ENGLISH_TITLE), Map.of()));
+    var norwegian = mapper.map(funding(2, Map.of(), Map.of(TITLE, NORWEGIAN_TITLE)));
+    var untitled = mapper.map(funding(3, Map.of(), Map.of()));
+
+    assertThat(english.getLabels(), is(equalTo(Map.of(LANGUAGE_EN, ENGLISH_TITLE))));
+    assertThat(norwegian.getLabels(), is(equalTo(Map.of(LANGUAGE_NB, NORWEGIAN_TITLE))));
+    assertThat(untitled.getLabels(), is(anEmptyMap()));
+  }
+
+  @Test
+  void shouldSerializeLabelsInTheOrderTheyWereSerializedInBeforeTheMapper() throws Exception {
+    var funding =
+        mapper.map(funding(1, Map.of(TITLE, ENGLISH_TITLE), Map.of(TITLE, NORWEGIAN_TITLE)));
+    var labelsBeforeTheMapper = new ConcurrentHashMap<String, String>();
+    labelsBeforeTheMapper.put(LANGUAGE_EN, ENGLISH_TITLE);
+    labelsBeforeTheMapper.put(LANGUAGE_NB, NORWEGIAN_TITLE);
+
+    assertThat(funding.getLabels(), is(equalTo(labelsBeforeTheMapper)));
+    assertThat(
+        dtoObjectMapper.writeValueAsString(funding.getLabels()),
+        is(equalTo(dtoObjectMapper.writeValueAsString(labelsBeforeTheMapper))));
+    assertThat(
+        dtoObjectMapper.writeValueAsString(funding),
+        containsString(
+            "\"labels\":{\"nb\":\"" + NORWEGIAN_TITLE + "\",\"en\":\"" + ENGLISH_TITLE + "\"}"));
+  }
+
+  @Test
+  void shouldMapAllFundingsInOrder() {
+    var fundings =
+        mapper.mapAll(List.of(funding(2, Map.of(), Map.of()), funding(1, Map.of(), Map.of())));
+
+    assertThat(fundings.stream().map(Funding::getIdentifier).toList(), contains("2", "1"));
+  }
+
+  @Test
+  void shouldReadPathsFromEnvironment() {
+    var environment = mock(Environment.class);
+    when(environment.readEnv(EnvironmentKeys.API_DOMAIN)).thenReturn("api.localhost");
+    when(environment.readEnv(EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH)).thenReturn("funding");
+
+    var fromEnvironment = FundingMapper.fromEnvironment(environment);
+
+    assertThat(
+        fromEnvironment.getSearchId(),
+        is(equalTo(URI.create("https://api.localhost/funding/nfr"))));
+  }
+
+  private static NfrFunding funding(
+      int projectId, Map<String, String> english, Map<String, String> norwegian) {
+    return new NfrFunding(projectId, ACTIVE_FROM, ACTIVE_TO, "Kari Nordmann", english, norwegian);
+  }
+}
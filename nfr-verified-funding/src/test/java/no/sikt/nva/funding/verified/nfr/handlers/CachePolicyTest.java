@@ -0,0 +1,68 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.Test;
+
+class CachePolicyTest {
+
+  private static final String ENTITY_TAG = "\"abc\"";
+
+  @Test
+  void shouldLetCachesReuseFreshAnswerForMaxAge() {
+    var headers = new CachePolicy(Duration.ofMinutes(5)).headers(ENTITY_TAG, false);
+
+    assertThat(
+        headers,
+        is(
+            equalTo(
+                Map.of(
+                    EntityTag.ETAG_HEADER,
+                    ENTITY_TAG,
+                    CachePolicy.CACHE_CONTROL_HEADER,
+                    "public, max-age=300",
+                    CachePolicy.VARY_HEADER,
+                    "Accept"))));
+  }
+
+  @Test
+  void shouldRequireRevalidationOfStaleAnswer() {
+    var headers = new CachePolicy(Duration.ofMinutes(5)).headers(ENTITY_TAG, true);
+
+    assertThat(headers.get(CachePolicy.CACHE_CONTROL_HEADER), is(equalTo(CachePolicy.NO_CACHE)));
+    assertThat(
+        headers.get(StaleResponse.WARNING_HEADER), is(equalTo(StaleResponse.RESPONSE_IS_STALE)));
+  }
+
+  @Test
+  void shouldRequireRevalidationWhenMaxAgeIsZero() {
+    var headers = new CachePolicy(Duration.ZERO).headers(ENTITY_TAG, false);
+
+    assertThat(headers.get(CachePolicy.CACHE_CONTROL_HEADER), is(equalTo(CachePolicy.NO_CACHE)));
+  }
+
+  @Test
+  void shouldReadMaxAgeFromEnvironmentAndFallBackToDefault() {
+    var environment = mock(Environment.class);
+    var defaulted = CachePolicy.fromEnvironment(environment, Duration.ofSeconds(60));
+    when(environment.readEnvOpt(EnvironmentKeys.CACHE_MAX_AGE_SECONDS))
+        .thenReturn(Optional.of("10"));
+    var configured = CachePolicy.fromEnvironment(environment, Duration.ofSeconds(60));
+
+    assertThat(
+        defaulted.headers(ENTITY_TAG, false).get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo("public, max-age=60")));
+    assertThat(
+        configured.headers(ENTITY_TAG, false).get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo("public, max-age=10")));
+  }
+}
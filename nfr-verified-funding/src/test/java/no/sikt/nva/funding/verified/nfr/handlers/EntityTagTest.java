@@ -0,0 +1,122 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.FundingMapper;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.model.RawJson;
+import nva.commons.apigateway.RequestInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class EntityTagTest {
+
+  private static final String ENTITY_TAG = "\"abc\"";
+  private static final String TITLE = "title";
+  private static final FundingMapper MAPPER =
+      new FundingMapper("localhost", "verified-funding", "cristin", "funding-sources");
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        "\"abc\"|true",
+        "W/\"abc\"|true",
+        "*|true",
+        "\"xyz\", \"abc\"|true",
+        "\"xyz\"|false",
+        "abc|false"
+      })
+  void shouldMatchIfNoneMatchListingEntityTag(String ifNoneMatch, boolean matched) {
+    assertThat(
+        EntityTag.isMatchedBy(ENTITY_TAG, request(Map.of("IF-NONE-MATCH", ifNoneMatch))),
+        is(equalTo(matched)));
+  }
+
+  @Test
+  void shouldNotMatchRequestWithoutIfNoneMatch() {
+    assertThat(EntityTag.isMatchedBy(ENTITY_TAG, request(Map.of())), is(false));
+  }
+
+  @Test
+  void shouldTagFundingsByEverythingTheyAreMappedFrom() {
+    var funding = funding("Lead", "Marine ecology");
+
+    assertThat(
+        EntityTag.forFunding(MAPPER, funding),
+        is(equalTo(EntityTag.forFunding(MAPPER, funding("Lead", "Marine ecology")))));
+    assertThat(
+        EntityTag.forFunding(MAPPER, funding),
+        is(not(equalTo(EntityTag.forFunding(MAPPER, funding("Lead", "Marine biology"))))));
+    assertThat(
+        EntityTag.forFunding(MAPPER, funding),
+        is(not(equalTo(EntityTag.forFunding(MAPPER, funding(null, "Marine ecology"))))));
+    assertThat(
+        EntityTag.forFunding(MAPPER, funding),
+        is(
+            not(
+                equalTo(
+                    EntityTag.forFunding(
+                        new FundingMapper("example.org", "verified-funding", "cristin", "sources"),
+                        funding)))));
+  }
+
+  @Test
+  void shouldTagEachAcceptedRepresentationOfAnAnswerDifferently() {
+    var json =
+        EntityTag.forRepresentation(ENTITY_TAG, request(Map.of("accept", "application/json")));
+    var any = EntityTag.forRepresentation(ENTITY_TAG, request(Map.of("Accept", "*/*")));
+
+    assertThat(json, is(not(equalTo(any))));
+    assertThat(EntityTag.forRepresentation(ENTITY_TAG, request(Map.of())), is(equalTo(any)));
+  }
+
+  @Test
+  void shouldTagTranscodedPagesByTheMapperTheyWereTranscodedWith() {
+    var page =
+        new PagedSearchResult<>(
+            URI.create("https://example.org/context"),
+            URI.create("https://example.org/search"),
+            0,
+            10,
+            1,
+            List.of(new RawJson("{}")));
+
+    assertThat(
+        EntityTag.forTranscodedPage(page, MAPPER),
+        is(
+            not(
+                equalTo(
+                    EntityTag.forTranscodedPage(
+                        page,
+                        new FundingMapper(
+                            "example.org", "verified-funding", "cristin", "sources"))))));
+  }
+
+  private static RequestInfo request(Map<String, String> headers) {
+    var requestInfo = mock(RequestInfo.class);
+    when(requestInfo.getHeaders()).thenReturn(headers);
+    return requestInfo;
+  }
+
+  private static NfrFunding funding(String leadName, String title) {
+    return new NfrFunding(
+        1,
+        Instant.parse("2020-01-01T00:00:00Z"),
+        Instant.parse("2024-01-01T00:00:00Z"),
+        leadName,
+        Map.of(TITLE, title),
+        Map.of(TITLE, "Marin økologi"));
+  }
+}
@@ -1,5 +1,9 @@
 package no.sikt.nva.funding.verified.nfr.handlers;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.resetAllRequests;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.ALLOWED_ORIGIN;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_DOMAIN;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_HOST;
@@ -10,20 +14,52 @@ import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CUSTOM_DOMAIN_NAM
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.cache.ExpiringLruCache;
+import no.sikt.nva.funding.verified.nfr.client.CircuitOpenException;
 import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
 import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.snapshot.FileSystemSnapshotStorage;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogHarvester;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogHarvester.HarvestSettings;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import no.sikt.nva.funding.verified.nfr.tracing.InMemorySpanExporter;
+import no.sikt.nva.funding.verified.nfr.tracing.Span;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanData;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.StatusCode;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
 import no.unit.nva.stubs.FakeContext;
 import no.unit.nva.stubs.WiremockHttpClient;
 import no.unit.nva.testutils.HandlerRequestBuilder;
@@ -31,6 +67,7 @@ import nva.commons.apigateway.GatewayResponse;
 import nva.commons.core.Environment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.zalando.problem.Problem;
 
 @SuppressWarnings({"PMD.CloseResource", "PMD.UnitTestShouldIncludeAssert"})
@@ -38,11 +75,17 @@ import org.zalando.problem.Problem;
 class FetchNfrFundingByIdentifierHandlerTest {
 
   private static final String IDENTIFIER = "identifier";
+  private static final String SEARCH_PATH = "/search";
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
   private final Context context = new FakeContext();
   private FetchNfrFundingByIdentifierHandler handlerUnderTest;
   private NfrApiStubber stubber;
   private ByteArrayOutputStream output;
   private Environment environment;
+  private ExpiringLruCache<Integer, NfrFunding> identifierCache;
+  private NfrApiClient apiClient;
+  @TempDir private Path snapshotDirectory;
 
   @BeforeEach
   void setup(WireMockRuntimeInfo runtimeInfo) {
@@ -57,8 +100,10 @@ class FetchNfrFundingByIdentifierHandlerTest {
     when(environment.readEnv(CRISTIN_FUNDING_SOURCES_PATH)).thenReturn("funding-sources");
 
     var httpClient = WiremockHttpClient.create();
-    var apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
-    handlerUnderTest = new FetchNfrFundingByIdentifierHandler(environment, apiClient);
+    apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
+    identifierCache = NfrFundingLookup.newIdentifierCache(environment);
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(environment, apiClient, identifierCache);
     stubber = new NfrApiStubber();
     output = new ByteArrayOutputStream();
   }
@@ -98,6 +143,60 @@ class FetchNfrFundingByIdentifierHandlerTest {
     assertThat(funding.getActiveTo(), is(equalTo(nfrFunding.getActiveTo())));
   }
 
+  @Test
+  void shouldServeRepeatedLookupsOfSameIdentifierFromCache() throws IOException {
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    for (int attempt = 0; attempt < 3; attempt++) {
+      var input =
+          new HandlerRequestBuilder<Void>(dtoObjectMapper)
+              .withPathParameters(Map.of(IDENTIFIER, Integer.toString(projectId)))
+              .build();
+      output = new ByteArrayOutputStream();
+      handlerUnderTest.handleRequest(input, output, context);
+
+      var response = GatewayResponse.fromOutputStream(output, Funding.class);
+      assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    }
+
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+    assertThat(identifierCache.getMissCount(), is(equalTo(1L)));
+    assertThat(identifierCache.getHitCount(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldAnswerFromHarvestedSnapshotWithoutCallingUpstream(WireMockRuntimeInfo runtimeInfo)
+      throws Exception {
+    var catalog = stubber.withCatalogPages("*", 5, 10);
+    var apiClient =
+        new NfrApiClient(WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()));
+    var storage = new FileSystemSnapshotStorage(snapshotDirectory);
+    new NfrCatalogHarvester(
+            apiClient,
+            storage,
+            Clock.systemUTC(),
+            new HarvestSettings("*", 10, 1, Duration.ofSeconds(5)))
+        .harvest();
+    var snapshot = NfrCatalogSnapshot.loadLatest(storage).orElseThrow();
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(
+            environment, new NfrFundingLookup(apiClient, identifierCache, snapshot));
+    resetAllRequests();
+
+    var projectId = catalog.get(3).getProjectId();
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withPathParameters(Map.of(IDENTIFIER, Integer.toString(projectId)))
+            .build();
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, Funding.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(
+        response.getBodyObject(Funding.class).getLead(), is(equalTo(catalog.get(3).getLeadName())));
+    verify(0, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
   @Test
   void shouldReturnNotFoundStatusCodeWhenNotFoundButCandidatesArePresent() throws IOException {
     var projectId = stubber.byProjectIdNoExactMatch(2);
@@ -163,6 +262,181 @@ class FetchNfrFundingByIdentifierHandlerTest {
     shouldReturnBadGatewayWithProblemDetail(projectId, "Failed to communicate with NFR rest api!");
   }
 
+  @Test
+  void shouldServeLastKnownFundingMarkedAsStaleWhileCircuitIsOpen() throws Exception {
+    var clock = new MutableClock(Instant.now());
+    var apiClient = mock(NfrApiClient.class);
+    when(apiClient.getMetrics()).thenReturn(new Metrics());
+    var projectId = stubber.byProjectIdSingleMatch(1);
+    var funding = stubber.getMatchingEntryFromNfr(projectId);
+    when(apiClient.query(anyString(), anyInt(), anyInt(), any()))
+        .thenReturn(new NfrFundingSearchResult(1, 0, 10, List.of(funding)))
+        .thenThrow(new CircuitOpenException(clock.instant()));
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(
+            environment,
+            apiClient,
+            new ExpiringLruCache<>(
+                10, Duration.ofMinutes(15), Duration.ZERO, clock, Runnable::run));
+
+    var fresh = fetch(projectId);
+    clock.advance(Duration.ofHours(1));
+    var stale = fetch(projectId);
+
+    assertThat(fresh.getHeaders().get(StaleResponse.WARNING_HEADER), is(nullValue()));
+    assertThat(stale.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(
+        stale.getHeaders().get(StaleResponse.WARNING_HEADER),
+        is(equalTo(StaleResponse.RESPONSE_IS_STALE)));
+    assertThat(
+        stale.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo(CachePolicy.NO_CACHE)));
+    assertThat(stale.getBodyObject(Funding.class).getLead(), is(equalTo(funding.getLeadName())));
+  }
+
+  @Test
+  void shouldFailFastWithBadGatewayWhileCircuitIsOpenAndFundingIsUnknown() throws Exception {
+    var apiClient = mock(NfrApiClient.class);
+    when(apiClient.getMetrics()).thenReturn(new Metrics());
+    when(apiClient.query(anyString(), anyInt(), anyInt(), any()))
+        .thenThrow(new CircuitOpenException(Instant.now()));
+    handlerUnderTest = new FetchNfrFundingByIdentifierHandler(environment, apiClient);
+
+    var response = fetch(stubber.byProjectIdSingleMatch(1));
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_GATEWAY)));
+  }
+
+  @Test
+  void shouldTagFundingWithSameEntityTagWhetherFetchedOrServedFromCache() throws IOException {
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    var fetched = fetch(projectId);
+    var cached = fetch(projectId);
+
+    var entityTag = fetched.getHeaders().get(EntityTag.ETAG_HEADER);
+    assertThat(entityTag, matchesPattern("\"[A-Za-z0-9_-]{22}\""));
+    assertThat(cached.getHeaders().get(EntityTag.ETAG_HEADER), is(equalTo(entityTag)));
+    assertThat(
+        fetched.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo("public, max-age=3600")));
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)));
+  }
+
+  @Test
+  void shouldReturnNotModifiedWithoutBodyWhenIfNoneMatchHoldsEntityTag() throws IOException {
+    var projectId = stubber.byProjectIdSingleMatch(2);
+    var entityTag = fetch(projectId).getHeaders().get(EntityTag.ETAG_HEADER);
+
+    var response = fetch(projectId, Map.of("if-none-match", "\"other\", W/" + entityTag));
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_NOT_MODIFIED)));
+    assertThat(response.getHeaders().get(EntityTag.ETAG_HEADER), is(equalTo(entityTag)));
+    assertThat(response.getBody(), is(emptyString()));
+    assertThat(
+        response.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo("public, max-age=3600")));
+  }
+
+  @Test
+  void shouldReturnFundingWhenIfNoneMatchHoldsOtherEntityTag() throws IOException {
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    var response = fetch(projectId, Map.of(EntityTag.IF_NONE_MATCH_HEADER, "\"other\""));
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(
+        response.getBodyObject(Funding.class).getIdentifier(),
+        is(equalTo(Integer.toString(projectId))));
+  }
+
+  @Test
+  void shouldWriteOneMetricsLinePerInvocation() throws IOException {
+    var lines = new ArrayList<String>();
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(
+            environment,
+            new NfrFundingLookup(apiClient, identifierCache),
+            new Metrics(lines::add, Clock.systemUTC()));
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    fetch(projectId);
+    fetch(projectId);
+
+    assertThat(lines, hasSize(2));
+    var first = dtoObjectMapper.readTree(lines.get(0));
+    var second = dtoObjectMapper.readTree(lines.get(1));
+    assertThat(
+        first.get(Metrics.HANDLER_DIMENSION).asText(),
+        is(equalTo(FetchNfrFundingByIdentifierHandler.class.getSimpleName())));
+    assertThat(first.get(MetricNames.UPSTREAM_STATUS_PREFIX + 200).asLong(), is(equalTo(1L)));
+    assertThat(first.has(MetricNames.UPSTREAM_LATENCY), is(true));
+    assertThat(first.get("IdentifierCacheMisses").asLong(), is(equalTo(1L)));
+    assertThat(second.get("IdentifierCacheHits").asLong(), is(equalTo(1L)));
+    assertThat(second.has(MetricNames.UPSTREAM_LATENCY), is(false));
+    assertThat(second.has(MetricNames.MAPPING_TIME), is(true));
+    assertThat(second.has(MetricNames.SERIALIZATION_TIME), is(true));
+  }
+
+  @Test
+  void shouldTracePhasesOfRequestInTraceOfCallerAndPropagateItToProjectBank() throws IOException {
+    var spans = new InMemorySpanExporter();
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(
+            environment,
+            new NfrFundingLookup(apiClient, identifierCache),
+            new Metrics(),
+            new Tracer(spans, Clock.systemUTC()));
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    fetch(projectId, Map.of(Tracer.TRACEPARENT_HEADER, TRACEPARENT));
+
+    var finished = spans.getFinishedSpans();
+    assertThat(
+        finished.stream().map(SpanData::name).toList(),
+        contains(
+            SpanNames.VALIDATE,
+            SpanNames.PARSE,
+            SpanNames.UPSTREAM_REQUEST,
+            SpanNames.UPSTREAM_QUERY,
+            SpanNames.LOOKUP,
+            SpanNames.MAP,
+            SpanNames.SERIALIZE,
+            FetchNfrFundingByIdentifierHandler.class.getSimpleName()));
+    for (var span : finished) {
+      assertThat(span.context().traceId(), is(equalTo(TRACE_ID)));
+    }
+    var upstreamRequest = finished.get(2);
+    verify(
+        getRequestedFor(urlPathEqualTo(SEARCH_PATH))
+            .withHeader(
+                Tracer.TRACEPARENT_HEADER,
+                WireMock.equalTo(upstreamRequest.context().traceparent())));
+    assertThat(Span.current().isRecording(), is(false));
+  }
+
+  @Test
+  void shouldRecordFailedPhaseInItsSpan() throws IOException {
+    var spans = new InMemorySpanExporter();
+    handlerUnderTest =
+        new FetchNfrFundingByIdentifierHandler(
+            environment,
+            new NfrFundingLookup(apiClient, identifierCache),
+            new Metrics(),
+            new Tracer(spans, Clock.systemUTC()));
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withPathParameters(Map.of(IDENTIFIER, "abc"))
+            .build();
+
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var validation = spans.getFinishedSpans().get(0);
+    assertThat(validation.name(), is(equalTo(SpanNames.VALIDATE)));
+    assertThat(validation.status(), is(equalTo(StatusCode.ERROR)));
+    assertThat(spans.getFinishedSpans().size(), is(equalTo(2)));
+  }
+
   @Test
   void shouldReturnBadRequestWhenIdentifierPathParameterIsNotAnInteger() throws IOException {
     var input =
@@ -180,6 +454,22 @@ class FetchNfrFundingByIdentifierHandlerTest {
     assertThat(problem.getDetail(), is(equalTo("'identifier' path parameter must be an integer")));
   }
 
+  private GatewayResponse<Funding> fetch(int projectId) throws IOException {
+    return fetch(projectId, Map.of());
+  }
+
+  private GatewayResponse<Funding> fetch(int projectId, Map<String, String> headers)
+      throws IOException {
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withPathParameters(Map.of(IDENTIFIER, Integer.toString(projectId)))
+            .withHeaders(headers)
+            .build();
+    output = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(input, output, context);
+    return GatewayResponse.fromOutputStream(output, Funding.class);
+  }
+
   private void shouldReturnBadGatewayWithProblemDetail(int projectId, String detail)
       throws IOException {
     var input =
@@ -0,0 +1,189 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.ALLOWED_ORIGIN;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_DOMAIN;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_HOST;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CRISTIN_BASE_PATH;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CRISTIN_FUNDING_SOURCES_PATH;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.hamcrest.collection.IsIterableWithSize.iterableWithSize;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.FundingBatchResult;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import no.unit.nva.testutils.HandlerRequestBuilder;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.zalando.problem.Problem;
+
+@SuppressWarnings("PMD.CloseResource")
+@WireMockTest(httpsEnabled = true)
+class FetchNfrFundingsByIdentifiersHandlerTest {
+
+  private static final String IDENTIFIER = "identifier";
+  private static final String ILLEGAL_IDENTIFIERS =
+      "'identifier' query parameter must be a comma separated list of 1 to 50 integers";
+  private final Context context = new FakeContext();
+  private FetchNfrFundingsByIdentifiersHandler handlerUnderTest;
+  private NfrApiStubber stubber;
+  private ByteArrayOutputStream output;
+
+  @BeforeEach
+  void setup(WireMockRuntimeInfo runtimeInfo) {
+    var environment = mock(Environment.class);
+
+    when(environment.readEnv(API_DOMAIN)).thenReturn("localhost");
+    when(environment.readEnv(API_HOST)).thenReturn("localhost");
+    when(environment.readEnv(COGNITO_AUTHORIZER_URLS)).thenReturn("http://localhost:3000");
+    when(environment.readEnv(ALLOWED_ORIGIN)).thenReturn("*");
+    when(environment.readEnv(CUSTOM_DOMAIN_NAME_PATH)).thenReturn("verified-funding");
+    when(environment.readEnv(CRISTIN_BASE_PATH)).thenReturn("cristin");
+    when(environment.readEnv(CRISTIN_FUNDING_SOURCES_PATH)).thenReturn("funding-sources");
+
+    var httpClient = WiremockHttpClient.create();
+    var apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
+    handlerUnderTest = new FetchNfrFundingsByIdentifiersHandler(environment, apiClient);
+    stubber = new NfrApiStubber();
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldReturnFundingsInRequestedOrderAndListIdentifiersWithoutMatchAsNotFound()
+      throws IOException {
+    var first = stubber.byProjectIdSingleMatch(3);
+    var missing = stubber.byProjectIdNoExactMatch(2);
+    var second = stubber.byProjectIdSingleMatch(1);
+
+    var response = sendRequest(first + ", " + missing + "," + second, FundingBatchResult.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+
+    var result = response.getBodyObject(FundingBatchResult.class);
+    assertThat(result.getSize(), is(equalTo(3)));
+    assertThat(
+        result.getHits().stream().map(Funding::getIdentifier).collect(Collectors.toList()),
+        contains(Integer.toString(first), Integer.toString(second)));
+    assertThat(result.getNotFound(), contains(Integer.toString(missing)));
+
+    var expectedId =
+        URI.create(
+            "https://localhost/verified-funding/nfr/batch?identifier="
+                + String.join("%2C", Integer.toString(first), Integer.toString(missing))
+                + "%2C"
+                + second);
+    assertThat(result.getId(), is(equalTo(expectedId)));
+
+    var funding = result.getHits().get(0);
+    assertThat(
+        funding.getLead(), is(equalTo(stubber.getMatchingEntryFromNfr(first).getLeadName())));
+  }
+
+  @Test
+  void shouldLookUpRepeatedIdentifiersOnlyOnce() throws IOException {
+    var projectId = stubber.byProjectIdSingleMatch(2);
+
+    var response =
+        sendRequest(projectId + "," + projectId + "," + projectId, FundingBatchResult.class);
+
+    var result = response.getBodyObject(FundingBatchResult.class);
+    assertThat(result.getSize(), is(equalTo(1)));
+    assertThat(result.getHits(), iterableWithSize(1));
+    verify(1, getRequestedFor(urlPathEqualTo("/search")));
+  }
+
+  @Test
+  void shouldListIdentifiersWhoseLookupFailsAsFailedAndAnswerTheOthers() throws IOException {
+    var found = stubber.byProjectIdSingleMatch(1);
+    var failing = stubber.byProjectIdBadRequest();
+
+    var response = sendRequest(found + "," + failing, FundingBatchResult.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    var result = response.getBodyObject(FundingBatchResult.class);
+    assertThat(
+        result.getHits().stream().map(Funding::getIdentifier).collect(Collectors.toList()),
+        contains(Integer.toString(found)));
+    assertThat(result.getNotFound(), is(empty()));
+    assertThat(result.getFailed(), contains(Integer.toString(failing)));
+  }
+
+  @Test
+  void shouldReturnBadGatewayWhenEveryLookupFails() throws IOException {
+    var failing = stubber.byProjectIdBadRequest();
+
+    var response = sendRequest(Integer.toString(failing), Problem.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_GATEWAY)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"abc", "1,abc", ",", " "})
+  void shouldReturnBadRequestWhenIdentifiersAreNotIntegers(String identifiers) throws IOException {
+    var response = sendRequest(identifiers, Problem.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_REQUEST)));
+    assertThat(response.getBodyObject(Problem.class).getDetail(), is(equalTo(ILLEGAL_IDENTIFIERS)));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenMoreIdentifiersThanAllowedAreRequested() throws IOException {
+    var identifiers =
+        IntStream.rangeClosed(1, FetchNfrFundingsByIdentifiersHandler.MAX_IDENTIFIERS + 1)
+            .mapToObj(Integer::toString)
+            .collect(Collectors.joining(","));
+
+    var response = sendRequest(identifiers, Problem.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_REQUEST)));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenIdentifierQueryParameterIsMissing() throws IOException {
+    var input = new HandlerRequestBuilder<Void>(dtoObjectMapper).build();
+
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_REQUEST)));
+  }
+
+  private <T> GatewayResponse<T> sendRequest(String identifiers, Class<T> responseType)
+      throws IOException {
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withQueryParameters(Map.of(IDENTIFIER, identifiers))
+            .build();
+
+    handlerUnderTest.handleRequest(input, output, context);
+
+    return GatewayResponse.fromOutputStream(output, responseType);
+  }
+}
@@ -0,0 +1,70 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.snapshot.FileSystemSnapshotStorage;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@WireMockTest(httpsEnabled = true)
+class HarvestNfrCatalogHandlerTest {
+
+  private static final String QUERY = "*";
+
+  @TempDir private Path directory;
+  private NfrApiStubber stubber;
+  private HarvestNfrCatalogHandler handlerUnderTest;
+
+  @BeforeEach
+  void setup(WireMockRuntimeInfo runtimeInfo) {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.SNAPSHOT_DIRECTORY))
+        .thenReturn(Optional.of(directory.toString()));
+    when(environment.readEnvOpt(EnvironmentKeys.HARVEST_PAGE_SIZE)).thenReturn(Optional.of("10"));
+
+    var apiClient =
+        new NfrApiClient(WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()));
+    handlerUnderTest = new HarvestNfrCatalogHandler(environment, apiClient);
+    stubber = new NfrApiStubber();
+  }
+
+  @Test
+  void shouldHarvestCatalogIntoConfiguredStorage() throws IOException {
+    stubber.withCatalogPages(QUERY, 25, 10);
+
+    var version = handlerUnderTest.handleRequest(Map.of(), new FakeContext());
+
+    var snapshot =
+        NfrCatalogSnapshot.loadLatest(new FileSystemSnapshotStorage(directory)).orElseThrow();
+    assertThat(snapshot.getVersion(), is(version));
+    assertThat(snapshot.size(), is(25));
+  }
+
+  @Test
+  void shouldFailInvocationWhenUpstreamFails() {
+    stubber.withCatalogPages(QUERY, 25, 10);
+    stubber.withFailingCatalogPage(QUERY, 10, 10);
+
+    var context = new FakeContext();
+    assertThrows(
+        IllegalStateException.class, () -> handlerUnderTest.handleRequest(Map.of(), context));
+  }
+}
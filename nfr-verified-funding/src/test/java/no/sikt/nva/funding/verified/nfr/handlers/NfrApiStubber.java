@@ -1,14 +1,17 @@
 package no.sikt.nva.funding.verified.nfr.handlers;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static no.unit.nva.testutils.RandomDataGenerator.randomInstant;
 import static no.unit.nva.testutils.RandomDataGenerator.randomInteger;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static nva.commons.core.attempt.Try.attempt;
 
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -112,16 +115,7 @@ public class NfrApiStubber {
     var totalHits = numberOfMatchesByName + numberOfAdditionalMatches;
     var responseObject = new NfrFundingSearchResult(totalHits, from, size, matches);
 
-    var url =
-        "/search?query="
-            + URLEncoder.encode(leadName, StandardCharsets.UTF_8)
-                .replace("+", "%20")
-                .replace("&", "%26")
-                .replace(",", "%2C")
-            + "&from="
-            + from
-            + "&size="
-            + size;
+    var url = getLeadNameSearchPath(leadName, from, size);
 
     attempt(
             () ->
@@ -137,6 +131,86 @@ public class NfrApiStubber {
     return leadName;
   }
 
+  public String withLeadNameMatchesOnEveryPage(
+      int numberOfPages, int pageSize, int matchesPerPage, int delayOfLaterPagesInMillis) {
+    var leadName = randomLeadName();
+    var allMatches = new ArrayList<NfrFunding>();
+    var totalHits = numberOfPages * pageSize;
+
+    for (int page = 0; page < numberOfPages; page++) {
+      var hits = randomFundingsWithLeadName(leadName, matchesPerPage);
+      allMatches.addAll(hits);
+      hits.addAll(randomFundingsWithDifferentLeadName(leadName, pageSize - matchesPerPage));
+
+      var from = page * pageSize;
+      var responseObject = new NfrFundingSearchResult(totalHits, from, pageSize, hits);
+      var delay = page == 0 ? 0 : delayOfLaterPagesInMillis;
+      attempt(
+              () ->
+                  stubFor(
+                      get(getLeadNameSearchPath(leadName, from, pageSize))
+                          .willReturn(
+                              aResponse()
+                                  .withHeader(CONTENT_TYPE, APPLICATION_JSON_CHARSET_UTF_8)
+                                  .withBody(dtoObjectMapper.writeValueAsString(responseObject))
+                                  .withFixedDelay(delay)
+                                  .withStatus(HttpURLConnection.HTTP_OK))))
+          .orElseThrow();
+    }
+    this.exactMatchesByLeadName.put(leadName, allMatches);
+
+    return leadName;
+  }
+
+  public List<NfrFunding> withCatalogPages(String query, int totalHits, int pageSize) {
+    var catalog = new ArrayList<NfrFunding>(totalHits);
+    for (int from = 0; from < totalHits; from += pageSize) {
+      var page = new ArrayList<NfrFunding>();
+      for (int index = from; index < Math.min(from + pageSize, totalHits); index++) {
+        page.add(randomFunding(index + 1, randomLeadName()));
+      }
+      catalog.addAll(page);
+      var responseObject = new NfrFundingSearchResult(totalHits, from, pageSize, page);
+      stubCatalogPage(
+          query,
+          from,
+          pageSize,
+          aResponse()
+              .withHeader(CONTENT_TYPE, APPLICATION_JSON_CHARSET_UTF_8)
+              .withBody(
+                  attempt(() -> dtoObjectMapper.writeValueAsString(responseObject)).orElseThrow())
+              .withStatus(HttpURLConnection.HTTP_OK));
+    }
+    return catalog;
+  }
+
+  public void withFailingCatalogPage(String query, int from, int pageSize) {
+    stubCatalogPage(
+        query, from, pageSize, aResponse().withStatus(HttpURLConnection.HTTP_UNAVAILABLE));
+  }
+
+  private static void stubCatalogPage(
+      String query, int from, int pageSize, ResponseDefinitionBuilder response) {
+    stubFor(
+        get(urlPathEqualTo("/search"))
+            .withQueryParam("query", equalTo(query))
+            .withQueryParam("from", equalTo(Integer.toString(from)))
+            .withQueryParam("size", equalTo(Integer.toString(pageSize)))
+            .willReturn(response));
+  }
+
+  private static String getLeadNameSearchPath(String leadName, int from, int size) {
+    return "/search?query="
+        + URLEncoder.encode(leadName, StandardCharsets.UTF_8)
+            .replace("+", "%20")
+            .replace("&", "%26")
+            .replace(",", "%2C")
+        + "&from="
+        + from
+        + "&size="
+        + size;
+  }
+
   public List<NfrFunding> withRandomMatches(String term, int count, int from, int size) {
     var matches = new ArrayList<NfrFunding>(count);
     for (int counter = 0; counter < count; counter++) {
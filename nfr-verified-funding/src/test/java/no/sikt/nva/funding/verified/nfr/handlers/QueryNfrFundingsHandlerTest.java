@@ -1,38 +1,73 @@
 package no.sikt.nva.funding.verified.nfr.handlers;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.ALLOWED_ORIGIN;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_DOMAIN;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_HOST;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.COGNITO_AUTHORIZER_URLS;
 import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.LEAD_NAME_SEARCH_TIMEOUT_MILLIS;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.TRANSCODED_PAGE_MIN_SIZE;
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.collection.IsIterableWithSize.iterableWithSize;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsIterableContaining.hasItems;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.text.IsEmptyString.emptyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import no.sikt.nva.funding.verified.nfr.client.MaybeStale;
 import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.NfrFundingSource;
+import no.sikt.nva.funding.verified.nfr.client.ResponseReader;
 import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.metrics.MetricNames;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
 import no.sikt.nva.funding.verified.nfr.model.Funding;
 import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.search.LeadNameIndex;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingIndex;
+import no.sikt.nva.funding.verified.nfr.tracing.InMemorySpanExporter;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanData;
+import no.sikt.nva.funding.verified.nfr.tracing.SpanNames;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
 import no.unit.nva.stubs.FakeContext;
 import no.unit.nva.stubs.WiremockHttpClient;
 import no.unit.nva.testutils.HandlerRequestBuilder;
@@ -42,6 +77,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentMatchers;
 import org.zalando.problem.Problem;
 
 @SuppressWarnings("PMD.CloseResource")
@@ -52,11 +88,13 @@ class QueryNfrFundingsHandlerTest {
   private static final String NAME = "name";
   private static final String OFFSET = "offset";
   private static final String SIZE = "size";
+  private static final String TITLE = "title";
   private final Context context = new FakeContext();
   private QueryNfrFundingsHandler handlerUnderTest;
   private NfrApiStubber stubber;
   private ByteArrayOutputStream output;
   private Environment environment;
+  private NfrApiClient apiClient;
 
   @BeforeEach
   void setup(WireMockRuntimeInfo runtimeInfo) {
@@ -69,8 +107,8 @@ class QueryNfrFundingsHandlerTest {
     when(environment.readEnv(COGNITO_AUTHORIZER_URLS)).thenReturn("http://localhost:3000");
 
     var httpClient = WiremockHttpClient.create();
-    var apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
-    handlerUnderTest = new QueryNfrFundingsHandler(environment, apiClient);
+    apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
+    handlerUnderTest = handler(apiClient);
     stubber = new NfrApiStubber();
     output = new ByteArrayOutputStream();
   }
@@ -125,6 +163,78 @@ class QueryNfrFundingsHandlerTest {
     assertThat(actualProjectIds, hasItems(expectedProjectIds));
   }
 
+  @Test
+  void shouldFetchFurtherUpstreamPagesUntilRequestedPageOfExactMatchesIsFilled()
+      throws IOException {
+    var leadName = stubber.withLeadNameMatchesOnEveryPage(4, 10, 3, 0);
+
+    var searchResult = queryByName(leadName, 0, 5);
+    var expectedProjectIds =
+        stubber.getMatchingEntriesByLeadName(leadName).stream()
+            .limit(5)
+            .map(NfrFunding::getProjectId)
+            .toArray(Integer[]::new);
+
+    assertThat(projectIds(searchResult), contains(expectedProjectIds));
+    assertThat(searchResult.getTotalSize() > 5, is(true));
+    assertThat(searchResult.getNextResults(), is(notNullValue()));
+  }
+
+  @Test
+  void shouldReportExactTotalAndNoNextResultsWhenUpstreamResultsAreExhausted() throws IOException {
+    var leadName = stubber.withLeadNameMatchesOnEveryPage(4, 10, 3, 0);
+
+    var searchResult = queryByName(leadName, 10, 5);
+    var expectedProjectIds =
+        stubber.getMatchingEntriesByLeadName(leadName).stream()
+            .skip(10)
+            .map(NfrFunding::getProjectId)
+            .toArray(Integer[]::new);
+
+    assertThat(projectIds(searchResult), contains(expectedProjectIds));
+    assertThat(searchResult.getTotalSize(), is(equalTo(12)));
+    assertThat(searchResult.getNextResults(), is(nullValue()));
+    assertThat(searchResult.getPreviousResults(), is(notNullValue()));
+  }
+
+  @Test
+  void shouldReturnEmptyPageOfExactMatchesWhenOffsetIsLargestInteger() throws IOException {
+    var leadName = stubber.withLeadNameMatchesOnEveryPage(4, 10, 3, 0);
+
+    var searchResult = queryByName(leadName, Integer.MAX_VALUE, 5);
+
+    assertThat(searchResult.getHits(), is(iterableWithSize(0)));
+    assertThat(searchResult.getTotalSize(), is(equalTo(12)));
+    assertThat(searchResult.getNextResults(), is(nullValue()));
+  }
+
+  @Test
+  void shouldReturnMatchesFoundBeforeDeadlineWhenLaterUpstreamPagesAreSlow() throws IOException {
+    when(environment.readEnvOpt(LEAD_NAME_SEARCH_TIMEOUT_MILLIS)).thenReturn(Optional.of("1500"));
+    handlerUnderTest = handler(apiClient);
+    var leadName = stubber.withLeadNameMatchesOnEveryPage(3, 10, 3, 3000);
+
+    var searchResult = queryByName(leadName, 0, 10);
+
+    assertThat(searchResult.getTotalSize(), is(equalTo(3)));
+    assertThat(projectIds(searchResult), iterableWithSize(3));
+  }
+
+  @Test
+  void shouldReturnBadGatewayWhenDeadlinePassesBeforeFirstUpstreamPage() throws IOException {
+    when(environment.readEnvOpt(LEAD_NAME_SEARCH_TIMEOUT_MILLIS)).thenReturn(Optional.of("0"));
+    handlerUnderTest = handler(apiClient);
+
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withQueryParameters(Map.of(NAME, randomString()))
+            .build();
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_GATEWAY)));
+  }
+
   @Test
   void shouldUseTermParameterIfPresent() throws IOException {
     var from = 0;
@@ -162,6 +272,230 @@ class QueryNfrFundingsHandlerTest {
 
     assertThat(hits, iterableWithSize(noTermMatches));
     assertThat(actualProjectIds, hasItems(expectedProjectIds));
+    assertThat(response.getHeaders().get(StaleResponse.WARNING_HEADER), is(nullValue()));
+  }
+
+  @Test
+  void shouldTranscodeLargeTermPageFromUpstreamResponseToSameBodyAsMappedPage() throws Exception {
+    var size = 100;
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, size);
+    var transcodingClient = spy(apiClient);
+
+    handler(transcodingClient).handleRequest(termPageRequest(term, size), output, context);
+    var transcoded = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+
+    when(environment.readEnvOpt(TRANSCODED_PAGE_MIN_SIZE)).thenReturn(Optional.of("1000"));
+    var mappedOutput = new ByteArrayOutputStream();
+    handler(apiClient).handleRequest(termPageRequest(term, size), mappedOutput, context);
+    var mapped = GatewayResponse.fromOutputStream(mappedOutput, PagedSearchResult.class);
+
+    assertThat(transcoded.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(transcoded.getBody(), is(equalTo(mapped.getBody())));
+    verify(transcodingClient)
+        .query(eq(term), eq(0), eq(size), any(), ArgumentMatchers.<ResponseReader<?>>any());
+  }
+
+  @Test
+  void shouldServeRepeatedLargeTermPageFromCacheOfTranscodedPages() throws Exception {
+    var size = 100;
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, size);
+    var transcodingClient = spy(apiClient);
+    handlerUnderTest = handler(transcodingClient);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, size), output, context);
+    var first = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    output = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(termPageRequest(term, size), output, context);
+    var second = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+
+    assertThat(second.getBody(), is(equalTo(first.getBody())));
+    verify(transcodingClient, times(1))
+        .query(eq(term), eq(0), eq(size), any(), ArgumentMatchers.<ResponseReader<?>>any());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100})
+  void shouldReturnNotModifiedWhenIfNoneMatchHoldsEntityTagOfTermPage(int size) throws Exception {
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, size);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, size), output, context);
+    var page = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    var entityTag = page.getHeaders().get(EntityTag.ETAG_HEADER);
+    output = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(
+        termPageRequest(term, size, Map.of(EntityTag.IF_NONE_MATCH_HEADER, entityTag)),
+        output,
+        context);
+    var notModified = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+
+    assertThat(page.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(entityTag, is(notNullValue()));
+    assertThat(notModified.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_NOT_MODIFIED)));
+    assertThat(notModified.getHeaders().get(EntityTag.ETAG_HEADER), is(equalTo(entityTag)));
+    assertThat(notModified.getBody(), is(emptyString()));
+    assertThat(
+        page.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER), is(equalTo("public, max-age=60")));
+    assertThat(
+        notModified.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo("public, max-age=60")));
+  }
+
+  @Test
+  void shouldNotMapHitsOfTermPageAnsweredWithNotModified() throws Exception {
+    var lines = new ArrayList<String>();
+    handlerUnderTest =
+        new QueryNfrFundingsHandler(
+            environment,
+            apiClient,
+            NfrFundingIndex::empty,
+            LeadNameIndex::empty,
+            new Metrics(lines::add, Clock.systemUTC()),
+            Tracer.fromEnvironment(environment));
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, 10);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, 10), output, context);
+    var entityTag =
+        GatewayResponse.fromOutputStream(output, PagedSearchResult.class)
+            .getHeaders()
+            .get(EntityTag.ETAG_HEADER);
+    handlerUnderTest.handleRequest(
+        termPageRequest(term, 10, Map.of(EntityTag.IF_NONE_MATCH_HEADER, entityTag)),
+        new ByteArrayOutputStream(),
+        context);
+
+    assertThat(lines, iterableWithSize(2));
+    assertThat(dtoObjectMapper.readTree(lines.get(0)).has(MetricNames.MAPPING_TIME), is(true));
+    assertThat(dtoObjectMapper.readTree(lines.get(1)).has(MetricNames.MAPPING_TIME), is(false));
+  }
+
+  @Test
+  void shouldTagTermPagesWithDifferentHitsDifferently() throws Exception {
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, 10);
+    var otherTerm = randomString();
+    stubber.withRandomMatches(otherTerm, 3, 0, 10);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, 10), output, context);
+    var page = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    output = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(termPageRequest(otherTerm, 10), output, context);
+    var otherPage = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+
+    assertThat(
+        page.getHeaders().get(EntityTag.ETAG_HEADER),
+        is(not(equalTo(otherPage.getHeaders().get(EntityTag.ETAG_HEADER)))));
+  }
+
+  @Test
+  void shouldMarkTermResultAsStaleWhenServedFromLastKnownPage() throws Exception {
+    var staleClient = mock(NfrApiClient.class);
+    when(staleClient.getMetrics()).thenReturn(new Metrics());
+    var funding =
+        new NfrFunding(
+            1,
+            Instant.parse("2020-01-01T00:00:00Z"),
+            Instant.parse("2024-01-01T00:00:00Z"),
+            randomString(),
+            Map.of(TITLE, "Marine ecology"),
+            Map.of(TITLE, "Marin økologi"));
+    when(staleClient.queryAllowingStale(anyString(), anyInt(), anyInt(), any()))
+        .thenReturn(MaybeStale.stale(new NfrFundingSearchResult(1, 0, 10, List.of(funding))));
+    handlerUnderTest = handler(staleClient);
+
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withQueryParameters(Map.of(TERM, "marine"))
+            .build();
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(
+        response.getHeaders().get(StaleResponse.WARNING_HEADER),
+        is(equalTo(StaleResponse.RESPONSE_IS_STALE)));
+    assertThat(
+        response.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER),
+        is(equalTo(CachePolicy.NO_CACHE)));
+  }
+
+  @Test
+  void shouldAnswerTermQueryFromSnapshotIndexWithoutCallingUpstream() throws IOException {
+    var fundings =
+        IntStream.rangeClosed(1, 5)
+            .mapToObj(
+                projectId ->
+                    new NfrFunding(
+                        projectId,
+                        Instant.parse("2020-01-01T00:00:00Z"),
+                        Instant.parse("2024-01-01T00:00:00Z"),
+                        randomString(),
+                        Map.of(TITLE, "Marine ecology " + projectId),
+                        Map.of(TITLE, "Marin økologi " + projectId)))
+            .toList();
+    var termIndex = NfrFundingIndex.build(fundings);
+    handlerUnderTest = handler(apiClient, () -> termIndex, LeadNameIndex::empty);
+
+    var searchResult = queryByTerm("Økologi", 2, 2);
+
+    assertThat(searchResult.getTotalSize(), is(equalTo(5)));
+    assertThat(projectIds(searchResult), contains(3, 4));
+    assertThat(
+        searchResult.getNextResults(),
+        is(equalTo(URI.create("https://localhost/verified-funding/nfr?offset=4&size=2"))));
+    WireMock.verify(0, getRequestedFor(urlPathEqualTo("/search")));
+  }
+
+  @Test
+  void shouldSendTermQueryOfOnlyStopWordsOrSingleLettersUpstreamEvenWithSnapshotIndex()
+      throws IOException {
+    var fundings =
+        List.of(
+            new NfrFunding(
+                1,
+                Instant.parse("2020-01-01T00:00:00Z"),
+                Instant.parse("2024-01-01T00:00:00Z"),
+                randomString(),
+                Map.of(TITLE, "A study of the sea"),
+                Map.of(TITLE, "Havet")));
+    var termIndex = NfrFundingIndex.build(fundings);
+    handlerUnderTest = handler(apiClient, () -> termIndex, LeadNameIndex::empty);
+    stubber.withRandomMatches("a", 3, 0, 2);
+
+    var searchResult = queryByTerm("a", 0, 2);
+
+    assertThat(searchResult.getTotalSize(), is(equalTo(3)));
+    WireMock.verify(1, getRequestedFor(urlPathEqualTo("/search")));
+  }
+
+  @Test
+  void shouldAnswerNameQueryFromSnapshotLeadNameIndexWithoutCallingUpstream() throws IOException {
+    var fundings =
+        IntStream.rangeClosed(1, 5)
+            .mapToObj(
+                projectId ->
+                    new NfrFunding(
+                        projectId,
+                        Instant.parse("2020-01-0" + projectId + "T00:00:00Z"),
+                        Instant.parse("2024-01-01T00:00:00Z"),
+                        projectId == 5 ? "Kari Nordmann" : "Bjørn Ærlig-Åsen",
+                        Map.of(TITLE, "Marine ecology " + projectId),
+                        Map.of(TITLE, "Marin økologi " + projectId)))
+            .toList();
+    handlerUnderTest =
+        handler(apiClient, NfrFundingIndex::empty, () -> LeadNameIndex.build(fundings));
+
+    var searchResult = query(NAME, "bjorn  AERLIG-asen", 1, 2);
+
+    assertThat(searchResult.getTotalSize(), is(equalTo(4)));
+    assertThat(projectIds(searchResult), contains(3, 2));
+    assertThat(
+        searchResult.getNextResults(),
+        is(equalTo(URI.create("https://localhost/verified-funding/nfr?offset=3&size=2"))));
+    WireMock.verify(0, getRequestedFor(urlPathEqualTo("/search")));
   }
 
   @ParameterizedTest
@@ -260,7 +594,7 @@ class QueryNfrFundingsHandlerTest {
   void shouldEncodeQueryParametersCorrectly() throws IOException, InterruptedException {
     var httpClient = mock(HttpClient.class);
     var apiClient = new NfrApiClient(httpClient, URI.create("https://example.org"));
-    handlerUnderTest = new QueryNfrFundingsHandler(environment, apiClient);
+    handlerUnderTest = handler(apiClient);
 
     var paalUnencoded = "Pål";
     final var paalEncoded = "P%C3%A5l";
@@ -274,11 +608,144 @@ class QueryNfrFundingsHandlerTest {
                     SIZE, "10"))
             .build();
     handlerUnderTest.handleRequest(input, output, context);
-    var expectedRequest =
-        HttpRequest.newBuilder()
-            .uri(URI.create("https://example.org/search?query=" + paalEncoded + "&from=0&size=10"))
-            .GET()
+    var expectedUri =
+        URI.create("https://example.org/search?query=" + paalEncoded + "&from=0&size=10");
+    verify(httpClient)
+        .send(
+            ArgumentMatchers.<HttpRequest>argThat(
+                request ->
+                    "GET".equals(request.method())
+                        && expectedUri.equals(request.uri())
+                        && request.headers().firstValue(Tracer.TRACEPARENT_HEADER).isPresent()),
+            eq(BodyHandlers.ofInputStream()));
+  }
+
+  @Test
+  void shouldWriteMetricsOfUpstreamCallsAndPageWhenInvocationIsAnswered() throws IOException {
+    var lines = new ArrayList<String>();
+    handlerUnderTest =
+        new QueryNfrFundingsHandler(
+            environment,
+            apiClient,
+            NfrFundingIndex::empty,
+            LeadNameIndex::empty,
+            new Metrics(lines::add, Clock.systemUTC()),
+            Tracer.fromEnvironment(environment));
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, 3);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, 3), output, context);
+
+    assertThat(lines, iterableWithSize(1));
+    var line = dtoObjectMapper.readTree(lines.get(0));
+    assertThat(
+        line.get(Metrics.HANDLER_DIMENSION).asText(),
+        is(equalTo(QueryNfrFundingsHandler.class.getSimpleName())));
+    assertThat(line.get(MetricNames.UPSTREAM_STATUS_PREFIX + 200).asLong(), is(equalTo(1L)));
+    assertThat(line.at("/" + MetricNames.HITS_PER_PAGE + "/Values/0").asInt(), is(equalTo(3)));
+    assertThat(line.has(MetricNames.UPSTREAM_LATENCY), is(true));
+    assertThat(line.has(MetricNames.MAPPING_TIME), is(true));
+    assertThat(line.has(MetricNames.SERIALIZATION_TIME), is(true));
+  }
+
+  @Test
+  void shouldTracePhasesOfTermQuery() throws IOException {
+    var spans = new InMemorySpanExporter();
+    handlerUnderTest =
+        new QueryNfrFundingsHandler(
+            environment,
+            apiClient,
+            NfrFundingIndex::empty,
+            LeadNameIndex::empty,
+            new Metrics(),
+            new Tracer(spans, Clock.systemUTC()));
+    var term = randomString();
+    stubber.withRandomMatches(term, 3, 0, 3);
+
+    handlerUnderTest.handleRequest(termPageRequest(term, 3), output, context);
+
+    var finished = spans.getFinishedSpans();
+    assertThat(
+        finished.stream().map(SpanData::name).toList(),
+        contains(
+            SpanNames.VALIDATE,
+            SpanNames.PARSE,
+            SpanNames.UPSTREAM_REQUEST,
+            SpanNames.UPSTREAM_QUERY,
+            SpanNames.SEARCH,
+            SpanNames.MAP,
+            SpanNames.SERIALIZE,
+            QueryNfrFundingsHandler.class.getSimpleName()));
+    assertThat(finished.get(6).attributes().get(SpanNames.HITS), is(equalTo(3)));
+    assertThat(
+        finished.get(7).attributes().get(SpanNames.INVOCATION_ID),
+        is(equalTo(context.getAwsRequestId())));
+  }
+
+  private QueryNfrFundingsHandler handler(NfrFundingSource client) {
+    return handler(client, NfrFundingIndex::empty, LeadNameIndex::empty);
+  }
+
+  private QueryNfrFundingsHandler handler(
+      NfrFundingSource client,
+      Supplier<NfrFundingIndex> termIndex,
+      Supplier<LeadNameIndex> leadNameIndex) {
+    return new QueryNfrFundingsHandler(
+        environment,
+        client,
+        termIndex,
+        leadNameIndex,
+        new Metrics(),
+        Tracer.fromEnvironment(environment));
+  }
+
+  private PagedSearchResult<Funding> queryByName(String name, int offset, int size)
+      throws IOException {
+    return query(NAME, name, offset, size);
+  }
+
+  private PagedSearchResult<Funding> queryByTerm(String term, int offset, int size)
+      throws IOException {
+    return query(TERM, term, offset, size);
+  }
+
+  private PagedSearchResult<Funding> query(
+      String queryParameter, String value, int offset, int size) throws IOException {
+    var input =
+        new HandlerRequestBuilder<Void>(dtoObjectMapper)
+            .withQueryParameters(
+                Map.of(
+                    queryParameter, value,
+                    OFFSET, Integer.toString(offset),
+                    SIZE, Integer.toString(size)))
             .build();
-    verify(httpClient).send(expectedRequest, BodyHandlers.ofString());
+
+    handlerUnderTest.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+
+    @SuppressWarnings("unchecked")
+    PagedSearchResult<Funding> searchResult = response.getBodyObject(PagedSearchResult.class);
+    return searchResult;
+  }
+
+  private static List<Integer> projectIds(PagedSearchResult<Funding> searchResult) {
+    // need to "help" jackson due to type erasure:
+    List<Funding> hits =
+        dtoObjectMapper.convertValue(searchResult.getHits(), new TypeReference<>() {});
+    return hits.stream().map(funding -> Integer.parseInt(funding.getIdentifier())).toList();
+  }
+
+  private static InputStream termPageRequest(String term, int size) throws IOException {
+    return termPageRequest(term, size, Map.of());
+  }
+
+  private static InputStream termPageRequest(String term, int size, Map<String, String> headers)
+      throws IOException {
+    return new HandlerRequestBuilder<Void>(dtoObjectMapper)
+        .withQueryParameters(Map.of(TERM, term, SIZE, Integer.toString(size)))
+        .withHeaders(headers)
+        .build();
   }
 }
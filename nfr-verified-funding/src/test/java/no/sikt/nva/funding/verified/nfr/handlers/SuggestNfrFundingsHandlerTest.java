@@ -0,0 +1,214 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.ALLOWED_ORIGIN;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_DOMAIN;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.API_HOST;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.funding.verified.nfr.EnvironmentKeys.CUSTOM_DOMAIN_NAME_PATH;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.text.IsEmptyString.emptyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.metrics.Metrics;
+import no.sikt.nva.funding.verified.nfr.model.Funding;
+import no.sikt.nva.funding.verified.nfr.model.PagedSearchResult;
+import no.sikt.nva.funding.verified.nfr.search.NfrFundingPrefixIndex;
+import no.sikt.nva.funding.verified.nfr.tracing.Tracer;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import no.unit.nva.testutils.HandlerRequestBuilder;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.zalando.problem.Problem;
+
+@WireMockTest(httpsEnabled = true)
+class SuggestNfrFundingsHandlerTest {
+
+  private static final String PREFIX = "prefix";
+  private static final String OFFSET = "offset";
+  private static final String SIZE = "size";
+  private static final String TITLE = "title";
+  private static final String SUGGEST_URI = "https://localhost/verified-funding/nfr/suggest";
+  private final Context context = new FakeContext();
+  private SuggestNfrFundingsHandler handlerUnderTest;
+  private NfrApiStubber stubber;
+  private ByteArrayOutputStream output;
+  private Environment environment;
+  private NfrApiClient apiClient;
+
+  @BeforeEach
+  void setup(WireMockRuntimeInfo runtimeInfo) {
+    this.environment = mock(Environment.class);
+
+    when(environment.readEnv(API_DOMAIN)).thenReturn("localhost");
+    when(environment.readEnv(ALLOWED_ORIGIN)).thenReturn("*");
+    when(environment.readEnv(CUSTOM_DOMAIN_NAME_PATH)).thenReturn("verified-funding");
+    when(environment.readEnv(API_HOST)).thenReturn("localhost");
+    when(environment.readEnv(COGNITO_AUTHORIZER_URLS)).thenReturn("http://localhost:3000");
+
+    var httpClient = WiremockHttpClient.create();
+    apiClient = new NfrApiClient(httpClient, URI.create(runtimeInfo.getHttpsBaseUrl()));
+    handlerUnderTest = handler(NfrFundingPrefixIndex::empty);
+    stubber = new NfrApiStubber();
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldSuggestFromSnapshotPrefixIndexWithoutCallingUpstream() throws IOException {
+    var fundings =
+        IntStream.rangeClosed(1, 5)
+            .mapToObj(
+                projectId ->
+                    new NfrFunding(
+                        projectId,
+                        Instant.parse("2020-01-0" + projectId + "T00:00:00Z"),
+                        Instant.parse("2024-01-01T00:00:00Z"),
+                        randomString(),
+                        Map.of(TITLE, "Marine ecology " + projectId),
+                        Map.of(TITLE, "Marin økologi " + projectId)))
+            .toList();
+    handlerUnderTest = handler(() -> NfrFundingPrefixIndex.build(fundings));
+
+    var suggestions = suggest("Mari", 2, 2);
+
+    assertThat(suggestions.getTotalSize(), is(equalTo(5)));
+    assertThat(projectIds(suggestions), contains(3, 2));
+    assertThat(
+        suggestions.getNextResults(),
+        is(equalTo(URI.create(SUGGEST_URI + "?prefix=Mari&offset=4&size=2"))));
+    WireMock.verify(0, getRequestedFor(urlPathEqualTo("/search")));
+  }
+
+  @Test
+  void shouldSearchUpstreamForPrefixUntilSnapshotHasBeenHarvested() throws IOException {
+    var prefix = randomString();
+    var matches = stubber.withRandomMatches(prefix, 3, 0, 10);
+
+    var suggestions = suggest(prefix, 0, 10);
+
+    assertThat(suggestions.getTotalSize(), is(equalTo(3)));
+    var expectedProjectIds = matches.stream().map(NfrFunding::getProjectId).toArray(Integer[]::new);
+    assertThat(projectIds(suggestions), containsInAnyOrder(expectedProjectIds));
+  }
+
+  @Test
+  void shouldReturnNotModifiedWhenIfNoneMatchHoldsEntityTagOfSuggestions() throws Exception {
+    var prefix = randomString();
+    stubber.withRandomMatches(prefix, 3, 0, 10);
+
+    handlerUnderTest.handleRequest(request(Map.of(PREFIX, prefix), Map.of()), output, context);
+    var page = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    var entityTag = page.getHeaders().get(EntityTag.ETAG_HEADER);
+    output = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(
+        request(Map.of(PREFIX, prefix), Map.of(EntityTag.IF_NONE_MATCH_HEADER, entityTag)),
+        output,
+        context);
+    var notModified = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+
+    assertThat(entityTag, is(notNullValue()));
+    assertThat(notModified.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_NOT_MODIFIED)));
+    assertThat(notModified.getBody(), is(emptyString()));
+    assertThat(
+        page.getHeaders().get(CachePolicy.CACHE_CONTROL_HEADER), is(equalTo("public, max-age=60")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "  "})
+  void blankPrefixShouldGiveBadRequest(String prefix) throws IOException {
+    var problem = badRequest(Map.of(PREFIX, prefix));
+
+    assertThat(problem.getDetail(), is(equalTo("'prefix' query parameter must not be blank!")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"0", "51", "1a"})
+  void sizeOutsideOneToFiftyShouldGiveBadRequest(String size) throws IOException {
+    var problem = badRequest(Map.of(PREFIX, "ocean", SIZE, size));
+
+    assertThat(problem.getDetail(), is(equalTo("Size must be a positive integer of at most 50!")));
+  }
+
+  @Test
+  void negativeOffsetShouldGiveBadRequest() throws IOException {
+    var problem = badRequest(Map.of(PREFIX, "ocean", OFFSET, "-1"));
+
+    assertThat(problem.getDetail(), is(equalTo("Offset must be a zero or positive integer!")));
+  }
+
+  private SuggestNfrFundingsHandler handler(Supplier<NfrFundingPrefixIndex> prefixIndex) {
+    return new SuggestNfrFundingsHandler(
+        environment, apiClient, prefixIndex, new Metrics(), Tracer.fromEnvironment(environment));
+  }
+
+  private Problem badRequest(Map<String, String> queryParameters) throws IOException {
+    handlerUnderTest.handleRequest(request(queryParameters, Map.of()), output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_REQUEST)));
+    return dtoObjectMapper.readValue(response.getBody(), Problem.class);
+  }
+
+  private PagedSearchResult<Funding> suggest(String prefix, int offset, int size)
+      throws IOException {
+    var queryParameters = new HashMap<String, String>();
+    queryParameters.put(PREFIX, prefix);
+    queryParameters.put(OFFSET, Integer.toString(offset));
+    queryParameters.put(SIZE, Integer.toString(size));
+    handlerUnderTest.handleRequest(request(queryParameters, Map.of()), output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PagedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+
+    @SuppressWarnings("unchecked")
+    PagedSearchResult<Funding> suggestions = response.getBodyObject(PagedSearchResult.class);
+    return suggestions;
+  }
+
+  private static List<Integer> projectIds(PagedSearchResult<Funding> searchResult) {
+    // need to "help" jackson due to type erasure:
+    List<Funding> hits =
+        dtoObjectMapper.convertValue(searchResult.getHits(), new TypeReference<>() {});
+    return hits.stream().map(funding -> Integer.parseInt(funding.getIdentifier())).toList();
+  }
+
+  private static InputStream request(
+      Map<String, String> queryParameters, Map<String, String> headers) throws IOException {
+    return new HandlerRequestBuilder<Void>(dtoObjectMapper)
+        .withQueryParameters(queryParameters)
+        .withHeaders(headers)
+        .build();
+  }
+}
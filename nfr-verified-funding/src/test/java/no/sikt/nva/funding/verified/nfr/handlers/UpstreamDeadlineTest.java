@@ -0,0 +1,48 @@
+package no.sikt.nva.funding.verified.nfr.handlers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class UpstreamDeadlineTest {
+
+  private static final Duration BUDGET = Duration.ofSeconds(10);
+
+  @ParameterizedTest
+  @CsvSource({"0, 10000", "-5, 10000", "30000, 10000", "3000, 2500", "400, 1"})
+  void shouldShortenBudgetToWhatTheInvocationHasLeft(int remainingMillis, long expectedMillis) {
+    var context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(remainingMillis);
+
+    assertThat(
+        UpstreamDeadline.within(context, BUDGET), is(equalTo(Duration.ofMillis(expectedMillis))));
+  }
+
+  @Test
+  void shouldNeverGiveLessThanOneMillisecondUntilDeadline() {
+    assertThat(
+        UpstreamDeadline.until(Instant.now().minusSeconds(1)), is(equalTo(Duration.ofMillis(1))));
+  }
+
+  @Test
+  void shouldReadRequestTimeoutFromEnvironment() {
+    var environment = mock(Environment.class);
+    assertThat(UpstreamDeadline.requestTimeout(environment), is(equalTo(BUDGET)));
+
+    when(environment.readEnvOpt(EnvironmentKeys.HTTP_REQUEST_TIMEOUT_MILLIS))
+        .thenReturn(Optional.of("2500"));
+    assertThat(UpstreamDeadline.requestTimeout(environment), is(equalTo(Duration.ofMillis(2500))));
+  }
+}
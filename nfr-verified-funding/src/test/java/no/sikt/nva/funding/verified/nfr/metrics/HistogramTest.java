@@ -0,0 +1,41 @@
+package no.sikt.nva.funding.verified.nfr.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HistogramTest {
+
+  @ParameterizedTest
+  @ValueSource(longs = {0, 1, 31, 63})
+  void shouldCountSmallValuesExactly(long value) {
+    assertThat(Histogram.bucketOf(value), is(equalTo(value)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = {64, 65, 100, 1_000, 12_345, 1_000_000, 987_654_321})
+  void shouldPutLargeValuesInBucketWithinOneThirtySecondOfValue(long value) {
+    var bucket = Histogram.bucketOf(value);
+
+    assertThat((double) Math.abs(bucket - value), is(lessThanOrEqualTo(value / 32.0)));
+  }
+
+  @Test
+  void shouldCountValuesPerBucketAndAddOtherHistograms() {
+    var histogram = new Histogram();
+    histogram.record(10);
+    histogram.record(-1);
+    var other = new Histogram();
+    other.record(10);
+
+    histogram.addAll(other);
+
+    assertThat(histogram.bucketCounts(), is(equalTo(Map.of(0L, 1L, 10L, 2L))));
+  }
+}
@@ -0,0 +1,175 @@
+package no.sikt.nva.funding.verified.nfr.metrics;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.CloseResource")
+class MetricsTest {
+
+  private static final String HANDLER = "SomeHandler";
+  private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+  private static final String COUNTED = "Counted";
+  private static final String TIMED = "Timed";
+
+  private List<String> lines;
+  private Metrics metrics;
+
+  @BeforeEach
+  void setup() {
+    lines = new ArrayList<>();
+    metrics = new Metrics(lines::add, Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void shouldWriteCountsAsEmbeddedMetricFormatLine() throws JsonProcessingException {
+    metrics.count(COUNTED);
+    metrics.count(COUNTED, 2);
+
+    metrics.flush(HANDLER);
+
+    var line = singleLine();
+    var definition = line.at("/_aws/CloudWatchMetrics/0");
+    assertThat(line.at("/_aws/Timestamp").asLong(), is(equalTo(NOW.toEpochMilli())));
+    assertThat(definition.get("Namespace").asText(), is(equalTo(Metrics.NAMESPACE)));
+    assertThat(definition.at("/Dimensions/0/0").asText(), is(equalTo(Metrics.HANDLER_DIMENSION)));
+    assertThat(definition.at("/Metrics/0/Name").asText(), is(equalTo(COUNTED)));
+    assertThat(definition.at("/Metrics/0/Unit").asText(), is(equalTo("Count")));
+    assertThat(line.get(Metrics.HANDLER_DIMENSION).asText(), is(equalTo(HANDLER)));
+    assertThat(line.get(COUNTED).asLong(), is(equalTo(3L)));
+  }
+
+  @Test
+  void shouldWriteDurationsInMillisecondsAsValuesAndCounts() throws JsonProcessingException {
+    metrics.recordDuration(TIMED, 2_000_000);
+    metrics.recordDuration(TIMED, 2_000_000);
+    metrics.recordDuration(TIMED, 5_000);
+
+    metrics.flush(HANDLER);
+
+    var line = singleLine();
+    assertThat(line.at("/_aws/CloudWatchMetrics/0/Metrics/0/Unit").asText(), is("Milliseconds"));
+    assertThat(values(line.at("/" + TIMED + "/Values")), contains(0.005, 2.0));
+    assertThat(values(line.at("/" + TIMED + "/Counts")), contains(1.0, 2.0));
+  }
+
+  @Test
+  void shouldWriteRecordedValuesAsCounts() throws JsonProcessingException {
+    metrics.recordValue(COUNTED, 10);
+
+    metrics.flush(HANDLER);
+
+    var line = singleLine();
+    assertThat(line.at("/_aws/CloudWatchMetrics/0/Metrics/0/Unit").asText(), is("Count"));
+    assertThat(values(line.at("/" + COUNTED + "/Values")), contains(10.0));
+  }
+
+  @Test
+  void shouldRecordDurationOfTimedWork() throws JsonProcessingException {
+    var result = metrics.time(TIMED, () -> COUNTED);
+
+    metrics.flush(HANDLER);
+
+    assertThat(result, is(equalTo(COUNTED)));
+    assertThat(values(singleLine().at("/" + TIMED + "/Counts")), contains(1.0));
+  }
+
+  @Test
+  void shouldRecordStartedTimerWhenFlushed() throws JsonProcessingException {
+    metrics.startTimer(TIMED);
+
+    metrics.flush(HANDLER);
+    metrics.flush(HANDLER);
+
+    assertThat(lines, hasSize(1));
+    assertThat(values(singleLine().at("/" + TIMED + "/Counts")), contains(1.0));
+  }
+
+  @Test
+  void shouldWriteIncreaseOfRegisteredCounterSinceRegistrationAndPreviousFlush()
+      throws JsonProcessingException {
+    var cumulative = new AtomicLong(5);
+    metrics.registerCounter(COUNTED, cumulative::get);
+    cumulative.addAndGet(2);
+    metrics.flush(HANDLER);
+    var first = singleLine();
+    lines.clear();
+    cumulative.addAndGet(3);
+    metrics.flush(HANDLER);
+
+    assertThat(first.get(COUNTED).asLong(), is(equalTo(2L)));
+    assertThat(singleLine().get(COUNTED).asLong(), is(equalTo(3L)));
+  }
+
+  @Test
+  void shouldWriteIncludedMetricsTogetherWithOwn() throws JsonProcessingException {
+    var included = new Metrics();
+    metrics.include(included);
+    metrics.count(COUNTED);
+    included.count(COUNTED);
+    included.recordDuration(TIMED, 1_000_000);
+
+    metrics.flush(HANDLER);
+
+    var line = singleLine();
+    assertThat(line.get(COUNTED).asLong(), is(equalTo(2L)));
+    assertThat(values(line.at("/" + TIMED + "/Values")), contains(1.0));
+  }
+
+  @Test
+  void shouldNotWriteLineWhenNothingWasRecorded() {
+    metrics.registerCounter(COUNTED, () -> 1);
+
+    metrics.flush(HANDLER);
+
+    assertThat(lines, is(empty()));
+  }
+
+  @Test
+  void shouldWriteToStandardOutput() {
+    var original = System.out;
+    var captured = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+    try {
+      var standardOutput = Metrics.toStandardOutput();
+      standardOutput.count(COUNTED);
+      standardOutput.flush(HANDLER);
+    } finally {
+      System.setOut(original);
+    }
+
+    assertThat(captured.toString(StandardCharsets.UTF_8).contains(Metrics.NAMESPACE), is(true));
+  }
+
+  private JsonNode singleLine() throws JsonProcessingException {
+    assertThat(lines, hasSize(1));
+    var line = dtoObjectMapper.readTree(lines.get(0));
+    assertThat(line, is(notNullValue()));
+    return line;
+  }
+
+  private static List<Double> values(JsonNode array) {
+    var values = new ArrayList<Double>();
+    array.forEach(value -> values.add(value.asDouble()));
+    return values;
+  }
+}
@@ -0,0 +1,62 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+class FundingTokenizerTest {
+
+  @Test
+  void shouldLowerCaseAndSplitOnNonLetters() {
+    assertThat(
+        FundingTokenizer.tokenize("Climate-Change, 2030!"), contains("climate", "change", "2030"));
+  }
+
+  @Test
+  void shouldFoldNorwegianLettersAndOtherAccents() {
+    assertThat(
+        FundingTokenizer.tokenize("Økologi på Svalbard — Café Ærlig Ärlig Ål"),
+        contains("okologi", "svalbard", "cafe", "aerlig", "aerlig", "al"));
+  }
+
+  @Test
+  void shouldFoldLettersTheWayLeadNamesAreNormalized() {
+    var name = "Bjørn Ärlig-Öberg Åsen";
+
+    assertThat(
+        String.join(" ", FundingTokenizer.tokenize(name)),
+        is(LeadNameIndex.normalize(name).replace('-', ' ')));
+  }
+
+  @Test
+  void shouldDropStopWordsAndSingleLetters() {
+    assertThat(
+        FundingTokenizer.tokenize("Kunnskap om havet og the state of a sea i 5 år"),
+        contains("kunnskap", "havet", "state", "sea", "5", "ar"));
+  }
+
+  @Test
+  void shouldReadTrailingTermAsFoldedPrefixEvenWhenItIsAStopWordOrSingleLetter() {
+    assertThat(FundingTokenizer.prefix("Klima og Ö"), is("o"));
+    assertThat(FundingTokenizer.prefix("Klima og Æ"), is("ae"));
+    assertThat(FundingTokenizer.prefix("climate ÉC"), is("ec"));
+    assertThat(FundingTokenizer.prefix("climate of"), is("of"));
+    assertThat(FundingTokenizer.prefix("climate "), is(""));
+    assertThat(FundingTokenizer.prefix(null), is(""));
+  }
+
+  @Test
+  void shouldReadTextBeforeTrailingTermAsItWasTyped() {
+    assertThat(FundingTokenizer.beforePrefix("Klima og Æ"), is("Klima og "));
+    assertThat(FundingTokenizer.beforePrefix("climate "), is("climate "));
+    assertThat(FundingTokenizer.beforePrefix(null), is(""));
+  }
+
+  @Test
+  void shouldReturnNoTermsForMissingText() {
+    assertThat(FundingTokenizer.tokenize(null), is(empty()));
+  }
+}
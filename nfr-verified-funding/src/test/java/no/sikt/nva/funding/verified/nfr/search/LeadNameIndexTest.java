@@ -0,0 +1,88 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LeadNameIndexTest {
+
+  private LeadNameIndex index;
+
+  @BeforeEach
+  void setup() {
+    index =
+        LeadNameIndex.build(
+            List.of(
+                funding(1, "2020", "Bjørn Ærlig-Åsen"),
+                funding(2, "2023", "Bjørn  Ærlig-Åsen "),
+                funding(3, "2021", "bjorn aerlig-asen"),
+                funding(4, "2022", "Bjørn Ærlig"),
+                funding(5, "2022", "José Müller")));
+  }
+
+  @Test
+  void shouldNormalizeCaseWhitespaceAndNorwegianAndOtherAccentedLetters() {
+    assertThat(LeadNameIndex.normalize(" Bjørn\t ÆRLIG-Åsen "), is(equalTo("bjorn aerlig-asen")));
+    assertThat(LeadNameIndex.normalize("José Müller"), is(equalTo("jose muller")));
+    assertThat(LeadNameIndex.normalize("Ärlig Öberg"), is(equalTo("aerlig oberg")));
+    assertThat(LeadNameIndex.normalize(null), is(equalTo("")));
+  }
+
+  @Test
+  void shouldFindExactNormalizedNameMatchesMostRecentlyActiveFirst() {
+    var result = index.search("BJORN AERLIG-ÅSEN", 0, 10);
+
+    assertThat(result.totalSize(), is(equalTo(3)));
+    assertThat(projectIds(result), contains(2, 3, 1));
+    assertThat(projectIds(index.search("jose muller", 0, 10)), contains(5));
+  }
+
+  @Test
+  void shouldNotMatchPartOfName() {
+    assertThat(index.search("Bjørn", 0, 10).totalSize(), is(equalTo(0)));
+    assertThat(projectIds(index.search("Bjørn Ærlig", 0, 10)), contains(4));
+  }
+
+  @Test
+  void shouldReturnRequestedPageWithExactTotal() {
+    var result = index.search("bjorn aerlig-asen", 1, 1);
+
+    assertThat(result.totalSize(), is(equalTo(3)));
+    assertThat(projectIds(result), contains(3));
+    assertThat(index.search("bjorn aerlig-asen", 3, 10).hits(), is(empty()));
+    assertThat(index.search("bjorn aerlig-asen", 5, 10).totalSize(), is(equalTo(3)));
+  }
+
+  @Test
+  void shouldBeEmptyForEmptySnapshot() {
+    var empty = LeadNameIndex.fromSnapshot(NfrCatalogSnapshot.empty());
+
+    assertThat(empty.isEmpty(), is(true));
+    assertThat(LeadNameIndex.empty().isEmpty(), is(true));
+    assertThat(index.size(), is(equalTo(5)));
+  }
+
+  private static List<Integer> projectIds(NfrFundingIndex.Result result) {
+    return result.hits().stream().map(NfrFunding::getProjectId).toList();
+  }
+
+  private static NfrFunding funding(int projectId, String year, String leadName) {
+    return new NfrFunding(
+        projectId,
+        Instant.parse(year + "-01-01T00:00:00Z"),
+        Instant.parse("2026-01-01T00:00:00Z"),
+        leadName,
+        Map.of("title", "Project " + projectId),
+        Map.of("title", "Prosjekt " + projectId));
+  }
+}
@@ -0,0 +1,109 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NfrFundingIndexTest {
+
+  private static final String OCEAN_QUERY = "ocean";
+
+  private NfrFundingIndex index;
+
+  @BeforeEach
+  void setup() {
+    index =
+        NfrFundingIndex.build(
+            List.of(
+                funding(4, "Kari Nordmann", "Ocean acidification", "Havforsuring"),
+                funding(2, "Ola Nordmann", "Ocean ocean currents", "Havstrømmer"),
+                funding(
+                    3,
+                    "Per Hansen",
+                    "Arctic ocean ecology and the long history of sea ice",
+                    "Arktisk økologi"),
+                funding(1, "Kari Hansen", "Forest ecology", "Skogøkologi")));
+  }
+
+  @Test
+  void shouldRankFundingsByBm25Score() {
+    var result = index.search(OCEAN_QUERY, 0, 10);
+
+    assertThat(result.totalSize(), is(equalTo(3)));
+    assertThat(projectIds(result), contains(2, 4, 3));
+  }
+
+  @Test
+  void shouldOnlyMatchFundingsContainingAllQueryTerms() {
+    assertThat(projectIds(index.search("ocean ecology", 0, 10)), contains(3));
+    assertThat(index.search("ocean fisheries", 0, 10).totalSize(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldMatchNorwegianTitlesLeadNamesAndProjectIds() {
+    assertThat(projectIds(index.search("ØKOLOGI", 0, 10)), contains(3));
+    assertThat(projectIds(index.search("Nordmann, Kari", 0, 10)), contains(4));
+    assertThat(projectIds(index.search("1", 0, 10)), contains(1));
+  }
+
+  @Test
+  void shouldReturnRequestedPageAndTotalSize() {
+    var result = index.search(OCEAN_QUERY, 1, 1);
+
+    assertThat(result.totalSize(), is(equalTo(3)));
+    assertThat(projectIds(result), contains(4));
+    assertThat(index.search(OCEAN_QUERY, 5, 10).hits(), is(empty()));
+  }
+
+  @Test
+  void shouldBreakScoreTiesByProjectId() {
+    var tied =
+        NfrFundingIndex.build(
+            IntStream.of(9, 7, 8).mapToObj(id -> funding(id, "Lead", "Same", "Samme")).toList());
+
+    assertThat(projectIds(tied.search("same", 0, 10)), contains(7, 8, 9));
+  }
+
+  @Test
+  void shouldMatchNothingForQueriesWithoutSearchableTerms() {
+    assertThat(index.search("the of og", 0, 10).totalSize(), is(equalTo(0)));
+    assertThat(NfrFundingIndex.hasSearchableTerms("the of og a"), is(false));
+    assertThat(NfrFundingIndex.hasSearchableTerms("the ocean"), is(true));
+  }
+
+  @Test
+  void shouldBeEmptyForEmptySnapshot() {
+    var empty = NfrFundingIndex.fromSnapshot(NfrCatalogSnapshot.empty());
+
+    assertThat(empty.isEmpty(), is(true));
+    assertThat(empty.size(), is(equalTo(0)));
+    assertThat(NfrFundingIndex.empty().isEmpty(), is(true));
+    assertThat(index.size(), is(equalTo(4)));
+  }
+
+  private static List<Integer> projectIds(NfrFundingIndex.Result result) {
+    return result.hits().stream().map(NfrFunding::getProjectId).toList();
+  }
+
+  private static NfrFunding funding(
+      int projectId, String leadName, String englishTitle, String norwegianTitle) {
+    return new NfrFunding(
+        projectId,
+        Instant.parse("2020-01-01T00:00:00Z"),
+        Instant.parse("2024-01-01T00:00:00Z"),
+        leadName,
+        Map.of("title", englishTitle),
+        Map.of("title", norwegianTitle));
+  }
+}
@@ -0,0 +1,94 @@
+package no.sikt.nva.funding.verified.nfr.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NfrFundingPrefixIndexTest {
+
+  private NfrFundingPrefixIndex index;
+
+  @BeforeEach
+  void setup() {
+    index =
+        NfrFundingPrefixIndex.build(
+            List.of(
+                funding(4, "2021", "Kari Nordmann", "Ocean acidification", "Havforsuring"),
+                funding(2, "2023", "Ola Nordmann", "Ocean currents", "Havstrømmer"),
+                funding(3, "2022", "Per Hansen", "Arctic ocean ecology", "Arktisk økologi"),
+                funding(1, "2023", "Kari Hansen", "Forest ecology", "Skogøkologi")));
+  }
+
+  @Test
+  void shouldMatchTermsStartingWithPrefixMostRecentlyActiveFirst() {
+    var result = index.suggest("oc", 0, 10);
+
+    assertThat(result.totalSize(), is(equalTo(3)));
+    assertThat(projectIds(result), contains(2, 3, 4));
+  }
+
+  @Test
+  void shouldRequireCompleteTermsAndMatchLastTermAsPrefix() {
+    assertThat(projectIds(index.suggest("ocean ec", 0, 10)), contains(3));
+    assertThat(projectIds(index.suggest("oce acid", 0, 10)), is(empty()));
+    assertThat(projectIds(index.suggest("ocean ", 0, 10)), contains(2, 3, 4));
+  }
+
+  @Test
+  void shouldMatchNorwegianTitlesLeadNamesAndProjectIdsAsPrefixes() {
+    assertThat(projectIds(index.suggest("ØKO", 0, 10)), contains(3));
+    assertThat(projectIds(index.suggest("Nordmann, K", 0, 10)), contains(4));
+    assertThat(projectIds(index.suggest("3", 0, 10)), contains(3));
+  }
+
+  @Test
+  void shouldBreakActivationTiesByHigherProjectIdAndReturnRequestedPage() {
+    var result = index.suggest("kari", 1, 1);
+
+    assertThat(result.totalSize(), is(equalTo(2)));
+    assertThat(projectIds(result), contains(4));
+    assertThat(projectIds(index.suggest("h", 0, 10)), contains(2, 1, 3, 4));
+    assertThat(index.suggest("h", 10, 10).hits(), is(empty()));
+  }
+
+  @Test
+  void shouldMatchNothingForQueriesWithoutTermsOrPrefix() {
+    assertThat(index.suggest("the ", 0, 10).totalSize(), is(equalTo(0)));
+    assertThat(index.suggest("", 0, 10).totalSize(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldBeEmptyForEmptySnapshot() {
+    var empty = NfrFundingPrefixIndex.fromSnapshot(NfrCatalogSnapshot.empty());
+
+    assertThat(empty.isEmpty(), is(true));
+    assertThat(empty.suggest("ocean", 0, 10).totalSize(), is(equalTo(0)));
+    assertThat(NfrFundingPrefixIndex.empty().isEmpty(), is(true));
+    assertThat(index.size(), is(equalTo(4)));
+  }
+
+  private static List<Integer> projectIds(NfrFundingIndex.Result result) {
+    return result.hits().stream().map(NfrFunding::getProjectId).toList();
+  }
+
+  private static NfrFunding funding(
+      int projectId, String year, String leadName, String englishTitle, String norwegianTitle) {
+    return new NfrFunding(
+        projectId,
+        Instant.parse(year + "-01-01T00:00:00Z"),
+        Instant.parse("2026-01-01T00:00:00Z"),
+        leadName,
+        Map.of("title", englishTitle),
+        Map.of("title", norwegianTitle));
+  }
+}
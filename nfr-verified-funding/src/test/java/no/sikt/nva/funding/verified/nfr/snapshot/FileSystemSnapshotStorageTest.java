@@ -0,0 +1,56 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemSnapshotStorageTest {
+
+  private static final String KEY = "snapshots/v1/part-00000.json.gz";
+  private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir private Path directory;
+  private FileSystemSnapshotStorage storage;
+
+  @BeforeEach
+  void setup() {
+    storage = new FileSystemSnapshotStorage(directory);
+  }
+
+  @Test
+  void shouldReadWhatWasWritten() throws IOException {
+    storage.write(KEY, CONTENT);
+
+    assertThat(storage.exists(KEY), is(true));
+    try (var in = storage.read(KEY).orElseThrow()) {
+      assertThat(in.readAllBytes(), is(equalTo(CONTENT)));
+    }
+  }
+
+  @Test
+  void shouldReturnEmptyWhenKeyIsMissing() throws IOException {
+    assertThat(storage.read(KEY).isPresent(), is(false));
+    assertThat(storage.exists(KEY), is(false));
+  }
+
+  @Test
+  void shouldNotFindKeyAfterDelete() throws IOException {
+    storage.write(KEY, CONTENT);
+    storage.delete(KEY);
+
+    assertThat(storage.exists(KEY), is(false));
+  }
+
+  @Test
+  void shouldRejectKeysOutsideDirectory() {
+    assertThrows(IllegalArgumentException.class, () -> storage.write("../outside", CONTENT));
+  }
+}
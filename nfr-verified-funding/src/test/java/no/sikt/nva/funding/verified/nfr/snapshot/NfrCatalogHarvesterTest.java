@@ -0,0 +1,105 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import no.sikt.nva.funding.verified.nfr.MutableClock;
+import no.sikt.nva.funding.verified.nfr.client.NfrApiClient;
+import no.sikt.nva.funding.verified.nfr.handlers.NfrApiStubber;
+import no.sikt.nva.funding.verified.nfr.snapshot.NfrCatalogHarvester.HarvestSettings;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@WireMockTest(httpsEnabled = true)
+class NfrCatalogHarvesterTest {
+
+  private static final String QUERY = "*";
+  private static final int PAGE_SIZE = 10;
+  private static final int TOTAL_HITS = 45;
+  private static final String SEARCH_PATH = "/search";
+  private static final String FROM = "from";
+
+  @TempDir private Path directory;
+  private NfrApiStubber stubber;
+  private SnapshotStorage storage;
+  private NfrCatalogHarvester harvester;
+
+  @BeforeEach
+  void setup(WireMockRuntimeInfo runtimeInfo) {
+    var apiClient =
+        new NfrApiClient(WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()));
+    storage = new FileSystemSnapshotStorage(directory);
+    harvester =
+        new NfrCatalogHarvester(
+            apiClient,
+            storage,
+            new MutableClock(Instant.parse("2024-01-01T00:00:00Z")),
+            new HarvestSettings(QUERY, PAGE_SIZE, 2, Duration.ofSeconds(5)));
+    stubber = new NfrApiStubber();
+  }
+
+  @Test
+  void shouldWriteEveryUpstreamPageToANewSnapshotVersion() throws Exception {
+    var catalog = stubber.withCatalogPages(QUERY, TOTAL_HITS, PAGE_SIZE);
+
+    var manifest = harvester.harvest();
+
+    assertThat(manifest.version(), is("20240101T000000Z"));
+    assertThat(manifest.partCount(), is(5));
+    assertThat(storage.exists(SnapshotKeys.IN_PROGRESS), is(false));
+    assertThat(storage.exists(SnapshotKeys.manifest(manifest.version())), is(true));
+
+    var snapshot = NfrCatalogSnapshot.loadLatest(storage).orElseThrow();
+    assertThat(snapshot.getVersion(), is(manifest.version()));
+    assertThat(snapshot.size(), is(TOTAL_HITS));
+    for (var funding : catalog) {
+      var stored = snapshot.findByProjectId(funding.getProjectId()).orElseThrow();
+      assertThat(stored.getLeadName(), is(funding.getLeadName()));
+      assertThat(stored.getActiveFrom(), is(funding.getActiveFrom()));
+      assertThat(stored.getEnglishMetadata(), is(funding.getEnglishMetadata()));
+    }
+  }
+
+  @Test
+  void shouldResumeFailedHarvestFetchingOnlyMissingParts() throws Exception {
+    stubber.withCatalogPages(QUERY, TOTAL_HITS, PAGE_SIZE);
+    stubber.withFailingCatalogPage(QUERY, 20, PAGE_SIZE);
+
+    assertThrows(BadGatewayException.class, harvester::harvest);
+    assertThat(storage.exists(SnapshotKeys.IN_PROGRESS), is(true));
+    assertThat(NfrCatalogSnapshot.loadLatest(storage).isPresent(), is(false));
+
+    stubber.withCatalogPages(QUERY, TOTAL_HITS, PAGE_SIZE);
+    var manifest = harvester.harvest();
+
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)).withQueryParam(FROM, equalTo("0")));
+    verify(1, getRequestedFor(urlPathEqualTo(SEARCH_PATH)).withQueryParam(FROM, equalTo("10")));
+    verify(2, getRequestedFor(urlPathEqualTo(SEARCH_PATH)).withQueryParam(FROM, equalTo("20")));
+    assertThat(NfrCatalogSnapshot.loadLatest(storage).orElseThrow().size(), is(TOTAL_HITS));
+    assertThat(manifest.version(), is("20240101T000000Z"));
+  }
+
+  @Test
+  void shouldFailWhenPartOfLatestSnapshotIsMissing() throws IOException, BadGatewayException {
+    stubber.withCatalogPages(QUERY, TOTAL_HITS, PAGE_SIZE);
+    var manifest = harvester.harvest();
+    storage.delete(SnapshotKeys.part(manifest.version(), 1));
+
+    assertThrows(IOException.class, () -> NfrCatalogSnapshot.loadLatest(storage));
+  }
+}
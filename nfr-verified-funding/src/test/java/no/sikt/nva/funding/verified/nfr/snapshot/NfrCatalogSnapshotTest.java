@@ -0,0 +1,52 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NfrCatalogSnapshotTest {
+
+  @TempDir private Path directory;
+  private Environment environment;
+
+  @BeforeEach
+  void setup() {
+    environment = mock(Environment.class);
+  }
+
+  @Test
+  void shouldBeEmptyWhenNoStorageIsConfigured() {
+    var snapshot = NfrCatalogSnapshot.fromEnvironment(environment);
+
+    assertThat(snapshot.size(), is(0));
+    assertThat(snapshot.findByProjectId(1).isPresent(), is(false));
+  }
+
+  @Test
+  void shouldBeEmptyWhenStorageHasNoSnapshotYet() {
+    when(environment.readEnvOpt(EnvironmentKeys.SNAPSHOT_DIRECTORY))
+        .thenReturn(Optional.of(directory.toString()));
+
+    assertThat(NfrCatalogSnapshot.fromEnvironment(environment).size(), is(0));
+  }
+
+  @Test
+  void shouldBeEmptyWhenLatestSnapshotCannotBeRead() throws Exception {
+    when(environment.readEnvOpt(EnvironmentKeys.SNAPSHOT_DIRECTORY))
+        .thenReturn(Optional.of(directory.toString()));
+    new FileSystemSnapshotStorage(directory)
+        .write(SnapshotKeys.LATEST, "not json".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(NfrCatalogSnapshot.fromEnvironment(environment).getVersion(), is("none"));
+  }
+}
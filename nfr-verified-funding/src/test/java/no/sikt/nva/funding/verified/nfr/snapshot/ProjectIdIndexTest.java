@@ -0,0 +1,62 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class ProjectIdIndexTest {
+
+  @Test
+  void shouldReturnOffsetOfStoredProjectIdAndNotFoundOtherwise() {
+    var index = new ProjectIdIndex(3);
+    index.put(0, 0);
+    index.put(-42, 1);
+    index.put(Integer.MAX_VALUE, 2);
+
+    assertThat(index.get(0), is(equalTo(0)));
+    assertThat(index.get(-42), is(equalTo(1)));
+    assertThat(index.get(Integer.MAX_VALUE), is(equalTo(2)));
+    assertThat(index.get(7), is(equalTo(ProjectIdIndex.NOT_FOUND)));
+    assertThat(index.size(), is(equalTo(3)));
+  }
+
+  @Test
+  void shouldReplaceOffsetAndReturnPreviousOneForKnownProjectId() {
+    var index = new ProjectIdIndex(1);
+
+    assertThat(index.put(5, 0), is(equalTo(ProjectIdIndex.NOT_FOUND)));
+    assertThat(index.put(5, 3), is(equalTo(0)));
+    assertThat(index.get(5), is(equalTo(3)));
+    assertThat(index.size(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldGrowBeyondExpectedSizeAndKeepCollidingKeysApart() {
+    var index = new ProjectIdIndex(4);
+    var initialCapacity = index.capacity();
+    var entries = 10_000;
+    for (int offset = 0; offset < entries; offset++) {
+      index.put(offset * initialCapacity, offset);
+    }
+
+    assertThat(index.size(), is(equalTo(entries)));
+    for (int offset = 0; offset < entries; offset++) {
+      assertThat(index.get(offset * initialCapacity), is(equalTo(offset)));
+    }
+    assertThat(index.capacity() > entries, is(true));
+  }
+
+  @Test
+  void shouldSizeBackingArraysForExpectedEntries() {
+    assertThat(new ProjectIdIndex(50_000).capacity(), is(equalTo(131_072)));
+    assertThat(new ProjectIdIndex(0).capacity(), is(equalTo(8)));
+  }
+
+  @Test
+  void shouldRejectNegativeOffsets() {
+    assertThrows(IllegalArgumentException.class, () -> new ProjectIdIndex(1).put(1, -1));
+  }
+}
@@ -0,0 +1,90 @@
+package no.sikt.nva.funding.verified.nfr.snapshot;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+class S3SnapshotStorageTest {
+
+  private static final String BUCKET = "snapshots";
+  private static final String KEY = "snapshots/latest.json";
+  private static final byte[] CONTENT = "{}".getBytes(StandardCharsets.UTF_8);
+
+  private S3Client s3Client;
+  private S3SnapshotStorage storage;
+
+  @BeforeEach
+  void setup() {
+    s3Client = mock(S3Client.class);
+    storage = new S3SnapshotStorage(s3Client, BUCKET);
+  }
+
+  @Test
+  void shouldPutObjectInBucket() {
+    storage.write(KEY, CONTENT);
+
+    verify(s3Client)
+        .putObject(
+            eq(PutObjectRequest.builder().bucket(BUCKET).key(KEY).build()), any(RequestBody.class));
+  }
+
+  @Test
+  void shouldReadObjectFromBucket() throws IOException {
+    var request = GetObjectRequest.builder().bucket(BUCKET).key(KEY).build();
+    when(s3Client.getObject(request))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), new ByteArrayInputStream(CONTENT)));
+
+    try (var in = storage.read(KEY).orElseThrow()) {
+      assertThat(in.readAllBytes(), is(equalTo(CONTENT)));
+    }
+  }
+
+  @Test
+  void shouldReturnEmptyWhenObjectIsMissing() {
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenThrow(NoSuchKeyException.builder().build());
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenThrow(NoSuchKeyException.builder().build());
+
+    assertThat(storage.read(KEY).isPresent(), is(false));
+    assertThat(storage.exists(KEY), is(false));
+  }
+
+  @Test
+  void shouldReportExistingObject() {
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(HeadObjectResponse.builder().build());
+
+    assertThat(storage.exists(KEY), is(true));
+  }
+
+  @Test
+  void shouldDeleteObjectFromBucket() {
+    storage.delete(KEY);
+
+    verify(s3Client).deleteObject(DeleteObjectRequest.builder().bucket(BUCKET).key(KEY).build());
+  }
+}
@@ -0,0 +1,103 @@
+package no.sikt.nva.funding.verified.nfr.startup;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFunding;
+import no.sikt.nva.funding.verified.nfr.client.model.NfrFundingSearchResult;
+import no.sikt.nva.funding.verified.nfr.snapshot.FileSystemSnapshotStorage;
+import no.sikt.nva.funding.verified.nfr.snapshot.SnapshotKeys;
+import no.sikt.nva.funding.verified.nfr.snapshot.SnapshotManifest;
+import no.sikt.nva.funding.verified.nfr.snapshot.SnapshotParts;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContainerCatalogTest {
+
+  private static final String FIRST_VERSION = "20240101T030000Z";
+  private static final String SECOND_VERSION = "20240102T030000Z";
+
+  @TempDir private Path directory;
+  private FileSystemSnapshotStorage storage;
+  private Environment environment;
+
+  @BeforeEach
+  void setup() {
+    storage = new FileSystemSnapshotStorage(directory);
+    environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.SNAPSHOT_DIRECTORY))
+        .thenReturn(Optional.of(directory.toString()));
+  }
+
+  @AfterEach
+  void resetToEmptyCatalog() {
+    ContainerCatalog.refresh(mock(Environment.class));
+  }
+
+  @Test
+  void shouldSwitchToNewerSnapshotAndRebuildTermIndexOnRefresh() throws IOException {
+    publish(FIRST_VERSION, funding(1, "Ocean currents"));
+    ContainerCatalog.refresh(environment);
+    assertThat(ContainerCatalog.termIndex().search("ocean", 0, 10).totalSize(), is(equalTo(1)));
+
+    publish(SECOND_VERSION, funding(1, "Ocean currents"), funding(2, "Ocean acidification"));
+    ContainerCatalog.refresh(environment);
+
+    assertThat(ContainerCatalog.snapshot().getVersion(), is(equalTo(SECOND_VERSION)));
+    assertThat(ContainerCatalog.termIndex().search("ocean", 0, 10).totalSize(), is(equalTo(2)));
+    assertThat(ContainerCatalog.prefixIndex().suggest("oce", 0, 10).totalSize(), is(equalTo(2)));
+    assertThat(ContainerCatalog.leadNameIndex().size(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldKeepLoadedSnapshotWhenLatestVersionIsUnchangedOrUnreadable() throws IOException {
+    publish(FIRST_VERSION, funding(1, "Ocean currents"));
+    ContainerCatalog.refresh(environment);
+    var loaded = ContainerCatalog.snapshot();
+
+    ContainerCatalog.refresh(environment);
+    assertThat(ContainerCatalog.snapshot(), is(sameInstance(loaded)));
+
+    storage.write(SnapshotKeys.LATEST, "not json".getBytes(StandardCharsets.UTF_8));
+    ContainerCatalog.refresh(environment);
+    assertThat(ContainerCatalog.snapshot(), is(sameInstance(loaded)));
+  }
+
+  private void publish(String version, NfrFunding... fundings) throws IOException {
+    var hits = List.of(fundings);
+    storage.write(
+        SnapshotKeys.part(version, 0),
+        SnapshotParts.encode(new NfrFundingSearchResult(hits.size(), 0, hits.size(), hits)));
+    var manifest =
+        dtoObjectMapper.writeValueAsBytes(
+            new SnapshotManifest(version, Instant.now(), hits.size(), hits.size()));
+    storage.write(SnapshotKeys.manifest(version), manifest);
+    storage.write(SnapshotKeys.LATEST, manifest);
+  }
+
+  private static NfrFunding funding(int projectId, String title) {
+    return new NfrFunding(
+        projectId,
+        Instant.parse("2020-01-01T00:00:00Z"),
+        Instant.parse("2024-01-01T00:00:00Z"),
+        "Kari Nordmann",
+        Map.of("title", title),
+        Map.of("title", title));
+  }
+}
@@ -0,0 +1,41 @@
+package no.sikt.nva.funding.verified.nfr.startup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import no.sikt.nva.funding.verified.nfr.client.SharedHttpClient;
+import no.unit.nva.stubs.WiremockHttpClient;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SnapStartPrimingTest {
+
+  @BeforeAll
+  static void disableHostnameVerificationBeforeHttpClientInternalsAreLoaded() {
+    // the JDK reads the hostname verification flag the Wiremock client sets only once
+    WiremockHttpClient.create();
+  }
+
+  @Test
+  void shouldRunSyntheticPayloadThroughParsingMappingAndSerialization() throws IOException {
+    var serialized = SnapStartPriming.prime();
+
+    assertThat(serialized, containsString("https://priming.invalid/priming/nfr/1"));
+    assertThat(serialized, containsString("Priming climate research"));
+  }
+
+  @Test
+  void shouldPrimeBeforeCheckpointAndReplaceSharedHttpClientAfterRestore() throws IOException {
+    SnapStartPriming.register();
+    SnapStartPriming.register();
+    var beforeCheckpoint = SharedHttpClient.get();
+
+    SnapStartPriming.instance().beforeCheckpoint(null);
+    SnapStartPriming.instance().afterRestore(null);
+
+    assertThat(SharedHttpClient.get(), not(sameInstance(beforeCheckpoint)));
+  }
+}
@@ -0,0 +1,69 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SpanContextTest {
+
+  private static final String VERSION = "00-";
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String SPAN_ID = "00f067aa0ba902b7";
+  private static final String TRACEPARENT = VERSION + TRACE_ID + "-" + SPAN_ID + "-01";
+
+  @Test
+  void shouldReadContextFromTraceparent() {
+    var context = SpanContext.fromTraceparent(TRACEPARENT);
+
+    assertThat(context, is(equalTo(Optional.of(new SpanContext(TRACE_ID, SPAN_ID, true)))));
+    assertThat(context.get().traceparent(), is(equalTo(TRACEPARENT)));
+  }
+
+  @Test
+  void shouldReadTraceThatIsNotSampled() {
+    var context = SpanContext.fromTraceparent(VERSION + TRACE_ID + "-" + SPAN_ID + "-00");
+
+    assertThat(context.get().sampled(), is(false));
+    assertThat(context.get().traceparent().endsWith("-00"), is(true));
+  }
+
+  @ParameterizedTest
+  @NullSource
+  @ValueSource(
+      strings = {
+        "",
+        "garbage",
+        "01-" + TRACE_ID + "-" + SPAN_ID + "-01",
+        VERSION + TRACE_ID + "-" + SPAN_ID,
+        VERSION + "00000000000000000000000000000000-" + SPAN_ID + "-01",
+        VERSION + TRACE_ID + "-0000000000000000-01"
+      })
+  void shouldIgnoreMissingOrInvalidTraceparent(String traceparent) {
+    assertThat(SpanContext.fromTraceparent(traceparent), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void shouldStartSampledTraceWithValidIds() {
+    var context = SpanContext.newTrace();
+
+    assertThat(context.traceparent(), matchesPattern("00-[0-9a-f]{32}-[0-9a-f]{16}-01"));
+  }
+
+  @Test
+  void shouldGiveChildNewSpanIdInSameTrace() {
+    var parent = SpanContext.newTrace();
+
+    var child = parent.newChild();
+
+    assertThat(child.traceId(), is(equalTo(parent.traceId())));
+    assertThat(child.spanId(), is(not(equalTo(parent.spanId()))));
+  }
+}
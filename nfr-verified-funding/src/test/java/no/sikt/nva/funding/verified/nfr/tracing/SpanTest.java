@@ -0,0 +1,152 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.CloseResource")
+class SpanTest {
+
+  private static final String REQUEST = "request";
+  private static final String CHILD = "child";
+  private static final String KEY = "key";
+
+  private InMemorySpanExporter spans;
+  private Tracer tracer;
+
+  @BeforeEach
+  void setup() {
+    spans = new InMemorySpanExporter();
+    tracer = new Tracer(spans, Clock.systemUTC());
+  }
+
+  @AfterEach
+  void endRequest() {
+    tracer.endRequest();
+  }
+
+  @Test
+  void shouldRunWorkInChildThatIsCurrentWhileItRuns() {
+    var request = tracer.startRequestSpan(REQUEST, Map.of());
+
+    var current = request.inChild(CHILD, Span::current);
+    request.end();
+
+    var finished = spans.getFinishedSpans();
+    assertThat(finished.get(0).name(), is(equalTo(CHILD)));
+    assertThat(finished.get(0).context(), is(equalTo(spanContextOf(current))));
+    assertThat(finished.get(0).parentSpanId(), is(equalTo(finished.get(1).context().spanId())));
+    assertThat(finished.get(0).duration(), is(lessThanOrEqualTo(finished.get(1).duration())));
+    assertThat(Span.current().isRecording(), is(false));
+  }
+
+  @Test
+  void shouldRecordFailureOfWorkAndThrowItOn() {
+    var request = tracer.startRequestSpan(REQUEST, Map.of());
+
+    var failure =
+        assertThrows(
+            IOException.class,
+            () ->
+                request.inChild(
+                    CHILD,
+                    () -> {
+                      throw new IOException("failed");
+                    }));
+
+    var child = spans.getFinishedSpans().get(0);
+    assertThat(failure.getMessage(), is(equalTo("failed")));
+    assertThat(child.status(), is(equalTo(StatusCode.ERROR)));
+    assertThat(
+        child.attributes(),
+        is(
+            equalTo(
+                Map.of(
+                    Span.EXCEPTION_TYPE,
+                    IOException.class.getName(),
+                    Span.EXCEPTION_MESSAGE,
+                    "failed"))));
+    assertThat(Span.current(), is(request));
+  }
+
+  @Test
+  void shouldExportSpanOnceWithAttributesSetBeforeItEnded() {
+    var span = tracer.startRequestSpan(REQUEST, Map.of());
+
+    span.setAttribute(KEY, 1).setAttribute("missing", null);
+    span.end();
+    span.setAttribute(KEY, 2);
+    span.recordException(new IllegalStateException());
+    span.end();
+
+    assertThat(spans.getFinishedSpans().size(), is(equalTo(1)));
+    assertThat(spans.getFinishedSpans().get(0).attributes(), is(equalTo(Map.of(KEY, 1))));
+    assertThat(spans.getFinishedSpans().get(0).status(), is(equalTo(StatusCode.UNSET)));
+  }
+
+  @Test
+  void shouldNotMakeChildCurrentUnlessAsked() {
+    var request = tracer.startRequestSpan(REQUEST, Map.of());
+
+    var child = request.startChild(CHILD, SpanKind.CLIENT);
+
+    assertThat(Span.current(), is(request));
+    child.makeCurrent();
+    assertThat(Span.current(), is(child));
+    child.close();
+    assertThat(Span.current(), is(request));
+  }
+
+  @Test
+  void shouldRecordNothingOutsideOfTrace() throws Exception {
+    var span = Span.current();
+
+    var child = span.inChild(CHILD, Span::current);
+    child.setAttribute(KEY, 1).recordException(new IllegalStateException()).makeCurrent().end();
+
+    assertThat(span.isRecording(), is(false));
+    assertThat(child.isRecording(), is(false));
+    assertThat(child.traceparent(), is(equalTo(Optional.empty())));
+    assertThat(spans.getFinishedSpans(), is(empty()));
+  }
+
+  @Test
+  void shouldForgetSpansWhenReset() {
+    tracer.startRequestSpan(REQUEST, Map.of()).end();
+
+    spans.reset();
+
+    assertThat(spans.getFinishedSpans(), is(empty()));
+  }
+
+  @Test
+  void shouldEndSpansOfRequestThatAreStillCurrent() {
+    var request = tracer.startRequestSpan(REQUEST, Map.of());
+    request.startChild(CHILD, SpanKind.INTERNAL).makeCurrent();
+
+    tracer.endRequest();
+
+    assertThat(
+        spans.getFinishedSpans().stream().map(SpanData::name).toList(), contains(CHILD, REQUEST));
+    assertThat(Span.current().isRecording(), is(false));
+    assertThat(request.traceparent().isPresent(), is(true));
+    assertThat(Duration.ZERO, is(lessThanOrEqualTo(spans.getFinishedSpans().get(0).duration())));
+  }
+
+  private static SpanContext spanContextOf(Span span) {
+    return SpanContext.fromTraceparent(span.traceparent().orElseThrow()).orElseThrow();
+  }
+}
@@ -0,0 +1,93 @@
+package no.sikt.nva.funding.verified.nfr.tracing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import no.sikt.nva.funding.verified.nfr.EnvironmentKeys;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.CloseResource")
+class TracerTest {
+
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String SPAN_ID = "00f067aa0ba902b7";
+  private static final String REQUEST = "request";
+  private static final Instant NOW = Instant.parse("2024-01-01T00:00:00.123456789Z");
+
+  private InMemorySpanExporter spans;
+  private Tracer tracer;
+
+  @BeforeEach
+  void setup() {
+    spans = new InMemorySpanExporter();
+    tracer = new Tracer(spans, Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @AfterEach
+  void endRequest() {
+    tracer.endRequest();
+  }
+
+  @Test
+  void shouldContinueTraceOfCallerWhenRequestCarriesTraceparent() {
+    tracer.startRequestSpan(
+        REQUEST, Map.of("Traceparent", "00-" + TRACE_ID + "-" + SPAN_ID + "-01"));
+    tracer.endRequest();
+
+    var request = spans.getFinishedSpans().get(0);
+    assertThat(request.name(), is(equalTo(REQUEST)));
+    assertThat(request.kind(), is(equalTo(SpanKind.SERVER)));
+    assertThat(request.context().traceId(), is(equalTo(TRACE_ID)));
+    assertThat(request.parentSpanId(), is(equalTo(SPAN_ID)));
+    assertThat(
+        request.startEpochNanos(),
+        is(equalTo(TimeUnit.SECONDS.toNanos(NOW.getEpochSecond()) + NOW.getNano())));
+  }
+
+  @Test
+  void shouldStartTraceOfItsOwnWhenRequestCarriesNoValidTraceparent() {
+    tracer.startRequestSpan(REQUEST, Map.of(Tracer.TRACEPARENT_HEADER, "invalid"));
+    tracer.endRequest();
+
+    var request = spans.getFinishedSpans().get(0);
+    assertThat(request.context().traceId(), is(not(equalTo(TRACE_ID))));
+    assertThat(request.parentSpanId(), is(nullValue()));
+  }
+
+  @Test
+  void shouldLogSpansWhenLoggingExporterIsSelected() {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.TRACES_EXPORTER))
+        .thenReturn(Optional.of(Tracer.LOGGING_EXPORTER));
+
+    var span = Tracer.fromEnvironment(environment).startRequestSpan(REQUEST, Map.of());
+    span.end();
+
+    assertThat(span.isRecording(), is(true));
+  }
+
+  @Test
+  void shouldPropagateTraceContextButDropSpansByDefault() {
+    var environment = mock(Environment.class);
+    when(environment.readEnvOpt(EnvironmentKeys.TRACES_EXPORTER)).thenReturn(Optional.empty());
+
+    var span = Tracer.fromEnvironment(environment).startRequestSpan(REQUEST, Map.of());
+    span.end();
+
+    assertThat(span.traceparent().isPresent(), is(true));
+  }
+}